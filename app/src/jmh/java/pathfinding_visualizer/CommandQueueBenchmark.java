@@ -0,0 +1,82 @@
+package pathfinding_visualizer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link SynchronizedQueue} and the {@link MpscQueue} as the channel between a
+ * {@link Menu} and a {@link TileGrid}: several threads send bursts of commands with pauses
+ * between them, like a user typing into a text field and clicking buttons, while one thread takes
+ * them, like the {@link Consumer} of a TileGrid.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandQueueBenchmark {
+    /**
+     * Queue the commands are sent through
+     */
+    @Param({"SynchronizedQueue", "MpscQueue"})
+    public String queue;
+
+    /**
+     * Number of commands a producer sends before it pauses
+     */
+    @Param({"1", "32"})
+    public int burst;
+
+    /**
+     * Tokens of work a producer does between bursts, see {@link Blackhole#consumeCPU}
+     */
+    @Param({"500"})
+    public long pause;
+
+    private MessageQueue<Command> channel;
+    private final Command[] commands = {
+        new Command.Resize(Command.Axis.COL, 40), new Command.MoveSource(Command.Axis.ROW, 3),
+        new Command.SetDiagonal(true), new Command.Search("BFS", 5),
+        new Command.Playback(Command.Control.FASTER), new Command.Clear()
+    };
+
+    @Setup
+    public void setup() {
+        channel = queue.equals("MpscQueue") ? new MpscQueue<>() : new SynchronizedQueue<>();
+    }
+
+    /**
+     * Sends one burst of commands, then pauses.
+     */
+    @Benchmark
+    @Group("bursty")
+    @GroupThreads(3)
+    public void send() {
+        for (int i = 0; i < burst; ++i) {
+            channel.send(commands[i % commands.length]);
+        }
+        Blackhole.consumeCPU(pause);
+    }
+
+    /**
+     * Takes one command if one is waiting. Checks first instead of waiting, so that the consumer
+     * never blocks after the producers stop at the end of an iteration.
+     */
+    @Benchmark
+    @Group("bursty")
+    @GroupThreads(1)
+    public Command receive() throws InterruptedException {
+        return channel.isEmpty() ? null : channel.get();
+    }
+}
@@ -4,28 +4,48 @@ import java.util.*;
 
 /**
  * A container for pathfinding algorithms to be used on a {@link TileGraph}.
+ * <p>
+ * The searches that run on a TileGraph of their own, BFS, Djikstra's Algorithm, A*, ALT, Dial's
+ * algorithm, JPS and the bidirectional searches, first ask the graph whether the source and
+ * destination are {@link TileGraph#connected connected} at all, and visit nothing if they aren't.
+ * Steppers are run on the event dispatch thread, so they only skip a search that the graph already
+ * {@link TileGraph#knownDisconnected knows} can't reach the destination.
  */
 public class Algorithms {
     /**
-     * Creates a String with the format "path x1 y1 x2 y2 ...". Every x and y value
-     * corresponds to the coordinates of a node that is part of the shortest path.
-     * 
-     * @param prev Map where prev[n] is the Node that preceded n on the shortest path
-     * @param end Node the shortest path ended at 
-     * @return String representation of the shortest path
-     */
-    private static String reconstructPath(Map<Node, Node> prev, Node end) {
-        StringBuilder sb = new StringBuilder("path");
-        Node curr = end;
-        while (curr != null) {
-            sb.append(' ');
-            sb.append(curr.row);
-            sb.append(' ');
-            sb.append(curr.col);
-            curr = prev.get(curr);
+     * Number of Nodes a search expands between checks for whether it was cancelled. A power of two,
+     * so that the check costs a mask and a branch per expansion.
+     */
+    static final int CANCEL_CHECK_INTERVAL = 256;
+
+    /**
+     * Gives up on a search if the thread running it was interrupted, such as by
+     * {@link SearchExecutor.Task#cancel}. Only looks at the thread once every
+     * {@link #CANCEL_CHECK_INTERVAL} expansions.
+     * 
+     * @param expansions number of Nodes the search has expanded so far
+     * @throws java.util.concurrent.CancellationException the thread was interrupted
+     */
+    static void checkCancelled(int expansions) {
+        if ((expansions & (CANCEL_CHECK_INTERVAL - 1)) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new java.util.concurrent.CancellationException("search was cancelled");
         }
+    }
 
-        return sb.toString();
+    /**
+     * Adds the shortest path to {@code trace}, from {@code end} back to the source.
+     * 
+     * @param trace SearchTrace the path is added to
+     * @param workspace SearchWorkspace holding the parent of every Node on the path
+     * @param end id of the Node the shortest path ended at 
+     * @param graph TileGraph the path was found in
+     */
+    static void tracePath(SearchTrace trace, SearchWorkspace workspace, int end, TileGraph graph) {
+        trace.beginPath();
+        for (int curr = end; curr >= 0; curr = workspace.getPrev(curr)) {
+            trace.addPathTile(graph.getRow(curr), graph.getCol(curr));
+        }
+        trace.endPath();
     }
 
     /**
@@ -38,388 +58,1083 @@ public class Algorithms {
     /**
      * Breadth-First Search (BFS) algorithm. Finds the shortest path between two Nodes by using a queue.
      * <p>
-     * Whenever a Node is visited it is added to the queue. Whenever a Node is visited, it is added to the queue. This means
+     * Whenever a Node is visited, it is added to the queue. This means
      * Nodes that are visited earlier are processed earlier. Once the destination node is reached the algorithm terminates.
      * <p>
      * BFS only works on unweighted graphs. It will probably get the wrong answer if a graph with varying edge weights is fed into it.
      * 
-     * @param sourceCoord Pair of Integers that equal the location of the source tile
-     * @param destCoord Pair of Integers that equal the location of the destination tile
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     */
+    public static List<String> bfs(long sourceCoord, long destCoord, TileGraph graph) {
+        return bfs(sourceCoord, destCoord, graph, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Breadth-First Search (BFS) that keeps its state in {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #bfs(long, long, TileGraph)
+     */
+    public static List<String> bfs(long sourceCoord, long destCoord, TileGraph graph,
+            SearchWorkspace workspace) {
+        if (!graph.connected(graph.getId(sourceCoord), graph.getId(destCoord))) {
+            return new ArrayList<>();
+        }
+        return new SearchStepper(sourceCoord, destCoord, graph, false, false, null, workspace).drain();
+    }
+
+    /**
+     * Djikstra's Algorithm. Finds the shortest path between two nodes on a graph by using priority queue.
+     * <p>
+     * The priority queue contains Nodes sorted on the basis of the total distance it took to reach that Node,
+     * with the minimum distance being at the top of the queue. Whenever a shorter way to reach a Node is found,
+     * that Node's distance is lowered in the queue. A Node is only visited once it leaves the queue, at which
+     * point its distance is final. Once the destination node is reached the algorithm terminates.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     */
+    public static List<String> djikstra(long sourceCoord, long destCoord, TileGraph graph) {
+        return djikstra(sourceCoord, destCoord, graph, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Djikstra's Algorithm that keeps its state in {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #djikstra(long, long, TileGraph)
+     */
+    public static List<String> djikstra(long sourceCoord, long destCoord, TileGraph graph,
+            SearchWorkspace workspace) {
+        return shortestPath(sourceCoord, destCoord, graph, false, null, workspace).toActions();
+    }
+
+    /**
+     * A* Algorithm. Similar to Djikstra's Algorithm, but uses a heuristic in addition to the total distance travelled to 
+     * determine which node to pick next.
+     * <p>
+     * If diagonal traversal is allowed the euclidian distance between the current and destination node is used. If diagonal
+     * traversal is not allowed, manhattan distance is used instead.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #djikstra
+     */
+    public static List<String> aStar(long sourceCoord, long destCoord, TileGraph graph) {
+        return aStar(sourceCoord, destCoord, graph, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * A* Algorithm that keeps its state in {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #aStar(long, long, TileGraph)
+     */
+    public static List<String> aStar(long sourceCoord, long destCoord, TileGraph graph,
+            SearchWorkspace workspace) {
+        return shortestPath(sourceCoord, destCoord, graph, true, null, workspace).toActions();
+    }
+
+    /**
+     * Breadth-First Search that runs one step at a time, as its actions are asked for. The stepper
+     * gets its own SearchWorkspace, so other searches can run before it is done.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on. Must not change until the stepper is done.
+     * @return SearchStepper that produces the same actions as {@link #bfs(long, long, TileGraph)}
+     */
+    public static SearchStepper bfsStepper(long sourceCoord, long destCoord, TileGraph graph) {
+        return new SearchStepper(sourceCoord, destCoord, graph, false, false, null, new SearchWorkspace());
+    }
+
+    /**
+     * Djikstra's Algorithm that runs one step at a time, as its actions are asked for. The stepper
+     * gets its own SearchWorkspace, so other searches can run before it is done.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on. Must not change until the stepper is done.
+     * @return SearchStepper that produces the same actions as {@link #djikstra(long, long, TileGraph)}
+     */
+    public static SearchStepper djikstraStepper(long sourceCoord, long destCoord, TileGraph graph) {
+        return new SearchStepper(sourceCoord, destCoord, graph, true, false, null, new SearchWorkspace());
+    }
+
+    /**
+     * A* that runs one step at a time, as its actions are asked for. The stepper gets its own
+     * SearchWorkspace, so other searches can run before it is done.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on. Must not change until the stepper is done.
+     * @return SearchStepper that produces the same actions as {@link #aStar(long, long, TileGraph)}
+     */
+    public static SearchStepper aStarStepper(long sourceCoord, long destCoord, TileGraph graph) {
+        return new SearchStepper(sourceCoord, destCoord, graph, true, true, null, new SearchWorkspace());
+    }
+
+    /**
+     * A* guided by landmarks (ALT). The heuristic of a Node is the largest lower bound on its distance
+     * to the destination given by any landmark in {@code landmarks}, or the usual straight-line
+     * heuristic if that is larger. On mazes, where the straight-line distance says little, this
+     * settles far fewer Nodes than {@link #aStar}. Paths are just as short.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param landmarks LandmarkTable of the graph that will be searched. Recomputed first if it is stale.
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see LandmarkTable
+     */
+    public static List<String> altAStar(long sourceCoord, long destCoord, 
+            LandmarkTable landmarks) {
+        return altAStarTrace(sourceCoord, destCoord, landmarks).toActions();
+    }
+
+    /**
+     * A* guided by landmarks that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param landmarks LandmarkTable of the graph that will be searched. Recomputed first if it is stale.
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #altAStar
+     */
+    public static SearchTrace altAStarTrace(long sourceCoord, long destCoord, 
+            LandmarkTable landmarks) {
+        return altAStarTrace(sourceCoord, destCoord, landmarks, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * A* guided by landmarks that keeps its state in {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param landmarks LandmarkTable of the graph that will be searched. Recomputed first if it is stale.
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #altAStar
+     */
+    public static SearchTrace altAStarTrace(long sourceCoord, long destCoord, 
+            LandmarkTable landmarks, SearchWorkspace workspace) {
+        landmarks.ensureCurrent();
+        return shortestPath(sourceCoord, destCoord, landmarks.getGraph(), true, landmarks, workspace);
+    }
+
+    /**
+     * Djikstra's Algorithm with a bucket queue (Dial's algorithm) instead of a binary heap. Edges in a
+     * TileGraph are 1 or sqrt(2) long, so Nodes are sorted into buckets one unit wide, and every Node in
+     * the lowest bucket already has its final distance. Pushing and popping a Node take O(1) time
+     * instead of O(log n).
+     * <p>
+     * Paths are as short as the ones {@link #djikstra} finds, but Nodes with nearly equal distances
+     * may be visited in a different order.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see BucketQueue
+     */
+    public static List<String> dialDjikstra(long sourceCoord, long destCoord, TileGraph graph) {
+        return dialDjikstra(sourceCoord, destCoord, graph, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Djikstra's Algorithm with a bucket queue that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
      * @param graph TileGraph this algorithm will run on
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #dialDjikstra(long, long, TileGraph)
+     */
+    public static SearchTrace dialDjikstraTrace(long sourceCoord, long destCoord, TileGraph graph) {
+        return dialDjikstraTrace(sourceCoord, destCoord, graph, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Djikstra's Algorithm with a bucket queue that keeps its state in {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param workspace SearchWorkspace that will be reset and used by this search
      * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #dialDjikstra(long, long, TileGraph)
+     */
+    public static List<String> dialDjikstra(long sourceCoord, long destCoord, TileGraph graph,
+            SearchWorkspace workspace) {
+        return dialDjikstraTrace(sourceCoord, destCoord, graph, workspace).toActions();
+    }
+
+    /**
+     * Djikstra's Algorithm with a bucket queue that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #dialDjikstra(long, long, TileGraph)
      */
-    public static List<String> bfs(Pair<Integer, Integer> sourceCoord, Pair<Integer, Integer> destCoord, TileGraph graph) {
-        List<String> actions = new LinkedList<>();
-        Node start = graph.getNode(sourceCoord.first, sourceCoord.second);
-        Node end = graph.getNode(destCoord.first, destCoord.second);
+    public static SearchTrace dialDjikstraTrace(long sourceCoord, long destCoord, TileGraph graph,
+            SearchWorkspace workspace) {
+        SearchTrace trace = new SearchTrace();
+        int start = graph.getId(sourceCoord);
+        int end = graph.getId(destCoord);
+        if (!graph.connected(start, end)) {
+            return trace;
+        }
+
+        workspace.reset(graph.numNodes());
+        BucketQueue buckets = workspace.buckets();
+        int[] neighbors = workspace.neighbors();
 
-        Queue<Node> q = new LinkedList<>();
-        Set<Node> visited = new HashSet<>();
-        Map<Node, Node> previous = new HashMap<>();
+        workspace.reach(start, 0, -1);
+        buckets.push(start, 0);
 
-        q.add(start);
-        visited.add(start);
-        previous.put(start, null);
+        int expansions = 0;
+        while (!buckets.isEmpty()) {
+            checkCancelled(++expansions);
+            int curr = buckets.pop();
+            workspace.settle(curr);
 
-        while (!q.isEmpty()) {
-            Node curr = q.remove();
-            if (curr.equals(end)) {
-                actions.add(reconstructPath(previous, end));
+            if (curr == end) {
+                tracePath(trace, workspace, end, graph);
                 break;
-            } else if (!curr.equals(start)) {
-                actions.add(visit(curr));
+            } else if (curr != start) {
+                visit(trace, curr, graph);
             }
 
-            for (Edge e : graph.getNeighbors(curr)) {
-                Node next = e.dest;
-                if (visited.contains(next)) {
-                    continue;
+            double distance = workspace.getDist(curr);
+            int count = graph.getNeighbors(curr, neighbors);
+            for (int i = 0; i < count; ++i) {
+                int next = neighbors[i];
+                double d = distance + graph.getWeight(curr, next);
+                if (!workspace.isSettled(next) && d < workspace.getDist(next)) {
+                    workspace.reach(next, d, curr);
+                    buckets.push(next, d);
                 }
-
-                previous.put(next, curr);
-                q.add(next);
-                visited.add(next);
             }
         }
 
-        return actions;
+        return trace;
     }
 
     /**
-     * Djikstra's Algorithm. Finds the shortest path between two nodes on a graph by using priority queue.
+     * Shared implementation of {@link #djikstra} and {@link #aStar}, which runs a {@link SearchStepper}
+     * to the end. Nodes are kept in an
+     * {@link IndexedMinHeap} keyed by their distance from the source, plus the heuristic
+     * distance to the destination if {@code useHeuristic} is true. The heuristic of a Node is
+     * only computed when that Node's key changes, never when keys are compared.
      * <p>
-     * The priority queue contains Nodes sorted on the basis of the total distance it took to reach that Node,
-     * with the minimum distance being at the top of the queue. Whenever a Node is visited, it is added to the 
-     * priority queue. Once the destination node is reached the algorithm terminates.
+     * A Node is settled when it is popped from the heap, not when it is pushed. Until then a
+     * shorter path to it can still lower its key, which is what keeps paths optimal on graphs
+     * with diagonal edges.
      * 
-     * @param sourceCoord Pair of Integers that equal the location of the source tile
-     * @param destCoord Pair of Integers that equal the location of the destination tile
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
      * @param graph TileGraph this algorithm will run on
+     * @param useHeuristic {@code true} for A*, {@code false} for Djikstra's Algorithm
+     * @param landmarks current LandmarkTable that tightens the heuristic, or null
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     */
+    private static SearchTrace shortestPath(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean useHeuristic, LandmarkTable landmarks, SearchWorkspace workspace) {
+        SearchTrace trace = new SearchTrace();
+        if (!graph.connected(graph.getId(sourceCoord), graph.getId(destCoord))) {
+            return trace;
+        }
+        new SearchStepper(sourceCoord, destCoord, graph, true, useHeuristic, landmarks, workspace).drainTo(trace);
+        return trace;
+    }
+
+    /**
+     * Bidirectional Breadth-First Search. Grows one BFS frontier from the source and one from the
+     * destination, always expanding the smaller one, until the shortest path through the point
+     * where they meet can't be beaten. Like {@link #bfs}, every edge counts as one step.
+     * <p>
+     * Each frontier only has to cover about half the distance between the two tiles, so on
+     * long queries far fewer Nodes are visited than with one-directional BFS.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param parallel {@code true} to grow the backward frontier on a second thread, if there is a second processor
      * @return List of Strings that show what the pathfinding algorithm did at each step
      */
-    public static List<String> djikstra(Pair<Integer, Integer> sourceCoord, Pair<Integer, Integer> destCoord, TileGraph graph) {
-        List<String> actions = new LinkedList<>();
-        Node start = graph.getNode(sourceCoord.first, sourceCoord.second);
-        Node end = graph.getNode(destCoord.first, destCoord.second);
+    public static List<String> bidirectionalBfs(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean parallel) {
+        return bidirectionalBfsTrace(sourceCoord, destCoord, graph, parallel).toActions();
+    }
 
-        Map<Node, Double> dist = new HashMap<>();
-        Map<Node, Node> prev = new HashMap<>();
-        Set<Node> visited = new HashSet<>();
-        PriorityQueue<Node> pq = new PriorityQueue<>(graph.numNodes(), (a, b) -> Double.compare(dist.get(a), dist.get(b)));
+    /**
+     * Bidirectional Breadth-First Search that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param parallel {@code true} to grow the backward frontier on a second thread, if there is a second processor
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #bidirectionalBfs
+     */
+    public static SearchTrace bidirectionalBfsTrace(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean parallel) {
+        return bidirectionalBfsTrace(sourceCoord, destCoord, graph, parallel, SearchWorkspace.forCurrentThread(),
+                BidirectionalSearch.backwardWorkspace());
+    }
 
-        dist.put(start, 0.0);
-        prev.put(start, null);
-        visited.add(start);
-        pq.add(start);
+    /**
+     * Bidirectional Breadth-First Search that keeps the state of its frontiers in the given workspaces instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param parallel {@code true} to grow the backward frontier on a second thread, if there is a second processor
+     * @param forwardWorkspace SearchWorkspace that will be reset and used by the frontier from the source
+     * @param backwardWorkspace SearchWorkspace that will be reset and used by the frontier from the
+     *        destination when the search runs on one thread
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #bidirectionalBfs
+     */
+    public static SearchTrace bidirectionalBfsTrace(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean parallel, SearchWorkspace forwardWorkspace, SearchWorkspace backwardWorkspace) {
+        int start = graph.getId(sourceCoord);
+        int end = graph.getId(destCoord);
+        if (!graph.connected(start, end)) {
+            return new SearchTrace();
+        }
+        return new BidirectionalSearch(graph, start, end, true, false).run(parallel, forwardWorkspace, backwardWorkspace);
+    }
 
-        while (!pq.isEmpty()) {
-            Node curr = pq.remove();
-            
-            if (curr.equals(end)) {
-                actions.add(reconstructPath(prev, end));
-                break;
-            } else if (!curr.equals(start)) {
-                actions.add(visit(curr));
-            }
+    /**
+     * Bidirectional A*. Grows one A* frontier from the source and one from the destination. Both
+     * are guided by the average of the heuristic towards the other end and away from their own,
+     * which keeps the search optimal and lets it stop as soon as the smallest keys of the two
+     * frontiers add up to the length of the best path found where they meet.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param parallel {@code true} to grow the backward frontier on a second thread, if there is a second processor
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #aStar
+     */
+    public static List<String> bidirectionalAStar(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean parallel) {
+        return bidirectionalAStarTrace(sourceCoord, destCoord, graph, parallel).toActions();
+    }
 
-            for (Edge e : graph.getNeighbors(curr)) {
-                Node next = e.dest;
-                if (visited.contains(next)) {
-                    continue;
-                }
+    /**
+     * Bidirectional A* that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param parallel {@code true} to grow the backward frontier on a second thread, if there is a second processor
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #bidirectionalAStar
+     */
+    public static SearchTrace bidirectionalAStarTrace(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean parallel) {
+        return bidirectionalAStarTrace(sourceCoord, destCoord, graph, parallel, SearchWorkspace.forCurrentThread(),
+                BidirectionalSearch.backwardWorkspace());
+    }
 
-                prev.put(next, curr);
-                dist.put(next, dist.get(curr) + e.weight);
-                pq.add(next);
-                visited.add(next);
-            }
+    /**
+     * Bidirectional A* that keeps the state of its frontiers in the given workspaces instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param parallel {@code true} to grow the backward frontier on a second thread, if there is a second processor
+     * @param forwardWorkspace SearchWorkspace that will be reset and used by the frontier from the source
+     * @param backwardWorkspace SearchWorkspace that will be reset and used by the frontier from the
+     *        destination when the search runs on one thread
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #bidirectionalAStar
+     */
+    public static SearchTrace bidirectionalAStarTrace(long sourceCoord, long destCoord, 
+            TileGraph graph, boolean parallel, SearchWorkspace forwardWorkspace, SearchWorkspace backwardWorkspace) {
+        int start = graph.getId(sourceCoord);
+        int end = graph.getId(destCoord);
+        if (!graph.connected(start, end)) {
+            return new SearchTrace();
         }
+        return new BidirectionalSearch(graph, start, end, false, true).run(parallel, forwardWorkspace, backwardWorkspace);
+    }
 
-        return actions;
+    /**
+     * Hierarchical A* (HPA*). Searches the entrances between the clusters of {@code hierarchy}
+     * instead of every tile, then refines the result into a path of tiles. The path is near-optimal,
+     * and only the entrances expanded by the search are reported as visited.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param hierarchy HierarchicalGraph of the graph that will be searched
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see HierarchicalGraph
+     */
+    public static List<String> hpaStar(long sourceCoord, long destCoord, 
+            HierarchicalGraph hierarchy) {
+        return hpaStarTrace(sourceCoord, destCoord, hierarchy).toActions();
     }
 
     /**
-     * A* Algorithm. Similar to Djikstra's Algorithm, but uses a heuristic in addition to the total distance travelled to 
-     * determine which node to pick next.
+     * Hierarchical A* that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param hierarchy HierarchicalGraph of the graph that will be searched
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #hpaStar
+     */
+    public static SearchTrace hpaStarTrace(long sourceCoord, long destCoord, 
+            HierarchicalGraph hierarchy) {
+        TileGraph graph = hierarchy.getGraph();
+        int start = graph.getId(sourceCoord);
+        int end = graph.getId(destCoord);
+        return hierarchy.findPath(start, end);
+    }
+
+    /**
+     * D* Lite. Plans a shortest path with {@code planner}, which keeps its state between calls and
+     * only repairs the part of its previous search that walls painted since then, or a moved source,
+     * made out of date. Only the Nodes expanded by this call are reported as visited.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param planner DStarLite planner of the graph that will be searched
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see DStarLite
+     */
+    public static List<String> dStarLite(long sourceCoord, long destCoord, 
+            DStarLite planner) {
+        return dStarLiteTrace(sourceCoord, destCoord, planner).toActions();
+    }
+
+    /**
+     * D* Lite that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param planner DStarLite planner of the graph that will be searched
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #dStarLite
+     */
+    public static SearchTrace dStarLiteTrace(long sourceCoord, long destCoord, 
+            DStarLite planner) {
+        TileGraph graph = planner.getGraph();
+        int start = graph.getId(sourceCoord);
+        int end = graph.getId(destCoord);
+        return planner.plan(start, end);
+    }
+
+    /**
+     * Jump Point Search (JPS). An A* search that only expands jump points.
      * <p>
-     * If diagonal traversal is allowed the euclidian distance between the current and destination node is used. If diagonal
-     * traversal is not allowed, manhattan distance is used instead.
+     * On a grid where every straight step costs the same, most shortest paths have many
+     * symmetric twins that differ only in the order of their moves. JPS keeps one canonical
+     * path of each family by scanning, or jumping, in straight lines from every expanded Node
+     * and only stopping at the destination or at tiles with a forced neighbor - a neighbor that
+     * can't be reached optimally without going through that tile. Only these jump points are
+     * pushed to the priority queue, which removes most of the expansions A* would do.
+     * <p>
+     * Both diagonal and non-diagonal graphs are supported. Only expanded jump points are reported
+     * as visited, but the path contains every tile from the source to the destination.
      * 
-     * @param sourceCoord Pair of Integers that equal the location of the source tile
-     * @param destCoord Pair of Integers that equal the location of the destination tile
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
      * @param graph TileGraph this algorithm will run on
      * @return List of Strings that show what the pathfinding algorithm did at each step
      * 
-     * @see #djikstra
+     * @see #aStar
+     */
+    public static List<String> jps(long sourceCoord, long destCoord, TileGraph graph) {
+        return jps(sourceCoord, destCoord, graph, null, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Jump Point Search that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #jps(long, long, TileGraph)
      */
-    public static List<String> aStar(Pair<Integer, Integer> sourceCoord, Pair<Integer, Integer> destCoord, TileGraph graph) {
-        List<String> actions = new ArrayList<>();
-        Node start = graph.getNode(sourceCoord.first, sourceCoord.second);
-        Node end = graph.getNode(destCoord.first, destCoord.second);
-
-        Map<Node, Double> dist = new HashMap<>();
-        Map<Node, Node> prev = new HashMap<>();
-        Set<Node> visited = new HashSet<>();
-        PriorityQueue<Node> pq = new PriorityQueue<>(graph.numNodes(), 
-            (a, b) -> Double.compare(
-                    dist.get(a) + heuristic(a, end, graph), 
-                    dist.get(b) + heuristic(b, end, graph)
-            )
-        );
-
-        dist.put(start, heuristic(start, end, graph));
-        prev.put(start, null);
-        visited.add(start);
-        pq.add(start);
+    public static SearchTrace jpsTrace(long sourceCoord, long destCoord, TileGraph graph) {
+        return jpsTrace(sourceCoord, destCoord, graph, null, SearchWorkspace.forCurrentThread());
+    }
 
+    /**
+     * Jump Point Search that looks up straight jumps in a precomputed {@link JumpTable} (JPS+)
+     * instead of scanning for them.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param table JumpTable of the graph that will be searched
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #jps(long, long, TileGraph)
+     */
+    public static List<String> jps(long sourceCoord, long destCoord, JumpTable table) {
+        return jps(sourceCoord, destCoord, table.getGraph(), table, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Jump Point Search with a {@link JumpTable} that records what it did as a {@link SearchTrace}.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param table JumpTable of the graph that will be searched
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #jps(long, long, JumpTable)
+     */
+    public static SearchTrace jpsTrace(long sourceCoord, long destCoord, JumpTable table) {
+        return jpsTrace(sourceCoord, destCoord, table.getGraph(), table, SearchWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Jump Point Search that keeps its state in {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param table JumpTable of {@code graph} for JPS+, or null to scan for jumps
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return List of Strings that show what the pathfinding algorithm did at each step
+     * 
+     * @see #jps(long, long, TileGraph)
+     */
+    public static List<String> jps(long sourceCoord, long destCoord, TileGraph graph,
+            JumpTable table, SearchWorkspace workspace) {
+        return jpsTrace(sourceCoord, destCoord, graph, table, workspace).toActions();
+    }
+
+    /**
+     * Jump Point Search that records what it did as a {@link SearchTrace}, and keeps its state in
+     * {@code workspace} instead of allocating it.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph this algorithm will run on
+     * @param table JumpTable of {@code graph} for JPS+, or null to scan for jumps
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     * @return SearchTrace of what the pathfinding algorithm did at each step
+     * 
+     * @see #jps(long, long, TileGraph)
+     */
+    public static SearchTrace jpsTrace(long sourceCoord, long destCoord, TileGraph graph,
+            JumpTable table, SearchWorkspace workspace) {
+        SearchTrace trace = new SearchTrace();
+        int start = graph.getId(sourceCoord);
+        int end = graph.getId(destCoord);
+        if (!graph.connected(start, end)) {
+            return trace;
+        }
+        if (table != null) {
+            table.ensureCurrent();
+        }
+
+        workspace.reset(graph.numNodes());
+        IndexedMinHeap pq = workspace.heap();
+        workspace.reach(start, 0, -1);
+        if (graph.isReachable(start)) {
+            pq.push(start, heuristic(start, end, graph));
+        }
+
+        int expansions = 0;
         while (!pq.isEmpty()) {
-            Node curr = pq.remove();
-            
-            if (curr.equals(end)) {
-                actions.add(reconstructPath(prev, end));
+            checkCancelled(++expansions);
+            int curr = pq.pop();
+            workspace.settle(curr);
+
+            if (curr == end) {
+                traceJumpPath(trace, workspace, end, graph);
                 break;
-            } else if (!curr.equals(start)) {
-                actions.add(visit(curr));
+            } else if (curr != start) {
+                visit(trace, curr, graph);
             }
 
-            for (Edge e : graph.getNeighbors(curr)) {
-                Node next = e.dest;
-                if (visited.contains(next)) {
-                    /*
-                     * TileGraphs exist in metric space, that is:
-                     * - every edge weight is positive
-                     * - dist(a, b) <= dist(a, c) + dist(c, b). Where dist() is the distance between two nodes.
-                     * - dist(a, a) = 0
-                     * - dist(a, b) = dist(b, a)
-                     * 
-                     * Because TileGraphs are in metric space, the heuristic is consistent/monotone rather than just admissible.
-                     * This means the distance travelled to visit a node the first time is the shortest path to that node - even 
-                     * with the heuristic.
-                     * 
-                     * Under normal circumstances, you would need to recheck a node's distance every time you visit it because 
-                     * it could have been visited by a shorter path than a previous one you took to reach that node. However, we know
-                     * the first path used to reach the node is the shortest one, so we can safely ignore the node and continue.
-                     */
-                    continue;
+            int r = graph.getRow(curr);
+            int c = graph.getCol(curr);
+            int parent = workspace.getPrev(curr);
+            int dr = parent < 0 ? 0 : Integer.signum(r - graph.getRow(parent));
+            int dc = parent < 0 ? 0 : Integer.signum(c - graph.getCol(parent));
+            boolean diag = graph.diagonalsConnected();
+
+            if (parent < 0) { // the source has no pruned neighbors
+                for (int i = -1; i <= 1; ++i) {
+                    for (int j = -1; j <= 1; ++j) {
+                        if ((i != 0 || j != 0) && (diag || i == 0 || j == 0)) {
+                            relaxJump(curr, i, j, end, graph, table, workspace);
+                        }
+                    }
+                }
+            } else if (dr != 0 && dc != 0) { // diagonal
+                relaxJump(curr, dr, dc, end, graph, table, workspace);
+                relaxJump(curr, dr, 0, end, graph, table, workspace);
+                relaxJump(curr, 0, dc, end, graph, table, workspace);
+                if (!JumpTable.isFree(graph, r, c - dc)) {
+                    relaxJump(curr, dr, -dc, end, graph, table, workspace);
+                }
+                if (!JumpTable.isFree(graph, r - dr, c)) {
+                    relaxJump(curr, -dr, dc, end, graph, table, workspace);
+                }
+            } else if (diag) { // straight, with diagonal traversal
+                relaxJump(curr, dr, dc, end, graph, table, workspace);
+                int pr = dc; // perpendicular direction
+                int pc = dr;
+                if (!JumpTable.isFree(graph, r + pr, c + pc)) {
+                    relaxJump(curr, dr + pr, dc + pc, end, graph, table, workspace);
+                }
+                if (!JumpTable.isFree(graph, r - pr, c - pc)) {
+                    relaxJump(curr, dr - pr, dc - pc, end, graph, table, workspace);
+                }
+            } else if (dr != 0) { // vertical, without diagonal traversal
+                relaxJump(curr, dr, 0, end, graph, table, workspace);
+                relaxJump(curr, 0, 1, end, graph, table, workspace);
+                relaxJump(curr, 0, -1, end, graph, table, workspace);
+            } else { // horizontal, without diagonal traversal
+                relaxJump(curr, 0, dc, end, graph, table, workspace);
+                if (!JumpTable.isFree(graph, r + 1, c - dc)) {
+                    relaxJump(curr, 1, 0, end, graph, table, workspace);
                 }
+                if (!JumpTable.isFree(graph, r - 1, c - dc)) {
+                    relaxJump(curr, -1, 0, end, graph, table, workspace);
+                }
+            }
+        }
+
+        return trace;
+    }
+
+    /**
+     * Jumps from {@code from} in direction {@code (dr, dc)}, and if a jump point is found, lowers
+     * its distance in {@code workspace} and pushes it to the priority queue. Support function
+     * for {@link #jps}.
+     * 
+     * @param from id of the Node being expanded
+     * @param dr row direction of the jump
+     * @param dc column direction of the jump
+     * @param end id of the destination Node
+     * @param graph TileGraph being searched
+     * @param table JumpTable of {@code graph}, or null
+     * @param workspace SearchWorkspace of the search
+     */
+    private static void relaxJump(int from, int dr, int dc, int end, TileGraph graph, JumpTable table, 
+            SearchWorkspace workspace) {
+        int next = jump(graph.getRow(from), graph.getCol(from), dr, dc, end, graph, table);
+        if (next < 0 || workspace.isSettled(next)) {
+            return;
+        }
 
-                prev.put(next, curr);
-                dist.put(next, dist.get(curr) + e.weight);
-                pq.add(next);
-                visited.add(next);
+        int steps = Math.max(Math.abs(graph.getRow(next) - graph.getRow(from)), Math.abs(graph.getCol(next) - graph.getCol(from)));
+        double d = workspace.getDist(from) + steps * ((dr != 0 && dc != 0) ? TileGraph.SQRT2 : 1);
+        if (d < workspace.getDist(next)) {
+            workspace.reach(next, d, from);
+            workspace.heap().push(next, d + heuristic(next, end, graph));
+        }
+    }
+
+    /**
+     * Travels from {@code (row, col)} in direction {@code (dr, dc)} until a jump point is found.
+     * Diagonal jumps, and vertical jumps on graphs without diagonal traversal, stop at any tile
+     * from which a straight jump along one of their components finds a jump point.
+     * 
+     * @param row row the jump starts from
+     * @param col column the jump starts from
+     * @param dr row direction of the jump
+     * @param dc column direction of the jump
+     * @param end id of the destination Node
+     * @param graph TileGraph being searched
+     * @param table JumpTable of {@code graph}, or null
+     * @return id of the jump point found, or -1 if a wall was hit first
+     */
+    private static int jump(int row, int col, int dr, int dc, int end, TileGraph graph, JumpTable table) {
+        boolean diag = graph.diagonalsConnected();
+        if (dr == 0 || (dc == 0 && diag)) {
+            return jumpStraight(row, col, dr, dc, end, graph, table);
+        }
+
+        int r = row;
+        int c = col;
+        while (true) {
+            r += dr;
+            c += dc;
+            if (!JumpTable.isFree(graph, r, c)) {
+                return -1;
+            }
+            int id = graph.getId(r, c);
+            if (id == end) {
+                return id;
+            }
+
+            if (dc == 0) { // vertical, without diagonal traversal
+                if (jumpStraight(r, c, 0, 1, end, graph, table) >= 0 || jumpStraight(r, c, 0, -1, end, graph, table) >= 0) {
+                    return id;
+                }
+            } else {
+                boolean forced = (!JumpTable.isFree(graph, r, c - dc) && JumpTable.isFree(graph, r + dr, c - dc))
+                        || (!JumpTable.isFree(graph, r - dr, c) && JumpTable.isFree(graph, r - dr, c + dc));
+                if (forced || jumpStraight(r, c, 0, dc, end, graph, table) >= 0 
+                        || jumpStraight(r, c, dr, 0, end, graph, table) >= 0) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Travels from {@code (row, col)} in a straight line until the destination, a tile with a
+     * forced neighbor, or a wall is found. Uses {@code table} if there is one.
+     * 
+     * @param row row the jump starts from
+     * @param col column the jump starts from
+     * @param dr row direction of the jump
+     * @param dc column direction of the jump, 0 if {@code dr} isn't
+     * @param end id of the destination Node
+     * @param graph TileGraph being searched
+     * @param table JumpTable of {@code graph}, or null
+     * @return id of the jump point found, or -1 if a wall was hit first
+     */
+    private static int jumpStraight(int row, int col, int dr, int dc, int end, TileGraph graph, JumpTable table) {
+        if (table != null) {
+            int direction;
+            if (dc != 0) {
+                direction = dc > 0 ? JumpTable.RIGHT : JumpTable.LEFT;
+            } else {
+                direction = dr > 0 ? JumpTable.DOWN : JumpTable.UP;
+            }
+            int steps = table.getJump(direction, graph.getId(row, col));
+            int reach = Math.abs(steps);
+
+            // the destination stops a jump before anything else can
+            int endRow = graph.getRow(end);
+            int endCol = graph.getCol(end);
+            int endSteps = dc != 0 ? (endCol - col) * dc : (endRow - row) * dr;
+            boolean inLine = dc != 0 ? endRow == row : endCol == col;
+            if (inLine && endSteps > 0 && endSteps <= reach) {
+                return end;
             }
+            return steps > 0 ? graph.getId(row + steps * dr, col + steps * dc) : -1;
         }
 
-        return actions;
+        int r = row;
+        int c = col;
+        while (true) {
+            r += dr;
+            c += dc;
+            if (!JumpTable.isFree(graph, r, c)) {
+                return -1;
+            }
+            int id = graph.getId(r, c);
+            if (id == end || JumpTable.isForced(graph, r, c, dr, dc)) {
+                return id;
+            }
+        }
     }
 
     /**
-     * Creates an action String when you visit a node
-     * @param n Node visited
-     * @return "visit x y" where x and y are the coordinates of {@code n}
+     * Adds the path to {@code trace} like {@link #tracePath}, but fills in the tiles that lie between
+     * consecutive jump points.
+     * 
+     * @param trace SearchTrace the path is added to
+     * @param workspace SearchWorkspace holding the parent of every jump point on the path
+     * @param end id of the Node the path ended at
+     * @param graph TileGraph the path was found in
      */
-    private static String visit(Node n) {
-        return String.format("visit %d %d", n.row, n.col);
+    private static void traceJumpPath(SearchTrace trace, SearchWorkspace workspace, int end, TileGraph graph) {
+        trace.beginPath();
+        int r = graph.getRow(end);
+        int c = graph.getCol(end);
+        trace.addPathTile(r, c);
+        for (int curr = workspace.getPrev(end); curr >= 0; curr = workspace.getPrev(curr)) {
+            int toRow = graph.getRow(curr);
+            int toCol = graph.getCol(curr);
+            int dr = Integer.signum(toRow - r);
+            int dc = Integer.signum(toCol - c);
+            while (r != toRow || c != toCol) {
+                r += dr;
+                c += dc;
+                trace.addPathTile(r, c);
+            }
+        }
+        trace.endPath();
     }
 
     /**
-     * Estimates the distance between {@code a} and {@code b}. If {@code graph} allows
+     * Adds a step to {@code trace} when you visit a node
+     * @param trace SearchTrace the step is added to
+     * @param id id of the Node visited
+     * @param graph TileGraph containing the Node
+     */
+    static void visit(SearchTrace trace, int id, TileGraph graph) {
+        trace.addVisit(graph.getRow(id), graph.getCol(id));
+    }
+
+    /**
+     * Estimates the distance between the Nodes with ids {@code a} and {@code b}. If {@code graph} allows
      * diagonal traversal, this estimation is the euclidean distance between the two Nodes. 
      * Otherwise, manhattan distance is used for estimation.
      *  
-     * @param a Node in {@code graph}
-     * @param b Node in {@code graph}
+     * @param a id of a Node in {@code graph}
+     * @param b id of a Node in {@code graph}
      * @param graph TileGraph containing both Nodes
      * @return double value for estimated distance between {@code a} and {@code b}
      */
-    private static double heuristic(Node a, Node b, TileGraph graph) {
+    static double heuristic(int a, int b, TileGraph graph) {
+        int deltaX = Math.abs(graph.getCol(a) - graph.getCol(b));
+        int deltaY = Math.abs(graph.getRow(a) - graph.getRow(b));
         if (graph.diagonalsConnected()) {
             //euclidean distance
-            int deltaX = a.col - b.col;
-            int deltaY = a.row - b.row;
             return Math.sqrt((double) deltaX * deltaX + deltaY * deltaY);
         } else {
             //manhattan distance
-            int deltaX = Math.abs(a.col - b.col);
-            int deltaY = Math.abs(a.row - b.row);
             return (double) deltaX + deltaY;
         }
     }
 
     /**
-     * Turns {@code graph} into a gridded maze via randomized depth-first search
+     * Estimates the distance between two Nodes with {@link #heuristic}, tightened by the bound from
+     * {@code landmarks} if there is one. Support function for {@link #altAStar}.
      * 
-     * @param sourceCoord Pair of Integers equal to location of source tile
-     * @param destCoord Pair of Integers equal to location of destination tile
+     * @param a id of the first Node
+     * @param b id of the second Node
+     * @param graph TileGraph containing both Nodes
+     * @param landmarks current LandmarkTable of {@code graph}, or null
+     * @return double value for estimated distance between {@code a} and {@code b}
+     */
+    static double estimate(int a, int b, TileGraph graph, LandmarkTable landmarks) {
+        double h = heuristic(a, b, graph);
+        return landmarks == null ? h : Math.max(h, landmarks.lowerBound(a, b));
+    }
+
+    /**
+     * Turns {@code graph} into a gridded maze via randomized depth-first search. The walls of the
+     * maze replace whatever walls {@code graph} had, all at once.
+     * 
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
      * @param graph TileGraph this algorithm will run on
      * @param random Random type object which determines the maze that will be created
-     * @return Set of Integer Pairs that correspond to the tiles that should be walls
-     */
-    public static Set<Pair<Integer, Integer>> makeMaze(Pair<Integer, Integer> sourceCoord, Pair<Integer, Integer> destCoord, TileGraph graph, Random random) {
-        Set<Pair<Integer, Integer>> walls = prepareGraphForMaze(sourceCoord, destCoord, graph);
-        Node start = determineStartingNode(sourceCoord, graph);
-        
-        Set<Node> visited = new HashSet<>();
-        Deque<Node> stack = new LinkedList<>();  // use Deque because Stack is synchronized
-
-        stack.add(start);
-        visited.add(start);
-
-        while (!stack.isEmpty()) {
-            Node curr = stack.pop();
-            List<Node> neighbors = unvisitedMazeNeighbors(curr, graph, visited);
-            
-            if (neighbors.isEmpty()) {
-                continue;
-            }
-
-            stack.add(curr);
-            Node next = neighbors.get(random.nextInt(neighbors.size()));
-
-            Pair<Integer, Integer> wallCoord;
-            if (next.row < curr.row) { // neighbor above
-                wallCoord = new Pair<>(curr.row - 1, curr.col);
-            } else if (next.row > curr.row) { // below
-                wallCoord = new Pair<>(curr.row + 1, curr.col);
-            } else if (next.col < curr.col) { // left 
-                wallCoord = new Pair<>(curr.row, curr.col - 1);
-            } else { // right
-                wallCoord = new Pair<>(curr.row, curr.col + 1);
-            }
-
-            graph.setNodeReachability(wallCoord.first, wallCoord.second, true);
-            walls.remove(wallCoord);
-
-            visited.add(next);
-            stack.push(next);
-        }
-
+     * @return BitSet with the bit {@code row * cols + col} set for every wall of the maze
+     * @see #makeMazeWalls
+     */
+    public static BitSet makeMaze(long sourceCoord, long destCoord, TileGraph graph, Random random) {
+        int rows = graph.getNumRows();
+        int cols = graph.getNumCols();
+        BitSet walls = makeMazeWalls(rows, cols, sourceCoord, destCoord, random);
+        graph.setWalls(walls);
         return walls;
     }
 
     /**
-     * Returns a list of nodes that satisfy two properties.
-     * <ol>
-     * <li> The Node is distance 2 away, or has one Node between it and {@code curr}
-     * <li> The Node is not in {@code visited}
-     * </ol>
-     * This was written as a support function for {@link #makeMaze}
+     * Creates the walls of a gridded maze via randomized depth-first search, without touching any
+     * TileGraph, so that it can be run away from the event dispatch thread and applied with
+     * {@link TileGraph#setWalls}. Makes the same maze as {@link #makeMaze} does for the same
+     * {@code random}.
+     * <p>
+     * The search keeps its visited cells in a BitSet and its stack in an int array, so a maze of
+     * {@link TileGrid#MAX_SIZE} by {@code MAX_SIZE} tiles is made without allocating anything per
+     * tile. It checks for being cancelled like a search does, see {@link #checkCancelled}.
      * 
-     * @param curr Node to find "neighbors" of 
-     * @param graph TileGraph the Nodes are in
-     * @param visited Set of Nodes that have been visited by {@code makeMaze}
-     * @return List of Nodes that satisfy properties in the description
+     * @param rows number of rows of the maze
+     * @param cols number of columns of the maze
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param random Random type object which determines the maze that will be created
+     * @return BitSet with the bit {@code row * cols + col} set for every tile that should be a wall
+     * @throws java.util.concurrent.CancellationException the thread was interrupted
      */
-    private static List<Node> unvisitedMazeNeighbors(Node curr, TileGraph graph, Set<Node> visited) {
-        int r = curr.row;
-        int c = curr.col;
+    public static BitSet makeMazeWalls(int rows, int cols, long sourceCoord, long destCoord, Random random) {
+        BitSet walls = mazeGrid(rows, cols, sourceCoord, destCoord);
+        carveMaze(walls, rows, cols, sourceCoord, random);
+        return walls;
+    }
 
-        boolean top = r >= 2;
-        boolean bottom = r < graph.getNumRows() - 2;
-        boolean left = c >= 2;
-        boolean right = c < graph.getNumCols() - 2;
+    /**
+     * Knocks down the walls between the cells of a grid made by {@link #mazeGrid}, walking from cell
+     * to cell in a random order until every cell is reached.
+     * <p>
+     * Cells are taken from the front of a double ended queue. A cell with unvisited neighbors is put
+     * back at the end of the queue and the chosen neighbor goes in front, which is the order that
+     * {@link #makeMaze} has always used, so that old seeds still make the same mazes. Every cell is
+     * in the queue at most once, so a ring buffer with a slot per cell never overflows.
+     * <p>
+     * Cells are on odd rows, so every tile on an even row starts out visited. A neighbor two columns
+     * past the left or right edge wraps around onto an even row, and is skipped without having to
+     * work out which column a cell is on.
+     * 
+     * @param walls grid of walls that is carved into
+     * @param rows number of rows of the grid
+     * @param cols number of columns of the grid
+     * @param sourceCoord {@link Coord} denoting where the maze should start from
+     * @param random Random type object which determines the maze that will be created
+     */
+    private static void carveMaze(BitSet walls, int rows, int cols, long sourceCoord, Random random) {
+        int numTiles = rows * cols;
+        int capacity = Math.max(1, (rows / 2) * (cols / 2));
+        int[] queue = new int[capacity];
+        int[] neighbors = new int[4];
+        BitSet visited = new BitSet(numTiles);
+        for (int row = 0; row < rows; row += 2) {
+            visited.set(row * cols, (row + 1) * cols);
+        }
 
-        List<Node> neighbors = new ArrayList<>();
+        int start = determineStartingCell(sourceCoord, cols);
+        queue[0] = start;
+        visited.set(start);
+        int head = 0;
+        int size = 1;
+        int steps = 0;
 
-        if (top) {
-            neighbors.add(graph.getNode(r - 2, c));
-        }
-        if (left) {
-            neighbors.add(graph.getNode(r, c - 2));
-        }
-        if (right) {
-            neighbors.add(graph.getNode(r, c + 2));
-        }
-        if (bottom) {
-            neighbors.add(graph.getNode(r + 2, c));
-        }
+        while (size > 0) {
+            checkCancelled(++steps);
+            int curr = queue[head];
+            head = head + 1 == capacity ? 0 : head + 1;
+            --size;
 
-        List<Node> toRemove = new ArrayList<>();
-        for (Node n : neighbors) {
-            if (visited.contains(n)) {
-                toRemove.add(n);
+            // top, left, right, bottom
+            int count = 0;
+            if (curr >= 2 * cols && !visited.get(curr - 2 * cols)) {
+                neighbors[count++] = curr - 2 * cols;
+            }
+            if (!visited.get(curr - 2)) {
+                neighbors[count++] = curr - 2;
+            }
+            if (curr + 2 < numTiles && !visited.get(curr + 2)) {
+                neighbors[count++] = curr + 2;
+            }
+            if (curr + 2 * cols < numTiles && !visited.get(curr + 2 * cols)) {
+                neighbors[count++] = curr + 2 * cols;
+            }
+            if (count == 0) {
+                continue;
             }
-        }
 
-        for (Node n : toRemove) {
-            neighbors.remove(n);
-        }
+            int back = head + size;
+            queue[back >= capacity ? back - capacity : back] = curr;
+            int next = neighbors[random.nextInt(count)];
+            walls.clear((curr + next) / 2); // the wall halfway between the two cells
 
-        return neighbors;
+            visited.set(next);
+            head = head == 0 ? capacity - 1 : head - 1;
+            queue[head] = next;
+            size += 2;
+        }
     }
 
     /**
-     * Determines if two pairs are cardinally next to each other or have a euclidean distance
-     * between them less than or equal to 1.
+     * Makes every tile on an even row or an even column a wall, leaving a grid of cells on odd rows
+     * and columns for {@link #carveMaze} to connect.
+     * <p>
+     * The source and destination tiles, and the tiles cardinally next to them, are never walls.
      * 
-     * @param a Pair of Integers being checked
-     * @param b Pair of Integers being checked
-     * @return true if {@code a} and {@code b} are within 1 euclidean distance, false otherwise
+     * @param rows number of rows of the grid
+     * @param cols number of columns of the grid
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @return BitSet with the bit {@code row * cols + col} set for every wall
      */
-    private static boolean adjacentPairs(Pair<Integer, Integer> a, Pair<Integer, Integer> b) {
-        int rowDiff = Math.abs(a.first - b.first);
-        int colDiff = Math.abs(a.second - b.second);
-
-        return rowDiff + colDiff <= 1;
+    private static BitSet mazeGrid(int rows, int cols, long sourceCoord, long destCoord) {
+        BitSet walls = new BitSet(rows * cols);
+        for (int row = 0; row < rows; ++row) {
+            if (row % 2 == 0) {
+                walls.set(row * cols, (row + 1) * cols);
+            } else {
+                for (int col = 0; col < cols; col += 2) {
+                    walls.set(row * cols + col);
+                }
+            }
+        }
+        clearAround(walls, rows, cols, sourceCoord);
+        clearAround(walls, rows, cols, destCoord);
+        return walls;
     }
 
     /**
-     * Turns even row and every even column of Nodes in {@code graph} to walls, or makes them unreachable.
-     * <p>
-     * This is done to prepare {@code graph} for the algorithm used in {@link #makeMaze}, and this method
-     * was written as a support function for {@code makeMaze}. Because of this, it is not recommended to 
-     * call this method on its own.
-     * 
-     * @param sourceCoord Pair of Integers equal to the location of the source tile
-     * @param destCoord Pair of Integers equal to the location of the destination tile
-     * @param graph TileGraph being modified
-     * @return Set of Integer Pair coordinates that denote the location of wall nodes
-     */
-    private static Set<Pair<Integer, Integer>> prepareGraphForMaze(Pair<Integer, Integer> sourceCoord, Pair<Integer, Integer> destCoord, TileGraph graph) {
-        Set<Pair<Integer, Integer>> walls = new HashSet<>();
-        // Create grid of walls aligned to even rows and columns
-        for (int row = 0; row < graph.getNumRows(); ++row) {
-            for (int col = 0; col < graph.getNumCols(); ++col) {
-                Pair<Integer, Integer> p = new Pair<>(row, col);
-                if (adjacentPairs(p, sourceCoord) || adjacentPairs(p, destCoord)) {
-                    continue; //source and destination nodes must never be walls or surrounded by them
-                }
-
-                if (row % 2 == 0 || col % 2 == 0) {
-                    graph.setNodeReachability(row, col, false);
-                    walls.add(p);
-                }
+     * Clears the bit of the tile at {@code coord} and of the tiles cardinally next to it, or every
+     * tile within 1 euclidean distance of it, that are inside the grid.
+     */
+    private static void clearAround(BitSet walls, int rows, int cols, long coord) {
+        int[] deltaRow = {0, -1, 1, 0, 0};
+        int[] deltaCol = {0, 0, 0, -1, 1};
+        for (int i = 0; i < deltaRow.length; ++i) {
+            int row = Coord.row(coord) + deltaRow[i];
+            int col = Coord.col(coord) + deltaCol[i];
+            if (row >= 0 && row < rows && col >= 0 && col < cols) {
+                walls.clear(row * cols + col);
             }
         }
-
-        return walls;
     }
 
     /**
-     * Figures out which Node the maze creation algorithm should start from.
-     * <p>
-     * Writtena s a support function of {@link #makeMaze}. Not intended to be called outside of 
-     * that context.
+     * Figures out which cell the maze creation algorithm should start from.
      * <p>
      * The algorithm assumes that the starting tile is not aligned with the wall grid. However,
      * {@code sourceCoord} sometimes is aligned with the walls. In such a case, we need to pick 
      * a starting tile next to {@code sourceCoord} instead of on it.
      * 
-     * @param sourceCoord Pair of Integers denoting the desired location of the starting Node
-     * @param graph TileGraph being operated on by {@code makeMaze}
-     * @return Node the maze creation algorithm should start on
+     * @param sourceCoord {@link Coord} denoting the desired location of the starting tile
+     * @param cols number of columns of the grid
+     * @return id of the tile the maze creation algorithm should start on
      */
-    private static Node determineStartingNode(Pair<Integer, Integer> sourceCoord, TileGraph graph) {
-        // makes the assumption that walls are on even rows and columns, because that's what prepareGraphForMaze does
-        Pair<Integer, Integer> startCoord = new Pair<>(sourceCoord);
-        if (startCoord.first % 2 == 0) {
-            startCoord.first = startCoord.first > 0 ? startCoord.first - 1 : startCoord.first + 1;
+    private static int determineStartingCell(long sourceCoord, int cols) {
+        // makes the assumption that walls are on even rows and columns, because that's what mazeGrid does
+        int row = Coord.row(sourceCoord);
+        int col = Coord.col(sourceCoord);
+        if (row % 2 == 0) {
+            row = row > 0 ? row - 1 : row + 1;
         }
-        if (startCoord.second % 2 == 0) {
-            startCoord.second = startCoord.second > 0 ? startCoord.second - 1 : startCoord.second + 1;
+        if (col % 2 == 0) {
+            col = col > 0 ? col - 1 : col + 1;
         }
-
-        return graph.getNode(startCoord.first, startCoord.second);
+        return row * cols + col;
     }
 
 }
@@ -0,0 +1,395 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A single bidirectional search, used by {@link Algorithms#bidirectionalBfs} and
+ * {@link Algorithms#bidirectionalAStar}. One frontier grows from the source and one from
+ * the destination, and the search ends once no path through the unsettled Nodes can be
+ * shorter than the best path found where the frontiers meet.
+ * <p>
+ * Both frontiers are ordered by reduced distances. With the average potential
+ * {@code p(v) = (h(v, dest) - h(v, source)) / 2} every reduced edge weight stays
+ * non-negative, so the search behaves like bidirectional Djikstra and may stop as soon as
+ * {@code topForward + topBackward >= best}. With {@code p(v) = 0} it is bidirectional Djikstra,
+ * which with unit weights is bidirectional BFS and uses FIFO queues instead of heaps.
+ * <p>
+ * The two frontiers can be run on two threads. A Node's settled flag is written after its
+ * distance and read before it, so whichever frontier settles the second end of a meeting
+ * edge is guaranteed to see the first one.
+ */
+class BidirectionalSearch {
+    /**
+     * Threads that run backward frontiers when a search is parallel
+     */
+    private static final ExecutorService BACKWARD_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bidirectional-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Workspace of the backward frontier when a search runs on a single thread, which
+     * already uses {@link SearchWorkspace#forCurrentThread} for its forward frontier
+     */
+    private static final ThreadLocal<SearchWorkspace> BACKWARD_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+    /**
+     * Slack for floating point error in the stopping condition
+     */
+    private static final double EPSILON = 1e-9;
+
+    private final TileGraph graph;
+    private final int source;
+    private final int dest;
+    /**
+     * Whether every edge counts as weight 1, as in BFS
+     */
+    private final boolean unitWeights;
+    /**
+     * Whether the average potential is used, as in A*
+     */
+    private final boolean useHeuristic;
+
+    /**
+     * Length of the shortest path found so far
+     */
+    private volatile double best = Double.POSITIVE_INFINITY;
+    /**
+     * Forward end of the meeting edge of the best path, or -1
+     */
+    private int meetForward = -1;
+    /**
+     * Backward end of the meeting edge of the best path, or -1
+     */
+    private int meetBackward = -1;
+
+    /**
+     * Creates a search between two Nodes. Nothing is searched until {@link #run}.
+     *
+     * @param graph TileGraph being searched
+     * @param source id of the source Node
+     * @param dest id of the destination Node
+     * @param unitWeights {@code true} to count every edge as weight 1
+     * @param useHeuristic {@code true} to guide both frontiers with the heuristic
+     */
+    BidirectionalSearch(TileGraph graph, int source, int dest, boolean unitWeights, boolean useHeuristic) {
+        this.graph = graph;
+        this.source = source;
+        this.dest = dest;
+        this.unitWeights = unitWeights;
+        this.useHeuristic = useHeuristic;
+    }
+
+    /**
+     * One of the two growing frontiers
+     */
+    private final class Frontier {
+        final boolean forward;
+        final SearchWorkspace workspace;
+        final SearchTrace trace = new SearchTrace();
+        /**
+         * Settled flags shared with the other thread, or null if the search runs on one thread
+         */
+        final AtomicIntegerArray settledFlags;
+        /**
+         * Smallest key in this frontier's heap, published for the other frontier's stopping check.
+         * Keys never decrease, so an old value is always a safe lower bound.
+         */
+        volatile double top = 0;
+        /**
+         * Whether this frontier has settled its own start. Until it has, the other frontier may have
+         * run out of Nodes without ever seeing a meeting point, so this one can't stop yet.
+         */
+        boolean started = false;
+        Frontier other;
+        /**
+         * With unit weights and no heuristic, Nodes are settled in the order they're reached, so
+         * a FIFO queue from {@code queueHead} to {@code queueTail} replaces the heap, as in BFS
+         */
+        final int[] queue;
+        int queueHead = 0;
+        int queueTail = 0;
+
+        Frontier(boolean forward, SearchWorkspace workspace, AtomicIntegerArray settledFlags) {
+            this.forward = forward;
+            this.workspace = workspace;
+            this.settledFlags = settledFlags;
+
+            int start = forward ? source : dest;
+            workspace.reset(graph.numNodes());
+            queue = unitWeights && !useHeuristic ? workspace.queue() : null;
+            workspace.reach(start, 0, -1);
+            if (graph.isReachable(start)) {
+                add(start, potential(start));
+            } else {
+                top = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        /**
+         * @return number of Nodes reached but not settled yet
+         */
+        int size() {
+            return queue != null ? queueTail - queueHead : workspace.heap().size();
+        }
+
+        /**
+         * Adds a newly reached Node, or lowers the key of one already waiting to be settled.
+         */
+        void add(int id, double key) {
+            if (queue != null) {
+                queue[queueTail++] = id;
+            } else {
+                workspace.heap().push(id, key);
+            }
+        }
+
+        /**
+         * Removes and returns the waiting Node with the smallest key.
+         */
+        int poll() {
+            return queue != null ? queue[queueHead++] : workspace.heap().pop();
+        }
+
+        /**
+         * @return smallest key of a waiting Node, or infinity if none are waiting
+         */
+        double topKey() {
+            if (size() == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return queue != null ? workspace.getDist(queue[queueHead]) : workspace.heap().getKey(workspace.heap().peek());
+        }
+
+        /**
+         * @param id id of a Node
+         * @return this frontier's potential of {@code id}
+         */
+        double potential(int id) {
+            if (!useHeuristic) {
+                return 0;
+            }
+            double p = (Algorithms.heuristic(id, dest, graph) - Algorithms.heuristic(id, source, graph)) / 2;
+            return forward ? p : -p;
+        }
+
+        boolean isSettled(int id) {
+            return settledFlags == null ? workspace.isSettled(id) : settledFlags.get(id) != 0;
+        }
+
+        /**
+         * @return {@code true} if this frontier can't improve on the best path anymore
+         */
+        boolean isDone() {
+            return size() == 0 || (started && top + other.top >= best - EPSILON);
+        }
+
+        /**
+         * Settles the Node at the top of the heap and relaxes its edges.
+         */
+        void step() {
+            int curr = poll();
+            started = true;
+            workspace.settle(curr);
+            if (settledFlags != null) {
+                settledFlags.set(curr, 1);
+            }
+            if (curr != source && curr != dest) {
+                Algorithms.visit(trace, curr, graph);
+            }
+
+            double distance = workspace.getDist(curr);
+            if (other.isSettled(curr)) {
+                offer(distance + other.workspace.getDist(curr), curr, curr);
+            }
+
+            int[] neighbors = workspace.neighbors();
+            int count = graph.getNeighbors(curr, neighbors);
+            for (int i = 0; i < count; ++i) {
+                int next = neighbors[i];
+                double d = distance + (unitWeights ? 1 : graph.getWeight(curr, next));
+                if (other.isSettled(next)) {
+                    double length = d + other.workspace.getDist(next);
+                    if (forward) {
+                        offer(length, curr, next);
+                    } else {
+                        offer(length, next, curr);
+                    }
+                }
+                if (!workspace.isSettled(next) && d < workspace.getDist(next)) {
+                    workspace.reach(next, d, curr);
+                    add(next, d + potential(next));
+                }
+            }
+
+            top = topKey();
+        }
+
+        /**
+         * Runs this frontier until the search is over.
+         */
+        void runToEnd() {
+            int expansions = 0;
+            while (!isDone()) {
+                Algorithms.checkCancelled(++expansions);
+                step();
+            }
+            top = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Records a path of length {@code length} through the edge {@code (forwardEnd, backwardEnd)}
+     * if it is the shortest one yet.
+     */
+    private synchronized void offer(double length, int forwardEnd, int backwardEnd) {
+        if (length < best) {
+            best = length;
+            meetForward = forwardEnd;
+            meetBackward = backwardEnd;
+        }
+    }
+
+    /**
+     * @return SearchWorkspace the current thread keeps for backward frontiers, since its
+     *         {@link SearchWorkspace#forCurrentThread own} is used by the forward frontier
+     */
+    static SearchWorkspace backwardWorkspace() {
+        return BACKWARD_WORKSPACE.get();
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @param parallel {@code true} to grow the backward frontier on another thread. Ignored if
+     *        only one processor is available, since the frontiers would just take turns.
+     * @param forwardWorkspace SearchWorkspace that will be reset and used by the forward frontier
+     * @param backwardWorkspace SearchWorkspace that will be reset and used by the backward frontier
+     *        when the search runs on one thread. A parallel search gives its backward frontier a
+     *        new one, since the other thread may still be using it after a cancelled search returns.
+     * @return SearchTrace of what the search did at each step. Visits alternate between the two
+     *         frontiers and the path, if any, comes last.
+     */
+    SearchTrace run(boolean parallel, SearchWorkspace forwardWorkspace, SearchWorkspace backwardWorkspace) {
+        parallel &= Runtime.getRuntime().availableProcessors() > 1;
+        Frontier forward;
+        Frontier backward;
+        if (parallel) {
+            AtomicIntegerArray forwardFlags = new AtomicIntegerArray(graph.numNodes());
+            AtomicIntegerArray backwardFlags = new AtomicIntegerArray(graph.numNodes());
+            forward = new Frontier(true, forwardWorkspace, forwardFlags);
+            // the backward workspace is reset here, before it's handed to the other thread
+            backward = new Frontier(false, new SearchWorkspace(), backwardFlags);
+        } else {
+            forward = new Frontier(true, forwardWorkspace, null);
+            backward = new Frontier(false, backwardWorkspace, null);
+        }
+        forward.other = backward;
+        backward.other = forward;
+
+        if (parallel) {
+            // neither frontier starts until both threads are running, or one would search alone until the other is scheduled
+            AtomicInteger arrived = new AtomicInteger();
+            Future<?> backwardRun = BACKWARD_EXECUTOR.submit(() -> {
+                awaitBoth(arrived);
+                backward.runToEnd();
+            });
+            awaitBoth(arrived);
+            try {
+                forward.runToEnd();
+            } catch (CancellationException e) {
+                backwardRun.cancel(true);
+                throw e;
+            }
+            try {
+                backwardRun.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                backwardRun.cancel(true);
+                return new SearchTrace();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        } else {
+            int expansions = 0;
+            while (!forward.isDone() || !backward.isDone()) {
+                Algorithms.checkCancelled(++expansions);
+                // grow the smaller frontier, as long as it can still find something
+                boolean forwardNext = forward.size() <= backward.size();
+                if ((forwardNext && !forward.isDone()) || backward.isDone()) {
+                    forward.step();
+                } else {
+                    backward.step();
+                }
+            }
+        }
+
+        SearchTrace trace = interleave(forward.trace, backward.trace);
+        if (meetForward >= 0) {
+            tracePath(trace, forward.workspace, backward.workspace);
+        }
+        return trace;
+    }
+
+    /**
+     * Spins until both frontier threads have called this method.
+     *
+     * @param arrived number of threads that have called this method so far
+     */
+    private static void awaitBoth(AtomicInteger arrived) {
+        arrived.incrementAndGet();
+        for (int spins = 0; arrived.get() < 2; ++spins) {
+            if (spins < 1000) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Alternates the visits of both frontiers, starting with the forward one.
+     */
+    private static SearchTrace interleave(SearchTrace a, SearchTrace b) {
+        SearchTrace trace = new SearchTrace(a.size() + b.size() + 1);
+        for (int i = 0; i < Math.max(a.size(), b.size()); ++i) {
+            if (i < a.size()) {
+                trace.addVisit(SearchTrace.row(a.word(i)), SearchTrace.col(a.word(i)));
+            }
+            if (i < b.size()) {
+                trace.addVisit(SearchTrace.row(b.word(i)), SearchTrace.col(b.word(i)));
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Adds the path to {@code trace}, from the destination to the source. The backward frontier's
+     * parents lead from the meeting edge to the destination, and the forward frontier's parents lead
+     * from it to the source.
+     */
+    private void tracePath(SearchTrace trace, SearchWorkspace forward, SearchWorkspace backward) {
+        List<Integer> toDest = new ArrayList<>();
+        for (int curr = meetBackward; curr >= 0; curr = backward.getPrev(curr)) {
+            toDest.add(curr);
+        }
+
+        trace.beginPath();
+        for (int i = toDest.size() - 1; i >= 0; --i) {
+            int id = toDest.get(i);
+            trace.addPathTile(graph.getRow(id), graph.getCol(id));
+        }
+        int curr = meetForward == meetBackward ? forward.getPrev(meetForward) : meetForward;
+        for (; curr >= 0; curr = forward.getPrev(curr)) {
+            trace.addPathTile(graph.getRow(curr), graph.getCol(curr));
+        }
+        trace.endPath();
+    }
+}
@@ -0,0 +1,230 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone bucket queue of Node ids (Dial's algorithm), for searches whose keys never fall behind
+ * the last key popped and never run more than a few buckets ahead of it. Every bucket covers a
+ * range of keys of the same width, and ids in the same bucket come out in the order they went in,
+ * not sorted by key. Pushing, lowering a key, and popping all take O(1) time.
+ * <p>
+ * {@link TileGraph} only has edges of length 1 and sqrt(2). With buckets one unit wide, no Node can
+ * lower the distance of another Node in its own bucket, so every Node in the lowest bucket already
+ * has its final distance, and Djikstra's Algorithm can settle them in any order. A key is at most
+ * sqrt(2) past the key popped before it, so only {@link #NUM_BUCKETS} buckets are ever in use, and they
+ * are reused round robin.
+ * <p>
+ * Ids must be between 0 (inclusive) and the capacity of the queue (exclusive). Nothing is
+ * allocated after construction.
+ */
+public class BucketQueue {
+    /**
+     * Number of buckets in the ring. Enough for keys up to {@code 3 * width} past the lowest bucket,
+     * and a power of two so that a bucket index can be masked into the ring.
+     */
+    public static final int NUM_BUCKETS = 4;
+
+    private final double width;
+    /**
+     * {@code head[b]} is the first id in ring slot {@code b}, or -1 if the slot is empty
+     */
+    private final int[] head = new int[NUM_BUCKETS];
+    /**
+     * {@code tail[b]} is the last id in ring slot {@code b}, or -1 if the slot is empty
+     */
+    private final int[] tail = new int[NUM_BUCKETS];
+    /**
+     * {@code next[id]} is the id after {@code id} in its bucket, or -1 if it is last
+     */
+    private int[] next;
+    /**
+     * {@code prev[id]} is the id before {@code id} in its bucket, or -1 if it is first
+     */
+    private int[] prev;
+    /**
+     * {@code slot[id]} is the ring slot holding {@code id}, or -1 if it isn't in the queue
+     */
+    private int[] slot;
+    /**
+     * {@code keys[id]} is the key {@code id} was last pushed with
+     */
+    private double[] keys;
+    /**
+     * Index of the lowest bucket that may hold ids. Never decreases while the queue holds ids.
+     */
+    private long current = 0;
+    /**
+     * Number of ids currently in the queue
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty queue with buckets one unit wide that can hold the ids 0 through
+     * {@code capacity - 1}.
+     *
+     * @param capacity one more than the largest id this queue can hold
+     */
+    public BucketQueue(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Creates an empty queue that can hold the ids 0 through {@code capacity - 1}.
+     *
+     * @param capacity one more than the largest id this queue can hold
+     * @param width range of keys covered by each bucket
+     * @throws IllegalArgumentException {@code width} isn't positive
+     */
+    public BucketQueue(int capacity, double width) {
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("bucket width must be positive: " + width);
+        }
+        this.width = width;
+        next = new int[capacity];
+        prev = new int[capacity];
+        slot = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(slot, -1);
+        Arrays.fill(head, -1);
+        Arrays.fill(tail, -1);
+    }
+
+    /**
+     * @return the largest number of ids this queue can hold
+     */
+    public int capacity() {
+        return slot.length;
+    }
+
+    /**
+     * @return number of ids in this queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if this queue holds no ids, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param id id being checked
+     * @return {@code true} if {@code id} is in this queue, {@code false} otherwise
+     */
+    public boolean contains(int id) {
+        return slot[id] >= 0;
+    }
+
+    /**
+     * @param id id in this queue
+     * @return the key {@code id} was last pushed with
+     */
+    public double getKey(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Adds {@code id} to the back of the bucket for {@code key}. If {@code id} is already in this
+     * queue it is moved to that bucket instead, unless its current key is already smaller.
+     * <p>
+     * A key that rounds into a bucket below the lowest one is put in the lowest one.
+     *
+     * @param id id being added
+     * @param key value {@code id} will be ordered by
+     * @throws IllegalArgumentException {@code key} is too far past the lowest bucket
+     */
+    public void push(int id, double key) {
+        if (slot[id] >= 0) {
+            if (key >= keys[id]) {
+                return;
+            }
+            unlink(id);
+        }
+
+        long bucket = (long) Math.floor(key / width);
+        if (size == 0) {
+            current = bucket;
+        } else if (bucket < current) {
+            bucket = current;
+        } else if (bucket - current >= NUM_BUCKETS) {
+            throw new IllegalArgumentException("key " + key + " is too far past bucket " + current);
+        }
+
+        int b = (int) (bucket & (NUM_BUCKETS - 1));
+        keys[id] = key;
+        slot[id] = b;
+        next[id] = -1;
+        prev[id] = tail[b];
+        if (tail[b] >= 0) {
+            next[tail[b]] = id;
+        } else {
+            head[b] = id;
+        }
+        tail[b] = id;
+        ++size;
+    }
+
+    /**
+     * @return the first id in the lowest bucket, without removing it
+     * @throws NoSuchElementException this queue is empty
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        while (head[(int) (current & (NUM_BUCKETS - 1))] < 0) {
+            ++current;
+        }
+        return head[(int) (current & (NUM_BUCKETS - 1))];
+    }
+
+    /**
+     * Removes the first id in the lowest bucket from this queue. Its key is no larger than the key
+     * of any id in a higher bucket, but may be larger than other keys in its own bucket.
+     *
+     * @return the first id in the lowest bucket
+     * @throws NoSuchElementException this queue is empty
+     */
+    public int pop() {
+        int id = peek();
+        unlink(id);
+        return id;
+    }
+
+    /**
+     * Removes every id from this queue. Only touches the ids that were in it.
+     */
+    public void clear() {
+        for (int b = 0; b < NUM_BUCKETS; ++b) {
+            for (int id = head[b]; id >= 0; id = next[id]) {
+                slot[id] = -1;
+            }
+            head[b] = -1;
+            tail[b] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Takes {@code id} out of the bucket holding it.
+     */
+    private void unlink(int id) {
+        int b = slot[id];
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            head[b] = next[id];
+        }
+        if (next[id] >= 0) {
+            prev[next[id]] = prev[id];
+        } else {
+            tail[b] = prev[id];
+        }
+        slot[id] = -1;
+        --size;
+    }
+}
@@ -0,0 +1,258 @@
+package pathfinding_visualizer;
+
+/**
+ * Message a {@link Menu} sends to a {@link TileGrid}. Every kind of command is one of the final
+ * classes nested in this one, and since the constructor is private, no other kinds can be made.
+ * A TileGrid tells them apart with {@code instanceof} instead of parsing Strings.
+ * <p>
+ * Every command can still be written as the String it used to be sent as, like "search BFS 5",
+ * with {@link #toString}, and read back with {@link #parse}.
+ */
+public abstract class Command {
+    /**
+     * Which coordinate of the grid a command changes
+     */
+    public enum Axis {
+        ROW, COL;
+
+        @Override
+        public String toString() {
+            return this == ROW ? "row" : "col";
+        }
+    }
+
+    /**
+     * Ways the playback of a search can be controlled
+     */
+    public enum Control {
+        PAUSE, STEP, BACK, FASTER, SLOWER, REVERSE;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * When this command was made, in the time of {@link System#nanoTime}. Commands are sent as soon
+     * as they are made, so this is used to measure how long one takes to be applied.
+     */
+    public final long madeNanos = System.nanoTime();
+
+    private Command() {
+    }
+
+    /**
+     * Changes the number of rows or columns of the grid.
+     */
+    public static final class Resize extends Command {
+        public final Axis axis;
+        public final int size;
+
+        public Resize(Axis axis, int size) {
+            this.axis = axis;
+            this.size = size;
+        }
+
+        @Override
+        public String toString() {
+            return "resize " + axis + " " + size;
+        }
+    }
+
+    /**
+     * Moves the source tile along one axis.
+     */
+    public static final class MoveSource extends Command {
+        public final Axis axis;
+        public final int position;
+
+        public MoveSource(Axis axis, int position) {
+            this.axis = axis;
+            this.position = position;
+        }
+
+        @Override
+        public String toString() {
+            return "source " + axis + " " + position;
+        }
+    }
+
+    /**
+     * Moves the destination tile along one axis.
+     */
+    public static final class MoveDest extends Command {
+        public final Axis axis;
+        public final int position;
+
+        public MoveDest(Axis axis, int position) {
+            this.axis = axis;
+            this.position = position;
+        }
+
+        @Override
+        public String toString() {
+            return "destination " + axis + " " + position;
+        }
+    }
+
+    /**
+     * Sets whether tiles can be traversed diagonally.
+     */
+    public static final class SetDiagonal extends Command {
+        public final boolean diagonal;
+
+        public SetDiagonal(boolean diagonal) {
+            this.diagonal = diagonal;
+        }
+
+        @Override
+        public String toString() {
+            return "diagonal " + diagonal;
+        }
+    }
+
+    /**
+     * Visualizes a pathfinding algorithm.
+     */
+    public static final class Search extends Command {
+        /**
+         * Name of the algorithm as it appears in the {@link Menu}, like "BFS" or "D*Lite"
+         */
+        public final String algorithm;
+        public final int stepLengthMillis;
+
+        public Search(String algorithm, int stepLengthMillis) {
+            this.algorithm = algorithm;
+            this.stepLengthMillis = stepLengthMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "search " + algorithm + " " + stepLengthMillis;
+        }
+    }
+
+    /**
+     * Sets every tile colored by an algorithm back to its original color.
+     */
+    public static final class Clear extends Command {
+        @Override
+        public String toString() {
+            return "clear";
+        }
+    }
+
+    /**
+     * Resets every tile except the source and destination back to its original color.
+     */
+    public static final class Erase extends Command {
+        @Override
+        public String toString() {
+            return "erase";
+        }
+    }
+
+    /**
+     * Turns the grid into a random maze.
+     */
+    public static final class Maze extends Command {
+        public final long seed;
+
+        public Maze(long seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public String toString() {
+            return "maze " + seed;
+        }
+    }
+
+    /**
+     * Controls the algorithm being visualized.
+     */
+    public static final class Playback extends Command {
+        public final Control control;
+
+        public Playback(Control control) {
+            this.control = control;
+        }
+
+        @Override
+        public String toString() {
+            return "playback " + control;
+        }
+    }
+
+    /**
+     * Shows or hides the distance from every tile to the destination, drawn over the grid.
+     */
+    public static final class ShowFlowField extends Command {
+        public final boolean show;
+
+        public ShowFlowField(boolean show) {
+            this.show = show;
+        }
+
+        @Override
+        public String toString() {
+            return "flowfield " + show;
+        }
+    }
+
+    /**
+     * Reads a command from the String it is written as by {@link #toString}.
+     * <p>
+     * Valid commands are:
+     * <ul>
+     * <li>"resize (row|col) x" - resizes the grid
+     * <li>"source (row|col) x" - changes the location of the source tile
+     * <li>"destination (row|col) x" - changes the location of the destination tile
+     * <li>"diagonal boolean" - sets whether tiles can be traversed diagonally
+     * <li>"search algorithm stepLength" - visualizes a pathfinding algorithm
+     * <li>"clear" - sets every tile colored by an algorithm back to its original color
+     * <li>"erase" - resets every tile except the source and destination tile back
+     * to its original color
+     * <li>"maze seed" - makes a random maze
+     * <li>"playback (pause|step|back|faster|slower|reverse)" - controls the algorithm being visualized
+     * <li>"flowfield boolean" - shows or hides the distance from every tile to the destination
+     * </ul>
+     *
+     * @param message String written the way a command is written
+     * @return the command {@code message} describes
+     * @throws IllegalArgumentException {@code message} is not a valid command
+     * @throws IndexOutOfBoundsException {@code message} is missing arguments
+     */
+    public static Command parse(String message) {
+        String[] args = message.split(" ");
+        switch (args[0]) {
+            case "resize":
+                return new Resize(parseAxis(args[1]), Integer.parseInt(args[2]));
+            case "source":
+                return new MoveSource(parseAxis(args[1]), Integer.parseInt(args[2]));
+            case "destination":
+                return new MoveDest(parseAxis(args[1]), Integer.parseInt(args[2]));
+            case "diagonal":
+                return new SetDiagonal(args[1].equals("true"));
+            case "search":
+                return new Search(args[1], Integer.parseInt(args[2]));
+            case "clear":
+                return new Clear();
+            case "erase":
+                return new Erase();
+            case "maze":
+                return new Maze(Long.parseLong(args[1]));
+            case "playback":
+                return new Playback(Control.valueOf(args[1].toUpperCase()));
+            case "flowfield":
+                return new ShowFlowField(args[1].equals("true"));
+            default:
+                throw new IllegalArgumentException("not a command: " + message);
+        }
+    }
+
+    private static Axis parseAxis(String axis) {
+        return axis.equals("row") ? Axis.ROW : Axis.COL;
+    }
+}
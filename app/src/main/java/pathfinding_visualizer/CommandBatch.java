@@ -0,0 +1,168 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Commands that were waiting in a queue at the same time, collapsed so they can be applied in one
+ * go. A burst of edits typed into a {@link Menu} turns into one change of the grid instead of one
+ * per command.
+ * <p>
+ * The commands are split into runs of settings (resizes, moves of the source and destination, and
+ * diagonal), each ended by an action (every other kind of command). Within a run only the last
+ * setting of each kind matters, and the run is applied as one call to {@link Target#configure}:
+ * the grid is resized once, to the last valid number of rows and of columns, and then the source
+ * and destination are put where the moves of the run leave them. Since a move onto the other end
+ * swaps the two, the moves are handed over in order rather than collapsed here. Sizes come before
+ * moves, so a move is checked against the resized grid.
+ * <p>
+ * An action repeated with no settings in between, like two searches, is only applied once, since
+ * the second one undoes whatever the first one did. Playback controls are always applied, since
+ * two steps aren't one.
+ */
+public class CommandBatch {
+    /**
+     * What a batch of commands is applied to, normally a {@link TileGrid}.
+     */
+    public interface Target {
+        /**
+         * Applies a run of settings at once.
+         *
+         * @param rows number of rows to resize the grid to, or -1 if it doesn't change
+         * @param cols number of columns to resize the grid to, or -1 if it doesn't change
+         * @param diagonal whether tiles can be traversed diagonally, or null if it doesn't change
+         * @param moves {@link Command.MoveSource} and {@link Command.MoveDest} commands of the
+         *        run in the order they were sent, to be applied after the resize
+         */
+        void configure(int rows, int cols, Boolean diagonal, List<Command> moves);
+
+        /**
+         * Applies a command that isn't a setting.
+         *
+         * @param command Command to apply
+         */
+        void apply(Command command);
+    }
+
+    /**
+     * Settings sent since the previous action, and the action that ended them, if any.
+     */
+    private static final class Run {
+        int rows = -1;
+        int cols = -1;
+        Boolean diagonal;
+        /**
+         * Moves of the source and destination in the order they were sent
+         */
+        final List<Command> moves = new ArrayList<>();
+        Command action;
+
+        boolean hasSettings() {
+            return rows >= 0 || cols >= 0 || diagonal != null || !moves.isEmpty();
+        }
+    }
+
+    private final int minSize;
+    private final int maxSize;
+    private final List<Run> runs = new ArrayList<>();
+    /**
+     * When each command added to this batch was made, see {@link Command#madeNanos}
+     */
+    private long[] madeNanos = new long[16];
+    private int size = 0;
+
+    /**
+     * Creates an empty batch for a grid whose sides can be from {@code minSize} to {@code maxSize}
+     * tiles long. Resizes outside those bounds are ignored, so an earlier valid one still applies.
+     *
+     * @param minSize least number of rows or columns of the grid
+     * @param maxSize greatest number of rows or columns of the grid
+     */
+    public CommandBatch(int minSize, int maxSize) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        runs.add(new Run());
+    }
+
+    /**
+     * Adds the next command to this batch, collapsing it with the ones before it where it can.
+     *
+     * @param command Command that was sent after every command already in this batch
+     */
+    public void add(Command command) {
+        if (size == madeNanos.length) {
+            madeNanos = Arrays.copyOf(madeNanos, 2 * size);
+        }
+        madeNanos[size++] = command.madeNanos;
+
+        Run run = runs.get(runs.size() - 1);
+        if (command instanceof Command.Resize) {
+            Command.Resize resize = (Command.Resize) command;
+            if (resize.size >= minSize && resize.size <= maxSize) {
+                if (resize.axis == Command.Axis.ROW) {
+                    run.rows = resize.size;
+                } else {
+                    run.cols = resize.size;
+                }
+            }
+        } else if (command instanceof Command.SetDiagonal) {
+            run.diagonal = ((Command.SetDiagonal) command).diagonal;
+        } else if (command instanceof Command.MoveSource || command instanceof Command.MoveDest) {
+            run.moves.add(command);
+        } else {
+            Run previous = runs.size() > 1 ? runs.get(runs.size() - 2) : null;
+            if (previous != null && !run.hasSettings() && previous.action.getClass() == command.getClass()
+                    && !(command instanceof Command.Playback)) {
+                previous.action = command;
+            } else {
+                run.action = command;
+                runs.add(new Run());
+            }
+        }
+    }
+
+    /**
+     * @return number of commands added to this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i index of a command, in the order it was added
+     * @return when the {@code i}th command added to this batch was made, in the time of
+     *         {@link System#nanoTime}
+     */
+    public long madeNanos(int i) {
+        return madeNanos[i];
+    }
+
+    /**
+     * @return number of calls {@link #applyTo} will make to its target
+     */
+    public int numApplied() {
+        int applied = 0;
+        for (Run run : runs) {
+            applied += (run.hasSettings() ? 1 : 0) + (run.action != null ? 1 : 0);
+        }
+        return applied;
+    }
+
+    /**
+     * Applies every command of this batch to {@code target}, in as few calls as possible.
+     *
+     * @param target Target to apply the commands to
+     */
+    public void applyTo(Target target) {
+        for (Run run : runs) {
+            if (run.hasSettings()) {
+                target.configure(run.rows, run.cols, run.diagonal, Collections.unmodifiableList(run.moves));
+            }
+            if (run.action != null) {
+                target.apply(run.action);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+
+/**
+ * Counts how long commands take from being made to being applied, and how many hops to the event
+ * dispatch thread and calls into the grid they took. A {@link TileGrid} keeps one, see
+ * {@link TileGrid#getCommandLatency}.
+ * <p>
+ * Latencies are counted in buckets whose bounds are powers of two nanoseconds, so a percentile is
+ * only known to within a factor of two. That is enough to tell a command applied within a frame
+ * from one that waited behind a rebuild of the grid, and costs no memory per command.
+ * <p>
+ * Commands are counted on the event dispatch thread but the counts can be read from any thread.
+ */
+public class CommandLatency {
+    /**
+     * Number of commands whose latency was less than {@code 2^i} nanoseconds but not less than
+     * {@code 2^(i-1)}, indexed by {@code i}
+     */
+    private final long[] buckets = new long[64];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long batches;
+    private long applied;
+
+    /**
+     * Counts one command.
+     *
+     * @param nanos how long the command took from being made to being applied
+     */
+    public synchronized void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        ++buckets[64 - Long.numberOfLeadingZeros(nanos)];
+        ++count;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Counts one hop to the event dispatch thread.
+     *
+     * @param calls number of changes the commands handled in the hop were collapsed into
+     */
+    public synchronized void recordBatch(int calls) {
+        ++batches;
+        applied += calls;
+    }
+
+    /**
+     * @return number of commands counted
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of hops to the event dispatch thread the commands took
+     */
+    public synchronized long getNumBatches() {
+        return batches;
+    }
+
+    /**
+     * @return number of changes the commands were collapsed into
+     */
+    public synchronized long getNumApplied() {
+        return applied;
+    }
+
+    /**
+     * @return mean latency of the commands counted in nanoseconds, or 0 if none were
+     */
+    public synchronized long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * @return greatest latency of the commands counted in nanoseconds
+     */
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Finds a bound on the latency of a fraction of the commands.
+     *
+     * @param fraction fraction of the commands, from 0 to 1, like 0.99 for the 99th percentile
+     * @return least power of two nanoseconds that at least {@code fraction} of the commands took
+     *         less than, or 0 if no commands were counted
+     */
+    public synchronized long percentileNanos(double fraction) {
+        long needed = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length && count > 0; ++i) {
+            seen += buckets[i];
+            if (seen >= needed && seen > 0) {
+                return i == 63 ? Long.MAX_VALUE : 1L << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forgets every command counted so far.
+     */
+    public synchronized void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        batches = 0;
+        applied = 0;
+    }
+
+    /**
+     * @return counts in a form meant to be logged, with latencies in microseconds
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d commands in %d batches applied as %d changes, latency mean %dus p50 <%dus p99 <%dus max %dus",
+                count, batches, applied, getMeanNanos() / 1000, percentileNanos(0.5) / 1000,
+                percentileNanos(0.99) / 1000, maxNanos / 1000);
+    }
+}
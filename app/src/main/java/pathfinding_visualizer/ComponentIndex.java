@@ -0,0 +1,688 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Which connected component every reachable tile of a {@link TileGraph} is in, so that whether
+ * two tiles are connected at all is known without searching. The components are kept as a
+ * union-find forest over the ids of the tiles, one {@code int} per tile.
+ * <p>
+ * The forest is built with two passes over stripes of rows. Each stripe is joined up on its own by
+ * a task on a {@link ForkJoinPool}, then the tiles on the edges between stripes are joined, and
+ * each stripe again points every one of its tiles straight at the root of its component.
+ * <p>
+ * The index listens to its graph. A tile that becomes reachable is joined to the components next
+ * to it right away. A tile that becomes a wall may split its component, which is only marked dirty:
+ * the pieces are told apart by flooding out from the new walls the next time a dirty component is
+ * asked about. The floods take turns and stop as soon as they have all met, so a wall that splits
+ * nothing floods a few tiles, and one that cuts off a piece floods about as many tiles as the
+ * smallest piece has. Changes to a large part of the
+ * graph at once, or to its diagonal setting, mark the whole index stale, and it is built again the
+ * next time it is used. An index can also be built on a copy of the graph, away from the thread
+ * that changes it, and handed over to the graph if it hasn't changed since.
+ * <p>
+ * Tiles that became walls can only split components, never join them, so two tiles whose roots
+ * differ are never connected, even in a dirty component.
+ */
+public class ComponentIndex implements ReachabilityListener {
+    /**
+     * Fewest rows in a stripe that is built by its own task
+     */
+    private static final int MIN_STRIPE_ROWS = 32;
+
+    private final TileGraph graph;
+    private final ForkJoinPool pool;
+    /**
+     * Parent of every tile in the union-find forest. A reachable tile whose parent is itself is the
+     * root of its component. Walls only keep a parent so that the tiles that pointed through them
+     * before they became walls can still find their root.
+     */
+    private int[] parent = new int[0];
+    /**
+     * Roots of the components that tiles became walls in since they were last told apart
+     */
+    private final BitSet dirty = new BitSet();
+    /**
+     * Tiles that became walls since the dirty components were last told apart
+     */
+    private final BitSet newWalls = new BitSet();
+    /**
+     * Tiles that aren't roots but may have other tiles pointing at them, since they were the roots
+     * of components that were joined to others. A piece that holds one of them can't be given a
+     * root of its own without flooding the rest of its component, whose tiles may point through it.
+     */
+    private final BitSet inner = new BitSet();
+    /**
+     * Whether the forest has to be built again before it is used
+     */
+    private boolean stale = true;
+    /**
+     * Whether the forest was built for a graph with diagonal traversal
+     */
+    private boolean diagonal;
+
+    /**
+     * Creates the component index of {@code graph}, built on the common ForkJoinPool.
+     *
+     * @param graph TileGraph whose components are indexed
+     * @see #ComponentIndex(TileGraph, ForkJoinPool)
+     */
+    public ComponentIndex(TileGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the component index of {@code graph} and starts listening for changes to it. The
+     * index is built the first time it is used.
+     *
+     * @param graph TileGraph whose components are indexed
+     * @param pool ForkJoinPool the stripes of the index are built on
+     */
+    public ComponentIndex(TileGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * Creates the component index of {@code graph} from {@code built}, the index of a copy of it
+     * with the same version, and starts listening for changes to it. The forest of {@code built} is
+     * taken over rather than copied, so the copy's index is detached and built again if it is used.
+     *
+     * @param graph TileGraph whose components are indexed
+     * @param built ComponentIndex of a copy of {@code graph}, with nothing left to build or tell apart
+     */
+    ComponentIndex(TileGraph graph, ComponentIndex built) {
+        this.graph = graph;
+        this.pool = built.pool;
+        this.parent = built.parent;
+        this.diagonal = built.diagonal;
+        this.stale = false;
+        built.detach();
+        built.parent = new int[0];
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * @return TileGraph whose components are indexed
+     */
+    public TileGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Stops this index from listening to its graph. The index is stale afterwards.
+     */
+    public void detach() {
+        graph.removeReachabilityListener(this);
+        stale = true;
+    }
+
+    /**
+     * Checks whether there is any path between two tiles. Builds the index first if it is stale,
+     * and tells apart the pieces of dirty components if either tile is in one.
+     *
+     * @param from id of a tile
+     * @param to id of another tile
+     * @return {@code true} if both tiles are reachable and in the same component
+     */
+    public boolean connected(int from, int to) {
+        update();
+        if (!graph.isReachable(from) || !graph.isReachable(to)) {
+            return false;
+        }
+        int fromRoot = find(from);
+        int toRoot = find(to);
+        if (fromRoot != toRoot) {
+            return false;
+        }
+        if (!dirty.get(fromRoot)) {
+            return true;
+        }
+        relabel();
+        return find(from) == find(to);
+    }
+
+    /**
+     * @param id id of a tile
+     * @return id of the root tile of the component the tile is in, the same for every tile of the
+     *         component, or -1 if the tile is a wall
+     */
+    public int getComponent(int id) {
+        update();
+        if (!graph.isReachable(id)) {
+            return -1;
+        }
+        if (dirty.get(find(id))) {
+            relabel();
+        }
+        return find(id);
+    }
+
+    /**
+     * Checks whether two tiles are known to be apart, without building the index or telling apart
+     * the pieces of dirty components, so it can be asked on a thread that mustn't wait for them.
+     *
+     * @param from id of a tile
+     * @param to id of another tile
+     * @return {@code true} if either tile is a wall, or the index is built and has the tiles in
+     *         different components. {@code false} if they are connected or it isn't known yet.
+     */
+    public boolean knownApart(int from, int to) {
+        if (!graph.isReachable(from) || !graph.isReachable(to)) {
+            return true;
+        }
+        return !isStale() && find(from) != find(to);
+    }
+
+    /**
+     * @return whether the next query has to build the whole index again
+     */
+    boolean isStale() {
+        return stale || diagonal != graph.diagonalsConnected();
+    }
+
+    /**
+     * @return whether the index is built and has no dirty components, so that every query is
+     *         answered without building or flooding anything
+     */
+    boolean isReady() {
+        return !isStale() && dirty.isEmpty();
+    }
+
+    /**
+     * Builds the index if it is stale, and tells apart the pieces of its dirty components, so that
+     * it is {@link #isReady ready}.
+     */
+    void prepare() {
+        update();
+        if (!dirty.isEmpty()) {
+            relabel();
+        }
+    }
+
+    @Override
+    public void reachabilityChanged(TileGraph changed, int id, boolean reachable) {
+        if (isStale()) {
+            stale = true; // the edit is lost, even if the diagonal setting is changed back
+            return;
+        }
+        if (reachable) {
+            reopen(id);
+            joinNeighbors(id);
+        } else {
+            close(id);
+        }
+    }
+
+    @Override
+    public void wallsChanged(TileGraph changed, BitSet ids) {
+        if (isStale()) {
+            stale = true;
+            return;
+        }
+        if (ids.cardinality() > Math.max(64, graph.numNodes() / 64)) {
+            // a maze or some other bulk change is cheaper to build again than to repair tile by tile
+            stale = true;
+            return;
+        }
+        // every opened tile gets a parent of its own before any of them are joined
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (graph.isReachable(id)) {
+                reopen(id);
+            } else {
+                close(id);
+            }
+        }
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (graph.isReachable(id)) {
+                joinNeighbors(id);
+            }
+        }
+    }
+
+    /**
+     * Marks the component of a tile that just became a wall as dirty. The tile keeps its parent,
+     * since other tiles of the component may point through it.
+     */
+    private void close(int id) {
+        dirty.set(find(id));
+        newWalls.set(id);
+    }
+
+    /**
+     * Makes a tile that just became reachable a component of its own, unless it became a wall
+     * since the dirty components were last told apart, in which case tiles may still point through
+     * it and it stays where it is.
+     */
+    private void reopen(int id) {
+        if (!newWalls.get(id)) {
+            parent[id] = id;
+            inner.clear(id);
+        }
+    }
+
+    /**
+     * Joins the component of a reachable tile with the component of every reachable tile next to it.
+     */
+    private void joinNeighbors(int id) {
+        int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+        int count = graph.getNeighbors(id, neighbors);
+        for (int i = 0; i < count; ++i) {
+            union(id, neighbors[i]);
+        }
+    }
+
+    /**
+     * @return root of the tree {@code id} is in, halving the path to it on the way
+     */
+    private int find(int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    /**
+     * Joins the trees of two tiles under the smaller of their roots. The joined component is dirty
+     * if either of them was.
+     */
+    private void union(int a, int b) {
+        int child = link(a, b);
+        if (child < 0) {
+            return;
+        }
+        inner.set(child);
+        if (dirty.get(child)) {
+            dirty.set(parent[child]);
+        }
+    }
+
+    /**
+     * Joins the trees of two tiles under the smaller of their roots, without marking anything.
+     *
+     * @return root that was put under the other one, or -1 if the tiles were already joined
+     */
+    private int link(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return -1;
+        }
+        int root = Math.min(rootA, rootB);
+        int child = Math.max(rootA, rootB);
+        parent[child] = root;
+        return child;
+    }
+
+    /**
+     * Builds the index again if it is stale.
+     */
+    private void update() {
+        if (!isStale()) {
+            return;
+        }
+        diagonal = graph.diagonalsConnected();
+        build();
+        stale = false;
+    }
+
+    /**
+     * Builds the forest from scratch: joins up each stripe of rows on its own, joins the stripes
+     * along the rows where they meet, then points every tile straight at its root, stripe by stripe.
+     */
+    private void build() {
+        int rows = graph.getNumRows();
+        int cols = graph.getNumCols();
+        if (parent.length != graph.numNodes()) {
+            parent = new int[graph.numNodes()];
+        }
+        dirty.clear();
+        newWalls.clear();
+        inner.clear(); // every tile ends up pointing straight at its root
+
+        int numStripes = Math.max(1, Math.min(rows / MIN_STRIPE_ROWS, 4 * pool.getParallelism()));
+        int[] firstRows = new int[numStripes + 1];
+        for (int i = 0; i <= numStripes; ++i) {
+            firstRows[i] = (int) ((long) rows * i / numStripes);
+        }
+
+        List<RecursiveAction> joins = new ArrayList<>(numStripes);
+        for (int i = 0; i < numStripes; ++i) {
+            joins.add(new StripeTask(firstRows[i], firstRows[i + 1], false));
+        }
+        runAll(joins);
+
+        int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+        for (int i = 1; i < numStripes; ++i) {
+            int row = firstRows[i];
+            for (int id = row * cols; id < (row + 1) * cols; ++id) {
+                joinEarlierNeighbors(id, row - 1, neighbors);
+            }
+        }
+
+        List<RecursiveAction> flattens = new ArrayList<>(numStripes);
+        for (int i = 0; i < numStripes; ++i) {
+            flattens.add(new StripeTask(firstRows[i], firstRows[i + 1], true));
+        }
+        runAll(flattens);
+    }
+
+    private void runAll(List<RecursiveAction> tasks) {
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Joins a reachable tile with the reachable tiles next to it that come before it, on its own
+     * row or on rows no earlier than {@code firstRow}. {@code neighbors} is scratch space, one
+     * array per thread.
+     */
+    private void joinEarlierNeighbors(int id, int firstRow, int[] neighbors) {
+        if (!graph.isReachable(id)) {
+            return;
+        }
+        int count = graph.getNeighbors(id, neighbors);
+        // neighbors come top-left, top, top-right, left first, which are the ones with smaller ids
+        for (int i = 0; i < count && neighbors[i] < id; ++i) {
+            if (graph.getRow(neighbors[i]) >= firstRow) {
+                link(id, neighbors[i]);
+            }
+        }
+    }
+
+    /**
+     * Joins up, or flattens, the tiles of one stripe of rows. Stripes only write the parents of
+     * their own tiles.
+     */
+    @SuppressWarnings("serial")
+    private final class StripeTask extends RecursiveAction {
+        private final int firstRow;
+        private final int endRow;
+        /**
+         * {@code false} for the first pass, that joins the stripe up, {@code true} for the second,
+         * that points every tile at its root
+         */
+        private final boolean flatten;
+
+        StripeTask(int firstRow, int endRow, boolean flatten) {
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+            this.flatten = flatten;
+        }
+
+        @Override
+        protected void compute() {
+            int cols = graph.getNumCols();
+            int first = firstRow * cols;
+            int end = endRow * cols;
+            if (flatten) {
+                for (int id = first; id < end; ++id) {
+                    // parents in other stripes may be flattened at the same time, but every parent
+                    // read is either the one from before or the root, so the root is still found
+                    int root = id;
+                    while (parent[root] != root) {
+                        root = parent[root];
+                    }
+                    parent[id] = root;
+                }
+            } else {
+                // nothing is marked while building, so joining only writes the parents of this stripe
+                int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+                for (int id = first; id < end; ++id) {
+                    parent[id] = id;
+                    joinEarlierNeighbors(id, firstRow, neighbors);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells apart the pieces of every dirty component, by flooding out from the tiles next to the
+     * walls made in them. Every piece of a dirty component touches one of those walls, since
+     * nothing else can have cut it off from the rest, so every piece has a flood of its own.
+     * <p>
+     * The floods of a component take turns, a tile each. Floods that meet are in the same piece.
+     * A piece whose floods run out of tiles is cut off, and its tiles are pointed at a root of its
+     * own. Once the floods that are left have all met, they are in the piece that keeps the old
+     * root, and the tiles it has not reached yet still point to it.
+     * <p>
+     * That only holds if no tile of the rest points through a tile that was cut off or became a
+     * wall. If one might, since it is the old root or an {@link #inner} tile, every piece is
+     * flooded to the end, and every tile of the component points straight at its new root.
+     * <p>
+     * While flooding, a tile reached by flood {@code f} has {@code -1 - f} as its parent, so the
+     * floods only remember the tiles they reached, never a set as big as the graph.
+     */
+    private void relabel() {
+        int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+        // the seeds are picked, and sorted by the root of their component, before any parent is changed
+        long[] seeds = new long[64];
+        int numSeeds = 0;
+        List<Integer> floodAll = new ArrayList<>();
+        for (int wall = newWalls.nextSetBit(0); wall >= 0; wall = newWalls.nextSetBit(wall + 1)) {
+            int wallRoot = find(wall);
+            if (dirty.get(wallRoot) && (wall == wallRoot || inner.get(wall))) {
+                floodAll.add(wallRoot); // tiles of the component may point through the wall
+            }
+            int count = around(wall, neighbors);
+            for (int i = 0; i < count; ++i) {
+                int root = find(neighbors[i]);
+                if (dirty.get(root)) {
+                    if (numSeeds == seeds.length) {
+                        seeds = Arrays.copyOf(seeds, 2 * numSeeds);
+                    }
+                    seeds[numSeeds++] = (long) root << 32 | neighbors[i];
+                }
+            }
+        }
+        Arrays.sort(seeds, 0, numSeeds);
+
+        for (int first = 0; first < numSeeds; ) {
+            int root = (int) (seeds[first] >>> 32);
+            int end = first;
+            while (end < numSeeds && (int) (seeds[end] >>> 32) == root) {
+                ++end;
+            }
+            new Pieces(seeds, first, end, floodAll.contains(root)).tellApart(root);
+            first = end;
+        }
+        for (int wall = newWalls.nextSetBit(0); wall >= 0; wall = newWalls.nextSetBit(wall + 1)) {
+            inner.clear(wall); // no tile points through a wall once its component is told apart
+        }
+        dirty.clear();
+        newWalls.clear();
+    }
+
+    /**
+     * The floods that tell apart the pieces of one dirty component, and which of them have met.
+     */
+    private final class Pieces {
+        /**
+         * Tiles reached by each flood, in the order they were reached. The ones before
+         * {@link #heads} have been expanded, the rest are its frontier.
+         */
+        private final int[][] reached;
+        private final int[] sizes;
+        private final int[] heads;
+        /**
+         * Union-find forest over the floods, joining the ones that met
+         */
+        private final int[] met;
+        /**
+         * Number of floods with a frontier left, by the flood at the root of each group that met
+         */
+        private final int[] running;
+        private final int numFloods;
+        /**
+         * Whether every piece has to be flooded to the end
+         */
+        private boolean floodAll;
+
+        /**
+         * Starts a flood at every distinct seed in {@code seeds[first, end)}, whose low halves are
+         * ids of tiles in the same component.
+         */
+        Pieces(long[] seeds, int first, int end, boolean floodAll) {
+            int count = end - first;
+            this.reached = new int[count][];
+            this.sizes = new int[count];
+            this.heads = new int[count];
+            this.met = new int[count];
+            this.running = new int[count];
+            this.floodAll = floodAll;
+            int floods = 0;
+            for (int i = first; i < end; ++i) {
+                int seed = (int) seeds[i];
+                if (parent[seed] < 0) {
+                    continue; // the same tile is next to more than one new wall
+                }
+                parent[seed] = -1 - floods;
+                reached[floods] = new int[16];
+                reached[floods][0] = seed;
+                sizes[floods] = 1;
+                met[floods] = floods;
+                running[floods] = 1;
+                ++floods;
+            }
+            this.numFloods = floods;
+        }
+
+        /**
+         * Floods until the pieces are told apart, and points the tiles reached at their roots.
+         *
+         * @param root old root of the component
+         */
+        void tellApart(int root) {
+            int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+            int groups = numFloods;
+            while (groups > (floodAll ? 0 : 1)) {
+                for (int f = 0; f < numFloods; ++f) {
+                    if (heads[f] == sizes[f]) {
+                        continue;
+                    }
+                    int curr = reached[f][heads[f]++];
+                    int count = graph.getNeighbors(curr, neighbors);
+                    for (int i = 0; i < count; ++i) {
+                        int next = neighbors[i];
+                        if (parent[next] >= 0) {
+                            parent[next] = -1 - f;
+                            add(f, next);
+                        } else if (join(f, -1 - parent[next])) {
+                            --groups;
+                        }
+                    }
+                    if (heads[f] == sizes[f] && --running[group(f)] == 0) {
+                        --groups;
+                        cutOff(group(f), root);
+                    }
+                }
+            }
+            if (!floodAll) {
+                // the floods that are left met in the piece that keeps the old root
+                for (int f = 0; f < numFloods; ++f) {
+                    if (running[group(f)] > 0) {
+                        for (int i = 0; i < sizes[f]; ++i) {
+                            parent[reached[f][i]] = root;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Points every tile of a piece whose floods ran out at a root of its own: the old root if
+         * the piece holds it, or else its first seed. If the rest of the component may point
+         * through the piece, every other piece is flooded to the end too.
+         */
+        private void cutOff(int group, int root) {
+            boolean hasRoot = parent[root] < 0 && group(-1 - parent[root]) == group;
+            int newRoot = hasRoot ? root : -1;
+            for (int f = 0; f < numFloods; ++f) {
+                if (group(f) != group) {
+                    continue;
+                }
+                if (newRoot < 0) {
+                    newRoot = reached[f][0];
+                }
+                for (int i = 0; i < sizes[f]; ++i) {
+                    int id = reached[f][i];
+                    if (inner.get(id)) {
+                        floodAll = true;
+                        inner.clear(id);
+                    }
+                    parent[id] = newRoot;
+                }
+            }
+            floodAll |= hasRoot;
+        }
+
+        private void add(int flood, int id) {
+            if (sizes[flood] == reached[flood].length) {
+                reached[flood] = Arrays.copyOf(reached[flood], 2 * sizes[flood]);
+            }
+            reached[flood][sizes[flood]++] = id;
+        }
+
+        private int group(int flood) {
+            while (met[flood] != flood) {
+                met[flood] = met[met[flood]];
+                flood = met[flood];
+            }
+            return flood;
+        }
+
+        /**
+         * Records that two floods met.
+         *
+         * @return {@code true} if they hadn't met before, directly or through other floods
+         */
+        private boolean join(int a, int b) {
+            int groupA = group(a);
+            int groupB = group(b);
+            if (groupA == groupB) {
+                return false;
+            }
+            met[groupB] = groupA;
+            running[groupA] += running[groupB];
+            return true;
+        }
+    }
+
+    /**
+     * Finds the reachable tiles around a tile, which may be a wall itself: the tile itself if it
+     * is reachable again, and every reachable tile next to it.
+     *
+     * @return how many ids were written into {@code out}
+     */
+    private int around(int id, int[] out) {
+        if (graph.isReachable(id)) {
+            out[0] = id;
+            return 1; // its neighbors are in its own piece
+        }
+        int rows = graph.getNumRows();
+        int cols = graph.getNumCols();
+        int row = id / cols;
+        int col = id % cols;
+        int count = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); ++r) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); ++c) {
+                boolean isDiagonal = r != row && c != col;
+                if ((r != row || c != col) && (!isDiagonal || diagonal) && graph.isReachable(r, c)) {
+                    out[count++] = r * cols + c;
+                }
+            }
+        }
+        return count;
+    }
+}
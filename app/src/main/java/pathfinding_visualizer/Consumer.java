@@ -1,23 +1,23 @@
 package pathfinding_visualizer;
 
 /**
- * Listens to and retrieves objects from a {@link SynchronizedQueue}
+ * Listens to and retrieves objects from a {@link MessageQueue}
  */
 public abstract class Consumer<T> extends Thread {
-    private SynchronizedQueue<T> syncQueue;
+    private MessageQueue<T> syncQueue;
 
     /**
      * Creates a Consumer that listens to {@code syncQueue}.
      * 
-     * @param syncQueue SynchronizedQueue this Consumer is listening to
+     * @param syncQueue MessageQueue this Consumer is listening to
      */
-    protected Consumer(SynchronizedQueue<T> syncQueue) {
+    protected Consumer(MessageQueue<T> syncQueue) {
         this.syncQueue = syncQueue;
         this.start();
     }
 
     /**
-     * Gets a message from internal SynchronizedQueue.
+     * Gets a message from internal MessageQueue.
      * 
      * @return object at the front of the queue
      * @throws InterruptedException waited too long on an empty queue
@@ -26,6 +26,16 @@ public abstract class Consumer<T> extends Thread {
         return syncQueue.get();
     }
 
+    /**
+     * Gets a message from internal MessageQueue without waiting, so that every message that is
+     * already waiting can be handled at once.
+     * 
+     * @return object at the front of the queue, or null if the queue is empty
+     */
+    protected T pollMessage() {
+        return syncQueue.poll();
+    }
+
     /**
      * Implement run to listen for and parse object retrieved with {@link #getMessage}.
      */
@@ -0,0 +1,63 @@
+package pathfinding_visualizer;
+
+/**
+ * Location of a tile packed into a single {@code long}, with its row in the high 32 bits and its
+ * column in the low 32 bits. Coordinates are passed around as plain {@code long}s, so making,
+ * comparing and hashing one never boxes or allocates, and two coordinates are equal exactly when
+ * their {@code long}s are.
+ * <p>
+ * A coordinate only says where a tile is. To index the arrays of a particular TileGraph, turn it
+ * into an id with {@link TileGraph#getId(long)}.
+ */
+public final class Coord {
+    /**
+     * Private constructor to override the default constructor. Does nothing.
+     */
+    private Coord() {
+        // Do nothing
+    }
+
+    /**
+     * @param row row of a tile
+     * @param col column of a tile
+     * @return coordinate of the tile at {@code (row, col)}
+     */
+    public static long of(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param coord coordinate made by {@link #of}
+     * @return row of the tile at {@code coord}
+     */
+    public static int row(long coord) {
+        return (int) (coord >> 32);
+    }
+
+    /**
+     * @param coord coordinate made by {@link #of}
+     * @return column of the tile at {@code coord}
+     */
+    public static int col(long coord) {
+        return (int) coord;
+    }
+
+    /**
+     * Spreads the row and column of {@code coord} over every bit of the hash, so that tiles in the
+     * same row, column or diagonal don't collide in hash tables.
+     *
+     * @param coord coordinate made by {@link #of}
+     * @return hash code of {@code coord}
+     */
+    public static int hashCode(long coord) {
+        return (int) ((coord * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    /**
+     * @param coord coordinate made by {@link #of}
+     * @return String in the form {@code (row, col)}, like {@link Pair#toString}
+     */
+    public static String toString(long coord) {
+        return "(" + row(coord) + ", " + col(coord) + ")";
+    }
+}
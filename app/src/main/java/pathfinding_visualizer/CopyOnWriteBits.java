@@ -0,0 +1,192 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Fixed number of bits split into blocks that copies share until one of them writes to a block.
+ * Making a copy with {@link #share} costs one reference per block rather than one bit per bit, and
+ * writing to a block that is shared copies just that block first, so a copy is never changed by
+ * writes to the set it was made from, or the other way around.
+ * <p>
+ * A set is not thread-safe, but copies can be handed to other threads: once {@link #share} returns,
+ * the blocks the two sets share are never written again, so one thread can keep writing to a set
+ * while others read copies made from it.
+ */
+public class CopyOnWriteBits {
+    /**
+     * log2 of the number of bits in a block
+     */
+    static final int BLOCK_SHIFT = 14;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORDS_PER_BLOCK = 1 << (BLOCK_SHIFT - WORD_SHIFT);
+
+    private final int size;
+    /**
+     * Words of each block, or null for a block with no bits set
+     */
+    private final long[][] blocks;
+    /**
+     * Whether the block at the same index belongs to this set alone, and can be written in place
+     */
+    private final boolean[] owned;
+
+    /**
+     * Creates a set of {@code size} bits that are all clear.
+     *
+     * @param size number of bits
+     * @throws IllegalArgumentException {@code size} is negative
+     */
+    public CopyOnWriteBits(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size can't be negative: " + size);
+        }
+        this.size = size;
+        int numBlocks = (int) (((long) size + (1 << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT);
+        this.blocks = new long[numBlocks][];
+        this.owned = new boolean[numBlocks];
+    }
+
+    private CopyOnWriteBits(CopyOnWriteBits other) {
+        this.size = other.size;
+        this.blocks = other.blocks.clone();
+        this.owned = new boolean[blocks.length];
+    }
+
+    /**
+     * Makes a copy that shares every block with this set. Takes time linear in the number of blocks.
+     *
+     * @return copy of this set
+     */
+    public CopyOnWriteBits share() {
+        Arrays.fill(owned, false);
+        return new CopyOnWriteBits(this);
+    }
+
+    /**
+     * @return number of bits in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of a bit, between 0 and {@link #size} - 1
+     * @return value of the bit
+     */
+    public boolean get(int index) {
+        long[] block = blocks[index >>> BLOCK_SHIFT];
+        return block != null && (block[(index >>> WORD_SHIFT) & (WORDS_PER_BLOCK - 1)] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param index index of a bit, between 0 and {@link #size} - 1
+     * @param value new value of the bit
+     */
+    public void set(int index, boolean value) {
+        if (get(index) == value) {
+            return;
+        }
+        long[] block = writableBlock(index >>> BLOCK_SHIFT);
+        block[(index >>> WORD_SHIFT) & (WORDS_PER_BLOCK - 1)] ^= 1L << index;
+    }
+
+    /**
+     * Gives every bit of this set the value of the same bit of {@code bits}. Blocks that don't
+     * change aren't written, and stay shared.
+     *
+     * @param bits new values of the bits. Bits past {@link #size} are ignored.
+     * @return BitSet of the bits that changed
+     */
+    public BitSet assign(BitSet bits) {
+        long[] words = bits.toLongArray();
+        long[] changed = new long[numWords()];
+        for (int w = 0; w < changed.length; ++w) {
+            long target = (w < words.length ? words[w] : 0) & wordMask(w);
+            changed[w] = write(w, target);
+        }
+        return BitSet.valueOf(changed);
+    }
+
+    /**
+     * Sets every bit whose index is set in {@code indices} to {@code value}. Takes time linear in
+     * the length of {@code indices}, and only writes the blocks that change.
+     *
+     * @param indices BitSet of the bits to set. Bits past {@link #size} are ignored.
+     * @param value new value of the bits
+     * @return BitSet of the bits that changed
+     */
+    public BitSet setAll(BitSet indices, boolean value) {
+        long[] words = indices.toLongArray();
+        long[] changed = new long[Math.min(words.length, numWords())];
+        for (int w = 0; w < changed.length; ++w) {
+            long old = word(w);
+            long mask = words[w] & wordMask(w);
+            changed[w] = write(w, value ? old | mask : old & ~mask);
+        }
+        return BitSet.valueOf(changed);
+    }
+
+    /**
+     * @return BitSet with the same bits set as this set
+     */
+    public BitSet toBitSet() {
+        long[] words = new long[numWords()];
+        for (int w = 0; w < words.length; ++w) {
+            words[w] = word(w);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @return number of blocks with bits set that this set shares with a copy, or a set it was copied from
+     */
+    int numSharedBlocks() {
+        int shared = 0;
+        for (int b = 0; b < blocks.length; ++b) {
+            shared += blocks[b] != null && !owned[b] ? 1 : 0;
+        }
+        return shared;
+    }
+
+    private int numWords() {
+        return (int) (((long) size + 63) >>> WORD_SHIFT);
+    }
+
+    /**
+     * @return mask of the bits of word {@code w} that are inside this set
+     */
+    private long wordMask(int w) {
+        int bitsLeft = size - (w << WORD_SHIFT);
+        return bitsLeft >= 64 ? -1L : (1L << bitsLeft) - 1;
+    }
+
+    private long word(int w) {
+        long[] block = blocks[w >>> (BLOCK_SHIFT - WORD_SHIFT)];
+        return block == null ? 0 : block[w & (WORDS_PER_BLOCK - 1)];
+    }
+
+    /**
+     * Writes {@code value} to word {@code w}, copying its block first if it changes and is shared.
+     *
+     * @return bits of the word that changed
+     */
+    private long write(int w, long value) {
+        long diff = word(w) ^ value;
+        if (diff != 0) {
+            writableBlock(w >>> (BLOCK_SHIFT - WORD_SHIFT))[w & (WORDS_PER_BLOCK - 1)] = value;
+        }
+        return diff;
+    }
+
+    /**
+     * @return words of block {@code b}, copied or allocated first if this set doesn't own them
+     */
+    private long[] writableBlock(int b) {
+        if (!owned[b]) {
+            blocks[b] = blocks[b] == null ? new long[WORDS_PER_BLOCK] : blocks[b].clone();
+            owned[b] = true;
+        }
+        return blocks[b];
+    }
+}
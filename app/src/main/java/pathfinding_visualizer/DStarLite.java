@@ -0,0 +1,324 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Incremental shortest path planner (D* Lite) that keeps its state between searches. The planner
+ * searches backward from the destination, so every Node's distance to the destination stays valid
+ * after a search. When tiles change reachability or the source moves, the next search only repairs
+ * the Nodes whose distances became inconsistent, instead of starting over.
+ * <p>
+ * The planner listens to its {@link TileGraph}. A tile that changes reachability only touches
+ * the tile itself and its neighbors, so painting walls costs O(1) per tile and replanning costs
+ * time proportional to the part of the search the change affected. Moving the destination or
+ * toggling diagonal traversal makes the next search start from scratch.
+ * <p>
+ * A planner is not thread-safe, and should only be used from the thread that changes its graph.
+ */
+public class DStarLite implements ReachabilityListener {
+    /**
+     * Most a key may be above the source's, as a fraction of it, and still be taken as a tie. Keys
+     * summed along different paths can differ in the last bits even when they are equal.
+     */
+    private static final double KEY_ROUNDING = 1e-9;
+
+    private final TileGraph graph;
+    /**
+     * {@code g[id]} is the distance from {@code id} to the destination as of its last expansion
+     */
+    private final double[] g;
+    /**
+     * {@code rhs[id]} is the distance from {@code id} to the destination through its best neighbor.
+     * A Node is consistent when {@code g[id] == rhs[id]}.
+     */
+    private final double[] rhs;
+    /**
+     * Inconsistent Nodes, ordered by {@code min(g, rhs)} plus the heuristic distance from the source,
+     * then by {@code min(g, rhs)}
+     */
+    private final IndexedMinHeap open;
+    private final int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+    private final int[] neighborsOfNeighbor = new int[TileGraph.MAX_NEIGHBORS];
+
+    /**
+     * Destination of the current plan, or -1 if nothing has been planned yet
+     */
+    private int dest = -1;
+    /**
+     * Source the keys in {@link #open} were last computed for
+     */
+    private int lastSource = -1;
+    /**
+     * Sum of the heuristic distances the source has moved, added to every new key so that keys
+     * computed for an older source stay lower bounds
+     */
+    private double keyModifier = 0;
+    /**
+     * Whether the plan was made for a graph with diagonal traversal
+     */
+    private boolean diagonal;
+    /**
+     * Number of Nodes expanded by the last search
+     */
+    private int lastExpansions = 0;
+
+    /**
+     * Creates a planner for {@code graph} and starts listening for changes to it.
+     *
+     * @param graph TileGraph to plan paths in
+     */
+    public DStarLite(TileGraph graph) {
+        this.graph = graph;
+        this.g = new double[graph.numNodes()];
+        this.rhs = new double[graph.numNodes()];
+        this.open = new IndexedMinHeap(graph.numNodes());
+        this.diagonal = graph.diagonalsConnected();
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * @return the TileGraph this planner plans paths in
+     */
+    public TileGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Stops this planner from listening to its graph. The plan is stale afterwards.
+     */
+    public void detach() {
+        graph.removeReachabilityListener(this);
+        dest = -1;
+    }
+
+    /**
+     * @return number of Nodes expanded by the last search
+     */
+    public int getLastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * Every edge into or out of the tile with id {@code id} changed weight, so the tile and each
+     * of its neighbors recompute their distance through their best neighbor.
+     */
+    @Override
+    public void reachabilityChanged(TileGraph graph, int id, boolean reachable) {
+        if (dest < 0) {
+            return;
+        }
+        updateRhs(id);
+        int r = graph.getRow(id);
+        int c = graph.getCol(id);
+        for (int row = Math.max(0, r - 1); row <= Math.min(graph.getNumRows() - 1, r + 1); ++row) {
+            for (int col = Math.max(0, c - 1); col <= Math.min(graph.getNumCols() - 1, c + 1); ++col) {
+                updateRhs(graph.getId(row, col));
+            }
+        }
+    }
+
+    /**
+     * Many tiles changed at once, so every tile next to one of them recomputes its distance once,
+     * after all of them changed, rather than once per tile next to it.
+     */
+    @Override
+    public void wallsChanged(TileGraph graph, BitSet changed) {
+        if (dest < 0) {
+            return;
+        }
+        BitSet affected = new BitSet(graph.numNodes());
+        int cols = graph.getNumCols();
+        for (int id = changed.nextSetBit(0); id >= 0; id = changed.nextSetBit(id + 1)) {
+            int r = graph.getRow(id);
+            int c = graph.getCol(id);
+            int c0 = Math.max(0, c - 1);
+            int c1 = Math.min(cols - 1, c + 1);
+            for (int row = Math.max(0, r - 1); row <= Math.min(graph.getNumRows() - 1, r + 1); ++row) {
+                affected.set(row * cols + c0, row * cols + c1 + 1);
+            }
+        }
+        for (int id = affected.nextSetBit(0); id >= 0; id = affected.nextSetBit(id + 1)) {
+            updateRhs(id);
+        }
+    }
+
+    /**
+     * Finds a shortest path from {@code source} to {@code dest}, reusing as much of the previous
+     * search as possible.
+     *
+     * @param source id of the source tile
+     * @param dest id of the destination tile
+     * @return SearchTrace of what the search did at each step. Only the Nodes expanded by this
+     *         search are reported as visited.
+     */
+    SearchTrace plan(int source, int dest) {
+        if (dest != this.dest || diagonal != graph.diagonalsConnected()) {
+            reset(source, dest);
+        } else if (source != lastSource) {
+            keyModifier += heuristic(lastSource, source);
+            lastSource = source;
+        }
+
+        SearchTrace trace = new SearchTrace();
+        if (!graph.isReachable(source)) {
+            lastExpansions = 0;
+            return trace;
+        }
+        computeShortestPath(source, trace);
+        if (g[source] != Double.POSITIVE_INFINITY) { // the source is consistent once the search stops
+            tracePath(trace, source);
+        }
+        return trace;
+    }
+
+    /**
+     * Forgets the previous plan and starts a new one towards {@code dest}.
+     */
+    private void reset(int source, int dest) {
+        this.dest = dest;
+        this.lastSource = source;
+        this.keyModifier = 0;
+        this.diagonal = graph.diagonalsConnected();
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Double.POSITIVE_INFINITY);
+        open.clear();
+        if (graph.isReachable(dest)) {
+            rhs[dest] = 0;
+            insertOrUpdate(dest);
+        }
+    }
+
+    /**
+     * Expands inconsistent Nodes in key order until the source is consistent and no inconsistent Node
+     * could still change its distance.
+     */
+    private void computeShortestPath(int source, SearchTrace trace) {
+        lastExpansions = 0;
+        int popped = 0;
+        while (!open.isEmpty()) {
+            // every Node is either expanded or left in the queue, so a cancelled plan can be picked up by the next one
+            Algorithms.checkCancelled(++popped);
+            int u = open.peek();
+            double k1 = open.getKey(u);
+            double k2 = open.getTie(u);
+            double sourceK2 = Math.min(g[source], rhs[source]);
+            double sourceK1 = sourceK2 + keyModifier;
+            // a tie is expanded too, since a Node whose key ties the source's can still change the source's distance
+            boolean beforeSource = k1 < sourceK1 || (k1 <= sourceK1 + KEY_ROUNDING * sourceK1 && k2 < sourceK2);
+            if (!beforeSource && rhs[source] == g[source]) {
+                break;
+            }
+
+            double newK2 = Math.min(g[u], rhs[u]);
+            double newK1 = newK2 + heuristic(lastSource, u) + keyModifier;
+            if (k1 < newK1 || (k1 == newK1 && k2 < newK2)) { // key is outdated because the source moved
+                open.update(u, newK1, newK2);
+                continue;
+            }
+
+            ++lastExpansions;
+            if (u != source && u != dest) {
+                Algorithms.visit(trace, u, graph);
+            }
+            if (g[u] > rhs[u]) { // overconsistent, its distance went down
+                g[u] = rhs[u];
+                open.remove(u);
+                int count = graph.getNeighbors(u, neighbors);
+                for (int i = 0; i < count; ++i) {
+                    int s = neighbors[i];
+                    if (s != dest) {
+                        double d = graph.getWeight(s, u) + g[u];
+                        if (d < rhs[s]) {
+                            rhs[s] = d;
+                            updateVertex(s);
+                        }
+                    }
+                }
+            } else { // underconsistent, its distance went up
+                g[u] = Double.POSITIVE_INFINITY;
+                updateRhs(u);
+                int count = graph.getNeighbors(u, neighbors);
+                for (int i = 0; i < count; ++i) {
+                    updateRhs(neighbors[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes {@code rhs} of {@code id} from its neighbors and requeues it if it is inconsistent.
+     */
+    private void updateRhs(int id) {
+        if (id != dest) {
+            double best = Double.POSITIVE_INFINITY;
+            int count = graph.getNeighbors(id, neighborsOfNeighbor);
+            for (int i = 0; i < count; ++i) {
+                int next = neighborsOfNeighbor[i];
+                best = Math.min(best, graph.getWeight(id, next) + g[next]);
+            }
+            rhs[id] = best;
+        } else {
+            rhs[id] = graph.isReachable(id) ? 0 : Double.POSITIVE_INFINITY;
+        }
+        updateVertex(id);
+    }
+
+    /**
+     * Makes sure {@code id} is in {@link #open} with an up to date key if and only if it is inconsistent.
+     */
+    private void updateVertex(int id) {
+        if (g[id] != rhs[id]) {
+            insertOrUpdate(id);
+        } else {
+            open.remove(id);
+        }
+    }
+
+    private void insertOrUpdate(int id) {
+        double k2 = Math.min(g[id], rhs[id]);
+        open.update(id, k2 + heuristic(lastSource, id) + keyModifier, k2);
+    }
+
+    private double heuristic(int a, int b) {
+        return Algorithms.heuristic(a, b, graph);
+    }
+
+    /**
+     * Follows the best neighbor of every Node from the source to the destination. Every step has
+     * to lead to a Node with a smaller {@code g}, so the walk can't go around in a circle, and
+     * it takes no more steps than there are Nodes. If it gets stuck, no path is added.
+     *
+     * @param trace SearchTrace the path is added to, from the destination to the source
+     */
+    private void tracePath(SearchTrace trace, int source) {
+        List<Integer> ids = new ArrayList<>();
+        ids.add(source);
+        for (int curr = source; curr != dest; ) {
+            Algorithms.checkCancelled(ids.size());
+            int count = graph.getNeighbors(curr, neighbors);
+            int bestNext = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < count; ++i) {
+                double d = graph.getWeight(curr, neighbors[i]) + g[neighbors[i]];
+                if (d < best) {
+                    best = d;
+                    bestNext = neighbors[i];
+                }
+            }
+            if (bestNext < 0 || g[bestNext] >= g[curr] || ids.size() > graph.numNodes()) {
+                return;
+            }
+            curr = bestNext;
+            ids.add(curr);
+        }
+
+        trace.beginPath();
+        for (int i = ids.size() - 1; i >= 0; --i) {
+            trace.addPathTile(graph.getRow(ids.get(i)), graph.getCol(ids.get(i)));
+        }
+        trace.endPath();
+    }
+}
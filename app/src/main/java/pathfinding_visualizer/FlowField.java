@@ -0,0 +1,631 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Distance from every tile of a {@link TileGraph} to one destination tile, and the direction of
+ * the next step on a shortest path towards it. Computed once, the field gives the path of any
+ * number of sources, each in time linear in the length of its path, which makes it much cheaper
+ * than a search per source when many sources head for the same destination.
+ * <p>
+ * The field is computed one wavefront at a time. Every wavefront holds the tiles whose distance has
+ * the same whole part, like a bucket of {@link BucketQueue}: since no edge is shorter than 1, every
+ * tile of a wavefront gets its distance from a tile of one of the two wavefronts before it, never
+ * from its own. The tiles of a wavefront are found by pulling distances from those two wavefronts,
+ * split into tasks on a {@link ForkJoinPool} once they are large enough to be worth it.
+ * <p>
+ * The field listens to its graph. Changed tiles are remembered, and repaired the next time the
+ * field is used: every tile whose path ran through a changed tile is reset, and given its distance
+ * again by Djikstra's Algorithm out from the tiles around it. Changes to a large part of the graph
+ * at once, or to its diagonal setting, mark the whole field stale, and it is computed again.
+ * <p>
+ * Distances are stored as one {@code float} per tile, and directions as one {@code byte}.
+ */
+public class FlowField implements ReachabilityListener {
+    /**
+     * Fewest tiles in the two wavefronts before a wavefront for it to be found by several tasks
+     */
+    static final int MIN_PARALLEL_FRONTIER = 1024;
+    /**
+     * Most ulps two distances may differ by and still be taken as the same distance summed along
+     * different paths
+     */
+    private static final int ROUNDING_ULPS = 16;
+    /**
+     * Direction of a tile that has no next step, because it is the destination or has no path to it
+     */
+    private static final byte NONE = -1;
+    /**
+     * Row offsets of every direction, in the order {@link TileGraph#getNeighbors(int, int[])}
+     * generates neighbors. The opposite of direction {@code i} is {@code 7 - i}.
+     */
+    private static final int[] DELTA_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+    /**
+     * Column offsets of every direction, in the same order as {@link #DELTA_ROW}
+     */
+    private static final int[] DELTA_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+    /**
+     * Whether the direction at the same index in {@link #DELTA_ROW} and {@link #DELTA_COL} is diagonal
+     */
+    private static final boolean[] DIAGONAL = {true, false, true, false, false, true, false, true};
+
+    private final TileGraph graph;
+    private final ForkJoinPool pool;
+    private final long destCoord;
+    private final int dest;
+    /**
+     * {@code distance[id]} is the length of the shortest path from {@code id} to the destination,
+     * or infinity if there is none
+     */
+    private float[] distance = new float[0];
+    /**
+     * {@code direction[id]} is the index into {@link #DELTA_ROW} and {@link #DELTA_COL} of the next
+     * tile on the shortest path from {@code id}, or {@link #NONE}
+     */
+    private byte[] direction = new byte[0];
+    /**
+     * Tiles in the order their distances were found while computing the field, or that were reset
+     * while repairing it
+     */
+    private int[] order = new int[0];
+    /**
+     * Pending entries of the repair, each a distance's {@code float} bits above a tile id. Distances
+     * are never negative, so the entries sort by distance.
+     */
+    private long[] heap = new long[16];
+    private int heapSize = 0;
+    /**
+     * Tiles whose reachability changed since the field was last repaired
+     */
+    private final BitSet pending = new BitSet();
+    /**
+     * Whether the field has to be computed again before it is used
+     */
+    private boolean stale = true;
+    /**
+     * Whether the field was computed for a graph with diagonal traversal
+     */
+    private boolean diagonal;
+    /**
+     * First row whose distances changed since {@link #takeChangedRows} was last called
+     */
+    private int changedFrom = Integer.MAX_VALUE;
+    /**
+     * Last row whose distances changed since {@link #takeChangedRows} was last called
+     */
+    private int changedTo = -1;
+
+    /**
+     * Creates the flow field towards {@code destCoord}, computed on the common ForkJoinPool.
+     *
+     * @param graph TileGraph the field covers
+     * @param destCoord {@link Coord} of the destination tile
+     * @see #FlowField(TileGraph, long, ForkJoinPool)
+     */
+    public FlowField(TileGraph graph, long destCoord) {
+        this(graph, destCoord, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the flow field towards {@code destCoord} and starts listening for changes to the
+     * graph. The field is computed the first time it is used.
+     *
+     * @param graph TileGraph the field covers
+     * @param destCoord {@link Coord} of the destination tile
+     * @param pool ForkJoinPool the wavefronts are found on
+     * @throws IllegalArgumentException {@code destCoord} is outside the graph
+     */
+    public FlowField(TileGraph graph, long destCoord, ForkJoinPool pool) {
+        int row = Coord.row(destCoord);
+        int col = Coord.col(destCoord);
+        if (row < 0 || row >= graph.getNumRows() || col < 0 || col >= graph.getNumCols()) {
+            throw new IllegalArgumentException("destination outside the graph: " + Coord.toString(destCoord));
+        }
+        this.graph = graph;
+        this.pool = pool;
+        this.destCoord = destCoord;
+        this.dest = graph.getId(destCoord);
+        this.diagonal = graph.diagonalsConnected();
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * @return the TileGraph this field covers
+     */
+    public TileGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return {@link Coord} of the destination every path of this field leads to
+     */
+    public long getDestCoord() {
+        return destCoord;
+    }
+
+    /**
+     * Stops this field from listening to its graph. The field is stale afterwards.
+     */
+    public void detach() {
+        graph.removeReachabilityListener(this);
+        stale = true;
+    }
+
+    /**
+     * @return {@code true} if the whole field will be computed again before it is used
+     */
+    public boolean isStale() {
+        return stale || diagonal != graph.diagonalsConnected();
+    }
+
+    @Override
+    public void reachabilityChanged(TileGraph changed, int id, boolean reachable) {
+        if (isStale()) {
+            stale = true; // the edit is lost, even if the diagonal setting is changed back
+            pending.clear();
+        } else {
+            pending.set(id);
+        }
+    }
+
+    @Override
+    public void wallsChanged(TileGraph changed, BitSet ids) {
+        if (isStale()) {
+            stale = true;
+            pending.clear();
+            return;
+        }
+        if (pending.cardinality() + ids.cardinality() > Math.max(64, graph.numNodes() / 64)) {
+            // a maze or some other bulk change is cheaper to compute again than to repair
+            stale = true;
+            pending.clear();
+            return;
+        }
+        pending.or(ids);
+    }
+
+    /**
+     * @param id id of a tile
+     * @return length of the shortest path from the tile to the destination, or infinity if there is
+     *         none
+     */
+    public double getDistance(int id) {
+        ensureCurrent();
+        return distance[id];
+    }
+
+    /**
+     * @param id id of a tile
+     * @return id of the next tile on the shortest path from the tile to the destination, or -1 if
+     *         the tile is the destination or has no path to it
+     */
+    public int getNext(int id) {
+        ensureCurrent();
+        byte dir = direction[id];
+        return dir == NONE ? -1 : id + DELTA_ROW[dir] * graph.getNumCols() + DELTA_COL[dir];
+    }
+
+    /**
+     * Reads the shortest path from a source to the destination off the field, in time linear in
+     * the length of the path.
+     *
+     * @param sourceCoord {@link Coord} of the source tile
+     * @return Coords of every tile on the path, from the source to the destination, or an empty
+     *         array if there is no path
+     */
+    public long[] pathFrom(long sourceCoord) {
+        ensureCurrent();
+        int id = graph.getId(sourceCoord);
+        if (distance[id] == Float.POSITIVE_INFINITY) {
+            return new long[0];
+        }
+        long[] path = new long[16];
+        int length = 0;
+        for (; id >= 0; id = getNext(id)) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, 2 * length);
+            }
+            path[length++] = graph.getCoord(id);
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Computes the field again if it is stale, or repairs it around the tiles that changed.
+     */
+    void ensureCurrent() {
+        if (isStale()) {
+            refresh();
+        } else if (!pending.isEmpty()) {
+            repair();
+        }
+    }
+
+    /**
+     * Rows whose distances changed since this was last called, after bringing the field up to date.
+     *
+     * @return first and one past the last row that changed, or null if none did
+     */
+    int[] takeChangedRows() {
+        ensureCurrent();
+        if (changedFrom > changedTo) {
+            return null;
+        }
+        int[] rows = {changedFrom, changedTo + 1};
+        changedFrom = Integer.MAX_VALUE;
+        changedTo = -1;
+        return rows;
+    }
+
+    /**
+     * Computes the whole field, one wavefront at a time.
+     */
+    public void refresh() {
+        stale = false;
+        diagonal = graph.diagonalsConnected();
+        pending.clear();
+        int numNodes = graph.numNodes();
+        if (distance.length != numNodes) {
+            distance = new float[numNodes];
+            direction = new byte[numNodes];
+            order = new int[numNodes];
+        }
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        Arrays.fill(direction, NONE);
+        changedFrom = 0;
+        changedTo = graph.getNumRows() - 1;
+        if (!graph.isReachable(dest)) {
+            return;
+        }
+
+        distance[dest] = 0;
+        order[0] = dest;
+        int size = 1;
+        // order[from, middle) is the wavefront two before the one being found, order[middle, size)
+        // the one just before it. Two empty wavefronts in a row mean there are no more.
+        int from = 0;
+        int middle = 0;
+        for (int wave = 1; from < size; ++wave) {
+            int end;
+            if (size - from < MIN_PARALLEL_FRONTIER) {
+                end = new WaveTask(from, size, wave).pullInto(order, size);
+            } else {
+                end = pullInParallel(from, size, wave);
+            }
+            from = middle;
+            middle = size;
+            size = end;
+        }
+    }
+
+    /**
+     * Finds the tiles of one wavefront with a task per slice of the two wavefronts before it, and
+     * appends them to {@link #order}.
+     *
+     * @return one past the last tile of the new wavefront in {@link #order}
+     */
+    private int pullInParallel(int from, int to, int wave) {
+        int numTasks = Math.min(4 * pool.getParallelism(), (to - from) / (MIN_PARALLEL_FRONTIER / 4));
+        List<WaveTask> tasks = new ArrayList<>(numTasks);
+        for (int i = 0; i < numTasks; ++i) {
+            tasks.add(new WaveTask(from + (int) ((long) (to - from) * i / numTasks),
+                    from + (int) ((long) (to - from) * (i + 1) / numTasks), wave));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        int size = to;
+        for (WaveTask task : tasks) {
+            System.arraycopy(task.found, 0, order, size, task.numFound);
+            size += task.numFound;
+        }
+        return size;
+    }
+
+    /**
+     * Finds the tiles of one wavefront next to a slice of the two wavefronts before it.
+     * <p>
+     * A tile next to several tiles of the slice, or of other slices, is only claimed by the
+     * reached tile next to it with the smallest id, so every tile is found by exactly one task,
+     * and only that task writes its distance and direction.
+     */
+    @SuppressWarnings("serial")
+    private final class WaveTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        /**
+         * Whole part of the distances of the wavefront being found
+         */
+        private final int wave;
+        /**
+         * Tiles of the wavefront found by this task, when it runs on its own
+         */
+        int[] found;
+        int numFound = 0;
+
+        WaveTask(int from, int to, int wave) {
+            this.from = from;
+            this.to = to;
+            this.wave = wave;
+        }
+
+        @Override
+        protected void compute() {
+            found = new int[64];
+            numFound = pullInto(null, 0);
+        }
+
+        /**
+         * Pulls the distance of every unreached tile next to {@code order[from, to)} from the reached
+         * tiles around it, and keeps those that belong to this wavefront.
+         *
+         * @param out array the tiles found are written into from {@code start}, or null to write
+         *        them into {@link #found}
+         * @return one past the last index written
+         */
+        int pullInto(int[] out, int start) {
+            int cols = graph.getNumCols();
+            int rows = graph.getNumRows();
+            int size = start;
+            for (int i = from; i < to; ++i) {
+                int tile = order[i];
+                int row = tile / cols;
+                int col = tile - row * cols;
+                for (int d = 0; d < DELTA_ROW.length; ++d) {
+                    int r = row + DELTA_ROW[d];
+                    int c = col + DELTA_COL[d];
+                    if ((DIAGONAL[d] && !diagonal) || r < 0 || r >= rows || c < 0 || c >= cols) {
+                        continue;
+                    }
+                    int next = r * cols + c;
+                    // the tiles of this wavefront may be written by other tasks while this one
+                    // reads them, but every distance written is at least wave, so they are
+                    // never taken for reached tiles
+                    if (distance[next] < wave || !graph.isReachable(next) || !pull(next, tile, r, c)) {
+                        continue;
+                    }
+                    if (out == null) {
+                        if (size == found.length) {
+                            found = Arrays.copyOf(found, 2 * size);
+                        }
+                        found[size++] = next;
+                    } else {
+                        out[size++] = next;
+                    }
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Gives a tile its distance and direction if {@code claimer} is the reached tile next to it
+         * with the smallest id, and its distance is in this wavefront.
+         *
+         * @return whether the tile was given its distance
+         */
+        private boolean pull(int tile, int claimer, int row, int col) {
+            int cols = graph.getNumCols();
+            int rows = graph.getNumRows();
+            double best = Double.POSITIVE_INFINITY;
+            byte bestDir = NONE;
+            for (int d = 0; d < DELTA_ROW.length; ++d) {
+                int r = row + DELTA_ROW[d];
+                int c = col + DELTA_COL[d];
+                if ((DIAGONAL[d] && !diagonal) || r < 0 || r >= rows || c < 0 || c >= cols) {
+                    continue;
+                }
+                int next = r * cols + c;
+                float reached = distance[next];
+                if (reached >= wave) {
+                    continue;
+                }
+                if (next < claimer) {
+                    return false;
+                }
+                double through = reached + (DIAGONAL[d] ? TileGraph.SQRT2 : 1);
+                if (through < best) {
+                    best = through;
+                    bestDir = (byte) d;
+                }
+            }
+            float rounded = (float) best;
+            if (rounded >= wave + 1) {
+                return false; // in a later wavefront, found once the next one is known
+            }
+            distance[tile] = rounded;
+            direction[tile] = bestDir;
+            return true;
+        }
+    }
+
+    /**
+     * Repairs the field around the tiles in {@link #pending}. Every tile whose path ran through one
+     * of them either steps onto another tile just as close to the destination, or is reset. The
+     * reset tiles then get the shortest distance through the tiles around them, which is spread
+     * with Djikstra's Algorithm. Tiles that weren't reset keep a path that is still there, and lose
+     * distance only if a tile that was a wall opened up a shorter one, in which case Djikstra's
+     * Algorithm reaches them too. If too many tiles are reset, the whole field is computed again
+     * instead.
+     */
+    private void repair() {
+        int cols = graph.getNumCols();
+        int rows = graph.getNumRows();
+        int limit = Math.max(64, graph.numNodes() / 8);
+        int size = 0;
+        for (int id = pending.nextSetBit(0); id >= 0; id = pending.nextSetBit(id + 1)) {
+            size = reset(id, size);
+        }
+        pending.clear();
+
+        // the tiles that stepped onto a reset tile step somewhere else just as short, or are reset
+        // too, until every path through a changed tile is gone
+        for (int i = 0; i < size; ++i) {
+            int tile = order[i];
+            int row = tile / cols;
+            int col = tile - row * cols;
+            for (int d = 0; d < DELTA_ROW.length; ++d) {
+                int r = row + DELTA_ROW[d];
+                int c = col + DELTA_COL[d];
+                if (r >= 0 && r < rows && c >= 0 && c < cols && direction[r * cols + c] == 7 - d
+                        && !redirect(r * cols + c, r, c)) {
+                    size = reset(r * cols + c, size);
+                }
+            }
+            if (size > limit) {
+                refresh();
+                return;
+            }
+        }
+
+        heapSize = 0;
+        if (graph.isReachable(dest) && distance[dest] == Float.POSITIVE_INFINITY) {
+            distance[dest] = 0;
+            push(0, dest);
+        }
+        for (int i = 0; i < size; ++i) {
+            int tile = order[i];
+            if (tile != dest && graph.isReachable(tile)) {
+                relaxFromNeighbors(tile);
+            }
+        }
+        while (heapSize > 0) {
+            long top = pop();
+            int tile = (int) top;
+            float reached = Float.intBitsToFloat((int) (top >>> 32));
+            if (reached > distance[tile]) {
+                continue; // lowered again after this entry was pushed
+            }
+            int row = tile / cols;
+            int col = tile - row * cols;
+            for (int d = 0; d < DELTA_ROW.length; ++d) {
+                int r = row + DELTA_ROW[d];
+                int c = col + DELTA_COL[d];
+                if ((DIAGONAL[d] && !diagonal) || r < 0 || r >= rows || c < 0 || c >= cols) {
+                    continue;
+                }
+                int next = r * cols + c;
+                float through = (float) (reached + (DIAGONAL[d] ? TileGraph.SQRT2 : 1));
+                if (through < distance[next] && graph.isReachable(next)) {
+                    distance[next] = through;
+                    direction[next] = (byte) (7 - d);
+                    markChanged(r);
+                    push(through, next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Points a tile whose next step was reset at another tile around it that gives the same
+     * distance, give or take rounding, if there is one. That tile is closer to the destination by
+     * a whole edge, so it can't be on the path from the tile, and if it is reset later on, the
+     * tile is found stepping onto it and reset with it.
+     *
+     * @return whether the tile keeps its distance
+     */
+    private boolean redirect(int tile, int row, int col) {
+        int cols = graph.getNumCols();
+        int rows = graph.getNumRows();
+        for (int d = 0; d < DELTA_ROW.length; ++d) {
+            int r = row + DELTA_ROW[d];
+            int c = col + DELTA_COL[d];
+            if ((DIAGONAL[d] && !diagonal) || r < 0 || r >= rows || c < 0 || c >= cols) {
+                continue;
+            }
+            // distances summed along different paths are rounded differently, so a tile counts
+            // as just as short within a few ulps of rounding
+            float through = (float) (distance[r * cols + c] + (DIAGONAL[d] ? TileGraph.SQRT2 : 1));
+            if (Math.abs(through - distance[tile]) <= ROUNDING_ULPS * Math.ulp(distance[tile])) {
+                direction[tile] = (byte) d;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the distance and direction of a tile, and adds it to the tiles reset by the repair.
+     *
+     * @return number of tiles reset so far
+     */
+    private int reset(int id, int size) {
+        distance[id] = Float.POSITIVE_INFINITY;
+        direction[id] = NONE;
+        order[size] = id;
+        markChanged(id / graph.getNumCols());
+        return size + 1;
+    }
+
+    /**
+     * Gives a reset tile the shortest distance through the tiles around it that have one, and
+     * queues it to spread that distance further.
+     */
+    private void relaxFromNeighbors(int tile) {
+        int cols = graph.getNumCols();
+        int rows = graph.getNumRows();
+        int row = tile / cols;
+        int col = tile - row * cols;
+        for (int d = 0; d < DELTA_ROW.length; ++d) {
+            int r = row + DELTA_ROW[d];
+            int c = col + DELTA_COL[d];
+            if ((DIAGONAL[d] && !diagonal) || r < 0 || r >= rows || c < 0 || c >= cols) {
+                continue;
+            }
+            float through = (float) (distance[r * cols + c] + (DIAGONAL[d] ? TileGraph.SQRT2 : 1));
+            if (through < distance[tile]) {
+                distance[tile] = through;
+                direction[tile] = (byte) d;
+            }
+        }
+        if (distance[tile] != Float.POSITIVE_INFINITY) {
+            push(distance[tile], tile);
+        }
+    }
+
+    private void markChanged(int row) {
+        changedFrom = Math.min(changedFrom, row);
+        changedTo = Math.max(changedTo, row);
+    }
+
+    private void push(float key, int id) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heapSize);
+        }
+        long entry = ((long) Float.floatToIntBits(key) << 32) | id;
+        int pos = heapSize++;
+        while (pos > 0 && heap[(pos - 1) >>> 1] > entry) {
+            heap[pos] = heap[(pos - 1) >>> 1];
+            pos = (pos - 1) >>> 1;
+        }
+        heap[pos] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int pos = 0;
+        int half = heapSize >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                ++child;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = last;
+        return top;
+    }
+}
@@ -0,0 +1,509 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Abstraction of a {@link TileGraph} for hierarchical pathfinding (HPA*). The grid is split into
+ * square clusters. Where two clusters touch, each run of tiles that can cross from one to the other
+ * gets one or two entrances, and the distances between the entrances of a cluster are cached.
+ * {@link Algorithms#hpaStar} searches this small graph of entrances first and only then refines
+ * the result into a path of tiles, one cluster at a time.
+ * <p>
+ * The abstraction listens to its TileGraph. When a tile changes reachability, only its own cluster
+ * and the clusters it borders are marked dirty, and dirty clusters are recomputed the next time the
+ * abstraction is searched. If diagonal traversal is toggled, every cluster is recomputed.
+ * <p>
+ * Paths found through the abstraction always exist, and one is found whenever the source and
+ * destination are connected, but they are only near-optimal: a path is forced to cross
+ * between clusters at entrances.
+ */
+public class HierarchicalGraph implements ReachabilityListener {
+    /**
+     * Width and height of a cluster, in tiles, if no other size is given
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 10;
+    /**
+     * Runs of crossable tiles at least this long get an entrance at each end instead of one in the middle
+     */
+    private static final int LONG_RUN = 6;
+
+    /**
+     * Entrances of one cluster and the cached distances between them
+     */
+    private static final class Cluster {
+        /**
+         * Ids of the entrance tiles, which are the tiles in this cluster next to a crossing
+         */
+        int[] entrances = new int[0];
+        /**
+         * {@code distances[i * entrances.length + j]} is the length of the shortest path from entrance
+         * {@code i} to entrance {@code j} that stays inside this cluster, or infinity if there is none
+         */
+        double[] distances = new double[0];
+        /**
+         * The crossings of entrance {@code i} are at indices {@code crossingStart[i]} up to
+         * {@code crossingStart[i + 1]} of {@link #crossingTo} and {@link #crossingWeight}
+         */
+        int[] crossingStart = new int[1];
+        /**
+         * Ids of the tiles in other clusters that the crossings lead to
+         */
+        int[] crossingTo = new int[0];
+        /**
+         * Weights of the crossings
+         */
+        double[] crossingWeight = new double[0];
+        /**
+         * Whether this cluster has to be recomputed before the next search
+         */
+        boolean dirty = true;
+    }
+
+    private final TileGraph graph;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final Cluster[] clusters;
+    /**
+     * {@code entranceIndex[id]} is the index of {@code id} in the entrances of its cluster, or -1
+     */
+    private final int[] entranceIndex;
+    /**
+     * Number of clusters with {@code dirty} set
+     */
+    private int numDirty;
+    /**
+     * Whether the clusters were computed for a graph with diagonal traversal
+     */
+    private boolean diagonal;
+
+    /**
+     * Workspace of searches over the entrances
+     */
+    private final SearchWorkspace abstractWorkspace = new SearchWorkspace();
+    /**
+     * Workspace of searches inside a single cluster
+     */
+    private final SearchWorkspace clusterWorkspace = new SearchWorkspace();
+
+    /**
+     * Creates the abstraction of {@code graph} with clusters of the default size.
+     *
+     * @param graph TileGraph to abstract
+     * @see #HierarchicalGraph(TileGraph, int)
+     */
+    public HierarchicalGraph(TileGraph graph) {
+        this(graph, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Creates the abstraction of {@code graph} and starts listening for changes to it. Clusters
+     * are computed the first time the abstraction is searched.
+     *
+     * @param graph TileGraph to abstract
+     * @param clusterSize width and height of a cluster, in tiles
+     * @throws IllegalArgumentException {@code clusterSize} is less than 1
+     */
+    public HierarchicalGraph(TileGraph graph, int clusterSize) {
+        if (clusterSize < 1) {
+            throw new IllegalArgumentException("cluster size must be positive: " + clusterSize);
+        }
+        this.graph = graph;
+        this.clusterSize = clusterSize;
+        this.clusterRows = (graph.getNumRows() + clusterSize - 1) / clusterSize;
+        this.clusterCols = (graph.getNumCols() + clusterSize - 1) / clusterSize;
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        for (int i = 0; i < clusters.length; ++i) {
+            clusters[i] = new Cluster();
+        }
+        this.numDirty = clusters.length;
+        this.entranceIndex = new int[graph.numNodes()];
+        Arrays.fill(entranceIndex, -1);
+        this.diagonal = graph.diagonalsConnected();
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * @return the TileGraph this abstraction describes
+     */
+    public TileGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return width and height of a cluster, in tiles
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Stops this abstraction from listening to its graph. The abstraction is stale afterwards.
+     */
+    public void detach() {
+        graph.removeReachabilityListener(this);
+    }
+
+    /**
+     * Marks the cluster of the tile with id {@code id} dirty, along with every cluster that
+     * contains one of the tile's neighbors, since the tile may be part of a crossing into them.
+     */
+    @Override
+    public void reachabilityChanged(TileGraph graph, int id, boolean reachable) {
+        int r = graph.getRow(id);
+        int c = graph.getCol(id);
+        for (int row = Math.max(0, r - 1); row <= Math.min(graph.getNumRows() - 1, r + 1); ++row) {
+            for (int col = Math.max(0, c - 1); col <= Math.min(graph.getNumCols() - 1, c + 1); ++col) {
+                markDirty(clusterOf(row, col));
+            }
+        }
+    }
+
+    /**
+     * @return number of clusters that will be recomputed before the next search
+     */
+    int numDirtyClusters() {
+        return numDirty;
+    }
+
+    private void markDirty(int cluster) {
+        if (!clusters[cluster].dirty) {
+            clusters[cluster].dirty = true;
+            ++numDirty;
+        }
+    }
+
+    /**
+     * Recomputes every dirty cluster, and every cluster if diagonal traversal was toggled.
+     */
+    void ensureCurrent() {
+        if (diagonal != graph.diagonalsConnected()) {
+            diagonal = graph.diagonalsConnected();
+            for (int i = 0; i < clusters.length; ++i) {
+                markDirty(i);
+            }
+        }
+        for (int i = 0; numDirty > 0 && i < clusters.length; ++i) {
+            if (clusters[i].dirty) {
+                rebuildCluster(i);
+                clusters[i].dirty = false;
+                --numDirty;
+            }
+        }
+    }
+
+    private int clusterOf(int row, int col) {
+        return (row / clusterSize) * clusterCols + col / clusterSize;
+    }
+
+    private int clusterOf(int id) {
+        return clusterOf(graph.getRow(id), graph.getCol(id));
+    }
+
+    /**
+     * Finds the crossings out of cluster {@code index} and the entrances they start from, then
+     * caches the distance between every pair of entrances.
+     *
+     * @param index index of the cluster in {@link #clusters}
+     */
+    private void rebuildCluster(int index) {
+        Cluster cluster = clusters[index];
+        for (int entrance : cluster.entrances) {
+            entranceIndex[entrance] = -1;
+        }
+
+        int r0 = (index / clusterCols) * clusterSize;
+        int c0 = (index % clusterCols) * clusterSize;
+        int r1 = Math.min(r0 + clusterSize, graph.getNumRows()) - 1;
+        int c1 = Math.min(c0 + clusterSize, graph.getNumCols()) - 1;
+
+        // crossings as {from, to} pairs, where from is in this cluster
+        List<int[]> crossings = new ArrayList<>();
+        addBorderCrossings(crossings, r0, c1, 1, 0, 0, 1, r1 - r0 + 1); // right
+        addBorderCrossings(crossings, r0, c0, 1, 0, 0, -1, r1 - r0 + 1); // left
+        addBorderCrossings(crossings, r1, c0, 0, 1, 1, 0, c1 - c0 + 1); // bottom
+        addBorderCrossings(crossings, r0, c0, 0, 1, -1, 0, c1 - c0 + 1); // top
+        if (graph.diagonalsConnected()) {
+            addCornerCrossing(crossings, r0, c0, -1, -1);
+            addCornerCrossing(crossings, r0, c1, -1, 1);
+            addCornerCrossing(crossings, r1, c0, 1, -1);
+            addCornerCrossing(crossings, r1, c1, 1, 1);
+        }
+
+        // entrances in order of first appearance, with their crossings grouped together
+        List<Integer> entrances = new ArrayList<>();
+        for (int[] crossing : crossings) {
+            if (entranceIndex[crossing[0]] < 0) {
+                entranceIndex[crossing[0]] = entrances.size();
+                entrances.add(crossing[0]);
+            }
+        }
+        int k = entrances.size();
+        cluster.entrances = new int[k];
+        cluster.crossingStart = new int[k + 1];
+        cluster.crossingTo = new int[crossings.size()];
+        cluster.crossingWeight = new double[crossings.size()];
+        for (int i = 0; i < k; ++i) {
+            cluster.entrances[i] = entrances.get(i);
+        }
+        for (int[] crossing : crossings) {
+            ++cluster.crossingStart[entranceIndex[crossing[0]] + 1];
+        }
+        for (int i = 0; i < k; ++i) {
+            cluster.crossingStart[i + 1] += cluster.crossingStart[i];
+        }
+        int[] next = Arrays.copyOf(cluster.crossingStart, k);
+        for (int[] crossing : crossings) {
+            int slot = next[entranceIndex[crossing[0]]]++;
+            cluster.crossingTo[slot] = crossing[1];
+            cluster.crossingWeight[slot] = graph.getWeight(crossing[0], crossing[1]);
+        }
+
+        cluster.distances = new double[k * k];
+        for (int i = 0; i < k; ++i) {
+            searchCluster(cluster.entrances[i], -1, clusterWorkspace);
+            for (int j = 0; j < k; ++j) {
+                cluster.distances[i * k + j] = clusterWorkspace.getDist(cluster.entrances[j]);
+            }
+        }
+    }
+
+    /**
+     * Adds the crossings over one side of a cluster. The side is walked from {@code (row, col)} in
+     * steps of {@code (stepRow, stepCol)}, and the tiles across it are at an offset of
+     * {@code (outRow, outCol)}. Every run of tiles that can step straight across gets one crossing
+     * in its middle, or one at each end if it is long. With diagonal traversal, a diagonal step
+     * across gets its own crossing if it is the only way across at that spot.
+     * <p>
+     * Which crossings are chosen depends only on the tiles along the side, so the clusters on both
+     * sides of it always agree.
+     */
+    private void addBorderCrossings(List<int[]> crossings, int row, int col, int stepRow, int stepCol,
+            int outRow, int outCol, int length) {
+        if (!isInside(row + outRow, col + outCol)) {
+            return;
+        }
+
+        int runStart = -1;
+        for (int i = 0; i <= length; ++i) {
+            boolean open = i < length && canCross(row + i * stepRow, col + i * stepCol, outRow, outCol);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_RUN) {
+                    addCrossing(crossings, row, col, stepRow, stepCol, runStart, outRow, outCol, 0);
+                    addCrossing(crossings, row, col, stepRow, stepCol, runEnd, outRow, outCol, 0);
+                } else {
+                    addCrossing(crossings, row, col, stepRow, stepCol, (runStart + runEnd) / 2, outRow, outCol, 0);
+                }
+                runStart = -1;
+            }
+        }
+
+        if (graph.diagonalsConnected()) {
+            for (int i = 0; i + 1 < length; ++i) {
+                int r = row + i * stepRow;
+                int c = col + i * stepCol;
+                // from tile i to the tile across from tile i + 1, and from tile i + 1 to the tile across from tile i
+                if (isOnlyDiagonal(r, c, outRow + stepRow, outCol + stepCol)) {
+                    addCrossing(crossings, row, col, stepRow, stepCol, i, outRow, outCol, 1);
+                }
+                if (isOnlyDiagonal(r + stepRow, c + stepCol, outRow - stepRow, outCol - stepCol)) {
+                    addCrossing(crossings, row, col, stepRow, stepCol, i + 1, outRow, outCol, -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the crossing from tile {@code i} of a side to the tile across from tile {@code i + shift}.
+     */
+    private void addCrossing(List<int[]> crossings, int row, int col, int stepRow, int stepCol, int i,
+            int outRow, int outCol, int shift) {
+        int r = row + i * stepRow;
+        int c = col + i * stepCol;
+        crossings.add(new int[] {graph.getId(r, c), graph.getId(r + outRow + shift * stepRow, c + outCol + shift * stepCol)});
+    }
+
+    /**
+     * Adds the diagonal crossing out of the corner {@code (row, col)} of a cluster, into the cluster
+     * that only touches it there, if it is the only way around the corner.
+     */
+    private void addCornerCrossing(List<int[]> crossings, int row, int col, int dr, int dc) {
+        if (isInside(row + dr, col + dc) && isOnlyDiagonal(row, col, dr, dc)) {
+            crossings.add(new int[] {graph.getId(row, col), graph.getId(row + dr, col + dc)});
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code (row, col)} is inside the graph
+     */
+    private boolean isInside(int row, int col) {
+        return row >= 0 && row < graph.getNumRows() && col >= 0 && col < graph.getNumCols();
+    }
+
+    /**
+     * @return {@code true} if the tiles at {@code (row, col)} and {@code (row + dr, col + dc)} are reachable
+     */
+    private boolean canCross(int row, int col, int dr, int dc) {
+        return JumpTable.isFree(graph, row, col) && JumpTable.isFree(graph, row + dr, col + dc);
+    }
+
+    /**
+     * @return {@code true} if the diagonal step from {@code (row, col)} in direction {@code (dr, dc)} is
+     *         possible, but the two tiles it cuts between are walls. Otherwise the step can be replaced by
+     *         two straight steps through one of those tiles.
+     */
+    private boolean isOnlyDiagonal(int row, int col, int dr, int dc) {
+        return canCross(row, col, dr, dc)
+                && !JumpTable.isFree(graph, row + dr, col) && !JumpTable.isFree(graph, row, col + dc);
+    }
+
+    /**
+     * Searches outward from {@code from} without leaving its cluster. Stops when {@code to} is settled,
+     * or searches the whole cluster if {@code to} is -1.
+     *
+     * @param from id of the tile to start from
+     * @param to id of a tile in the same cluster, or -1
+     * @param workspace SearchWorkspace that will hold the distances and parents
+     */
+    private void searchCluster(int from, int to, SearchWorkspace workspace) {
+        int cluster = clusterOf(from);
+        workspace.reset(graph.numNodes());
+        IndexedMinHeap pq = workspace.heap();
+        workspace.reach(from, 0, -1);
+        pq.push(from, to < 0 ? 0 : Algorithms.heuristic(from, to, graph));
+        int[] neighbors = workspace.neighbors();
+
+        int expansions = 0;
+        while (!pq.isEmpty()) {
+            Algorithms.checkCancelled(++expansions);
+            int curr = pq.pop();
+            workspace.settle(curr);
+            if (curr == to) {
+                return;
+            }
+
+            int count = graph.getNeighbors(curr, neighbors);
+            for (int i = 0; i < count; ++i) {
+                int next = neighbors[i];
+                double d = workspace.getDist(curr) + graph.getWeight(curr, next);
+                if (clusterOf(next) == cluster && !workspace.isSettled(next) && d < workspace.getDist(next)) {
+                    workspace.reach(next, d, curr);
+                    pq.push(next, to < 0 ? d : d + Algorithms.heuristic(next, to, graph));
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds a path from {@code source} to {@code dest}. The source and destination are linked to the
+     * entrances of their clusters, an A* search runs over the entrances, and each step of its result is
+     * refined into tiles. Only the entrances the A* search expands are reported as visited.
+     *
+     * @param source id of the source tile
+     * @param dest id of the destination tile
+     * @return SearchTrace of what the search did at each step
+     */
+    SearchTrace findPath(int source, int dest) {
+        ensureCurrent();
+        SearchTrace trace = new SearchTrace();
+        if (!graph.isReachable(source) || !graph.isReachable(dest)) {
+            return trace;
+        }
+
+        Cluster sourceCluster = clusters[clusterOf(source)];
+        searchCluster(source, -1, clusterWorkspace);
+        double[] sourceDistances = new double[sourceCluster.entrances.length];
+        for (int i = 0; i < sourceDistances.length; ++i) {
+            sourceDistances[i] = clusterWorkspace.getDist(sourceCluster.entrances[i]);
+        }
+
+        // distances to the destination from every tile of its cluster stay in clusterWorkspace during the search
+        int destCluster = clusterOf(dest);
+        searchCluster(dest, -1, clusterWorkspace);
+
+        SearchWorkspace ws = abstractWorkspace;
+        ws.reset(graph.numNodes());
+        IndexedMinHeap pq = ws.heap();
+        ws.reach(source, 0, -1);
+        pq.push(source, Algorithms.heuristic(source, dest, graph));
+
+        int expansions = 0;
+        while (!pq.isEmpty()) {
+            Algorithms.checkCancelled(++expansions);
+            int curr = pq.pop();
+            ws.settle(curr);
+
+            if (curr == dest) {
+                refinePath(trace, source, dest);
+                break;
+            } else if (curr != source) {
+                Algorithms.visit(trace, curr, graph);
+            }
+
+            double distance = ws.getDist(curr);
+            if (curr == source) {
+                for (int i = 0; i < sourceDistances.length; ++i) {
+                    relax(curr, sourceCluster.entrances[i], distance + sourceDistances[i], dest);
+                }
+            }
+
+            int index = entranceIndex[curr];
+            if (index >= 0) {
+                Cluster cluster = clusters[clusterOf(curr)];
+                int k = cluster.entrances.length;
+                for (int j = 0; j < k; ++j) {
+                    relax(curr, cluster.entrances[j], distance + cluster.distances[index * k + j], dest);
+                }
+                for (int i = cluster.crossingStart[index]; i < cluster.crossingStart[index + 1]; ++i) {
+                    relax(curr, cluster.crossingTo[i], distance + cluster.crossingWeight[i], dest);
+                }
+            }
+
+            if (clusterOf(curr) == destCluster && clusterWorkspace.isReached(curr)) {
+                relax(curr, dest, distance + clusterWorkspace.getDist(curr), dest);
+            }
+        }
+
+        return trace;
+    }
+
+    /**
+     * Lowers the distance of {@code next} in the search over entrances, if {@code d} is better.
+     */
+    private void relax(int curr, int next, double d, int dest) {
+        SearchWorkspace ws = abstractWorkspace;
+        if (d < ws.getDist(next) && !ws.isSettled(next)) {
+            ws.reach(next, d, curr);
+            ws.heap().push(next, d + Algorithms.heuristic(next, dest, graph));
+        }
+    }
+
+    /**
+     * Turns the path over entrances found by {@link #findPath} into tiles. Steps between clusters are
+     * crossings between neighboring tiles, and steps inside a cluster are found with A*.
+     *
+     * @param trace SearchTrace the path is added to, from the destination to the source
+     */
+    private void refinePath(SearchTrace trace, int source, int dest) {
+        trace.beginPath();
+        trace.addPathTile(graph.getRow(dest), graph.getCol(dest));
+        for (int curr = dest; curr != source; ) {
+            int prev = abstractWorkspace.getPrev(curr);
+            if (clusterOf(prev) == clusterOf(curr)) {
+                searchCluster(prev, curr, clusterWorkspace);
+                for (int id = clusterWorkspace.getPrev(curr); id >= 0; id = clusterWorkspace.getPrev(id)) {
+                    trace.addPathTile(graph.getRow(id), graph.getCol(id));
+                }
+            } else {
+                trace.addPathTile(graph.getRow(prev), graph.getCol(prev));
+            }
+            curr = prev;
+        }
+        trace.endPath();
+    }
+}
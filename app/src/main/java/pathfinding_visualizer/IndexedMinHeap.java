@@ -0,0 +1,277 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of Node ids, ordered by a {@code double} key per id. Unlike a
+ * {@link java.util.PriorityQueue}, the key of an id that is already in the heap
+ * can be lowered in place, so every id is in the heap at most once.
+ * <p>
+ * Ids must be between 0 (inclusive) and the capacity of the heap (exclusive). Nothing
+ * is boxed, and nothing is allocated after construction, except for the tie-breaking keys
+ * the first time {@link #update} is used.
+ * <p>
+ * Searches that need it, such as {@link DStarLite}, can also order ids by a second key that
+ * breaks ties between equal keys, and can move an id in either direction or remove it.
+ */
+public class IndexedMinHeap {
+    /**
+     * {@code heap[i]} is the id stored at position {@code i} of the binary heap
+     */
+    private int[] heap;
+    /**
+     * {@code position[id]} is the index of {@code id} in {@link #heap}, or -1 if it isn't in the heap
+     */
+    private int[] position;
+    /**
+     * {@code keys[id]} is the key {@code id} is ordered by
+     */
+    private double[] keys;
+    /**
+     * {@code ties[id]} breaks ties between ids with equal keys, or null if no id was given one
+     */
+    private double[] ties = null;
+    /**
+     * Number of ids currently in the heap
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty heap that can hold the ids 0 through {@code capacity - 1}.
+     *
+     * @param capacity one more than the largest id this heap can hold
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * @return the largest number of ids this heap can hold
+     */
+    public int capacity() {
+        return position.length;
+    }
+
+    /**
+     * @return number of ids in this heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if this heap holds no ids, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param id id being checked
+     * @return {@code true} if {@code id} is in this heap, {@code false} otherwise
+     */
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    /**
+     * @param id id in this heap
+     * @return the key {@code id} is currently ordered by
+     */
+    public double getKey(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Adds {@code id} to this heap. If {@code id} is already in the heap its key is
+     * lowered to {@code key} instead, unless its current key is already smaller.
+     *
+     * @param id id being added
+     * @param key value {@code id} will be ordered by
+     */
+    public void push(int id, double key) {
+        int pos = position[id];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = id;
+            position[id] = pos;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        if (ties != null) {
+            ties[id] = 0;
+        }
+        siftUp(pos);
+    }
+
+    /**
+     * Adds {@code id} to this heap, or moves it if it is already in the heap, so that it is
+     * ordered by {@code key} and then by {@code tie}. Unlike {@link #push}, the new key may be
+     * larger than the current one.
+     *
+     * @param id id being added or moved
+     * @param key value {@code id} will be ordered by
+     * @param tie value that orders {@code id} among ids with the same key
+     */
+    public void update(int id, double key, double tie) {
+        if (ties == null) {
+            ties = new double[keys.length];
+        }
+        int pos = position[id];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = id;
+            position[id] = pos;
+        }
+        keys[id] = key;
+        ties[id] = tie;
+        siftUp(pos);
+        siftDown(position[id]);
+    }
+
+    /**
+     * @param id id in this heap
+     * @return the value that orders {@code id} among ids with the same key, 0 if it was never given one
+     */
+    public double getTie(int id) {
+        return ties == null ? 0 : ties[id];
+    }
+
+    /**
+     * Removes {@code id} from this heap if it is in it.
+     *
+     * @param id id being removed
+     */
+    public void remove(int id) {
+        int pos = position[id];
+        if (pos < 0) {
+            return;
+        }
+        position[id] = -1;
+        --size;
+        if (pos < size) {
+            int last = heap[size];
+            heap[pos] = last;
+            position[last] = pos;
+            siftUp(pos);
+            siftDown(position[last]);
+        }
+    }
+
+    /**
+     * Lowers the key of an id that is already in this heap.
+     *
+     * @param id id in this heap
+     * @param key new key for {@code id}, no larger than its current key
+     * @throws IllegalArgumentException {@code id} isn't in the heap or {@code key} is larger than its current key
+     */
+    public void decreaseKey(int id, double key) {
+        if (!contains(id) || key > keys[id]) {
+            throw new IllegalArgumentException("cannot decrease key of id " + id + " to " + key);
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * @return the id with the smallest key, without removing it
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Removes the id with the smallest key from this heap.
+     *
+     * @return the id with the smallest key
+     * @throws NoSuchElementException this heap is empty
+     */
+    public int pop() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int top = heap[0];
+        position[top] = -1;
+        --size;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes every id from this heap. Only touches the ids that were in it.
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the id at heap index {@code pos} towards the root until its parent's key is no larger.
+     *
+     * @param pos index in {@link #heap}
+     */
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (!less(id, parent)) {
+                break;
+            }
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+    /**
+     * Moves the id at heap index {@code pos} towards the leaves until neither child has a smaller key.
+     *
+     * @param pos index in {@link #heap}
+     */
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+            int rightPos = childPos + 1;
+            if (rightPos < size && less(heap[rightPos], child)) {
+                childPos = rightPos;
+                child = heap[childPos];
+            }
+            if (!less(child, id)) {
+                break;
+            }
+            heap[pos] = child;
+            position[child] = pos;
+            pos = childPos;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+    /**
+     * @return {@code true} if id {@code a} comes strictly before id {@code b}
+     */
+    private boolean less(int a, int b) {
+        if (keys[a] != keys[b] || ties == null) {
+            return keys[a] < keys[b];
+        }
+        return ties[a] < ties[b];
+    }
+}
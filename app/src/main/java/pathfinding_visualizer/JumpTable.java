@@ -0,0 +1,247 @@
+package pathfinding_visualizer;
+
+import java.util.BitSet;
+
+/**
+ * Precomputed straight-line jumps for Jump Point Search (JPS+). For every tile and each of
+ * the four cardinal directions, the table stores how far a straight jump in that direction
+ * travels before it reaches a jump point or a wall. With the table, {@link Algorithms#jps}
+ * can resolve a straight jump in O(1) instead of scanning tile by tile.
+ * <p>
+ * The table listens to its {@link TileGraph}. When a tile changes reachability only the
+ * rows and columns that tile can influence are recomputed, which takes O(rows + cols). When
+ * many tiles change at once, each of those rows and columns is recomputed only once.
+ * If diagonal traversal is toggled, the table is rebuilt the next time it is used.
+ */
+public class JumpTable implements ReachabilityListener {
+    /**
+     * Index of the jumps towards increasing columns
+     */
+    static final int RIGHT = 0;
+    /**
+     * Index of the jumps towards decreasing columns
+     */
+    static final int LEFT = 1;
+    /**
+     * Index of the jumps towards increasing rows
+     */
+    static final int DOWN = 2;
+    /**
+     * Index of the jumps towards decreasing rows
+     */
+    static final int UP = 3;
+
+    /**
+     * The TileGraph this table describes
+     */
+    private TileGraph graph;
+    /**
+     * Whether the table was built for a graph with diagonal traversal
+     */
+    private boolean diagonal;
+    /**
+     * {@code jumps[direction][id]} is {@code k > 0} if the first jump point in {@code direction}
+     * is {@code k} tiles away from {@code id}, or {@code -k <= 0} if there is none and {@code k}
+     * reachable tiles come before a wall or the edge of the graph.
+     */
+    private int[][] jumps;
+
+    /**
+     * Builds the jump table of {@code graph} and starts listening for changes to it.
+     *
+     * @param graph TileGraph to precompute jumps for
+     */
+    public JumpTable(TileGraph graph) {
+        this.graph = graph;
+        this.jumps = new int[4][graph.numNodes()];
+        rebuild();
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * @return the TileGraph this table describes
+     */
+    public TileGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Stops this table from listening to its graph. The table is stale afterwards.
+     */
+    public void detach() {
+        graph.removeReachabilityListener(this);
+    }
+
+    /**
+     * Recomputes every jump in the table.
+     */
+    public void rebuild() {
+        diagonal = graph.diagonalsConnected();
+        for (int row = 0; row < graph.getNumRows(); ++row) {
+            rebuildRow(row);
+        }
+        for (int col = 0; col < graph.getNumCols(); ++col) {
+            rebuildCol(col);
+        }
+    }
+
+    /**
+     * Rebuilds the table if diagonal traversal was toggled since it was built.
+     */
+    void ensureCurrent() {
+        if (diagonal != graph.diagonalsConnected()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes the rows and columns whose jumps can depend on the tile with id {@code id}.
+     * A tile influences the jumps along its own row and column, and the forced neighbor
+     * checks of the rows and columns next to it.
+     */
+    @Override
+    public void reachabilityChanged(TileGraph graph, int id, boolean reachable) {
+        int r = graph.getRow(id);
+        int c = graph.getCol(id);
+        for (int row = Math.max(0, r - 1); row <= Math.min(graph.getNumRows() - 1, r + 1); ++row) {
+            rebuildRow(row);
+        }
+        for (int col = Math.max(0, c - 1); col <= Math.min(graph.getNumCols() - 1, c + 1); ++col) {
+            rebuildCol(col);
+        }
+    }
+
+    /**
+     * Recomputes each row and column whose jumps can depend on one of the tiles that changed, once.
+     */
+    @Override
+    public void wallsChanged(TileGraph graph, BitSet changed) {
+        int numRows = graph.getNumRows();
+        int numCols = graph.getNumCols();
+        BitSet rows = new BitSet(numRows);
+        BitSet cols = new BitSet(numCols);
+        for (int id = changed.nextSetBit(0); id >= 0; id = changed.nextSetBit(id + 1)) {
+            int r = graph.getRow(id);
+            int c = graph.getCol(id);
+            rows.set(Math.max(0, r - 1), Math.min(numRows, r + 2));
+            cols.set(Math.max(0, c - 1), Math.min(numCols, c + 2));
+        }
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            rebuildRow(row);
+        }
+        for (int col = cols.nextSetBit(0); col >= 0; col = cols.nextSetBit(col + 1)) {
+            rebuildCol(col);
+        }
+    }
+
+    /**
+     * @param direction one of {@link #RIGHT}, {@link #LEFT}, {@link #DOWN}, or {@link #UP}
+     * @param id id of the tile the jump starts from
+     * @return distance to the first jump point if positive, or minus the number of reachable tiles before a wall
+     */
+    int getJump(int direction, int id) {
+        return jumps[direction][id];
+    }
+
+    /**
+     * Recomputes the horizontal jumps of every tile in row {@code row}, sweeping each direction
+     * from the far end so that every tile's jump follows from the one next to it.
+     *
+     * @param row row being recomputed
+     */
+    private void rebuildRow(int row) {
+        int cols = graph.getNumCols();
+        int[] right = jumps[RIGHT];
+        int[] left = jumps[LEFT];
+        for (int col = cols - 1; col >= 0; --col) {
+            right[graph.getId(row, col)] = nextJump(row, col, 0, 1, col + 1 < cols ? right[graph.getId(row, col + 1)] : 0);
+        }
+        for (int col = 0; col < cols; ++col) {
+            left[graph.getId(row, col)] = nextJump(row, col, 0, -1, col > 0 ? left[graph.getId(row, col - 1)] : 0);
+        }
+    }
+
+    /**
+     * Recomputes the vertical jumps of every tile in column {@code col}.
+     *
+     * @param col column being recomputed
+     * @see #rebuildRow
+     */
+    private void rebuildCol(int col) {
+        int rows = graph.getNumRows();
+        int[] down = jumps[DOWN];
+        int[] up = jumps[UP];
+        for (int row = rows - 1; row >= 0; --row) {
+            down[graph.getId(row, col)] = nextJump(row, col, 1, 0, row + 1 < rows ? down[graph.getId(row + 1, col)] : 0);
+        }
+        for (int row = 0; row < rows; ++row) {
+            up[graph.getId(row, col)] = nextJump(row, col, -1, 0, row > 0 ? up[graph.getId(row - 1, col)] : 0);
+        }
+    }
+
+    /**
+     * Computes the jump from {@code (row, col)} in direction {@code (dr, dc)} given the jump
+     * of the next tile in that direction.
+     *
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param dr row direction of the jump
+     * @param dc column direction of the jump
+     * @param nextJump jump of the tile at {@code (row + dr, col + dc)}, ignored if that tile is outside the graph
+     * @return jump of the tile at {@code (row, col)}
+     */
+    private int nextJump(int row, int col, int dr, int dc, int nextJump) {
+        int r = row + dr;
+        int c = col + dc;
+        if (!isFree(graph, r, c)) {
+            return 0;
+        } else if (isForced(graph, r, c, dr, dc)) {
+            return 1;
+        } else {
+            return nextJump > 0 ? nextJump + 1 : nextJump - 1;
+        }
+    }
+
+    /**
+     * @param graph TileGraph being checked
+     * @param row row of a tile, possibly outside the graph
+     * @param col column of a tile, possibly outside the graph
+     * @return {@code true} if {@code (row, col)} is inside {@code graph} and reachable
+     */
+    static boolean isFree(TileGraph graph, int row, int col) {
+        return row >= 0 && row < graph.getNumRows() && col >= 0 && col < graph.getNumCols()
+                && graph.isReachable(row, col);
+    }
+
+    /**
+     * Checks if the tile at {@code (row, col)} is a jump point for a straight jump in direction
+     * {@code (dr, dc)}, meaning it has a neighbor that can't be reached optimally without
+     * passing through it.
+     * <p>
+     * With diagonal traversal, a neighbor past the tile is forced when the tile beside it is a
+     * wall. Without diagonal traversal, vertical moves come before horizontal ones, and a
+     * tile beside a horizontal jump is forced when the tile diagonally behind it is a wall.
+     * Vertical jumps without diagonal traversal are never straight, so this should not be asked.
+     *
+     * @param graph TileGraph being searched
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param dr row direction of the jump
+     * @param dc column direction of the jump
+     * @return {@code true} if the tile is a jump point
+     */
+    static boolean isForced(TileGraph graph, int row, int col, int dr, int dc) {
+        if (graph.diagonalsConnected()) {
+            if (dr == 0) {
+                return (!isFree(graph, row + 1, col) && isFree(graph, row + 1, col + dc))
+                        || (!isFree(graph, row - 1, col) && isFree(graph, row - 1, col + dc));
+            } else {
+                return (!isFree(graph, row, col + 1) && isFree(graph, row + dr, col + 1))
+                        || (!isFree(graph, row, col - 1) && isFree(graph, row + dr, col - 1));
+            }
+        } else {
+            return (!isFree(graph, row + 1, col - dc) && isFree(graph, row + 1, col))
+                    || (!isFree(graph, row - 1, col - dc) && isFree(graph, row - 1, col));
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Landmark distance tables for A* with the ALT (A*, Landmarks, Triangle inequality) heuristic.
+ * A few landmark tiles are spread around the edge of the grid, and the distance from each one to
+ * every tile is precomputed. By the triangle inequality, {@code |d(L, a) - d(L, b)|} is a lower
+ * bound on the distance between {@code a} and {@code b} for every landmark {@code L}, and on
+ * mazes and walled grids it is much tighter than the straight-line distance.
+ * <p>
+ * Each landmark's table is computed by its own task on a {@link ForkJoinPool}, and is stored as
+ * one {@code float} per tile. The tables listen to their {@link TileGraph}: any change in
+ * reachability marks them stale, and they are recomputed the next time they are used.
+ */
+public class LandmarkTable implements ReachabilityListener {
+    /**
+     * Number of landmarks if no other number is given. Enough for the corners and the middle of
+     * every side of the grid.
+     */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private final TileGraph graph;
+    private final ForkJoinPool pool;
+    /**
+     * Number of landmarks to place. Fewer are used if the grid has fewer reachable tiles.
+     */
+    private final int numLandmarks;
+    /**
+     * Ids of the landmark tiles
+     */
+    private int[] landmarks = new int[0];
+    /**
+     * {@code distances[i][id]} is the distance from landmark {@code i} to {@code id}, or infinity
+     * if there is no path between them
+     */
+    private float[][] distances = new float[0][];
+    /**
+     * Largest rounding error of a difference between two distances in the tables, subtracted from
+     * every bound so that rounding to {@code float} can't overestimate a distance
+     */
+    private double slack = 0;
+    /**
+     * Whether the tables have to be recomputed before they are used again
+     */
+    private boolean stale = true;
+    /**
+     * Whether the tables were computed for a graph with diagonal traversal
+     */
+    private boolean diagonal;
+
+    /**
+     * Creates the landmark tables of {@code graph} with the default number of landmarks, computed
+     * on the common ForkJoinPool.
+     *
+     * @param graph TileGraph to compute landmark distances in
+     * @see #LandmarkTable(TileGraph, int, ForkJoinPool)
+     */
+    public LandmarkTable(TileGraph graph) {
+        this(graph, DEFAULT_LANDMARKS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the landmark tables of {@code graph} and starts listening for changes to it. The
+     * tables are computed the first time they are used.
+     *
+     * @param graph TileGraph to compute landmark distances in
+     * @param numLandmarks number of landmarks to place
+     * @param pool ForkJoinPool the tables are computed on
+     * @throws IllegalArgumentException {@code numLandmarks} is less than 1
+     */
+    public LandmarkTable(TileGraph graph, int numLandmarks, ForkJoinPool pool) {
+        if (numLandmarks < 1) {
+            throw new IllegalArgumentException("need at least one landmark: " + numLandmarks);
+        }
+        this.graph = graph;
+        this.numLandmarks = numLandmarks;
+        this.pool = pool;
+        this.diagonal = graph.diagonalsConnected();
+        graph.addReachabilityListener(this);
+    }
+
+    /**
+     * @return the TileGraph these tables describe
+     */
+    public TileGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Stops these tables from listening to their graph. The tables are stale afterwards.
+     */
+    public void detach() {
+        graph.removeReachabilityListener(this);
+        stale = true;
+    }
+
+    /**
+     * Marks the tables stale. A single tile can change the distance to every other tile, so
+     * the tables are recomputed in full before they are used again.
+     */
+    @Override
+    public void reachabilityChanged(TileGraph graph, int id, boolean reachable) {
+        stale = true;
+    }
+
+    /**
+     * @return {@code true} if the tables will be recomputed before they are used again
+     */
+    public boolean isStale() {
+        return stale || diagonal != graph.diagonalsConnected();
+    }
+
+    /**
+     * @return ids of the landmark tiles, after recomputing the tables if they are stale
+     */
+    public int[] getLandmarks() {
+        ensureCurrent();
+        return landmarks.clone();
+    }
+
+    /**
+     * Recomputes the tables if they are stale.
+     */
+    void ensureCurrent() {
+        if (isStale()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Places the landmarks and recomputes every table, one ForkJoin task per landmark.
+     */
+    public void refresh() {
+        stale = false;
+        diagonal = graph.diagonalsConnected();
+        landmarks = placeLandmarks();
+        if (distances.length != landmarks.length) {
+            distances = new float[landmarks.length][];
+        }
+
+        List<TableTask> tasks = new ArrayList<>();
+        for (int i = 0; i < landmarks.length; ++i) {
+            if (distances[i] == null || distances[i].length != graph.numNodes()) {
+                distances[i] = new float[graph.numNodes()];
+            }
+            tasks.add(new TableTask(landmarks[i], distances[i]));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        slack = 0;
+        for (TableTask task : tasks) {
+            slack = Math.max(slack, Math.ulp(task.maxDistance));
+        }
+    }
+
+    /**
+     * Computes the distance from one landmark to every tile with Djikstra's Algorithm.
+     */
+    @SuppressWarnings("serial")
+    private final class TableTask extends RecursiveAction {
+        private final int landmark;
+        private final float[] table;
+        /**
+         * Largest finite distance in the table, known once the task is done
+         */
+        float maxDistance = 0;
+
+        TableTask(int landmark, float[] table) {
+            this.landmark = landmark;
+            this.table = table;
+        }
+
+        @Override
+        protected void compute() {
+            SearchWorkspace workspace = SearchWorkspace.forCurrentThread();
+            workspace.reset(graph.numNodes());
+            IndexedMinHeap pq = workspace.heap();
+            int[] neighbors = workspace.neighbors();
+            Arrays.fill(table, Float.POSITIVE_INFINITY);
+
+            workspace.reach(landmark, 0, -1);
+            pq.push(landmark, 0);
+            while (!pq.isEmpty()) {
+                int curr = pq.pop();
+                workspace.settle(curr);
+                double distance = workspace.getDist(curr);
+                table[curr] = (float) distance;
+                maxDistance = table[curr];
+
+                int count = graph.getNeighbors(curr, neighbors);
+                for (int i = 0; i < count; ++i) {
+                    int next = neighbors[i];
+                    double d = distance + graph.getWeight(curr, next);
+                    if (!workspace.isSettled(next) && d < workspace.getDist(next)) {
+                        workspace.reach(next, d, curr);
+                        pq.push(next, d);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Spreads the landmarks evenly around the edge of the grid, starting at the top left corner,
+     * and moves each one to the closest reachable tile.
+     *
+     * @return ids of the landmarks, without duplicates
+     */
+    private int[] placeLandmarks() {
+        int rows = graph.getNumRows();
+        int cols = graph.getNumCols();
+        int perimeter = Math.max(1, 2 * (rows + cols) - 4);
+        int[] placed = new int[numLandmarks];
+        int count = 0;
+        for (int i = 0; i < numLandmarks; ++i) {
+            int p = (int) ((long) i * perimeter / numLandmarks);
+            int row;
+            int col;
+            if (p < cols) { // top, left to right
+                row = 0;
+                col = p;
+            } else if (p < cols + rows - 1) { // right, top to bottom
+                row = p - cols + 1;
+                col = cols - 1;
+            } else if (p < 2 * cols + rows - 2) { // bottom, right to left
+                row = rows - 1;
+                col = cols - 1 - (p - cols - rows + 2);
+            } else { // left, bottom to top
+                row = rows - 1 - (p - 2 * cols - rows + 3);
+                col = 0;
+            }
+
+            int id = closestReachable(Math.max(0, Math.min(rows - 1, row)), Math.max(0, Math.min(cols - 1, col)));
+            boolean duplicate = false;
+            for (int j = 0; j < count; ++j) {
+                duplicate |= placed[j] == id;
+            }
+            if (id >= 0 && !duplicate) {
+                placed[count++] = id;
+            }
+        }
+        return Arrays.copyOf(placed, count);
+    }
+
+    /**
+     * Searches squares of growing size around {@code (row, col)} for a reachable tile.
+     *
+     * @return id of the reachable tile closest to {@code (row, col)}, or -1 if there is none
+     */
+    private int closestReachable(int row, int col) {
+        int maxRadius = Math.max(graph.getNumRows(), graph.getNumCols());
+        for (int radius = 0; radius < maxRadius; ++radius) {
+            int best = -1;
+            int bestDist = Integer.MAX_VALUE;
+            for (int r = row - radius; r <= row + radius; ++r) {
+                for (int c = col - radius; c <= col + radius; ++c) {
+                    boolean onRing = Math.abs(r - row) == radius || Math.abs(c - col) == radius;
+                    if (onRing && JumpTable.isFree(graph, r, c)) {
+                        int dist = (r - row) * (r - row) + (c - col) * (c - col);
+                        if (dist < bestDist) {
+                            bestDist = dist;
+                            best = graph.getId(r, c);
+                        }
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lower bound on the distance between two tiles, the largest one given by any landmark. The
+     * bound is consistent, so A* guided by it still settles every Node at its shortest distance.
+     * The tables must be current.
+     *
+     * @param a id of a tile
+     * @param b id of a tile
+     * @return lower bound on the distance between {@code a} and {@code b}, or infinity if a landmark
+     *         shows there is no path between them
+     */
+    double lowerBound(int a, int b) {
+        double best = 0;
+        for (float[] table : distances) {
+            float da = table[a];
+            float db = table[b];
+            if (da != db) { // also skips two infinite distances, which say nothing
+                if (da == Float.POSITIVE_INFINITY || db == Float.POSITIVE_INFINITY) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                best = Math.max(best, Math.abs((double) da - db));
+            }
+        }
+        return Math.max(0, best - slack);
+    }
+}
@@ -2,6 +2,7 @@ package pathfinding_visualizer;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.function.IntFunction;
 
 /**
  * JPanel with UI elements that modifies a {@link TileGrid}.
@@ -9,18 +10,18 @@ import java.awt.*;
 @SuppressWarnings("serial")
 public class Menu extends JPanel {
     /**
-     * SynchronizedQueue this Menu sends messages to
+     * MessageQueue this Menu sends commands to
      */
-    private transient SynchronizedQueue<String> syncQueue;
+    private transient MessageQueue<Command> syncQueue;
 
     /**
-     * Creates a Menu that sends messages using {@code syncQueue}. The
+     * Creates a Menu that sends commands using {@code syncQueue}. The
      * {@link TileGrid} you want to modify should also use {@code syncQueue} in its
      * constructor.
      * 
-     * @param syncQueue SynchronizedQueue you want this Menu to send messages to
+     * @param syncQueue MessageQueue you want this Menu to send commands to
      */
-    public Menu(SynchronizedQueue<String> syncQueue) {
+    public Menu(MessageQueue<Command> syncQueue) {
         
         //Use system theme for the menu
         try {
@@ -40,10 +41,12 @@ public class Menu extends JPanel {
         this.add(sourcePanel());
         this.add(destPanel());
         this.add(diagonalCheckbox());
+        this.add(flowFieldCheckbox());
         this.add(algorithmSelector());
         this.add(clearButton());
         this.add(eraseButton());
         this.add(mazeButton());
+        this.add(playbackControls());
 
         //make all component backgrounds match this Menu
         for (Component component : this.getComponents()) {
@@ -53,7 +56,7 @@ public class Menu extends JPanel {
 
     /**
      * Creates a panel with two text fields and one button. The text fields accept
-     * integers between 4 and 99. When the button is clicked, the connected TileGrid
+     * integers up to {@link TileGrid#MAX_SIZE}. When the button is clicked, the connected TileGrid
      * will change its width and height to match the text fields.
      * 
      * @return JPanel that modifies the size of the connected TileGrid.
@@ -63,8 +66,8 @@ public class Menu extends JPanel {
 
         JLabel xLabel = new JLabel("Tiles Wide: ");
         JLabel yLabel = new JLabel("Tiles Tall: ");
-        JTextField xField = makeIntegerField(0, 100, 20, 3, "resize col");
-        JTextField yField = makeIntegerField(0, 100, 20, 3, "resize row");
+        JTextField xField = makeIntegerField(0, TileGrid.MAX_SIZE, 20, 4, x -> new Command.Resize(Command.Axis.COL, x));
+        JTextField yField = makeIntegerField(0, TileGrid.MAX_SIZE, 20, 4, x -> new Command.Resize(Command.Axis.ROW, x));
 
         form.add(xLabel);
         form.add(xField);
@@ -76,7 +79,7 @@ public class Menu extends JPanel {
 
     /**
      * Creates a JPanel with 2 text fields and 1 button. The text fields accept integers between 0
-     * and 98. When the button is clicked the location of the TileGrid's source tile changes to match 
+     * and {@link TileGrid#MAX_SIZE} - 1. When the button is clicked the location of the TileGrid's source tile changes to match 
      * the numbers in the text fields.
      * 
      * @return JPanel that let's you change the location of a source tile.
@@ -85,8 +88,8 @@ public class Menu extends JPanel {
         JLabel l1 = new JLabel("Source: (");
         JLabel l2 = new JLabel(",");
         JLabel l3 = new JLabel(")");
-        JTextField xField = makeIntegerField(0, 99, 0, 2, "source col");
-        JTextField yField = makeIntegerField(0, 99, 0, 2, "source row");
+        JTextField xField = makeIntegerField(0, TileGrid.MAX_SIZE - 1, 0, 4, x -> new Command.MoveSource(Command.Axis.COL, x));
+        JTextField yField = makeIntegerField(0, TileGrid.MAX_SIZE - 1, 0, 4, x -> new Command.MoveSource(Command.Axis.ROW, x));
 
         JPanel panel = new JPanel();
         panel.add(l1);
@@ -107,8 +110,8 @@ public class Menu extends JPanel {
         JLabel l1 = new JLabel("Destination: (");
         JLabel l2 = new JLabel(",");
         JLabel l3 = new JLabel(")");
-        JTextField xField = makeIntegerField(0, 99, 19, 2, "destination col");
-        JTextField yField = makeIntegerField(0, 99, 19, 2, "destination row");
+        JTextField xField = makeIntegerField(0, TileGrid.MAX_SIZE - 1, 19, 4, x -> new Command.MoveDest(Command.Axis.COL, x));
+        JTextField yField = makeIntegerField(0, TileGrid.MAX_SIZE - 1, 19, 4, x -> new Command.MoveDest(Command.Axis.ROW, x));
 
         JPanel panel = new JPanel();
         panel.add(l1);
@@ -132,8 +135,28 @@ public class Menu extends JPanel {
         JCheckBox checkBox = new JCheckBox();
         checkBox.addActionListener(
             event -> {
-                String message = String.format("diagonal %b", checkBox.isSelected());
-                syncQueue.send(message);
+                syncQueue.send(new Command.SetDiagonal(checkBox.isSelected()));
+            }
+        );
+
+        panel.add(label);
+        panel.add(checkBox);
+        return panel;
+    }
+
+    /**
+     * Creates JPanel with a single check box. The checkbox draws the distance from every tile to
+     * the destination over the TileGrid when checked, and hides it when unchecked.
+     * 
+     * @return JPanel that let's you choose whether the TileGrid should show its flow field
+     */
+    private JPanel flowFieldCheckbox() {
+        JPanel panel = new JPanel();
+        JLabel label = new JLabel("Show Distance to Destination: ");
+        JCheckBox checkBox = new JCheckBox();
+        checkBox.addActionListener(
+            event -> {
+                syncQueue.send(new Command.ShowFlowField(checkBox.isSelected()));
             }
         );
 
@@ -150,13 +173,12 @@ public class Menu extends JPanel {
      * @return JPanel that lets you select and visualize a pathfinding algorithm
      */
     private JPanel algorithmSelector() {
-        String[] algorithms = {"BFS", "Djikstra", "A*"};
+        String[] algorithms = {"BFS", "Djikstra", "Dial", "A*", "ALT", "JPS", "Bi-BFS", "Bi-A*", "HPA*", "D*Lite"};
         JComboBox<String> box = new JComboBox<>(algorithms);
         JButton button = new JButton("Start");
         button.addActionListener(
             event -> {
-                String message = String.format("search %s 5", box.getSelectedItem());
-                syncQueue.send(message);
+                syncQueue.send(new Command.Search((String) box.getSelectedItem(), 5));
             }
         );
 
@@ -176,8 +198,7 @@ public class Menu extends JPanel {
         JButton button = new JButton("Clear Pathfinder");
         button.addActionListener(
             event -> {
-                String message = "clear";
-                syncQueue.send(message);
+                syncQueue.send(new Command.Clear());
             }
         );
 
@@ -196,8 +217,7 @@ public class Menu extends JPanel {
         JButton button = new JButton("Erase Everything");
         button.addActionListener(
             event -> {
-                String message = "erase";
-                syncQueue.send(message);
+                syncQueue.send(new Command.Erase());
             }
         );
 
@@ -216,8 +236,7 @@ public class Menu extends JPanel {
         JButton button = new JButton ("Make Maze");
         button.addActionListener(
             event -> {
-                String message = "maze " + System.currentTimeMillis();
-                syncQueue.send(message);
+                syncQueue.send(new Command.Maze(System.currentTimeMillis()));
             }
         );
 
@@ -227,17 +246,40 @@ public class Menu extends JPanel {
     }
 
     /**
-     * Creates a JTextField that attempts to send a message via {@code syncQueue} when enter is pressed.
+     * Creates JPanel with buttons that control the pathfinding algorithm being visualized. The buttons
+     * take one step back, pause or resume, take one step forward, play backwards or forwards, and
+     * halve or double the speed.
+     * 
+     * @return JPanel that controls the playback of a pathfinding algorithm
+     */
+    private JPanel playbackControls() {
+        String[] labels = {"<", "||", ">", "<>", "-", "+"};
+        Command.Control[] controls = {
+            Command.Control.BACK, Command.Control.PAUSE, Command.Control.STEP,
+            Command.Control.REVERSE, Command.Control.SLOWER, Command.Control.FASTER
+        };
+        JPanel panel = new JPanel();
+        for (int i = 0; i < labels.length; ++i) {
+            JButton button = new JButton(labels[i]);
+            Command.Control control = controls[i];
+            button.addActionListener(event -> syncQueue.send(new Command.Playback(control)));
+            panel.add(button);
+        }
+        return panel;
+    }
+
+    /**
+     * Creates a JTextField that attempts to send a command via {@code syncQueue} when enter is pressed.
      * The message is only sent if this text field's text evaluates to an integer between {@code min} and {@code max}.
      * 
      * @param min smallest allowable integer value
      * @param max largest allowable integer value
      * @param defaultValue value thios text field starts with
      * @param columns number of columns this text field has
-     * @param command String prepended to this text field's value when a message is sent to the associated TileGrid
+     * @param command makes the Command sent to the associated TileGrid from this text field's value
      * @return JTextField that checks if it's value is an integer between {@code min} and {@code max} before sending a message to a TileGrid
      */
-    private JTextField makeIntegerField(int min, int max, int defaultValue, int columns, String command) {
+    private JTextField makeIntegerField(int min, int max, int defaultValue, int columns, IntFunction<Command> command) {
         JTextField tf = new JTextField(Integer.toString(defaultValue), columns);
         tf.addActionListener(
             event -> {
@@ -245,7 +287,7 @@ public class Menu extends JPanel {
                 if (s.matches("-?\\d+")) { // s is an integer
                     int x = Integer.parseInt(s);
                     if (x > min && x <= max) {
-                            syncQueue.send(String.format("%s %d", command, x));
+                            syncQueue.send(command.apply(x));
                     }
                 }
             }
@@ -0,0 +1,34 @@
+package pathfinding_visualizer;
+
+/**
+ * Queue that carries messages from the threads that send them to a thread that waits for them,
+ * such as from a {@link Menu} to the {@link Consumer} of a {@link TileGrid}.
+ */
+public interface MessageQueue<T> {
+    /**
+     * Gets an object from the front of the queue, waiting for one if the queue is empty.
+     * 
+     * @return object at the front of this queue
+     * @throws InterruptedException the thread was interrupted while it waited
+     */
+    T get() throws InterruptedException;
+
+    /**
+     * Gets an object from the front of the queue without waiting.
+     * 
+     * @return object at the front of this queue, or null if the queue is empty
+     */
+    T poll();
+
+    /**
+     * Puts an object at the back of this queue.
+     * 
+     * @param obj object to add to the queue
+     */
+    void send(T obj);
+
+    /**
+     * @return {@code true} if there is nothing to get from this queue
+     */
+    boolean isEmpty();
+}
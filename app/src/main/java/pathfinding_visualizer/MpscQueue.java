@@ -0,0 +1,151 @@
+package pathfinding_visualizer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free queue that any number of threads may send to, but only one thread at a time may get
+ * from. Sending never blocks and never takes a lock: a sender swaps its node in as the tail with one
+ * atomic exchange, then links the old tail to it. The one receiver walks the links from the head.
+ * <p>
+ * A receiver that finds the queue empty parks itself until a sender unparks it. Senders only pay
+ * for an unpark when the receiver is actually parked, and only the one sender that takes the parked
+ * receiver out of {@link #waiter} unparks it, so a burst of sends wakes the receiver once.
+ * <p>
+ * Between a sender's exchange and its link, the node it sent isn't reachable from the head yet, so
+ * for that moment the receiver sees the queue as empty. Since the sender checks for a parked
+ * receiver after it links its node, the receiver is woken up when the node becomes reachable.
+ */
+public class MpscQueue<T> implements MessageQueue<T> {
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+    private static final VarHandle WAITER;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(MpscQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+            WAITER = lookup.findVarHandle(MpscQueue.class, "waiter", Thread.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Link of the queue. The head is always a node whose value was already taken.
+     */
+    private static final class Node {
+        Object value;
+        @SuppressWarnings("unused") // accessed through NEXT
+        volatile Node next;
+
+        Node(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Node whose value was taken last, only read and written by the receiver
+     */
+    private Node head;
+    /**
+     * Node sent last, swapped by senders through {@link #TAIL}
+     */
+    @SuppressWarnings("unused") // accessed through TAIL
+    private volatile Node tail;
+    /**
+     * Receiver that is parked until something is sent, or null
+     */
+    @SuppressWarnings("unused") // accessed through WAITER
+    private volatile Thread waiter;
+
+    /**
+     * Creates an empty queue.
+     */
+    public MpscQueue() {
+        head = new Node(null);
+        tail = head;
+    }
+
+    /**
+     * Puts an object at the back of this queue, from any thread.
+     *
+     * @param obj object to add to the queue, not null
+     * @throws NullPointerException {@code obj} is null
+     */
+    @Override
+    public void send(T obj) {
+        if (obj == null) {
+            throw new NullPointerException("can't send null");
+        }
+        Node node = new Node(obj);
+        Node previous = (Node) TAIL.getAndSet(this, node);
+        NEXT.setVolatile(previous, node);
+
+        Thread parked = (Thread) WAITER.getVolatile(this);
+        if (parked != null && WAITER.compareAndSet(this, parked, null)) {
+            LockSupport.unpark(parked);
+        }
+    }
+
+    /**
+     * Takes the object at the front of this queue without waiting. Only one thread at a time may
+     * get from a queue.
+     *
+     * @return object at the front of this queue, or null if nothing has been sent
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        Node next = (Node) NEXT.getVolatile(head);
+        if (next == null) {
+            return null;
+        }
+        T value = (T) next.value;
+        next.value = null; // let the value be collected while next is the head
+        head = next;
+        return value;
+    }
+
+    /**
+     * Takes the object at the front of this queue, parking until one is sent if the queue is
+     * empty. Only one thread at a time may get from a queue.
+     *
+     * @return object at the front of this queue
+     * @throws InterruptedException the thread was interrupted while it waited
+     */
+    @Override
+    public T get() throws InterruptedException {
+        T value = poll();
+        if (value != null) {
+            return value;
+        }
+        Thread current = Thread.currentThread();
+        try {
+            while (true) {
+                WAITER.setVolatile(this, current);
+                value = poll();
+                if (value != null) {
+                    return value;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.park(this);
+            }
+        } finally {
+            WAITER.setVolatile(this, (Thread) null);
+        }
+    }
+
+    /**
+     * @return {@code true} if nothing that was sent is waiting to be taken. Only meaningful to the
+     *         receiver, since senders may add to the queue at any time.
+     */
+    @Override
+    public boolean isEmpty() {
+        return NEXT.getVolatile(head) == null;
+    }
+}
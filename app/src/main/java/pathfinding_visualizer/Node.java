@@ -2,16 +2,20 @@ package pathfinding_visualizer;
 
 /**
  * Representation of a graph's node or vertex.
+ * <p>
+ * A Node's identity is where it is: its row and column never change, and its hash code is that of
+ * its {@link Coord}, so a Node can be kept in a HashSet or HashMap while its {@code reachable} flag
+ * is changed.
  */
 public class Node implements Comparable<Node> {
     /**
      * Row of 2D array this is in
      */
-    public int row;
+    public final int row;
     /**
      * Column of 2D array this is in
      */
-    public int col;
+    public final int col;
     /**
      * Whether other edges should be able to have this as a destination node or whether this has neighbors
      */
@@ -41,6 +45,13 @@ public class Node implements Comparable<Node> {
         this(row, col, true);
     }
 
+    /**
+     * @return {@link Coord} of the tile this Node is on
+     */
+    public long getCoord() {
+        return Coord.of(row, col);
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -96,12 +107,13 @@ public class Node implements Comparable<Node> {
     }
 
     /**
-     * Hashes the string representation of this Node.
+     * Hashes the location of this Node, leaving out {@code reachable} so that the hash never changes.
+     * Nodes that are equal are at the same location, so they still have the same hash.
      * 
-     * @return hash code of string representation
+     * @return hash code of {@link #getCoord}
      */
     @Override
     public int hashCode() {
-        return (this.toString()).hashCode();
+        return Coord.hashCode(getCoord());
     }
 }
@@ -2,6 +2,9 @@ package pathfinding_visualizer;
 
 /**
  * Simple structure that contains two objects. Both objects are publicly accessible.
+ * <p>
+ * The locations of tiles are passed around as {@link Coord}s instead, which don't box their row
+ * and column.
  */
 public class Pair<T, U> {
     
@@ -55,16 +58,16 @@ public class Pair<T, U> {
      */
     @Override
     public String toString() {
-        return String.format("(%s, %s)", first.toString(), second.toString());
+        return "(" + first + ", " + second + ")";
     }
 
     /**
-     * {@inheritDoc}
+     * Combines the hash codes of {@code first} and {@code second}, without building a String.
      * 
-     * @return hash code of this Pair's String representation
+     * @return hash code of this Pair
      */
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return 31 * first.hashCode() + second.hashCode();
     }
 }
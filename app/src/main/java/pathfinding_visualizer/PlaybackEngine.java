@@ -0,0 +1,466 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+
+import javax.swing.Timer;
+
+/**
+ * Plays the steps of a {@link TraceSource} onto a {@link Target} in batches, one batch per frame of a
+ * Swing {@link Timer}. Every step applied during a frame only changes tile states, and the target is
+ * asked to repaint the bounding box of the tiles that changed once, at the end of the frame. Nothing
+ * sleeps or is scheduled per step, so playback speed is only limited by how many steps fit in a frame.
+ * <p>
+ * Every step taken from the source is kept, along with the state each of its tiles had before it was
+ * applied, so playback can be paused, stepped through one step at a time, sped up, slowed down, and
+ * run backwards to the first step. This history costs about 9 bytes per visit step.
+ * <p>
+ * An engine is meant to be used only from the event dispatch thread, which is also where its timer
+ * fires. The {@link #advance} and {@link #rewind} methods can be called directly, without a timer,
+ * by code that owns the target on another thread.
+ */
+public class PlaybackEngine {
+    /**
+     * Milliseconds between frames
+     */
+    public static final int FRAME_MILLIS = 16;
+    /**
+     * Default most steps applied in one frame
+     */
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 1 << 16;
+    /**
+     * Nanoseconds a frame may spend applying steps before the rest are left for the next frame
+     */
+    private static final long FRAME_BUDGET_NANOS = 10_000_000L;
+    /**
+     * Steps a frame applies between checks of {@link #FRAME_BUDGET_NANOS}
+     */
+    private static final int BUDGET_CHECK_INTERVAL = 1024;
+
+    /**
+     * Grid the steps of a trace are applied to.
+     */
+    public interface Target {
+        /**
+         * Marks the tile at {@code (row, col)} as visited or as part of the path.
+         *
+         * @param row row of the tile
+         * @param col column of the tile
+         * @param opcode {@link SearchTrace#VISIT} or {@link SearchTrace#PATH}
+         * @return state the tile had before it was marked, which may be given back to {@link #restore}
+         */
+        byte mark(int row, int col, int opcode);
+
+        /**
+         * Puts the tile at {@code (row, col)} back in a state returned by {@link #mark}.
+         *
+         * @param row row of the tile
+         * @param col column of the tile
+         * @param state state to put back
+         */
+        void restore(int row, int col, byte state);
+
+        /**
+         * Repaints every tile between {@code (minRow, minCol)} and {@code (maxRow, maxCol)}, inclusive.
+         *
+         * @param minRow first row that changed
+         * @param minCol first column that changed
+         * @param maxRow last row that changed
+         * @param maxCol last column that changed
+         */
+        void repaintTiles(int minRow, int minCol, int maxRow, int maxCol);
+    }
+
+    private final Target target;
+    private final Timer timer;
+
+    /**
+     * Source steps are taken from once every step in {@link #history} has been applied, or null
+     */
+    private TraceSource source = null;
+    /**
+     * Every step taken from {@link #source} so far
+     */
+    private final SearchTrace history = new SearchTrace(1024);
+    /**
+     * Index in {@link #history} of the first word of each step, {@link #numSteps} of them valid
+     */
+    private int[] stepStart = new int[1024];
+    /**
+     * State each tile of {@link #history} had before it was marked, indexed like the words of history
+     */
+    private byte[] previous = new byte[1024];
+    /**
+     * Number of steps in {@link #history}
+     */
+    private int numSteps = 0;
+    /**
+     * Number of steps of {@link #history} that are currently applied
+     */
+    private int position = 0;
+
+    /**
+     * Steps played per second at a speed of 1, or 0 to play as fast as frames allow
+     */
+    private double stepsPerSecond = 0;
+    /**
+     * Multiplier of {@link #stepsPerSecond}
+     */
+    private double speed = 1;
+    private int maxStepsPerFrame = DEFAULT_MAX_STEPS_PER_FRAME;
+    private boolean reverse = false;
+    private boolean paused = false;
+    /**
+     * Steps owed to the next frame because the rate called for part of a step, or more than a frame holds
+     */
+    private double owed = 0;
+    /**
+     * {@link System#nanoTime} of the last frame, or -1 before the first frame
+     */
+    private long lastFrame = -1;
+
+    private int minRow;
+    private int minCol;
+    private int maxRow;
+    private int maxCol;
+
+    /**
+     * Creates an engine that plays traces onto {@code target}.
+     *
+     * @param target Target steps are applied to
+     */
+    public PlaybackEngine(Target target) {
+        this.target = target;
+        this.timer = new Timer(FRAME_MILLIS, event -> frame(System.nanoTime()));
+        this.timer.setCoalesce(true);
+        clearDirty();
+    }
+
+    /**
+     * Starts playing the steps of {@code source} from the beginning, forgetting any trace played before.
+     * The steps of the old trace stay applied to the target.
+     * <p>
+     * The first frame comes {@link #FRAME_MILLIS} after this is called, so steps can be applied right
+     * away with {@link #advance}, for example to skip ahead.
+     *
+     * @param source TraceSource to play
+     * @param stepLengthMillis milliseconds each step should last at a speed of 1, or 0 to play as
+     *        fast as frames allow
+     */
+    public void play(TraceSource source, int stepLengthMillis) {
+        stop();
+        this.source = source;
+        this.stepsPerSecond = stepLengthMillis > 0 ? 1000.0 / stepLengthMillis : 0;
+        speed = 1;
+        reverse = false;
+        paused = false;
+        timer.start();
+    }
+
+    /**
+     * Stops playback and forgets the trace, so it can't be stepped through or played backwards any more.
+     * The steps that were applied stay applied.
+     */
+    public void stop() {
+        timer.stop();
+        source = null;
+        history.clear();
+        numSteps = 0;
+        position = 0;
+        owed = 0;
+        lastFrame = -1;
+    }
+
+    /**
+     * Stops applying steps until {@link #resume} is called.
+     */
+    public void pause() {
+        paused = true;
+        timer.stop();
+        owed = 0;
+        lastFrame = -1;
+    }
+
+    /**
+     * Continues playback in the direction it was going before it was paused.
+     */
+    public void resume() {
+        paused = false;
+        timer.start();
+    }
+
+    /**
+     * @return {@code true} if playback is paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return {@code true} if frames apply steps, that is, playback is neither paused nor finished
+     */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /**
+     * Pauses playback and applies the next step.
+     *
+     * @return {@code true} if there was a step to apply
+     */
+    public boolean stepForward() {
+        pause();
+        return advance(1) == 1;
+    }
+
+    /**
+     * Pauses playback and takes back the last step applied.
+     *
+     * @return {@code true} if there was a step to take back
+     */
+    public boolean stepBackward() {
+        pause();
+        return rewind(1) == 1;
+    }
+
+    /**
+     * Makes frames take steps back instead of applying new ones, or the other way around.
+     *
+     * @param reverse {@code true} to play backwards
+     */
+    public void setReverse(boolean reverse) {
+        this.reverse = reverse;
+        if (!paused) {
+            timer.start();
+        }
+    }
+
+    /**
+     * @return {@code true} if playback runs backwards
+     */
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    /**
+     * Sets how many times faster than its step length a trace is played.
+     *
+     * @param speed positive multiplier of the step rate
+     * @throws IllegalArgumentException {@code speed} isn't positive
+     */
+    public void setSpeed(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * @return multiplier of the step rate
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the most steps one frame may apply, which also caps the speed of traces played with a
+     * step length of 0.
+     *
+     * @param maxStepsPerFrame positive number of steps
+     * @throws IllegalArgumentException {@code maxStepsPerFrame} isn't positive
+     */
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("a frame must be able to apply a step: " + maxStepsPerFrame);
+        }
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * @return number of steps currently applied
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Applies up to {@code steps} steps, replaying steps that were taken back before taking new ones
+     * from the source, then repaints the tiles that changed.
+     *
+     * @param steps most steps to apply
+     * @return number of steps applied, less than {@code steps} only if the trace ran out
+     */
+    public int advance(int steps) {
+        int applied = applySteps(steps, Long.MAX_VALUE);
+        flushDirty();
+        return applied;
+    }
+
+    /**
+     * Takes back up to {@code steps} of the applied steps, newest first, then repaints the tiles that changed.
+     *
+     * @param steps most steps to take back
+     * @return number of steps taken back, less than {@code steps} only if the first step was reached
+     */
+    public int rewind(int steps) {
+        int undone = 0;
+        while (undone < steps && position > 0) {
+            undoStep(--position);
+            ++undone;
+        }
+        flushDirty();
+        return undone;
+    }
+
+    /**
+     * Applies or takes back as many steps as the time since the last frame calls for, then repaints
+     * what changed. The timer is stopped once there is nothing left to do in the current direction.
+     *
+     * @param now {@link System#nanoTime} of this frame
+     */
+    private void frame(long now) {
+        double due;
+        if (stepsPerSecond == 0) {
+            due = maxStepsPerFrame;
+        } else {
+            long elapsed = lastFrame < 0 ? FRAME_MILLIS * 1_000_000L : now - lastFrame;
+            owed += elapsed * 1e-9 * stepsPerSecond * speed;
+            due = Math.min(owed, maxStepsPerFrame);
+        }
+        lastFrame = now;
+        int count = (int) due;
+        owed = stepsPerSecond == 0 ? 0 : Math.min(owed - count, maxStepsPerFrame);
+
+        int done;
+        if (reverse) {
+            done = rewind(count);
+        } else {
+            done = applySteps(count, now + FRAME_BUDGET_NANOS);
+            flushDirty();
+        }
+        if (done < count && (reverse || source == null)) {
+            timer.stop();
+            owed = 0;
+            lastFrame = -1;
+        }
+    }
+
+    /**
+     * Applies up to {@code steps} steps, growing the dirty box but not repainting it.
+     *
+     * @param steps most steps to apply
+     * @param deadline {@link System#nanoTime} after which no more steps are taken from the source
+     * @return number of steps applied
+     */
+    private int applySteps(int steps, long deadline) {
+        int applied = 0;
+        while (applied < steps) {
+            if (position == numSteps && !pull()) {
+                break;
+            }
+            applyStep(position++);
+            ++applied;
+            if (applied % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Takes the next step from {@link #source} and adds it to {@link #history}.
+     *
+     * @return {@code true} if there was a step, {@code false} if the source ran out and was let go of
+     */
+    private boolean pull() {
+        if (source == null) {
+            return false;
+        }
+        int start = history.size();
+        if (!source.step(history)) {
+            source = null;
+            return false;
+        }
+        if (numSteps == stepStart.length) {
+            stepStart = Arrays.copyOf(stepStart, 2 * numSteps);
+        }
+        stepStart[numSteps++] = start;
+        if (history.size() > previous.length) {
+            previous = Arrays.copyOf(previous, Math.max(history.size(), 2 * previous.length));
+        }
+        return true;
+    }
+
+    /**
+     * Marks the tiles of step {@code step} of {@link #history}, remembering what they were before. The
+     * two ends of a path, the source and destination, are left alone.
+     */
+    private void applyStep(int step) {
+        int index = stepStart[step];
+        int word = history.word(index);
+        if (SearchTrace.opcode(word) == SearchTrace.VISIT) {
+            previous[index] = mark(word, SearchTrace.VISIT);
+        } else {
+            int length = SearchTrace.pathLength(word);
+            for (int i = index + 2; i < index + length; ++i) {
+                previous[i] = mark(history.word(i), SearchTrace.PATH);
+            }
+        }
+    }
+
+    /**
+     * Puts back the tiles step {@code step} of {@link #history} marked, in the opposite order.
+     */
+    private void undoStep(int step) {
+        int index = stepStart[step];
+        int word = history.word(index);
+        if (SearchTrace.opcode(word) == SearchTrace.VISIT) {
+            restore(word, previous[index]);
+        } else {
+            int length = SearchTrace.pathLength(word);
+            for (int i = index + length - 1; i >= index + 2; --i) {
+                restore(history.word(i), previous[i]);
+            }
+        }
+    }
+
+    private byte mark(int coord, int opcode) {
+        int row = SearchTrace.row(coord);
+        int col = SearchTrace.col(coord);
+        grow(row, col);
+        return target.mark(row, col, opcode);
+    }
+
+    private void restore(int coord, byte state) {
+        int row = SearchTrace.row(coord);
+        int col = SearchTrace.col(coord);
+        grow(row, col);
+        target.restore(row, col, state);
+    }
+
+    /**
+     * Grows the box of tiles that changed since the last repaint to hold {@code (row, col)}.
+     */
+    private void grow(int row, int col) {
+        minRow = Math.min(minRow, row);
+        minCol = Math.min(minCol, col);
+        maxRow = Math.max(maxRow, row);
+        maxCol = Math.max(maxCol, col);
+    }
+
+    /**
+     * Repaints the box of tiles that changed, if any did, and empties it.
+     */
+    private void flushDirty() {
+        if (minRow <= maxRow) {
+            target.repaintTiles(minRow, minCol, maxRow, maxCol);
+        }
+        clearDirty();
+    }
+
+    private void clearDirty() {
+        minRow = Integer.MAX_VALUE;
+        minCol = Integer.MAX_VALUE;
+        maxRow = -1;
+        maxCol = -1;
+    }
+}
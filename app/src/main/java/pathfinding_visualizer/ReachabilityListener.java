@@ -0,0 +1,32 @@
+package pathfinding_visualizer;
+
+import java.util.BitSet;
+
+/**
+ * Listens for tiles of a {@link TileGraph} becoming reachable or unreachable. Register
+ * one with {@link TileGraph#addReachabilityListener}.
+ */
+public interface ReachabilityListener {
+    /**
+     * Called after the reachability of a Node changes. Not called if
+     * {@link TileGraph#setNodeReachability} leaves a Node as it was.
+     *
+     * @param graph TileGraph the Node is in
+     * @param id id of the Node that changed
+     * @param reachable whether the Node is now reachable
+     */
+    void reachabilityChanged(TileGraph graph, int id, boolean reachable);
+
+    /**
+     * Called after the reachability of many Nodes changed at once, such as by
+     * {@link TileGraph#setWalls}. By default, calls {@link #reachabilityChanged} for each of them.
+     *
+     * @param graph TileGraph the Nodes are in
+     * @param changed BitSet with the id of every Node that changed set. Must not be modified.
+     */
+    default void wallsChanged(TileGraph graph, BitSet changed) {
+        for (int id = changed.nextSetBit(0); id >= 0; id = changed.nextSetBit(id + 1)) {
+            reachabilityChanged(graph, id, graph.isReachable(id));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Graph that searches run in the background use, and the structures those searches keep between
+ * runs: the HierarchicalGraph of HPA*, the LandmarkTable of ALT, the planner of D* Lite, and the
+ * {@link FlowField} of the heat map. Only the thread running searches, one at a time through a
+ * {@link SearchExecutor}, touches them.
+ * <p>
+ * The graph is a copy of one that is edited on the event dispatch thread. A {@link Recorder}
+ * listening to that graph writes down every edit, and each {@link Update} taken from it is
+ * {@link #post posted} here and replayed onto the copy before the next search. The structures
+ * listen to the copy, so they are repaired as incrementally as if they were on the edited graph,
+ * and D* Lite still only replans around the walls painted since its last plan.
+ * <p>
+ * Every trace is tagged with the {@link TileGraph#getVersion version} of the edited graph that the
+ * copy matched when the search ran, so a trace can be told apart from one of a later edit.
+ */
+public class SearchContext {
+    /**
+     * Edits made to a graph since an Update was last taken, or a copy of the whole graph.
+     */
+    public static final class Update {
+        /**
+         * Copy to replace the graph with, or null to replay {@link #edits}
+         */
+        private final TileGraph copy;
+        /**
+         * Ids of Nodes that became reachable, and complements ({@code ~id}) of Nodes that became
+         * walls, in the order it happened
+         */
+        private final int[] edits;
+        private final boolean diagonal;
+        /**
+         * {@link TileGraph#getVersion Version} of the recorded graph when this Update was taken
+         */
+        private final long version;
+
+        private Update(TileGraph copy, int[] edits, boolean diagonal, long version) {
+            this.copy = copy;
+            this.edits = edits;
+            this.diagonal = diagonal;
+            this.version = version;
+        }
+
+        /**
+         * @return {@link TileGraph#getVersion version} of the recorded graph when this Update was taken
+         */
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    /**
+     * Writes down the edits of a graph on the thread that makes them, normally the event dispatch
+     * thread.
+     */
+    public static final class Recorder implements ReachabilityListener {
+        private final TileGraph graph;
+        /**
+         * Number of edits after which copying the graph is cheaper than replaying them
+         */
+        private final int limit;
+        private int[] edits = new int[64];
+        private int numEdits = 0;
+        /**
+         * Whether the next Update has to be a copy, because it's the first or there were too many edits
+         */
+        private boolean copyNext = true;
+
+        /**
+         * Starts listening to {@code graph}. The first Update taken is a copy of it.
+         *
+         * @param graph TileGraph whose edits are written down
+         */
+        public Recorder(TileGraph graph) {
+            this.graph = graph;
+            this.limit = Math.max(64, graph.numNodes() / 32);
+            graph.addReachabilityListener(this);
+        }
+
+        @Override
+        public void reachabilityChanged(TileGraph changed, int id, boolean reachable) {
+            if (copyNext) {
+                return;
+            }
+            if (numEdits == limit) {
+                copyNext = true;
+                numEdits = 0;
+                return;
+            }
+            if (numEdits == edits.length) {
+                edits = Arrays.copyOf(edits, Math.min(limit, 2 * numEdits));
+            }
+            edits[numEdits++] = reachable ? id : ~id;
+        }
+
+        @Override
+        public void wallsChanged(TileGraph changed, BitSet ids) {
+            if (copyNext) {
+                return;
+            }
+            if (numEdits + ids.cardinality() > limit) {
+                // a maze or some other bulk change is copied without writing down its edits one by one
+                copyNext = true;
+                numEdits = 0;
+                return;
+            }
+            ReachabilityListener.super.wallsChanged(changed, ids);
+        }
+
+        /**
+         * Takes every edit written down since the last call, and starts over.
+         *
+         * @return Update to {@link SearchContext#post} to a SearchContext
+         */
+        public Update take() {
+            Update update;
+            if (copyNext) {
+                update = new Update(new TileGraph(graph), null, graph.diagonalsConnected(), graph.getVersion());
+            } else {
+                update = new Update(null, Arrays.copyOf(edits, numEdits), graph.diagonalsConnected(), graph.getVersion());
+            }
+            copyNext = false;
+            numEdits = 0;
+            return update;
+        }
+    }
+
+    /**
+     * Updates posted but not yet replayed, in the order they were posted
+     */
+    private final Queue<Update> posted = new ConcurrentLinkedQueue<>();
+    private TileGraph graph;
+    /**
+     * Version of the recorded graph that {@link #graph} matches, from the last Update replayed
+     */
+    private long version = -1;
+    private HierarchicalGraph hierarchy;
+    private LandmarkTable landmarks;
+    private DStarLite planner;
+    private FlowField flowField;
+    private final SearchWorkspace workspace = new SearchWorkspace();
+    /**
+     * Workspace of the frontier from the destination in the bidirectional searches
+     */
+    private final SearchWorkspace backwardWorkspace = new SearchWorkspace();
+
+    /**
+     * Hands over an Update to be replayed before the next search, from any thread. Updates are
+     * replayed even if the search they were posted for was cancelled.
+     *
+     * @param update Update taken from a Recorder, posted in the order they were taken
+     */
+    public void post(Update update) {
+        posted.add(update);
+    }
+
+    /**
+     * Replays every posted Update, then runs a search on the graph they leave behind. Only called
+     * by one thread at a time.
+     *
+     * @param algorithm name of the algorithm as it appears in the {@link Menu}: "Dial", "JPS",
+     *        "HPA*", "ALT", "D*Lite", "Bi-BFS", or "Bi-A*"
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @return SearchTrace of what the algorithm did at each step, tagged with the
+     *         {@link TileGraph#getVersion version} of the recorded graph it ran on
+     * @throws IllegalStateException nothing was posted yet
+     * @throws IllegalArgumentException {@code algorithm} isn't one of the ones above
+     * @throws java.util.concurrent.CancellationException the thread was interrupted during the search
+     */
+    public SearchTrace search(String algorithm, long sourceCoord, long destCoord) {
+        replayPosted();
+        SearchTrace trace = run(algorithm, sourceCoord, destCoord);
+        trace.setGraphVersion(version);
+        return trace;
+    }
+
+    /**
+     * Replays every posted Update, then finds the flow field towards {@code destCoord} on the graph
+     * they leave behind. The field is kept between calls and repaired around the edits replayed
+     * since the last one, unless the graph was copied or the destination moved. Only called by one
+     * thread at a time.
+     *
+     * @param destCoord {@link Coord} of the destination tile
+     * @return FlowField of the copy, which is brought up to date the first time it is used
+     * @throws IllegalStateException nothing was posted yet
+     */
+    public FlowField flowField(long destCoord) {
+        replayPosted();
+        if (flowField == null || flowField.getDestCoord() != destCoord) {
+            if (flowField != null) {
+                flowField.detach();
+            }
+            flowField = new FlowField(graph, destCoord);
+        }
+        return flowField;
+    }
+
+    private void replayPosted() {
+        for (Update update = posted.poll(); update != null; update = posted.poll()) {
+            replay(update);
+        }
+        if (graph == null) {
+            throw new IllegalStateException("no graph was posted");
+        }
+    }
+
+    private SearchTrace run(String algorithm, long sourceCoord, long destCoord) {
+        switch (algorithm) {
+            case "Dial":
+                return Algorithms.dialDjikstraTrace(sourceCoord, destCoord, graph, workspace);
+            case "JPS":
+                return Algorithms.jpsTrace(sourceCoord, destCoord, graph, null, workspace);
+            case "HPA*":
+                if (hierarchy == null) {
+                    hierarchy = new HierarchicalGraph(graph);
+                }
+                return Algorithms.hpaStarTrace(sourceCoord, destCoord, hierarchy);
+            case "ALT":
+                if (landmarks == null) {
+                    landmarks = new LandmarkTable(graph);
+                }
+                return Algorithms.altAStarTrace(sourceCoord, destCoord, landmarks, workspace);
+            case "D*Lite":
+                if (planner == null) {
+                    planner = new DStarLite(graph);
+                }
+                return Algorithms.dStarLiteTrace(sourceCoord, destCoord, planner);
+            case "Bi-BFS":
+                return Algorithms.bidirectionalBfsTrace(sourceCoord, destCoord, graph, false, workspace, backwardWorkspace);
+            case "Bi-A*":
+                return Algorithms.bidirectionalAStarTrace(sourceCoord, destCoord, graph, false, workspace, backwardWorkspace);
+            default:
+                throw new IllegalArgumentException("not a background search: " + algorithm);
+        }
+    }
+
+    private void replay(Update update) {
+        if (update.copy != null) {
+            // the structures belong to the old graph, and are made again when they are needed
+            graph = update.copy;
+            hierarchy = null;
+            landmarks = null;
+            planner = null;
+            flowField = null;
+        } else {
+            // only the last edit of each tile matters, and the structures are told about them all at once
+            BitSet reachable = new BitSet(graph.numNodes());
+            BitSet walls = new BitSet(graph.numNodes());
+            for (int edit : update.edits) {
+                int id = edit >= 0 ? edit : ~edit;
+                reachable.set(id, edit >= 0);
+                walls.set(id, edit < 0);
+            }
+            graph.setReachability(reachable, true);
+            graph.setReachability(walls, false);
+        }
+        graph.makeEdges(update.diagonal);
+        version = update.version;
+    }
+}
@@ -0,0 +1,207 @@
+package pathfinding_visualizer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs searches away from the event dispatch thread, one after another in the order they were
+ * submitted, so that a search can use state left behind by the one before it without locking.
+ * <p>
+ * Each search runs on a virtual thread if the JVM has them, or on a daemon thread of a pool if it
+ * doesn't. Cancelling a {@link Task} interrupts its thread, and the loops in {@link Algorithms}
+ * check for that every {@link Algorithms#CANCEL_CHECK_INTERVAL} expansions and give up, so a
+ * cancelled search stops within one batch of expansions. The next search waits for that, on its
+ * own thread, so nothing that submits a search ever blocks.
+ */
+public class SearchExecutor {
+    private final ExecutorService executor;
+    private final boolean virtual;
+    /**
+     * Task submitted last, which the next task waits for, or null
+     */
+    private Task<?> last;
+
+    /**
+     * Search that can be cancelled, and whose result can be waited for or acted on with
+     * {@link #completion}.
+     */
+    public static final class Task<T> extends FutureTask<T> {
+        private final Body<T> body;
+        private final CompletableFuture<T> completion = new CompletableFuture<>();
+
+        private Task(Body<T> body) {
+            super(body);
+            this.body = body;
+        }
+
+        /**
+         * Cancels this search, interrupting it if it is running.
+         */
+        public void cancel() {
+            cancel(true);
+        }
+
+        /**
+         * @return future that completes with the result of this search, or exceptionally with a
+         *         {@link CancellationException} if it was cancelled
+         */
+        public CompletableFuture<T> completion() {
+            return completion;
+        }
+
+        /**
+         * Waits until this search has stopped running. Unlike {@link #get}, this keeps waiting after
+         * the search is cancelled, until it notices.
+         *
+         * @throws InterruptedException the waiting thread was interrupted
+         */
+        public void awaitStopped() throws InterruptedException {
+            body.stopped.await();
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                body.skip();
+                completion.cancel(false);
+                return;
+            }
+            try {
+                completion.complete(get());
+            } catch (ExecutionException e) {
+                completion.completeExceptionally(e.getCause());
+            } catch (InterruptedException | CancellationException e) {
+                completion.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * What a {@link Task} runs: waits for the task before it to stop, then runs the search.
+     */
+    private static final class Body<T> implements Callable<T> {
+        private final Callable<T> work;
+        private final Task<?> previous;
+        /**
+         * Set by whichever comes first, the search starting or being cancelled before it started
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        /**
+         * Counted down once the search has stopped running or won't run at all
+         */
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        Body(Callable<T> work, Task<?> previous) {
+            this.work = work;
+            this.previous = previous;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                // keep waiting when cancelled, or the next search could start before the previous one stops
+                boolean interrupted = false;
+                while (previous != null) {
+                    try {
+                        previous.body.stopped.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted || Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("search was cancelled before it started");
+                }
+                return work.call();
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        /**
+         * Lets the next search start if this one was cancelled before it started.
+         */
+        void skip() {
+            if (claimed.compareAndSet(false, true)) {
+                stopped.countDown();
+            }
+        }
+    }
+
+    /**
+     * Creates an executor that runs searches on virtual threads if the JVM has them, and on daemon
+     * threads otherwise.
+     */
+    public SearchExecutor() {
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : newDaemonExecutor();
+    }
+
+    /**
+     * @return {@code true} if searches run on virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Submits a search that starts once every search submitted before it has stopped. Must be
+     * called from one thread at a time, normally the event dispatch thread.
+     *
+     * @param work search to run
+     * @return Task of the search
+     */
+    public <T> Task<T> submit(Callable<T> work) {
+        Task<T> task = new Task<>(new Body<>(work, last));
+        last = task;
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Cancels every search that hasn't started and interrupts the running one. Searches can't be
+     * submitted afterwards.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor}, which only exists from Java 21.
+     *
+     * @return executor that starts a virtual thread per task, or null if there are no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return executor that reuses daemon threads, so searches left running don't keep the JVM alive
+     */
+    private static ExecutorService newDaemonExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "search-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,268 @@
+package pathfinding_visualizer;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A search that runs one step at a time, as its steps are asked for. Each call to {@link #step}
+ * expands Nodes only until the next step is known, so the first step of a search is ready in
+ * constant time, and nothing but the search's own frontier and per-Node state is kept in memory,
+ * no matter how long the search runs.
+ * <p>
+ * Steps are added to a {@link SearchTrace}. As an Iterator, a stepper returns the same steps as
+ * Strings, the same ones, in the same order, as in the List returned by {@link Algorithms#bfs},
+ * {@link Algorithms#djikstra}, and {@link Algorithms#aStar}, which run a stepper to the end.
+ * <p>
+ * A stepper reads its graph and workspace every time it takes a step. Neither may be changed or
+ * used by anything else until the stepper is done, so a stepper that is drained on another thread
+ * should be given a copy of the graph, see {@link TileGraph#TileGraph(TileGraph)}.
+ */
+public class SearchStepper implements Iterator<String>, TraceSource {
+    private final TileGraph graph;
+    private final SearchWorkspace workspace;
+    /**
+     * {@code true} for a priority queue ordered by distance, {@code false} for a FIFO queue (BFS)
+     */
+    private final boolean weighted;
+    /**
+     * Whether the heuristic distance to the destination is added to the priority of every Node (A*)
+     */
+    private final boolean useHeuristic;
+    /**
+     * Current LandmarkTable that tightens the heuristic, or null
+     */
+    private final LandmarkTable landmarks;
+    private final int start;
+    private final int end;
+
+    /**
+     * Index of the next id to pop from the FIFO queue of {@link #workspace}
+     */
+    private int head = 0;
+    /**
+     * Index one past the last id pushed to the FIFO queue of {@link #workspace}
+     */
+    private int tail = 0;
+    /**
+     * Step found by {@link #hasNext} that hasn't been taken yet, or null if there is none
+     */
+    private SearchTrace pending = null;
+    /**
+     * Whether the search has reached the destination or run out of Nodes
+     */
+    private boolean finished = false;
+    /**
+     * Whether the graph was asked if the destination is known to be out of reach
+     */
+    private boolean checkedReach = false;
+    /**
+     * Number of Nodes popped so far
+     */
+    private int expansions = 0;
+
+    /**
+     * Starts a search from {@code sourceCoord} to {@code destCoord}. The source is queued right away,
+     * but nothing is expanded until the first action is asked for. If by then the graph already
+     * {@link TileGraph#knownDisconnected knows} the two tiles aren't connected, the search is over
+     * before it starts, and has no steps at all. The graph is never made to find out, so a stepper
+     * can be made and stepped on the event dispatch thread.
+     *
+     * @param sourceCoord {@link Coord} of the source tile
+     * @param destCoord {@link Coord} of the destination tile
+     * @param graph TileGraph the search will run on
+     * @param weighted {@code true} to order Nodes by distance, {@code false} for Breadth-First Search
+     * @param useHeuristic {@code true} to add the heuristic distance to the destination to every priority
+     * @param landmarks current LandmarkTable that tightens the heuristic, or null
+     * @param workspace SearchWorkspace that will be reset and used by this search
+     */
+    SearchStepper(long sourceCoord, long destCoord, TileGraph graph,
+            boolean weighted, boolean useHeuristic, LandmarkTable landmarks, SearchWorkspace workspace) {
+        this.graph = graph;
+        this.workspace = workspace;
+        this.weighted = weighted;
+        this.useHeuristic = useHeuristic;
+        this.landmarks = landmarks;
+        this.start = graph.getId(sourceCoord);
+        this.end = graph.getId(destCoord);
+
+        workspace.reset(graph.numNodes());
+        workspace.reach(start, 0, -1);
+        if (weighted) {
+            workspace.heap().push(start, useHeuristic ? Algorithms.estimate(start, end, graph, landmarks) : 0);
+        } else {
+            workspace.queue()[tail++] = start;
+        }
+    }
+
+    /**
+     * @return {@link TileGraph#getVersion version} of the graph this search runs on
+     */
+    public long getGraphVersion() {
+        return graph.getVersion();
+    }
+
+    /**
+     * Runs the search until its next step is known, and adds it to {@code trace}.
+     *
+     * @param trace SearchTrace the next step is added to
+     * @return {@code true} if a step was added, {@code false} if the search is over
+     */
+    @Override
+    public boolean step(SearchTrace trace) {
+        checkReach();
+        if (pending != null) {
+            trace.addAll(pending);
+            pending = null;
+            return true;
+        }
+        return !finished && advance(trace);
+    }
+
+    /**
+     * Ends the search before its first step if the graph already knows the destination is in
+     * another component, since it would never be reached.
+     */
+    private void checkReach() {
+        if (!checkedReach) {
+            checkedReach = true;
+            finished |= graph.knownDisconnected(start, end);
+        }
+    }
+
+    /**
+     * Runs the search to the end, adding every step it had left to {@code trace}.
+     *
+     * @param trace SearchTrace the steps are added to
+     */
+    public void drainTo(SearchTrace trace) {
+        while (step(trace)) {
+            // keep going
+        }
+    }
+
+    /**
+     * Runs the search to the end.
+     *
+     * @return List of every action this stepper had left
+     */
+    public List<String> drain() {
+        SearchTrace trace = new SearchTrace();
+        drainTo(trace);
+        return trace.toActions();
+    }
+
+    /**
+     * Runs the search until its next action is known.
+     *
+     * @return {@code true} if the search has another action
+     */
+    @Override
+    public boolean hasNext() {
+        checkReach();
+        if (pending == null && !finished) {
+            SearchTrace next = new SearchTrace(1);
+            if (advance(next)) {
+                pending = next;
+            }
+        }
+        return pending != null;
+    }
+
+    /**
+     * Runs the search until its next action is known, and returns it as a String.
+     *
+     * @return "visit x y" for the next Node visited, or "path x1 y1 x2 y2 ..." once the destination is reached
+     * @throws NoSuchElementException the search is over
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String action = pending.toAction(0);
+        pending = null;
+        return action;
+    }
+
+    /**
+     * Pops Nodes until one produces a step. Every Node popped is expanded before its step is
+     * added, so the search can pick up from the queue next time.
+     *
+     * @param trace SearchTrace the step is added to
+     * @return {@code true} if a step was added, {@code false} if the queue ran out
+     */
+    private boolean advance(SearchTrace trace) {
+        while (true) {
+            Algorithms.checkCancelled(++expansions);
+            int curr;
+            if (weighted) {
+                if (workspace.heap().isEmpty()) {
+                    finished = true;
+                    return false;
+                }
+                curr = workspace.heap().pop();
+                workspace.settle(curr);
+            } else {
+                if (head == tail) {
+                    finished = true;
+                    return false;
+                }
+                curr = workspace.queue()[head++];
+            }
+
+            if (curr == end) {
+                finished = true;
+                Algorithms.tracePath(trace, workspace, end, graph);
+                return true;
+            }
+            if (weighted) {
+                relax(curr);
+            } else {
+                enqueue(curr);
+            }
+            if (curr != start) {
+                Algorithms.visit(trace, curr, graph);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queues every unreached neighbor of {@code curr} one step further from the source.
+     */
+    private void enqueue(int curr) {
+        int[] q = workspace.queue();
+        int[] neighbors = workspace.neighbors();
+        int count = graph.getNeighbors(curr, neighbors);
+        for (int i = 0; i < count; ++i) {
+            int next = neighbors[i];
+            if (!workspace.isReached(next)) {
+                workspace.reach(next, workspace.getDist(curr) + 1, curr);
+                q[tail++] = next;
+            }
+        }
+    }
+
+    /**
+     * Lowers the distance of every unsettled neighbor of {@code curr} that is shorter through {@code curr}.
+     * The heuristic of a Node is only computed when its key changes, never when keys are compared.
+     */
+    private void relax(int curr) {
+        IndexedMinHeap pq = workspace.heap();
+        int[] neighbors = workspace.neighbors();
+        int count = graph.getNeighbors(curr, neighbors);
+        for (int i = 0; i < count; ++i) {
+            int next = neighbors[i];
+            if (workspace.isSettled(next)) {
+                continue;
+            }
+
+            double d = workspace.getDist(curr) + graph.getWeight(curr, next);
+            if (d < workspace.getDist(next)) {
+                workspace.reach(next, d, curr);
+                pq.push(next, useHeuristic ? d + Algorithms.estimate(next, end, graph, landmarks) : d);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact record of what a pathfinding algorithm did, packed into an {@code int[]} instead of one
+ * String per step. Every step starts with a word whose top two bits are its opcode:
+ * <ul>
+ * <li>{@link #VISIT} - the rest of the word is the packed coordinate of the tile visited
+ * <li>{@link #PATH} - the rest of the word is the number of tiles on the path, and that many
+ * packed coordinates follow, from the destination to the source
+ * </ul>
+ * A packed coordinate holds the row in bits 15 to 29 and the column in bits 0 to 14, so a trace
+ * can describe grids of up to {@link #MAX_COORD} + 1 rows and columns, and can be drawn without
+ * parsing anything.
+ * <p>
+ * {@link #toActions} turns a trace into the "visit x y" and "path x1 y1 x2 y2 ..." Strings the
+ * List versions of the {@link Algorithms} return.
+ */
+public class SearchTrace {
+    /**
+     * Opcode of a step that visits one tile
+     */
+    public static final int VISIT = 0;
+    /**
+     * Opcode of a step that shows the shortest path
+     */
+    public static final int PATH = 1;
+    /**
+     * Largest row or column a packed coordinate can hold
+     */
+    public static final int MAX_COORD = (1 << 15) - 1;
+
+    private static final int OP_SHIFT = 30;
+    private static final int ROW_SHIFT = 15;
+    private static final int ARG_MASK = (1 << OP_SHIFT) - 1;
+
+    /**
+     * Packed steps, {@link #size} of them valid
+     */
+    private int[] words;
+    /**
+     * Number of words in use
+     */
+    private int size = 0;
+    /**
+     * Index of the {@link #PATH} word of the path being added, or -1 if no path is being added
+     */
+    private int openPath = -1;
+    /**
+     * {@link TileGraph#getVersion Version} of the graph the search ran on, or -1 if it isn't known
+     */
+    private long graphVersion = -1;
+
+    /**
+     * Creates an empty trace.
+     */
+    public SearchTrace() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty trace with room for {@code capacity} words before it has to grow.
+     *
+     * @param capacity initial number of words
+     */
+    public SearchTrace(int capacity) {
+        words = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Packs a coordinate into the low 30 bits of a word.
+     *
+     * @param row row of a tile, between 0 and {@link #MAX_COORD}
+     * @param col column of a tile, between 0 and {@link #MAX_COORD}
+     * @return packed coordinate
+     * @throws IllegalArgumentException {@code row} or {@code col} doesn't fit
+     */
+    public static int pack(int row, int col) {
+        if (row < 0 || row > MAX_COORD || col < 0 || col > MAX_COORD) {
+            throw new IllegalArgumentException("coordinate doesn't fit in a trace: " + row + ", " + col);
+        }
+        return (row << ROW_SHIFT) | col;
+    }
+
+    /**
+     * @param word a word of a trace
+     * @return the opcode in the top bits of {@code word}
+     */
+    public static int opcode(int word) {
+        return word >>> OP_SHIFT;
+    }
+
+    /**
+     * @param word a {@link #VISIT} word or a packed coordinate
+     * @return the row of the coordinate in {@code word}
+     */
+    public static int row(int word) {
+        return (word & ARG_MASK) >>> ROW_SHIFT;
+    }
+
+    /**
+     * @param word a {@link #VISIT} word or a packed coordinate
+     * @return the column of the coordinate in {@code word}
+     */
+    public static int col(int word) {
+        return word & MAX_COORD;
+    }
+
+    /**
+     * @param word a {@link #PATH} word
+     * @return number of packed coordinates that follow {@code word}
+     */
+    public static int pathLength(int word) {
+        return word & ARG_MASK;
+    }
+
+    /**
+     * @return number of words in this trace
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@link TileGraph#getVersion version} of the graph the search that made this trace ran
+     *         on, or -1 if it isn't known
+     */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    /**
+     * Tags this trace with the version of the graph the search that made it ran on.
+     *
+     * @param graphVersion {@link TileGraph#getVersion version} of the graph
+     */
+    public void setGraphVersion(long graphVersion) {
+        this.graphVersion = graphVersion;
+    }
+
+    /**
+     * @param index index of a word, less than {@link #size}
+     * @return the word at {@code index}
+     */
+    public int word(int index) {
+        return words[index];
+    }
+
+    /**
+     * @param index index of the first word of a step
+     * @return index of the first word of the step after it
+     */
+    public int nextStep(int index) {
+        int word = words[index];
+        return opcode(word) == PATH ? index + 1 + pathLength(word) : index + 1;
+    }
+
+    /**
+     * @return {@code true} if this trace ends with a path
+     */
+    public boolean hasPath() {
+        for (int i = 0; i < size; i = nextStep(i)) {
+            if (opcode(words[i]) == PATH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every step from this trace, keeping its memory.
+     */
+    public void clear() {
+        size = 0;
+        openPath = -1;
+    }
+
+    /**
+     * Adds a step that visits the tile at {@code (row, col)}.
+     *
+     * @param row row of the tile visited
+     * @param col column of the tile visited
+     */
+    public void addVisit(int row, int col) {
+        add((VISIT << OP_SHIFT) | pack(row, col));
+    }
+
+    /**
+     * Starts a path step. Its tiles are added with {@link #addPathTile}, from the destination to the
+     * source, and it is finished by {@link #endPath}.
+     */
+    public void beginPath() {
+        openPath = size;
+        add(PATH << OP_SHIFT);
+    }
+
+    /**
+     * Adds the tile at {@code (row, col)} to the path that was begun last.
+     *
+     * @param row row of a tile on the path
+     * @param col column of a tile on the path
+     * @throws IllegalStateException no path was begun
+     */
+    public void addPathTile(int row, int col) {
+        if (openPath < 0) {
+            throw new IllegalStateException("no path was begun");
+        }
+        add(pack(row, col));
+    }
+
+    /**
+     * Finishes the path that was begun last.
+     *
+     * @throws IllegalStateException no path was begun
+     */
+    public void endPath() {
+        if (openPath < 0) {
+            throw new IllegalStateException("no path was begun");
+        }
+        words[openPath] = (PATH << OP_SHIFT) | (size - openPath - 1);
+        openPath = -1;
+    }
+
+    /**
+     * Adds every step of {@code other} to this trace.
+     *
+     * @param other SearchTrace with no unfinished path
+     */
+    public void addAll(SearchTrace other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.words, 0, words, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Creates a TraceSource that hands out the steps of this trace in order, starting with the first.
+     * Steps added to this trace after the source is created are handed out too.
+     *
+     * @return TraceSource over the steps of this trace
+     */
+    public TraceSource reader() {
+        return new TraceSource() {
+            private int next = 0;
+
+            @Override
+            public boolean step(SearchTrace trace) {
+                if (next >= size) {
+                    return false;
+                }
+                int end = nextStep(next);
+                trace.ensureCapacity(trace.size + end - next);
+                System.arraycopy(words, next, trace.words, trace.size, end - next);
+                trace.size += end - next;
+                next = end;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Turns this trace into Strings, one per step.
+     *
+     * @return List of "visit x y" and "path x1 y1 x2 y2 ..." Strings
+     */
+    public List<String> toActions() {
+        List<String> actions = new ArrayList<>();
+        for (int i = 0; i < size; i = nextStep(i)) {
+            actions.add(toAction(i));
+        }
+        return actions;
+    }
+
+    /**
+     * Turns one step of this trace into a String.
+     *
+     * @param index index of the first word of a step
+     * @return "visit x y" or "path x1 y1 x2 y2 ..."
+     */
+    public String toAction(int index) {
+        int word = words[index];
+        StringBuilder sb = new StringBuilder();
+        if (opcode(word) == VISIT) {
+            sb.append("visit ").append(row(word)).append(' ').append(col(word));
+        } else {
+            sb.append("path");
+            for (int i = index + 1; i <= index + pathLength(word); ++i) {
+                sb.append(' ').append(row(words[i])).append(' ').append(col(words[i]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private void add(int word) {
+        ensureCapacity(size + 1);
+        words[size++] = word;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > words.length) {
+            words = Arrays.copyOf(words, Math.max(capacity, 2 * words.length));
+        }
+    }
+}
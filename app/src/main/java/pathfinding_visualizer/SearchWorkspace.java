@@ -0,0 +1,174 @@
+package pathfinding_visualizer;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch memory for the searches in {@link Algorithms}. Holds the distance,
+ * parent, and visited state of every Node id, along with the queues a search needs.
+ * <p>
+ * Instead of clearing its arrays between searches, a workspace keeps a generation number
+ * and stamps every Node it touches with it. Bumping the generation in {@link #reset}
+ * invalidates every stamp at once, so starting a new search costs O(1) and allocates
+ * nothing unless the graph grew. A workspace is not thread-safe; use
+ * {@link #forCurrentThread} or give every thread its own.
+ */
+public class SearchWorkspace {
+    /**
+     * One workspace per thread, used by the {@code Algorithms} methods that aren't given one
+     */
+    private static final ThreadLocal<SearchWorkspace> LOCAL = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    /**
+     * {@code stamp[id]} is {@link #generation} if {@code id} was reached in the current search,
+     * {@code generation + 1} if it was also settled, and anything smaller if it wasn't reached.
+     */
+    private int[] stamp = new int[0];
+    /**
+     * {@code dist[id]} is the best known distance from the source to {@code id}. Only valid if {@code id} was reached.
+     */
+    private double[] dist = new double[0];
+    /**
+     * {@code prev[id]} is the id that precedes {@code id} on the best known path, or -1 for the source.
+     * Only valid if {@code id} was reached.
+     */
+    private int[] prev = new int[0];
+    /**
+     * Generation of the current search. Always even, so that {@code generation + 1} can mark settled Nodes.
+     */
+    private int generation = 0;
+
+    /**
+     * Priority queue for searches that need one
+     */
+    private IndexedMinHeap heap = new IndexedMinHeap(0);
+    /**
+     * Bucket queue for searches that need one
+     */
+    private BucketQueue buckets = new BucketQueue(0);
+    /**
+     * Array backed FIFO queue for searches that need one. Every id is pushed at most once per search,
+     * so it never has to wrap around.
+     */
+    private int[] queue = new int[0];
+    /**
+     * Buffer for {@link TileGraph#getNeighbors(int, int[])}
+     */
+    private int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+
+    /**
+     * @return the workspace belonging to the calling thread
+     */
+    public static SearchWorkspace forCurrentThread() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Prepares this workspace for a search over a graph with {@code numNodes} Nodes. Afterwards,
+     * no Node is reached or settled and the heap and bucket queue are empty.
+     *
+     * @param numNodes number of Nodes in the graph about to be searched
+     */
+    public void reset(int numNodes) {
+        heap.clear();
+        buckets.clear();
+        if (numNodes > stamp.length) {
+            stamp = new int[numNodes];
+            dist = new double[numNodes];
+            prev = new int[numNodes];
+            queue = new int[numNodes];
+            heap = new IndexedMinHeap(numNodes);
+            buckets = new BucketQueue(numNodes);
+            generation = 0;
+        }
+
+        generation += 2;
+        if (generation <= 0) { // wrapped around, old stamps could look current
+            Arrays.fill(stamp, 0);
+            generation = 2;
+        }
+    }
+
+    /**
+     * @param id id of a Node
+     * @return {@code true} if {@code id} was reached in the current search
+     */
+    public boolean isReached(int id) {
+        return stamp[id] >= generation;
+    }
+
+    /**
+     * @param id id of a Node
+     * @return {@code true} if the distance to {@code id} is final in the current search
+     */
+    public boolean isSettled(int id) {
+        return stamp[id] == generation + 1;
+    }
+
+    /**
+     * Marks {@code id} as reached with a distance of {@code distance}, through the Node {@code parent}.
+     *
+     * @param id id of the Node reached
+     * @param distance distance from the source to {@code id}
+     * @param parent id of the Node {@code id} was reached from, or -1 if it is the source
+     */
+    public void reach(int id, double distance, int parent) {
+        if (stamp[id] < generation) {
+            stamp[id] = generation;
+        }
+        dist[id] = distance;
+        prev[id] = parent;
+    }
+
+    /**
+     * Marks {@code id}, which must already be reached, as settled.
+     *
+     * @param id id of the Node settled
+     */
+    public void settle(int id) {
+        stamp[id] = generation + 1;
+    }
+
+    /**
+     * @param id id of a Node
+     * @return the distance to {@code id}, or positive infinity if it wasn't reached
+     */
+    public double getDist(int id) {
+        return isReached(id) ? dist[id] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param id id of a reached Node
+     * @return id of the Node that precedes {@code id} on its path, or -1 if {@code id} is the source
+     */
+    public int getPrev(int id) {
+        return prev[id];
+    }
+
+    /**
+     * @return the priority queue of this workspace, emptied by {@link #reset}
+     */
+    public IndexedMinHeap heap() {
+        return heap;
+    }
+
+    /**
+     * @return the bucket queue of this workspace, with buckets one unit wide, emptied by {@link #reset}
+     */
+    public BucketQueue buckets() {
+        return buckets;
+    }
+
+    /**
+     * @return an array with room for every Node id, for use as a FIFO queue
+     */
+    public int[] queue() {
+        return queue;
+    }
+
+    /**
+     * @return an array with room for {@link TileGraph#MAX_NEIGHBORS} ids
+     */
+    public int[] neighbors() {
+        return neighbors;
+    }
+}
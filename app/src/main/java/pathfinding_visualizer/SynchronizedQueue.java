@@ -4,9 +4,12 @@ import java.util.LinkedList;
 import java.util.Queue;
 
 /**
- * Thread-safe Queue
+ * Thread-safe Queue that takes a lock for every operation, and wakes waiting threads with
+ * {@code notifyAll}.
+ * 
+ * @see MpscQueue
  */
-public class SynchronizedQueue<T> {
+public class SynchronizedQueue<T> implements MessageQueue<T> {
     private Queue<T> messageQueue = new LinkedList<>();
 
     /**
@@ -15,6 +18,7 @@ public class SynchronizedQueue<T> {
      * @return object at the front of this queue
      * @throws InterruptedException waits too long on an empty queue
      */
+    @Override
     public synchronized T get() throws InterruptedException {
         while (messageQueue.isEmpty()) {
             wait();
@@ -22,10 +26,21 @@ public class SynchronizedQueue<T> {
         return messageQueue.remove();
     }
 
+    /**
+     * Gets an object from the front of the queue without waiting.
+     * 
+     * @return object at the front of this queue, or null if the queue is empty
+     */
+    @Override
+    public synchronized T poll() {
+        return messageQueue.poll();
+    }
+
     public synchronized int size() {
         return messageQueue.size();
     }
 
+    @Override
     public synchronized boolean isEmpty() {
         return messageQueue.isEmpty();
     }
@@ -35,6 +50,7 @@ public class SynchronizedQueue<T> {
      * 
      * @param obj object to add to the queue
      */
+    @Override
     public synchronized void send(T obj) {
         messageQueue.add(obj);
         notifyAll();
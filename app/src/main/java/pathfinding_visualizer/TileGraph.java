@@ -4,14 +4,51 @@ import java.util.*;
 
 /**
  * Mathematical graph that should correspond to the tiles in the parent {@link TileGrid}.
+ * <p>
+ * Nothing but the walls is stored. Every tile is addressed by a packed int id equal to
+ * {@code row * cols + col}, and the unreachable tiles are kept as set bits in a {@link CopyOnWriteBits}.
+ * Edges are never materialized - they are generated on demand from the wall bits and the
+ * {@link #diagonalsConnected()} flag, so the graph costs a single bit per tile.
+ * <p>
+ * Copies share their wall bits with the graph they were copied from until either of them changes,
+ * so a copy, or a read-only {@link #snapshot}, costs a reference per block of tiles rather than a
+ * bit per tile. Every change to a graph bumps its {@link #getVersion version}, which copies keep,
+ * so a search run on a snapshot can tell which version of the graph it saw.
+ * <p>
+ * Whether two tiles are {@link #connected} at all is answered by a {@link ComponentIndex} that is
+ * kept up to date with the walls, so searches between tiles in different components can give up
+ * before they start. The index can be built on a copy of the graph and handed back, so the thread
+ * that changes the graph never has to wait for it.
  */
 public class TileGraph {
     /**
-     * Number of columns in the {@link #graph} field
+     * Weight of an edge connecting two tiles that touch diagonally
+     */
+    public static final double SQRT2 = Math.sqrt(2);
+    /**
+     * Largest number of neighbors a single tile can have
+     */
+    public static final int MAX_NEIGHBORS = 8;
+
+    /**
+     * Row offsets of every possible neighbor, in the order neighbors are generated.
+     */
+    private static final int[] DELTA_ROW = {-1, -1, -1, 0, 0, 1, 1, 1};
+    /**
+     * Column offsets of every possible neighbor, in the order neighbors are generated.
+     */
+    private static final int[] DELTA_COL = {-1, 0, 1, -1, 1, -1, 0, 1};
+    /**
+     * Whether the neighbor at the same index in {@link #DELTA_ROW} and {@link #DELTA_COL} is diagonal.
+     */
+    private static final boolean[] DIAGONAL = {true, false, true, false, false, true, false, true};
+
+    /**
+     * Number of rows in this graph
      */
     private int rows;
     /**
-     * Number of rows in the {@link #graph} field
+     * Number of columns in this graph
      */
     private int cols;
     /**
@@ -19,14 +56,34 @@ public class TileGraph {
      * be one that connects the Node at (0, 0) and the Node at (1, 1).
      */
     private boolean connectDiagonals;
-    private List<List<Pair<Node, ArrayList<Edge>>>> graph = new ArrayList<>();
+    /**
+     * Bit {@code id} is set if the tile with that id is a wall, or unreachable.
+     */
+    private CopyOnWriteBits walls;
+    /**
+     * Number of changes made to this graph, or to the graph it was copied from before the copy
+     */
+    private long version = 0;
+    /**
+     * Whether this graph is a {@link #snapshot} that can't be changed
+     */
+    private boolean readOnly = false;
+    /**
+     * Index of the connected components of this graph, or of the graph this is a snapshot of,
+     * made the first time it is needed
+     */
+    private ComponentIndex components;
+    /**
+     * Everything that is told when a Node's reachability changes
+     */
+    private List<ReachabilityListener> listeners = new ArrayList<>();
 
     /**
-     * Creates a graph that corresponds to a {@link TileGrid}. The {@code rows} and {@code cols} 
+     * Creates a graph that corresponds to a {@link TileGrid}. The {@code rows} and {@code cols}
      * parameters should be equal to the parent {@code TileGrid}'s {@code numRows} and {@code numCols} fields
      * respectively. The {@code connectDiagonals} parameter determines if tiles that touch diagonally
      * should be counted as neighbors and have edges between them.
-     * 
+     *
      * @param rows how many rows of Nodes there will be, or how many along y-axis
      * @param cols how many columns of Nodes there will be, or how many along x-axis
      * @param connectDiagonals boolean for if diagonal edges should be made
@@ -35,21 +92,59 @@ public class TileGraph {
         this.rows = rows;
         this.cols = cols;
         this.connectDiagonals = connectDiagonals;
-        
-        for (int row = 0; row < rows; ++row) {
-            List<Pair<Node, ArrayList<Edge>>> list = new ArrayList<>();
-            graph.add(list);
-            for (int col = 0; col < cols; ++col) {
-                list.add(new Pair<>(new Node(row, col), new ArrayList<>()));
-            }
-        }
+        this.walls = new CopyOnWriteBits(rows * cols);
+    }
+
+    /**
+     * Creates a copy of {@code other} with the same size, walls, diagonal setting, and version.
+     * Listeners of {@code other} are not copied, and later changes to either graph don't affect the
+     * other. The walls are shared until one of the graphs changes them, so copying takes time
+     * linear in the number of blocks of tiles, not in the number of tiles.
+     *
+     * @param other TileGraph to copy
+     */
+    public TileGraph(TileGraph other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.connectDiagonals = other.connectDiagonals;
+        this.walls = other.walls.share();
+        this.version = other.version;
+    }
 
-        makeEdges();
+    /**
+     * Creates a copy of this graph that can't be changed, for a search to read on another thread
+     * while this graph keeps being changed on this one. Must be called on the thread that changes
+     * this graph.
+     *
+     * @return read-only copy of this graph, with the same version, that shares the component index
+     *         of this graph if it has one
+     * @see #connected
+     */
+    public TileGraph snapshot() {
+        TileGraph snapshot = new TileGraph(this);
+        snapshot.readOnly = true;
+        snapshot.components = components; // only an index this graph already has, never a new one
+        return snapshot;
+    }
+
+    /**
+     * @return number of changes made to the walls or the diagonal setting of this graph. A copy
+     *         starts out with the version of the graph it was copied from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return {@code true} if this graph is a {@link #snapshot} and can't be changed
+     */
+    public boolean isReadOnly() {
+        return readOnly;
     }
 
     /**
      * The number of Nodes in this graph. This should be equal to the number of tiles in the parent {@code TileGrid}.
-     * 
+     *
      * @return the number of Nodes in this graph
      */
     public int numNodes() {
@@ -57,169 +152,260 @@ public class TileGraph {
     }
 
     /**
-     * Replaces all edges in the graph with programatically generated new ones.
+     * Changes whether tiles that touch diagonally are connected. The {@code connectDiagonals}
+     * parameter determines if tiles that touch diagonally should be counted as neighbors and have edges between them.
+     * <p>
+     * Edges are generated on demand, so this only flips a flag.
+     *
+     * @param connectDiagonals boolean for if diagonal edges should be made
      */
-    private void makeEdges() {
-        for (int row = 0; row < rows; ++row) {
-            for (int col = 0; col < cols; ++col) {
-                graph.get(row).get(col).second = makeNeighbors(getNode(row, col));
-            }
+    public void makeEdges(boolean connectDiagonals) {
+        if (this.connectDiagonals != connectDiagonals) {
+            checkWritable();
+            this.connectDiagonals = connectDiagonals;
+            ++version;
         }
     }
 
     /**
-     * Replaces all edges in the graph with programatically generated new ones. The {@code connectDiagonals}
-     * parameter determines if tiles that touch diagonally should be counted as neighbors and have edges between them.
-     * 
-     * @param connectDiagonals boolean for if diagonal edges should be made
+     * Packs a coordinate into the id of the Node located there.
+     *
+     * @param row row the Node is located on
+     * @param col column the Node is located on
+     * @return id of the Node at {@code [row][col]}
      */
-    public void makeEdges(boolean connectDiagonals) {
-        if (connectDiagonals == this.connectDiagonals) {
-            return;
-        }
-        this.connectDiagonals = connectDiagonals;
-        makeEdges();
+    public int getId(int row, int col) {
+        return row * cols + col;
+    }
+
+    /**
+     * Turns a {@link Coord} into the id of the Node located there.
+     *
+     * @param coord coordinate made by {@link Coord#of}
+     * @return id of the Node at {@code coord}
+     */
+    public int getId(long coord) {
+        return Coord.row(coord) * cols + Coord.col(coord);
+    }
+
+    /**
+     * @param id id of a Node in this graph
+     * @return {@link Coord} of the Node with id {@code id}
+     */
+    public long getCoord(int id) {
+        return Coord.of(id / cols, id % cols);
+    }
+
+    /**
+     * @param id id of a Node in this graph
+     * @return the row the Node with id {@code id} is located on
+     */
+    public int getRow(int id) {
+        return id / cols;
+    }
+
+    /**
+     * @param id id of a Node in this graph
+     * @return the column the Node with id {@code id} is located on
+     */
+    public int getCol(int id) {
+        return id % cols;
+    }
+
+    /**
+     * @param id id of a Node in this graph
+     * @return whether the Node with id {@code id} can be connected to other Nodes
+     */
+    public boolean isReachable(int id) {
+        return !walls.get(id);
     }
 
+    /**
+     * @param row row the Node is located on
+     * @param col column the Node is located on
+     * @return whether the Node at {@code [row][col]} can be connected to other Nodes
+     */
+    public boolean isReachable(int row, int col) {
+        return !walls.get(getId(row, col));
+    }
 
     /**
      * Finds and returns the Node that corresponds to the tile located on Row {@code row}
-     * and Column {@code col}. 
-     * 
+     * and Column {@code col}. The Node is created on demand, so modifying it has no
+     * effect on this graph.
+     *
      * @param row row the Node is located on
      * @param col column the Node is located on
      * @return Node located at {@code [row][col]}
      */
     public Node getNode(int row, int col) {
-        return graph.get(row).get(col).first;
+        return new Node(row, col, isReachable(row, col));
     }
 
     /**
-     * Finds all outgoing edges from the Node {@code n}.
-     * 
-     * @param n the Node you want neighbors of
-     * @return a List of all Edges leaving {@code n}
+     * Checks whether there is any path between two Nodes, without searching for one. The answer
+     * comes from a {@link ComponentIndex} that this graph keeps up to date as its walls change,
+     * once the first check has built it.
+     * <p>
+     * A {@link #snapshot} asks the index of the graph it was taken from, if it had one, for as long
+     * as that graph is unchanged, and builds its own otherwise. Like making the snapshot, checking it while the
+     * indexes are shared has to happen on the thread that changes that graph.
+     *
+     * @param from id of a Node in this graph
+     * @param to id of another Node in this graph
+     * @return {@code true} if both Nodes are reachable and some path connects them
      */
-    public List<Edge> getNeighbors(Node n) {
-        return graph.get(n.row).get(n.col).second;
+    public boolean connected(int from, int to) {
+        if (components == null || components.getGraph().getVersion() != version) {
+            components = new ComponentIndex(this);
+        }
+        return components.connected(from, to);
     }
 
     /**
-     * Sets {@code n}'s outgoing edges to {@code neighbors}.
-     * 
-     * @param n Node who's outgoing Edges you want to replace
-     * @param neighbors ArrayList of Edges you're replacing with
+     * Checks whether two Nodes are known to have no path between them, from the
+     * {@link ComponentIndex} this graph already has, without building it or flooding any of its
+     * components. Unlike {@link #connected}, this can be asked on the event dispatch thread.
+     *
+     * @param from id of a Node in this graph
+     * @param to id of another Node in this graph
+     * @return {@code true} if either Node is a wall, or the index is built and has the Nodes in
+     *         different components. {@code false} if they are connected or it isn't known yet.
+     * @see ComponentIndex#knownApart
      */
-    private void setNeighbors(Node n, ArrayList<Edge> neighbors) {
-        graph.get(n.row).get(n.col).second = neighbors;
+    public boolean knownDisconnected(int from, int to) {
+        if (components == null || components.getGraph().getVersion() != version) {
+            return !isReachable(from) || !isReachable(to);
+        }
+        return components.knownApart(from, to);
     }
 
     /**
-     * Programatically determine which Nodes are adjacent to {@code source}, and
-     * which ones of those are reachable. If a Node is both adjacent and reachable
-     * a corresponding edge is added to a list. This list is returned once all adjacent
-     * Nodes are checked. 
-     * 
-     * @param source Node you want to find neighbors of
-     * @return ArrayList of outgoing Edges for {@code source}
+     * @return whether this graph has a component index that answers every {@link #connected}
+     *         check without building or flooding anything
      */
-    private ArrayList<Edge> makeNeighbors(Node source) {
-        ArrayList<Edge> edgeList = new ArrayList<>();
-        int r = source.row;
-        int c = source.col;
-        boolean top = r > 0;
-        boolean bottom = r < rows - 1;
-        boolean left = c > 0;
-        boolean right = c < cols - 1;
-        boolean diag = connectDiagonals;
-        Node dest;
-        final double SQRT2 = Math.sqrt(2);
+    boolean componentsReady() {
+        return components != null && components.getGraph() == this && components.isReady();
+    }
 
-        if (diag && top && left) {
-            dest = getNode(r - 1, c -1);
-            tryAddingEdge(source, dest, SQRT2, edgeList);
-        }
-        if (top) {
-            dest = getNode(r - 1, c);
-            tryAddingEdge(source, dest, edgeList);
-        }
-        if (diag && top && right) {
-            dest = getNode(r - 1, c + 1);
-            tryAddingEdge(source, dest, SQRT2, edgeList);
+    /**
+     * Builds the component index of this graph, or brings it up to date, so that it is
+     * {@link #componentsReady ready}. Meant to be called on a copy of a graph, away from the
+     * thread that changes the graph, before {@link #adoptComponents}.
+     */
+    void prepareComponents() {
+        if (components == null || components.getGraph() != this) {
+            components = new ComponentIndex(this);
         }
+        components.prepare();
+    }
 
-        if (left) {
-            dest = getNode(r, c - 1);
-            tryAddingEdge(source, dest, edgeList);
+    /**
+     * Takes over the component index of {@code copy}, if the copy is still the same version as
+     * this graph and its index is ready. The index this graph had before is detached.
+     *
+     * @param copy copy of this graph that {@link #prepareComponents prepared} its components
+     * @return {@code true} if the index was taken over
+     */
+    boolean adoptComponents(TileGraph copy) {
+        if (copy.version != version || copy.rows != rows || copy.cols != cols || !copy.componentsReady()) {
+            return false;
         }
-        if (right) {
-            dest = getNode(r, c + 1);
-            tryAddingEdge(source, dest, edgeList);
+        if (components != null && components.getGraph() == this) {
+            components.detach();
         }
+        components = new ComponentIndex(this, copy.components);
+        copy.components = null;
+        return true;
+    }
 
-        if (diag && bottom && left) {
-            dest = getNode(r + 1, c - 1);
-            tryAddingEdge(source, dest, SQRT2, edgeList);
-        }
-        if (bottom) {
-            dest = getNode(r + 1, c);
-            tryAddingEdge(source, dest, edgeList);
-        }
-        if (diag && bottom && right) {
-            dest = getNode(r + 1, c + 1);
-            tryAddingEdge(source, dest, SQRT2, edgeList);
+    /**
+     * Finds the ids of every Node connected to the Node with id {@code id}, and writes them
+     * into {@code out} in a fixed order: top-left, top, top-right, left, right, bottom-left,
+     * bottom, bottom-right. Nothing is allocated.
+     *
+     * @param id id of the Node you want neighbors of
+     * @param out array with room for at least {@link #MAX_NEIGHBORS} ids
+     * @return how many neighbor ids were written into {@code out}
+     */
+    public int getNeighbors(int id, int[] out) {
+        if (walls.get(id)) {
+            return 0;
         }
 
-        return edgeList;
+        int r = id / cols;
+        int c = id - r * cols;
+        int count = 0;
+        for (int i = 0; i < MAX_NEIGHBORS; ++i) {
+            if (DIAGONAL[i] && !connectDiagonals) {
+                continue;
+            }
+            int nr = r + DELTA_ROW[i];
+            int nc = c + DELTA_COL[i];
+            if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) {
+                continue;
+            }
+            int next = nr * cols + nc;
+            if (!walls.get(next)) {
+                out[count++] = next;
+            }
+        }
+        return count;
     }
 
     /**
-     * Check if both the {@code source} and {@code dest} Nodes are reachable. If they are,
-     * add a new Edge with weight 1 to the {@code edgeList}.
-     * 
-     * @param source Node new Edge would be leaving
-     * @param dest Node new Edge would be going towards
-     * @param edgeList List of Edges new Edge would be added to
+     * The weight of the Edge between two adjacent Nodes. Cardinally adjacent Nodes have
+     * an Edge of weight 1, diagonally adjacent ones an Edge of weight {@link #SQRT2}.
+     *
+     * @param from id of the Node the Edge is leaving
+     * @param to id of the Node the Edge is going towards
+     * @return weight of the Edge between the two Nodes
      */
-    private void tryAddingEdge(Node source, Node dest, List<Edge> edgeList) {
-        if (source.reachable && dest.reachable) {
-            edgeList.add(new Edge(source, dest));
-        }
+    public double getWeight(int from, int to) {
+        boolean sameRow = from / cols == to / cols;
+        boolean sameCol = (from - to) % cols == 0;
+        return (sameRow || sameCol) ? 1 : SQRT2;
     }
 
     /**
-     * Check if both the {@code source} and {@code dest} Nodes are reachable. If they are,
-     * add a new Edge to the {@code edgeList}.
-     * 
-     * @param source Node new Edge would be leaving
-     * @param dest Node new Edge would be going towards
-     * @param weight double for weight of the new Edge
-     * @param edgeList List of Edges new Edge would be added to
+     * Finds all outgoing edges from the Node {@code n}. The Edges are created on demand.
+     *
+     * @param n the Node you want neighbors of
+     * @return a List of all Edges leaving {@code n}
      */
-    private void tryAddingEdge(Node source, Node dest, double weight, List<Edge> edgeList) {
-        if (source.reachable && dest.reachable) {
-            edgeList.add(new Edge(source, dest, weight));
+    public List<Edge> getNeighbors(Node n) {
+        int id = getId(n.row, n.col);
+        int[] ids = new int[MAX_NEIGHBORS];
+        int count = getNeighbors(id, ids);
+
+        Node source = getNode(n.row, n.col);
+        List<Edge> edgeList = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            Node dest = getNode(getRow(ids[i]), getCol(ids[i]));
+            edgeList.add(new Edge(source, dest, getWeight(id, ids[i])));
         }
+        return edgeList;
     }
 
     /**
      * Returns a String of {@code n} lines, where {@code n} is the number of Nodes in the graph.
      * Each line has the format "Node: [Edges]". An example of a line would be:
      * <p>
-     * "(0, 0): [((0, 0), (0, 1), 1.000000), ((0, 0), (1, 0), 1.000000), ... ]" 
-     * 
+     * "(0, 0): [((0, 0), (0, 1), 1.000000), ((0, 0), (1, 0), 1.000000), ... ]"
+     *
      * @return String representation of the entire 2D graph array
      */
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int row = 0; row < graph.size(); ++row) {
-            List<Pair<Node, ArrayList<Edge>>> list = graph.get(row);
-            for (Pair<Node, ArrayList<Edge>> p : list) {
-                Collections.sort(p.second); //sort so that string output is consistent
-                sb.append(p.first.toString());
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                Node n = getNode(row, col);
+                List<Edge> edges = getNeighbors(n);
+                Collections.sort(edges); //sort so that string output is consistent
+                sb.append(n.toString());
                 sb.append(':');
-                sb.append(p.second.toString());
+                sb.append(edges.toString());
                 sb.append('\n');
             }
         }
@@ -227,50 +413,104 @@ public class TileGraph {
     }
 
     /**
-     * Set's a Node's reachable field to the {@code reachable} parameter. The Node 
-     * modified is the one that corresponds to the tile at the coordinates
-     * ({@code row}, {@code col}) If {@code reachable} is true, add Edges to this graph
-     * that connect the Node to its neighbors. If {@code reachable} is false,
-     * destroy all Edges that contain the Node.
-     * 
+     * Sets whether the Node that corresponds to the tile at the coordinates
+     * ({@code row}, {@code col}) is reachable. If {@code reachable} is true, the Node
+     * is connected to its reachable neighbors. If {@code reachable} is false,
+     * it is connected to nothing.
+     * <p>
+     * Every {@link ReachabilityListener} is notified if the Node's reachability changed.
+     *
      * @param row Row the Node is on
      * @param col Column the Node is on
      * @param reachable boolean for if a Node can connect to other Nodes or vice-versa
      */
     public void setNodeReachability(int row, int col, boolean reachable) {
-        Node n = getNode(row, col);
-        boolean oldReach = n.reachable;
-        n.reachable = reachable;
-
-        if (reachable == oldReach) { // do nothing if reachability isn't changed
+        int id = getId(row, col);
+        if (walls.get(id) != reachable) { // do nothing if reachability isn't changed
             return;
         }
 
-        if (reachable) { // connect n to its neighbors
-            ArrayList<Edge> neighbors = makeNeighbors(n);
-            setNeighbors(n, neighbors);
+        checkWritable();
+        walls.set(id, !reachable);
+        ++version;
+        for (ReachabilityListener listener : listeners) {
+            listener.reachabilityChanged(this, id, reachable);
+        }
+    }
 
-            for (Edge edge : neighbors) {
-                Node dest = edge.dest;
-                Edge destEdge = new Edge(dest, n, edge.weight);
-                getNeighbors(dest).add(destEdge);
-            }
-        } else { // disconnect n from its neighbors
-            List<Edge> neighbors = getNeighbors(n);
-            setNeighbors(n, new ArrayList<>());
-
-            for (Edge edge : neighbors) {
-                Node dest = edge.dest;
-                List<Edge> destNeighbors = getNeighbors(dest);
-                Edge toRemove = null;
-                for (Edge destEdge : destNeighbors) {
-                    if (destEdge.dest.equals(n)) {
-                        toRemove = destEdge;
-                    }
-                }
-                destNeighbors.remove(toRemove);
-            }
+    /**
+     * Makes exactly the tiles whose bits are set in {@code walls} unreachable, and every other tile
+     * reachable, all at once. This is much faster than calling {@link #setNodeReachability} for
+     * each tile, for example to put up a whole maze.
+     * <p>
+     * Every {@link ReachabilityListener} is told about the Nodes whose reachability changed with a
+     * single call to {@link ReachabilityListener#wallsChanged}.
+     *
+     * @param walls BitSet with the bit {@code row * cols + col} set for every tile that should be a
+     *        wall. Bits past the last tile are ignored, and the BitSet is not kept.
+     */
+    public void setWalls(BitSet walls) {
+        checkWritable();
+        wallsChanged(this.walls.assign(walls));
+    }
+
+    /**
+     * Sets whether each Node whose id is set in {@code ids} is reachable, all at once. Only the
+     * Nodes whose reachability actually changes are touched, so this takes time linear in the
+     * number of ids, for example to paint a whole stroke or rectangle of tiles.
+     * <p>
+     * Every {@link ReachabilityListener} is told about the Nodes whose reachability changed with a
+     * single call to {@link ReachabilityListener#wallsChanged}, so that it can update what depends
+     * on them once rather than once per Node.
+     *
+     * @param ids BitSet with the bit {@code row * cols + col} set for every tile to change. Bits
+     *        past the last tile are ignored, and the BitSet is not kept.
+     * @param reachable boolean for if the Nodes can connect to other Nodes or vice-versa
+     */
+    public void setReachability(BitSet ids, boolean reachable) {
+        checkWritable();
+        wallsChanged(walls.setAll(ids, !reachable));
+    }
+
+    /**
+     * @throws UnsupportedOperationException this graph is a {@link #snapshot}
+     */
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshots of a TileGraph can't be changed");
+        }
+    }
+
+    /**
+     * Bumps the version and tells every listener about the Nodes whose ids are set in
+     * {@code changed}, if there are any.
+     */
+    private void wallsChanged(BitSet changed) {
+        if (changed.isEmpty()) {
+            return;
         }
+        ++version;
+        for (ReachabilityListener listener : listeners) {
+            listener.wallsChanged(this, changed);
+        }
+    }
+
+    /**
+     * Registers {@code listener} to be told whenever a Node in this graph changes reachability.
+     *
+     * @param listener ReachabilityListener to notify
+     */
+    public void addReachabilityListener(ReachabilityListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops notifying {@code listener} of reachability changes.
+     *
+     * @param listener ReachabilityListener previously passed to {@link #addReachabilityListener}
+     */
+    public void removeReachabilityListener(ReachabilityListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -279,7 +519,7 @@ public class TileGraph {
      * If {@code connectDiagonals} is {@code true}, Edges can connect tiles
      * that are touching diagonally. If {@code connectDiagonals} is false, only tiles
      * that are cardinally adjacent to each other can have Edges.
-     * 
+     *
      * @return boolean value of the {@code connectDiagonals} field
      */
     public boolean diagonalsConnected() {
@@ -287,21 +527,20 @@ public class TileGraph {
     }
 
     /**
-     * A TileGraph's width is the number of Nodes it has along
-     * the x-axis, or the number of columns it has in its 
-     * 2D Node array.
-     * 
-     * @return the width of this TileGraph
+     * A TileGraph's height is the number of Nodes it has along
+     * the y-axis, or the number of rows it has.
+     *
+     * @return the number of rows in this TileGraph
      */
     public int getNumRows() {
         return rows;
     }
 
     /**
-     * A TileGraph's height is the number of Nodes it has along the y-axis,
-     * or the number of rows it has in it 2D Node array.
-     * 
-     * @return the height of this TileGraph
+     * A TileGraph's width is the number of Nodes it has along the x-axis,
+     * or the number of columns it has.
+     *
+     * @return the number of columns in this TileGraph
      */
     public int getNumCols() {
         return cols;
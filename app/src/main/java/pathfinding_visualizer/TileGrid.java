@@ -1,26 +1,85 @@
 package pathfinding_visualizer;
 
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.event.MouseInputListener;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.InputEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 
 /**
  * Rectangular, gridded tilemap used for pathfinding visualization.
+ * <p>
+ * The grid starts out fit to the component. Turning the mouse wheel zooms in and out around the
+ * pointer, dragging with the middle mouse button pans, and double clicking with the middle mouse
+ * button fits the grid back to the component.
+ * <p>
+ * The distance from every tile to the destination can be drawn over the tiles as a heat map, from
+ * a {@link FlowField} that is kept up to date in the background as walls are painted.
  */
 @SuppressWarnings("serial")
-public class TileGrid extends JPanel implements MouseInputListener {
+public class TileGrid extends JPanel implements MouseInputListener, MouseWheelListener {
 
     /**
-     * A 2D array of JPanels that keeps track of the tiles in the grid. This array
-     * should have {@link #numCols} rows and {@link #numRows} columns.
+     * Fewest rows or columns a grid can have
      */
-    private ArrayList<ArrayList<JPanel>> tiles;
+    public static final int MIN_SIZE = 4;
+    /**
+     * Most rows or columns a grid can have
+     */
+    public static final int MAX_SIZE = 4000;
+    /**
+     * Most pixels a tile can be zoomed in to
+     */
+    private static final double MAX_ZOOM = 64;
+    /**
+     * How much one notch of the mouse wheel zooms in or out
+     */
+    private static final double ZOOM_STEP = 1.25;
+    /**
+     * About how many tiles of a maze are put up on the screen each frame. Whole rows are put up at a
+     * time, so a maze as big as {@link #MAX_SIZE} by {@code MAX_SIZE} takes about a second to show.
+     */
+    private static final int REVEAL_TILES_PER_FRAME = 1 << 18;
+
+    /**
+     * State of every tile in the grid, one of the {@link TileModel} constants.
+     */
+    private transient TileModel model;
+    /**
+     * Copy of the states of {@link #model} that is kept up to date by listening to it, and the images
+     * the grid is drawn from at every level of detail.
+     */
+    private transient TileMipmap tiles;
+
+    /**
+     * Whether the grid is fit to this component, rather than panned and zoomed with the mouse
+     */
+    private boolean fitted = true;
+    /**
+     * Pixels per tile while the grid isn't {@link #fitted}
+     */
+    private double zoom = 1;
+    /**
+     * Position in pixels of the top left corner of the grid while it isn't {@link #fitted}
+     */
+    private double originX = 0;
+    private double originY = 0;
+    /**
+     * Position of the mouse the last time the grid was panned
+     */
+    private int panX = 0;
+    private int panY = 0;
 
     /**
      * How many tiles wide the grid is, or number of tiles along the x-axis.
@@ -35,19 +94,118 @@ public class TileGrid extends JPanel implements MouseInputListener {
      */
     private transient TileGraph graph;
     /**
-     * The location of the source tile.
+     * Writes down the tiles painted in {@link #graph} for {@link #searchContext}
+     */
+    private transient SearchContext.Recorder searchEdits;
+    /**
+     * Copy of {@link #graph} and the structures HPA*, ALT and D* Lite keep between searches, used
+     * only by searches run on {@link #searches}
+     */
+    private final transient SearchContext searchContext = new SearchContext();
+    /**
+     * Runs searches that compute their whole trace at once, away from the event dispatch thread
+     */
+    private final transient SearchExecutor searches = new SearchExecutor();
+    /**
+     * Search running on {@link #searches} whose trace hasn't been played yet, or null
+     */
+    private transient SearchExecutor.Task<SearchTrace> search;
+    /**
+     * Makes mazes away from the event dispatch thread
+     */
+    private final transient SearchExecutor mazes = new SearchExecutor();
+    /**
+     * Maze being made on {@link #mazes} that hasn't been put up yet, or null
+     */
+    private transient SearchExecutor.Task<BitSet> maze;
+    /**
+     * Builds the component index of {@link #graph} on a copy of it, away from the event dispatch thread
+     */
+    private final transient SearchExecutor componentBuilds = new SearchExecutor();
+    /**
+     * Component index being built on {@link #componentBuilds}, on a copy of {@link #graph} that is
+     * returned once it is ready, or null
+     */
+    private transient SearchExecutor.Task<TileGraph> componentBuild;
+    /**
+     * Search that was asked for while {@link #maze} was being made, and runs once it is put up, or null
+     */
+    private transient Command.Search searchAfterMaze;
+    /**
+     * Maze whose walls are being put up on {@link #model}, or null
+     */
+    private transient MazeReveal reveal;
+    /**
+     * Step length of the last D* Lite search, or -1 if the last search used another algorithm.
+     * While it is set, walls painted with the mouse are followed by a replan.
+     */
+    private int replanStepLength = -1;
+    /**
+     * Whether tiles were painted with the mouse since the last search
      */
-    private transient Pair<Integer, Integer> sourceCoord = new Pair<>(0, 0);
+    private boolean paintedSinceSearch = false;
     /**
-     * The location of the destination tile.
+     * {@link Coord} of the source tile.
      */
-    private transient Pair<Integer, Integer> destCoord = new Pair<>(19, 19);
+    private transient long sourceCoord = Coord.of(0, 0);
+    /**
+     * {@link Coord} of the destination tile.
+     */
+    private transient long destCoord = Coord.of(19, 19);
+    /**
+     * Whether the distance from every tile to the destination is drawn over the tiles
+     */
+    private boolean showFlowField = false;
+    /**
+     * Works out the flow field and the colors of its heat map away from the event dispatch thread
+     */
+    private final transient SearchExecutor flowFields = new SearchExecutor();
+    /**
+     * Copy of {@link #graph} and the flow field kept on it, used only by tasks run on
+     * {@link #flowFields}, or null while the flow field isn't shown
+     */
+    private transient SearchContext flowContext;
+    /**
+     * Writes down the tiles painted in {@link #flowGraph} for {@link #flowContext}, or null
+     */
+    private transient SearchContext.Recorder flowEdits;
+    /**
+     * Graph, version of it, and destination the last heat map update was worked out for
+     */
+    private transient TileGraph flowGraph;
+    private transient long flowVersion;
+    private transient long flowDest;
+    /**
+     * Heat map update being worked out on {@link #flowFields}, or null. Only one runs at a time.
+     */
+    private transient SearchExecutor.Task<HeatRows> flowUpdate;
+    /**
+     * Flow field the heat map was last drawn from, or null. It belongs to {@link #flowFields}, and
+     * may only be read while no update is running.
+     */
+    private transient FlowField flowField;
+    /**
+     * Colors of every tile of the last heat map update, handed to the next one to recolor, or null
+     */
+    private transient int[] heatPixels;
+    /**
+     * Heat map of the distances in {@link #flowField}, a pixel per tile, or null
+     */
+    private transient BufferedImage heatmap;
     /**
      * Whether {@link #graph} should connect nodes that are touching diagonally.
      */
     private boolean connectDiagonals = false;
 
-    private transient Thread algorithmDrawingThread = null;
+    /**
+     * Plays the steps of pathfinding algorithms onto {@link #model}, a batch per frame.
+     */
+    private transient PlaybackEngine playback;
+
+    /**
+     * How long commands sent to this grid take to be applied
+     */
+    private final transient CommandLatency commandLatency = new CommandLatency();
 
     /**
      * A collection of colors labelled by what the tile is supposed to represent.
@@ -69,40 +227,83 @@ public class TileGrid extends JPanel implements MouseInputListener {
         static final Color DEST = Color.RED;
         static final Color VISIT = Color.YELLOW;
         static final Color PATH = Color.PINK;
+
+        /**
+         * RGB value of each {@link TileModel} state, indexed by the state
+         */
+        static final int[] RGB = {
+            CLEAR.getRGB(), WALL.getRGB(), SOURCE.getRGB(), DEST.getRGB(), VISIT.getRGB(), PATH.getRGB()
+        };
+        /**
+         * Rank of each {@link TileModel} state, indexed by the state. When the grid is zoomed out far
+         * enough that several tiles share a pixel, the pixel shows the state of highest rank among them.
+         */
+        static final byte[] RANK = {0, 1, 5, 4, 2, 3};
+        /**
+         * Tiles of distance it takes the heat map to go once around the color wheel
+         */
+        static final double HEAT_BAND = 64;
+        /**
+         * ARGB value of each step of the heat map, half transparent. The hue goes around the color
+         * wheel again and again as the distance grows, so tiles next to each other can be told apart
+         * however far from the destination they are.
+         */
+        static final int[] HEAT = new int[256];
+
+        static {
+            for (int i = 0; i < HEAT.length; ++i) {
+                HEAT[i] = 0x80000000 | (Color.HSBtoRGB((float) i / HEAT.length, 0.8f, 1f) & 0xFFFFFF);
+            }
+        }
+
+        /**
+         * @return ARGB value of a tile on the heat map that is {@code distance} from the destination
+         */
+        static int heat(double distance) {
+            return HEAT[(int) (distance / HEAT_BAND * HEAT.length) % HEAT.length];
+        }
     }
 
     /**
-     * Creates a grid of JPanel tiles that is {@code width} tiles wide and
+     * Creates a grid of tiles that is {@code width} tiles wide and
      * {@code height} tiles tall. {@code width} and {@code height} are not pixel
      * measurements.
      * <p>
-     * If either {@code width} or {@code height} is less than 4 or greater than 99,
-     * the default values of {@code width = 4} and {@code height = 4} will be used.
+     * If either {@code width} or {@code height} is less than {@link #MIN_SIZE} or greater than
+     * {@link #MAX_SIZE}, the default values of {@code width = 4} and {@code height = 4} will be used.
      * 
      * @param cols      number of tiles this grid should have along the x-axis
      * @param rows      number of tiles this grid should have along the y-axis
-     * @param syncQueue SynchronizedQueue you want this TileGrid to listen to
+     * @param syncQueue MessageQueue of commands you want this TileGrid to listen to. An
+     *                  {@link MpscQueue} may only be listened to by one TileGrid.
      */
-    public TileGrid(int rows, int cols, SynchronizedQueue<String> syncQueue) {
+    public TileGrid(int rows, int cols, MessageQueue<Command> syncQueue) {
+        this.addMouseListener(this);
         this.addMouseMotionListener(this);
+        this.addMouseWheelListener(this);
         this.setBackground(Pallete.WALL);
 
-        if (cols < 4 || cols > 99 || rows < 4 || rows > 99) {
-            cols = 4;
-            rows = 4;
+        if (cols < MIN_SIZE || cols > MAX_SIZE || rows < MIN_SIZE || rows > MAX_SIZE) {
+            cols = MIN_SIZE;
+            rows = MIN_SIZE;
         }
 
         resizeGrid(rows, cols);
         changeSource(0, 0);
         changeDest(numRows - 1, numCols - 1);
+        followGraph();
 
-        new Consumer<String>(syncQueue) {
+        new Consumer<Command>(syncQueue) {
             @Override
             public void run() {
                 while (true) {
                     try {
-                        String message = this.getMessage();
-                        SwingUtilities.invokeAndWait(() -> parseMessages(message));
+                        CommandBatch batch = new CommandBatch(MIN_SIZE, MAX_SIZE);
+                        batch.add(this.getMessage());
+                        for (Command next = this.pollMessage(); next != null; next = this.pollMessage()) {
+                            batch.add(next);
+                        }
+                        SwingUtilities.invokeAndWait(() -> apply(batch));
                     } catch (InvocationTargetException | InterruptedException e) {
                         e.printStackTrace();
                         System.exit(1);
@@ -119,7 +320,7 @@ public class TileGrid extends JPanel implements MouseInputListener {
      * <p>
      * <ul>
      * <li>This function will do nothing if either {@code rows} or {@code cols} is
-     * less than 4 or greater than 99.
+     * less than {@link #MIN_SIZE} or greater than {@link #MAX_SIZE}.
      * <li>If the {@link #sourceCoord} or {@link #destCoord} fields of this TileGrid
      * fall outside the grid after resizing, their values will be changed to put
      * them back in the grid.
@@ -130,139 +331,257 @@ public class TileGrid extends JPanel implements MouseInputListener {
      * @param cols number of tiles this resized grid should have along the x-axis
      */
     private void resizeGrid(int rows, int cols) {
-        stopDrawingThread();
-        if (rows < 4 || rows > 99 || cols < 4 || cols > 99) {
+        stopPlayback();
+        cancelMaze();
+        if (rows < MIN_SIZE || rows > MAX_SIZE || cols < MIN_SIZE || cols > MAX_SIZE) {
             return;
         }
-        this.removeAll();
         numRows = rows;
         numCols = cols;
-
-        GridLayout layout = new GridLayout(rows, cols);
-        this.setLayout(layout);
+        fitted = true;
 
         makeTiles(rows, cols);
         graph = new TileGraph(rows, cols, connectDiagonals);
+        searchEdits = new SearchContext.Recorder(graph);
 
-        int x = sourceCoord.first;
-        int y = sourceCoord.second;
+        int x = Coord.row(sourceCoord);
+        int y = Coord.col(sourceCoord);
         if (x < 0 || x >= numRows || y < 0 || y >= numCols) {
-            Pair<Integer, Integer> temp = new Pair<>(0, 0);
-            sourceCoord = (destCoord == temp) ? new Pair<>(numRows - 1, numCols - 1) : temp;
+            long temp = Coord.of(0, 0);
+            sourceCoord = (destCoord == temp) ? Coord.of(numRows - 1, numCols - 1) : temp;
         }
-        forcePaintTile(sourceCoord.first, sourceCoord.second, Pallete.SOURCE);
+        forcePaintTile(Coord.row(sourceCoord), Coord.col(sourceCoord), TileModel.SOURCE);
 
-        x = destCoord.first;
-        y = destCoord.second;
+        x = Coord.row(destCoord);
+        y = Coord.col(destCoord);
         if (x < 0 || x >= numRows || y < 0 || y >= numCols) {
-            Pair<Integer, Integer> temp = new Pair<>(numRows - 1, numCols - 1);
-            destCoord = (sourceCoord == temp) ? new Pair<>(0, 0) : temp;
+            long temp = Coord.of(numRows - 1, numCols - 1);
+            destCoord = (sourceCoord == temp) ? Coord.of(0, 0) : temp;
         }
-        forcePaintTile(destCoord.first, destCoord.second, Pallete.DEST);
+        forcePaintTile(Coord.row(destCoord), Coord.col(destCoord), TileModel.DEST);
 
-        this.revalidate();
+        this.repaint();
     }
 
     /**
-     * Creates a grid of JPanel tiles that fill in this {@link TileGrid}. There will
-     * be {@code rows} number of rows and @code cols} number of columns.
+     * Creates the model of the clear tiles that fill in this {@link TileGrid}, the images they are
+     * drawn from, and the engine that plays searches onto them. There will be {@code rows} number of rows and {@code cols} number of columns.
      * 
-     * If tiles were already present, this function will destroy those tiles and
+     * If tiles were already present, this function will throw them away and
      * make new ones.
      * 
      * @param rows number of tiles the grid will have along the x-axis
      * @param cols number of tiles the grid will have along the y-axis
      */
     private void makeTiles(int rows, int cols) {
-        tiles = new ArrayList<>();
-        for (int row = 0; row < rows; ++row) {
-            ArrayList<JPanel> list = new ArrayList<>();
-            tiles.add(list);
-            for (int col = 0; col < cols; ++col) {
-                JPanel tile = new JPanel();
-                tile.setBackground(Pallete.CLEAR);
-                list.add(tile);
-                this.add(tile);
-            }
-        }
+        model = new TileModel(rows, cols);
+        tiles = new TileMipmap(rows, cols, Pallete.RGB, Pallete.RANK);
+        model.addListener(new ModelRenderer());
+        playback = new PlaybackEngine(model);
     }
 
     /**
-     * Parses messages sent to a {@link Consumer} object.
-     * <p>
-     * Valid commands are:
-     * <ul>
-     * <li>"resize (row|col) x" - resizes the grid
-     * <li>"paint color" - changes the color you paint with
-     * <li>"source row col" - changes the location of the source tile
-     * <li>"destination row col" - changes the location of the destination tile
-     * <li>"diagonal boolean" - sets whether tiles can be traversed diagonally
-     * <li>"search algorithm" - visualizes a pathfinding algorithm
-     * <li>"clear" - sets every tile colored by an algorithm back to its original
-     * color
-     * <li>"erase" - resets every tile except the source and destination tile back
-     * to its original color
-     * </ul>
+     * Parses a command written as a String and applies it. See {@link Command#parse} for the
+     * commands that can be written.
      * 
-     * @param message String sent to the parent Consumer
-     * @throws NumberFormatException     {@code message} is not a valid command
+     * @param message String written the way a {@link Command} is written
+     * @throws IllegalArgumentException  {@code message} is not a valid command
      * @throws IndexOutOfBoundsException {@code message} is not a valid command
      */
     public void parseMessages(String message) {
-        String[] args = message.split(" ");
-        String command = args[0];
-        switch (command) {
-            case "resize":
-                int x = Integer.parseInt(args[2]);
-                if (args[1].equals("row")) {
-                    resizeGrid(x, numCols);
-                } else {
-                    resizeGrid(numRows, x);
-                }
-                break;
+        apply(Command.parse(message));
+    }
 
-            case "source":
-                x = Integer.parseInt(args[2]);
-                if (args[1].equals("row")) {
-                    changeSource(x, sourceCoord.second);
-                } else {
-                    changeSource(sourceCoord.first, x);
+    /**
+     * Applies a command sent by a {@link Menu}. Must be called on the event dispatch thread.
+     * 
+     * @param command Command to apply
+     */
+    public void apply(Command command) {
+        applyCommand(command);
+        followGraph();
+    }
+
+    /**
+     * Applies a command, leaving what is worked out from {@link #graph} in the background to
+     * {@link #followGraph}, which is called once the whole batch the command is in is applied.
+     */
+    private void applyCommand(Command command) {
+        if (command instanceof Command.Resize) {
+            Command.Resize resize = (Command.Resize) command;
+            if (resize.axis == Command.Axis.ROW) {
+                resizeGrid(resize.size, numCols);
+            } else {
+                resizeGrid(numRows, resize.size);
+            }
+        } else if (command instanceof Command.MoveSource) {
+            Command.MoveSource move = (Command.MoveSource) command;
+            if (move.axis == Command.Axis.ROW) {
+                changeSource(move.position, Coord.col(sourceCoord));
+            } else {
+                changeSource(Coord.row(sourceCoord), move.position);
+            }
+        } else if (command instanceof Command.MoveDest) {
+            Command.MoveDest move = (Command.MoveDest) command;
+            if (move.axis == Command.Axis.ROW) {
+                changeDest(move.position, Coord.col(destCoord));
+            } else {
+                changeDest(Coord.row(destCoord), move.position);
+            }
+        } else if (command instanceof Command.SetDiagonal) {
+            connectDiagonals = ((Command.SetDiagonal) command).diagonal;
+            graph.makeEdges(connectDiagonals);
+        } else if (command instanceof Command.Search) {
+            Command.Search search = (Command.Search) command;
+            clearGrid();
+            replanStepLength = search.algorithm.equals("D*Lite") ? search.stepLengthMillis : -1;
+            if (maze != null) {
+                searchAfterMaze = search; // searches the maze, not the empty grid it is made on
+            } else {
+                chooseAlgorithm(search.algorithm, search.stepLengthMillis);
+            }
+        } else if (command instanceof Command.Clear) {
+            clearGrid();
+        } else if (command instanceof Command.Erase) {
+            resizeGrid(numRows, numCols);
+        } else if (command instanceof Command.Maze) {
+            makeMaze(((Command.Maze) command).seed);
+        } else if (command instanceof Command.Playback) {
+            controlPlayback(((Command.Playback) command).control);
+        } else if (command instanceof Command.ShowFlowField) {
+            showFlowField = ((Command.ShowFlowField) command).show;
+        }
+    }
+
+    /**
+     * Applies every command of a batch in one go, and counts how long each took to be applied.
+     * Must be called on the event dispatch thread.
+     * 
+     * @param batch commands that were waiting to be applied at the same time
+     */
+    public void apply(CommandBatch batch) {
+        batch.applyTo(new CommandApplier());
+        followGraph();
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size(); ++i) {
+            commandLatency.record(now - batch.madeNanos(i));
+        }
+        commandLatency.recordBatch(batch.numApplied());
+    }
+
+    /**
+     * @return how long commands sent to this grid have taken to be applied
+     */
+    public CommandLatency getCommandLatency() {
+        return commandLatency;
+    }
+
+    /**
+     * Applies a batch of commands to this grid, resizing it and placing the source and destination
+     * at most once per run of settings.
+     */
+    private final class CommandApplier implements CommandBatch.Target {
+        @Override
+        public void configure(int rows, int cols, Boolean diagonal, List<Command> moves) {
+            if (diagonal != null) {
+                connectDiagonals = diagonal;
+            }
+            if (rows >= 0 || cols >= 0) {
+                // the new graph is made with connectDiagonals
+                resizeGrid(rows >= 0 ? rows : numRows, cols >= 0 ? cols : numCols);
+            } else if (diagonal != null) {
+                graph.makeEdges(connectDiagonals);
+            }
+            if (!moves.isEmpty()) {
+                moveEnds(moves);
+            }
+        }
+
+        @Override
+        public void apply(Command command) {
+            applyCommand(command);
+        }
+    }
+
+    /**
+     * Moves the source and destination as {@link #changeSource} and {@link #changeDest} would for
+     * each move in turn, but only changes the tiles they end up on.
+     * 
+     * @param moves {@link Command.MoveSource} and {@link Command.MoveDest} commands in the order
+     *              they were sent
+     */
+    private void moveEnds(List<Command> moves) {
+        int sourceRow = Coord.row(sourceCoord);
+        int sourceCol = Coord.col(sourceCoord);
+        int destRow = Coord.row(destCoord);
+        int destCol = Coord.col(destCoord);
+        for (Command move : moves) {
+            boolean isSource = move instanceof Command.MoveSource;
+            Command.Axis axis = isSource ? ((Command.MoveSource) move).axis : ((Command.MoveDest) move).axis;
+            int position = isSource ? ((Command.MoveSource) move).position : ((Command.MoveDest) move).position;
+            int row = axis == Command.Axis.ROW ? position : (isSource ? sourceRow : destRow);
+            int col = axis == Command.Axis.COL ? position : (isSource ? sourceCol : destCol);
+            if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+                continue;
+            }
+            if (isSource) {
+                if (row == destRow && col == destCol) {
+                    destRow = sourceRow;
+                    destCol = sourceCol;
                 }
-                break;
+                sourceRow = row;
+                sourceCol = col;
+            } else {
+                if (row == sourceRow && col == sourceCol) {
+                    sourceRow = destRow;
+                    sourceCol = destCol;
+                }
+                destRow = row;
+                destCol = col;
+            }
+        }
 
-            case "destination":
-                x = Integer.parseInt(args[2]);
-                if (args[1].equals("row")) {
-                    changeDest(x, destCoord.second);
+        if (Coord.of(sourceRow, sourceCol) == sourceCoord && Coord.of(destRow, destCol) == destCoord) {
+            return;
+        }
+        setTile(Coord.row(sourceCoord), Coord.col(sourceCoord), TileModel.CLEAR);
+        setTile(Coord.row(destCoord), Coord.col(destCoord), TileModel.CLEAR);
+        sourceCoord = Coord.of(sourceRow, sourceCol);
+        destCoord = Coord.of(destRow, destCol);
+        setTile(sourceRow, sourceCol, TileModel.SOURCE);
+        setTile(destRow, destCol, TileModel.DEST);
+    }
+
+    /**
+     * Pauses, steps, speeds up, slows down, or reverses the algorithm being visualized.
+     * 
+     * @param control PAUSE to pause or resume, STEP or BACK to pause and move one step,
+     *        FASTER or SLOWER to double or halve the speed, REVERSE to change direction
+     */
+    private void controlPlayback(Command.Control control) {
+        switch (control) {
+            case PAUSE:
+                if (playback.isPaused()) {
+                    playback.resume();
                 } else {
-                    changeDest(destCoord.first, x);
+                    playback.pause();
                 }
                 break;
-
-            case "diagonal":
-                connectDiagonals = args[1].equals("true");
-                graph.makeEdges(connectDiagonals);
+            case STEP:
+                playback.stepForward();
                 break;
-
-            case "search":
-                clearGrid();
-                int step = Integer.parseInt(args[2]);
-                chooseAlgorithm(args[1], step);
+            case BACK:
+                playback.stepBackward();
                 break;
-
-            case "clear":
-                clearGrid();
+            case FASTER:
+                playback.setSpeed(playback.getSpeed() * 2);
                 break;
-
-            case "erase":
-                resizeGrid(numRows, numCols);
+            case SLOWER:
+                playback.setSpeed(playback.getSpeed() / 2);
                 break;
-
-            case "maze":
-                long seed = Long.parseLong(args[1]);
-                makeMaze(seed);
+            case REVERSE:
+                playback.setReverse(!playback.isReverse());
                 break;
-
             default:
                 break;
         }
@@ -271,34 +590,170 @@ public class TileGrid extends JPanel implements MouseInputListener {
     /**
      * Creates a maze using a randomized DFS algorithm.
      * <p>
-     * The maze creation is done in a TileGraph, then whatever tiles that are marked
-     * as walls become painted as such.
+     * The grid is erased right away, and the maze is made on {@link #mazes} so that even the
+     * biggest one doesn't hold up the event dispatch thread. Once it is done, its walls are put up in
+     * {@link #graph} all at once, and revealed on the screen a few rows per frame by a
+     * {@link MazeReveal}. Searches asked for in the meantime wait for the maze.
+     * 
+     * @param seed seed of the Random that determines the maze
      */
     private void makeMaze(long seed) {
         resizeGrid(numRows, numCols);
-        Set<Pair<Integer, Integer>> walls = Algorithms.makeMaze(sourceCoord, destCoord, graph, new Random(seed));
+        int rows = numRows;
+        int cols = numCols;
+        long source = sourceCoord;
+        long dest = destCoord;
+        SearchExecutor.Task<BitSet> task = mazes.submit(() -> Algorithms.makeMazeWalls(rows, cols, source, dest, new Random(seed)));
+        maze = task;
+        task.completion().whenComplete((walls, error) -> SwingUtilities.invokeLater(() -> {
+            if (maze != task) {
+                return; // cancelled, or replaced by a newer maze
+            }
+            maze = null;
+            if (error == null) {
+                putUpMaze(walls);
+            } else if (!(error instanceof CancellationException)) {
+                error.printStackTrace();
+            }
+        }));
+    }
+
+    /**
+     * Puts up the walls of a maze in {@link #graph}, starts revealing them, and runs the search that
+     * was waiting for it. Walls painted while the maze was being made are replaced by it.
+     * 
+     * @param walls BitSet with the bit {@code row * numCols + col} set for every wall
+     */
+    private void putUpMaze(BitSet walls) {
+        // the source or destination may have moved onto a wall while the maze was being made
+        walls.clear(graph.getId(sourceCoord));
+        walls.clear(graph.getId(destCoord));
+        graph.setWalls(walls);
+        reveal = new MazeReveal(walls);
+        followGraph();
+
+        Command.Search search = searchAfterMaze;
+        searchAfterMaze = null;
+        if (search != null) {
+            chooseAlgorithm(search.algorithm, search.stepLengthMillis);
+        }
+    }
+
+    /**
+     * Cancels the maze being made or revealed, if there is one, and the search waiting for it.
+     */
+    private void cancelMaze() {
+        if (maze != null) {
+            maze.cancel();
+            maze = null;
+        }
+        searchAfterMaze = null;
+        if (reveal != null) {
+            reveal.stop();
+            reveal = null;
+        }
+    }
+
+    /**
+     * @return the maze being made in the background that hasn't been put up yet, or null. Meant for
+     *         tests, like {@link #getBackgroundSearch}.
+     */
+    SearchExecutor.Task<BitSet> getBackgroundMaze() {
+        return maze;
+    }
+
+    /**
+     * @return {@code true} if the walls of a maze are still being put up on the screen
+     */
+    boolean isRevealingMaze() {
+        return reveal != null;
+    }
+
+    /**
+     * Puts up the walls of a maze on {@link #model} a band of rows per frame, from the top down, so
+     * a big maze shows up as it is drawn rather than after one long frame. The walls are already all
+     * in {@link #graph}; only what is on the screen catches up.
+     */
+    private final class MazeReveal {
+        /**
+         * Walls that haven't been put up yet, from {@link #nextId} on
+         */
+        private final BitSet walls;
+        /**
+         * Tiles put up each frame, a whole number of rows
+         */
+        private final int band;
+        private final Timer timer;
+        private int nextId = 0;
+
+        /**
+         * Puts up the first band of rows right away, and the rest on the frames after it.
+         */
+        MazeReveal(BitSet walls) {
+            this.walls = walls;
+            this.band = Math.max(1, REVEAL_TILES_PER_FRAME / numCols) * numCols;
+            this.timer = new Timer(PlaybackEngine.FRAME_MILLIS, event -> frame());
+            frame();
+            if (nextId < model.getNumRows() * numCols) {
+                timer.start();
+            }
+        }
+
+        private void frame() {
+            int end = Math.min(nextId + band, model.getNumRows() * numCols);
+            model.replace(walls, nextId, end, TileModel.CLEAR, TileModel.WALL);
+            nextId = end;
+            if (nextId == model.getNumRows() * numCols) {
+                stop();
+                if (reveal == this) {
+                    reveal = null;
+                }
+            }
+        }
 
-        for (Pair<Integer, Integer> p : walls) {
-            paintTile(p.first, p.second, Pallete.WALL);
+        /**
+         * Leaves the tile with id {@code id} as it is, because it was painted before it was put up.
+         */
+        void forget(int id) {
+            walls.clear(id);
+        }
+
+        void stop() {
+            timer.stop();
         }
     }
 
     /**
      * Visualizes a corresponding algorithm based on the string you enter. For
      * example, "Djikstra" will visualize Djikstra's Algorithm.
+     * <p>
+     * BFS, Djikstra and A* are stepped a frame at a time as they are drawn. Every other algorithm
+     * computes its whole trace at once, so it runs in the background and is drawn once it is done.
      * 
      * @param algorithm String representation of algorithm you want visualized
      */
     private void chooseAlgorithm(String algorithm, int stepLengthMillis) {
         switch (algorithm) {
             case "BFS":
-                visualizeAlgorithm(Algorithms.bfs(sourceCoord, destCoord, graph), stepLengthMillis);
+                visualizeAlgorithm(Algorithms.bfsStepper(sourceCoord, destCoord, graph.snapshot()), stepLengthMillis);
                 break;
             case "Djikstra":
-                visualizeAlgorithm(Algorithms.djikstra(sourceCoord, destCoord, graph), stepLengthMillis);
+                visualizeAlgorithm(Algorithms.djikstraStepper(sourceCoord, destCoord, graph.snapshot()), stepLengthMillis);
                 break;
             case "A*":
-                visualizeAlgorithm(Algorithms.aStar(sourceCoord, destCoord, graph), stepLengthMillis);
+                visualizeAlgorithm(Algorithms.aStarStepper(sourceCoord, destCoord, graph.snapshot()), stepLengthMillis);
+                break;
+            case "D*Lite":
+                paintedSinceSearch = false;
+                searchInBackground(algorithm, stepLengthMillis);
+                break;
+            case "Dial":
+            case "JPS":
+            case "HPA*":
+            case "ALT":
+            case "Bi-BFS":
+            case "Bi-A*":
+                searchInBackground(algorithm, stepLengthMillis);
                 break;
             default:
                 break;
@@ -306,81 +761,424 @@ public class TileGrid extends JPanel implements MouseInputListener {
     }
 
     /**
-     * Sets each tile that was visited by a pathfinding algorithm back to it's
-     * original "clear" color. Does not recolor source, destination, or wall tiles.
+     * Runs a search that computes its whole trace at once on {@link #searches}, and plays the trace
+     * once it is done. Cancels the search that was running before, if it wasn't done yet. Never
+     * waits for a search, so the event dispatch thread is never blocked.
+     * 
+     * @param algorithm name of the algorithm, see {@link SearchContext#search}
+     * @param stepLengthMillis milliseconds each step lasts
      */
-    private void clearGrid() {
-        stopDrawingThread();
-        for (List<JPanel> row : tiles) {
-            for (JPanel tile : row) {
-                Color bg = tile.getBackground();
-                if (bg.equals(Pallete.VISIT) || bg.equals(Pallete.PATH)) {
-                    tile.setBackground(Pallete.CLEAR);
+    private void searchInBackground(String algorithm, int stepLengthMillis) {
+        cancelSearch();
+        searchContext.post(searchEdits.take());
+        long source = sourceCoord;
+        long dest = destCoord;
+        SearchExecutor.Task<SearchTrace> task = searches.submit(() -> searchContext.search(algorithm, source, dest));
+        search = task;
+        task.completion().whenComplete((trace, error) -> SwingUtilities.invokeLater(() -> {
+            if (search != task) {
+                return; // cancelled, or replaced by a newer search
+            }
+            search = null;
+            if (error == null) {
+                visualizeAlgorithm(trace, stepLengthMillis);
+            } else if (!(error instanceof CancellationException)) {
+                error.printStackTrace();
+            }
+        }));
+    }
+
+    /**
+     * Starts working out what is kept about {@link #graph} and the destination in the background,
+     * after a batch of changes to them. Called once per batch of commands, maze, or stroke of
+     * painted tiles, rather than once per change.
+     */
+    private void followGraph() {
+        buildComponents();
+        updateFlowField();
+    }
+
+    /**
+     * Builds the component index of {@link #graph} on {@link #componentBuilds} if it isn't ready,
+     * so that searches stepped on the event dispatch thread can tell that they have nothing to
+     * search without building it there. The index is built on a copy of the graph and handed over
+     * if the graph hasn't changed since; if it has, another one is built. Only one is built at a time.
+     */
+    private void buildComponents() {
+        if (componentBuild != null || graph.componentsReady()) {
+            return;
+        }
+        TileGraph indexed = graph;
+        TileGraph copy = new TileGraph(graph);
+        SearchExecutor.Task<TileGraph> task = componentBuilds.submit(() -> {
+            copy.prepareComponents();
+            return copy;
+        });
+        componentBuild = task;
+        task.completion().whenComplete((built, error) -> SwingUtilities.invokeLater(() -> {
+            if (componentBuild != task) {
+                return;
+            }
+            componentBuild = null;
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    error.printStackTrace();
                 }
+                return;
+            }
+            if (graph == indexed) {
+                graph.adoptComponents(built);
             }
+            buildComponents(); // the graph may have changed while the index was being built
+        }));
+    }
+
+    /**
+     * @return the component index being built in the background, or null. Meant for tests, like
+     *         {@link #getBackgroundSearch}.
+     */
+    SearchExecutor.Task<TileGraph> getBackgroundComponents() {
+        return componentBuild;
+    }
+
+    /**
+     * Cancels the search running on {@link #searches}, if there is one. Returns right away; the
+     * search stops on its own thread within one batch of expansions.
+     */
+    private void cancelSearch() {
+        if (search != null) {
+            search.cancel();
+            search = null;
         }
     }
 
+    /**
+     * @return the search running in the background whose trace hasn't been played yet, or null.
+     *         Meant for tests, which can wait for it with {@link SearchExecutor.Task#awaitStopped}.
+     */
+    SearchExecutor.Task<SearchTrace> getBackgroundSearch() {
+        return search;
+    }
+
+    /**
+     * Sets each tile that was visited by a pathfinding algorithm back to it's
+     * original "clear" color. Does not recolor source, destination, or wall tiles.
+     */
+    private void clearGrid() {
+        stopPlayback();
+        model.clearSearch();
+    }
+
     /**
      * Animates the process and result of a pathfinding algorithm onto this
-     * TileGrid.
-     * <p>
-     * The actions parameter can contain two types of strings:
-     * <ol>
-     * <li>"visit x y", where x and y are the coordinates of the tile visited
-     * <li>"path x1 y1 x2 y2 ..." where the x and y values are coordinates of each
-     * tile part of the shortest path
-     * </ol>
+     * TileGrid, one step of {@code trace} at a time.
      * 
-     * @param actions List of Strings that tells the function what the pathfinding
-     *                algorithm did for each iteration
+     * @param trace SearchTrace of what the pathfinding algorithm did for each iteration
+     * @param stepLengthMillis milliseconds each step lasts
+     */
+    private void visualizeAlgorithm(SearchTrace trace, int stepLengthMillis) {
+        visualizeAlgorithm(trace.reader(), stepLengthMillis);
+    }
+
+    /**
+     * Animates the steps of {@code source} onto this TileGrid as they are produced. Steps are taken
+     * from {@code source} a frame's worth at a time, just before they are drawn, so drawing starts
+     * right away and a search never runs further ahead than the frame being drawn.
      * 
-     * @throws NumberFormatException     an invalid String is in {@code actions}
-     * @throws IndexOutOfBoundsException an invalid String is in {@code actions}
+     * @param source TraceSource, such as a SearchStepper that hasn't taken any steps yet
+     * @param stepLengthMillis milliseconds each step lasts, or 0 to draw as many steps per frame as
+     *        {@link PlaybackEngine} allows
      */
-    private void visualizeAlgorithm(List<String> actions, int stepLengthMillis) {
-        stopDrawingThread();
-        algorithmDrawingThread = new Thread() { // Run this on a different thread
-            @Override
-            public void run() {
-                // Actual logic of algorithm here
-                for (String action : actions) {
-                    try {
-                        Thread.sleep(stepLengthMillis);
-                    } catch (InterruptedException e) {
-                        return;
-                    }
-                    /*while (System.currentTimeMillis() % stepLengthMillis != 0) {
-                        /*
-                         * Use while loop instead of sleep() because sleep() can end up waiting more time
-                         * than the specified milliseconds. This happens fairly often because the thread
-                         * needs to get reactivated by the kernel.
-                         * /
-                    }*/
-                    String[] args = action.split(" ");
-                    if (args[0].equals("visit")) {
-                        int x = Integer.parseInt(args[1]);
-                        int y = Integer.parseInt(args[2]);
-                        tiles.get(x).get(y).setBackground(Pallete.VISIT);
-                        SwingUtilities.invokeLater(() -> tiles.get(x).get(y).setBackground(Pallete.VISIT));
-                    } else {
-                        for (int i = 3; i < args.length - 2; i += 2) {
-                            int x = Integer.parseInt(args[i]);
-                            int y = Integer.parseInt(args[i + 1]);
-                            SwingUtilities.invokeLater(
-                                () -> tiles.get(x).get(y).setBackground(Pallete.PATH)
-                            );
-                        }
-                    }
+    private void visualizeAlgorithm(TraceSource source, int stepLengthMillis) {
+        playback.play(source, stepLengthMillis);
+    }
+
+    /**
+     * Replays a recorded trace onto this TileGrid, starting at step {@code fromStep}. The steps
+     * before it are drawn at once, then the rest are animated as they are read from the mapped
+     * file. Calling this again with another step scrubs through the trace. Like every other change
+     * to the tiles, this should be called from the event dispatch thread.
+     * <p>
+     * The trace should have been recorded on a grid the size of this one.
+     * 
+     * @param trace TraceFile to replay
+     * @param fromStep index of the first step to animate, between 0 and {@link TraceFile#numSteps}
+     * @param stepLengthMillis milliseconds to wait before drawing each animated step
+     */
+    public void replay(TraceFile trace, long fromStep, int stepLengthMillis) {
+        clearGrid();
+        visualizeAlgorithm(trace.cursor(0), stepLengthMillis);
+        for (long left = fromStep; left > 0; left -= Integer.MAX_VALUE) {
+            playback.advance((int) Math.min(left, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Draws the tiles that are inside the clip, from the level of detail of {@link #tiles} that has
+     * no more than a pixel per screen pixel.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Rectangle2D.Double view = view();
+        tiles.draw(g, view.x, view.y, view.width, view.height);
+        // a heat map of the grid before it was resized is left out until the new one is worked out
+        if (heatmap != null && heatmap.getWidth() == numCols && heatmap.getHeight() == numRows) {
+            drawHeatmap(g, view);
+        }
+    }
+
+    /**
+     * Draws the part of {@link #heatmap} that is inside the clip over the tiles it belongs to.
+     */
+    private void drawHeatmap(Graphics g, Rectangle2D.Double view) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = view.getBounds();
+        }
+        double tileWidth = view.width / numCols;
+        double tileHeight = view.height / numRows;
+        int col0 = Math.max(0, (int) Math.floor((clip.x - view.x) / tileWidth));
+        int col1 = Math.min(numCols, (int) Math.ceil((clip.x + clip.width - view.x) / tileWidth));
+        int row0 = Math.max(0, (int) Math.floor((clip.y - view.y) / tileHeight));
+        int row1 = Math.min(numRows, (int) Math.ceil((clip.y + clip.height - view.y) / tileHeight));
+        if (col0 >= col1 || row0 >= row1) {
+            return;
+        }
+        g.drawImage(heatmap,
+                (int) Math.round(view.x + col0 * tileWidth), (int) Math.round(view.y + row0 * tileHeight),
+                (int) Math.round(view.x + col1 * tileWidth), (int) Math.round(view.y + row1 * tileHeight),
+                col0, row0, col1, row1, null);
+    }
+
+    /**
+     * Brings the flow field up to date with {@link #graph} and {@link #destCoord} on
+     * {@link #flowFields} while it is shown, and then copies the rows of the heat map whose distances
+     * changed and repaints them. The field is worked out on a copy of the graph that the edits are
+     * replayed onto, and repaired around them. Only one update runs at a time; one asked for in the
+     * meantime runs once it is done. A field that is no longer shown is thrown away.
+     */
+    private void updateFlowField() {
+        if (!showFlowField) {
+            if (flowContext != null) {
+                if (flowUpdate != null) {
+                    flowUpdate.cancel();
+                    flowUpdate = null;
                 }
+                flowGraph.removeReachabilityListener(flowEdits);
+                flowContext = null;
+                flowEdits = null;
+                flowGraph = null;
+                flowField = null;
+                heatPixels = null;
+                heatmap = null;
+                repaint();
             }
-        };
-        algorithmDrawingThread.start();
+            return;
+        }
+        if (flowUpdate != null) {
+            return;
+        }
+        if (flowGraph == graph && flowVersion == graph.getVersion() && flowDest == destCoord) {
+            return;
+        }
+        if (flowContext == null) {
+            flowContext = new SearchContext();
+        }
+        if (flowGraph != graph) {
+            // the first Update of a graph is a copy, which the field is made again on
+            flowEdits = new SearchContext.Recorder(graph);
+            flowGraph = graph;
+        }
+        flowVersion = graph.getVersion();
+        flowDest = destCoord;
+        flowContext.post(flowEdits.take());
+
+        SearchContext context = flowContext;
+        long dest = destCoord;
+        int[] pixels = heatPixels;
+        SearchExecutor.Task<HeatRows> task = flowFields.submit(() -> new HeatRows(context.flowField(dest), pixels));
+        flowUpdate = task;
+        task.completion().whenComplete((heat, error) -> SwingUtilities.invokeLater(() -> {
+            if (flowUpdate != task) {
+                return; // cancelled when the field was hidden
+            }
+            flowUpdate = null;
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    error.printStackTrace();
+                }
+                return;
+            }
+            drawHeatRows(heat);
+            updateFlowField(); // the graph or destination may have changed while it was worked out
+        }));
+    }
+
+    /**
+     * Copies the rows of the heat map that changed into {@link #heatmap}, made again only when the
+     * grid was resized, and repaints them. Rows of a grid that has since been resized are left
+     * out, since the update for the new one recolors every row.
+     */
+    private void drawHeatRows(HeatRows heat) {
+        flowField = heat.field;
+        heatPixels = heat.pixels;
+        TileGraph drawn = heat.field.getGraph();
+        if (heat.rows == null || drawn.getNumRows() != numRows || drawn.getNumCols() != numCols) {
+            return;
+        }
+        if (heatmap == null || heatmap.getWidth() != numCols || heatmap.getHeight() != numRows) {
+            heatmap = new BufferedImage(numCols, numRows, BufferedImage.TYPE_INT_ARGB);
+        }
+        int[] image = ((DataBufferInt) heatmap.getRaster().getDataBuffer()).getData();
+        int from = heat.rows[0] * numCols;
+        System.arraycopy(heat.pixels, from, image, from, heat.rows[1] * numCols - from);
+        repaintTiles(heat.rows[0], 0, heat.rows[1] - 1, numCols - 1);
+    }
+
+    /**
+     * Colors of the heat map of a flow field, worked out on {@link #flowFields}, and the rows whose
+     * distances changed since the last ones.
+     */
+    private static final class HeatRows {
+        private final FlowField field;
+        /**
+         * Color of every tile, a pixel of {@link #heatmap}, of which only {@link #rows} are up to date
+         * with the field's graph and the rest may be from an older version of it
+         */
+        private final int[] pixels;
+        /**
+         * First and one past the last row that changed, or null if none did
+         */
+        private final int[] rows;
+
+        /**
+         * Brings {@code field} up to date and recolors the rows whose distances changed.
+         *
+         * @param pixels colors of the last update, recolored in place if they are for a graph this
+         *        size, or null
+         */
+        HeatRows(FlowField field, int[] pixels) {
+            this.field = field;
+            this.rows = field.takeChangedRows();
+            int numNodes = field.getGraph().numNodes();
+            this.pixels = pixels != null && pixels.length == numNodes ? pixels : new int[numNodes];
+            if (rows == null) {
+                return;
+            }
+            int numCols = field.getGraph().getNumCols();
+            for (int id = rows[0] * numCols; id < rows[1] * numCols; ++id) {
+                double distance = field.getDistance(id);
+                this.pixels[id] = distance == Double.POSITIVE_INFINITY ? 0 : Pallete.heat(distance);
+            }
+        }
+    }
+
+    /**
+     * @return the flow field the heat map was last drawn from, or null if it isn't shown. Meant for
+     *         tests, which read it once {@link #getBackgroundFlowField} is done.
+     */
+    FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * @return the heat map update being worked out in the background, or null. Meant for tests,
+     *         like {@link #getBackgroundSearch}.
+     */
+    SearchExecutor.Task<?> getBackgroundFlowField() {
+        return flowUpdate;
+    }
+
+    /**
+     * Finds where the whole grid is drawn in this component, which is {@link #tileArea} while the
+     * grid is {@link #fitted}, and can reach outside the component after it is panned or zoomed in.
+     * 
+     * @return Rectangle in pixels the whole grid covers
+     */
+    private Rectangle2D.Double view() {
+        if (fitted) {
+            Rectangle area = tileArea();
+            return new Rectangle2D.Double(area.x, area.y, area.width, area.height);
+        }
+        return new Rectangle2D.Double(originX, originY, zoom * numCols, zoom * numRows);
+    }
+
+    /**
+     * Stops fitting the grid to this component, so it can be panned and zoomed from where it is drawn now.
+     */
+    private void unfit() {
+        if (fitted) {
+            Rectangle area = tileArea();
+            zoom = Math.min((double) area.width / numCols, (double) area.height / numRows);
+            originX = area.x;
+            originY = area.y;
+            fitted = false;
+        }
+    }
+
+    /**
+     * Finds the part of this component the tiles are drawn on. When every tile is at least a pixel
+     * wide and tall, tiles are all the same whole number of pixels in size and the grid is centered
+     * in the left over space. Otherwise the grid is shrunk to fill the whole component.
+     * 
+     * @return Rectangle in pixels the tiles are drawn on
+     */
+    private Rectangle tileArea() {
+        int width = getWidth();
+        int height = getHeight();
+        int tilesWidth = width >= numCols ? width / numCols * numCols : width;
+        int tilesHeight = height >= numRows ? height / numRows * numRows : height;
+        return new Rectangle((width - tilesWidth) / 2, (height - tilesHeight) / 2, tilesWidth, tilesHeight);
+    }
+
+    /**
+     * Changes the state of the tile at {@code (row, col)}, which repaints the pixels it covers.
+     * Does no bounds checking, and does not change the underlying graph.
+     * 
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param state one of the {@link TileModel} constants
+     */
+    private void setTile(int row, int col, byte state) {
+        model.set(row, col, state);
+    }
+
+    /**
+     * Schedules a repaint of the pixels covered by every tile between {@code (minRow, minCol)} and
+     * {@code (maxRow, maxCol)}, inclusive.
+     */
+    private void repaintTiles(int minRow, int minCol, int maxRow, int maxCol) {
+        Rectangle2D.Double view = view();
+        int x0 = (int) Math.floor(view.x + minCol * view.width / numCols);
+        int y0 = (int) Math.floor(view.y + minRow * view.height / numRows);
+        int x1 = (int) Math.ceil(view.x + (maxCol + 1) * view.width / numCols);
+        int y1 = (int) Math.ceil(view.y + (maxRow + 1) * view.height / numRows);
+        repaint(x0, y0, Math.max(1, x1 - x0), Math.max(1, y1 - y0));
+    }
+
+    /**
+     * Keeps the images of this grid in step with {@link #model}, and repaints each batch of changes.
+     */
+    private final class ModelRenderer implements TileModelListener {
+        @Override
+        public void tileChanged(TileModel changed, int row, int col, byte state) {
+            tiles.set(row, col, state);
+        }
+
+        @Override
+        public void regionChanged(TileModel changed, int minRow, int minCol, int maxRow, int maxCol) {
+            repaintTiles(minRow, minCol, maxRow, maxCol);
+        }
     }
 
     @Override
     public void mouseClicked(MouseEvent event) {
-        //Do nothing
+        //fit the grid back to the component after a double click with the middle button
+        if (event.getButton() == MouseEvent.BUTTON2 && event.getClickCount() == 2) {
+            fitted = true;
+            repaint();
+        }
     }
 
     @Override
@@ -395,12 +1193,20 @@ public class TileGrid extends JPanel implements MouseInputListener {
 
     @Override
     public void mousePressed(MouseEvent event) {
-        //Do nothing
+        //remember where panning starts from
+        panX = event.getX();
+        panY = event.getY();
     }
 
     @Override
     public void mouseReleased(MouseEvent event) {
-        //Do nothing
+        //replan around the walls that were just painted, reusing the last D* Lite search
+        if (replanStepLength >= 0 && paintedSinceSearch) {
+            clearGrid();
+            chooseAlgorithm("D*Lite", replanStepLength);
+        }
+        //a stroke of painted tiles is one batch of changes
+        followGraph();
     }
 
     @Override
@@ -411,27 +1217,61 @@ public class TileGrid extends JPanel implements MouseInputListener {
     @Override
     public void mouseDragged(MouseEvent event) {
 
+        //determine which button was pressed
+        int buttonPressed = event.getModifiersEx();
+        if (buttonPressed == InputEvent.BUTTON2_DOWN_MASK) {
+            //middle mouse button pressed down, move the grid along with the mouse
+            unfit();
+            originX += event.getX() - panX;
+            originY += event.getY() - panY;
+            panX = event.getX();
+            panY = event.getY();
+            repaint();
+            return;
+        }
+
         //determine which tile mouse is over
-        //adjust for fact tiles aren't flush with window borders
-        JPanel tile = tiles.get(0).get(0);
-        int x = event.getX() - tile.getX();
-        int y = event.getY() - tile.getY();
+        //adjust for fact tiles aren't flush with window borders, or the grid was panned
+        Rectangle2D.Double view = view();
+        if (view.isEmpty()) {
+            return;
+        }
+        double x = event.getX() - view.x;
+        double y = event.getY() - view.y;
 
-        //limit get row and column indices based off pixel x and y values
-        int row = y / tile.getHeight();
-        int col = x / tile.getWidth();
+        //get row and column indices from pixel x and y values, rounding down outside the grid too
+        int row = (int) Math.floor(y * numRows / view.height);
+        int col = (int) Math.floor(x * numCols / view.width);
 
-        //determine which button was pressed
-        int buttonPressed = event.getModifiersEx();
         if (buttonPressed == InputEvent.BUTTON1_DOWN_MASK) {
             //left mouse button pressed down
-            paintTile(row, col, Pallete.WALL);
+            paintTile(row, col, TileModel.WALL);
+            paintedSinceSearch = true;
         } else if (buttonPressed == InputEvent.BUTTON3_DOWN_MASK) {
             //right mouse button pressed down
-            paintTile(row, col, Pallete.CLEAR);
+            paintTile(row, col, TileModel.CLEAR);
+            paintedSinceSearch = true;
         }
     }
 
+    /**
+     * Zooms in or out around the mouse, so the tile under it stays under it. The grid can be zoomed
+     * out to a quarter of the size that fits the component, and in to {@link #MAX_ZOOM} pixels per tile.
+     */
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent event) {
+        unfit();
+        double fit = Math.min((double) getWidth() / numCols, (double) getHeight() / numRows);
+        double minZoom = Math.min(fit / 4, MAX_ZOOM);
+        double newZoom = zoom * Math.pow(ZOOM_STEP, -event.getPreciseWheelRotation());
+        newZoom = Math.max(minZoom, Math.min(newZoom, MAX_ZOOM));
+
+        originX = event.getX() - (event.getX() - originX) * newZoom / zoom;
+        originY = event.getY() - (event.getY() - originY) * newZoom / zoom;
+        zoom = newZoom;
+        repaint();
+    }
+
     /**
      * Attempts to paint the tile located at the coordinate {@code (row, col)}. 
      * Will not paint over tiles located at {@code sourceCoord} or {@code destCoord}.
@@ -443,18 +1283,18 @@ public class TileGrid extends JPanel implements MouseInputListener {
      * 
      * @param row row on which tile to paint is located
      * @param col column on which tile to paint is located
-     * @param color Color with which you want to paint the tile
+     * @param state {@link TileModel} state you want to paint the tile with
      */
-    private void paintTile(int row, int col, Color color) {
-        Pair<Integer, Integer> coord = new Pair<>(row, col);
-        if (coord.equals(sourceCoord) || coord.equals(destCoord)) {
+    private void paintTile(int row, int col, byte state) {
+        long coord = Coord.of(row, col);
+        if (coord == sourceCoord || coord == destCoord) {
             return;
         }
         if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
             return;
         }
 
-        forcePaintTile(row, col, color);
+        forcePaintTile(row, col, state);
     }
 
     /**
@@ -467,11 +1307,14 @@ public class TileGrid extends JPanel implements MouseInputListener {
      * 
      * @param row row on which tile to paint is located
      * @param col column on which tile to paint is located
-     * @param color Color with which you want to paint the tile
+     * @param state {@link TileModel} state you want to paint the tile with
      */
-    private void forcePaintTile(int row, int col, Color color) {
-        graph.setNodeReachability(row, col, color != Pallete.WALL);
-        tiles.get(row).get(col).setBackground(color);
+    private void forcePaintTile(int row, int col, byte state) {
+        if (reveal != null) {
+            reveal.forget(row * numCols + col);
+        }
+        graph.setNodeReachability(row, col, state != TileModel.WALL);
+        setTile(row, col, state);
     }
 
     /**
@@ -491,15 +1334,15 @@ public class TileGrid extends JPanel implements MouseInputListener {
             return;
         }
 
-        Pair<Integer, Integer> coord = new Pair<>(row, col);
-        if (coord.equals(destCoord)) {
+        long coord = Coord.of(row, col);
+        if (coord == destCoord) {
             destCoord = sourceCoord;
             sourceCoord = coord;
-            tiles.get(sourceCoord.first).get(sourceCoord.second).setBackground(Pallete.SOURCE);
-            tiles.get(destCoord.first).get(destCoord.second).setBackground(Pallete.DEST);
+            setTile(Coord.row(sourceCoord), Coord.col(sourceCoord), TileModel.SOURCE);
+            setTile(Coord.row(destCoord), Coord.col(destCoord), TileModel.DEST);
         } else {
-            tiles.get(sourceCoord.first).get(sourceCoord.second).setBackground(Pallete.CLEAR);
-            tiles.get(row).get(col).setBackground(Pallete.SOURCE);
+            setTile(Coord.row(sourceCoord), Coord.col(sourceCoord), TileModel.CLEAR);
+            setTile(row, col, TileModel.SOURCE);
             sourceCoord = coord;
         }
     }
@@ -517,22 +1360,22 @@ public class TileGrid extends JPanel implements MouseInputListener {
             return;
         }
 
-        Pair<Integer, Integer> coord = new Pair<>(row, col);
-        if (coord.equals(sourceCoord)) {
+        long coord = Coord.of(row, col);
+        if (coord == sourceCoord) {
             sourceCoord = destCoord;
             destCoord = coord;
-            tiles.get(sourceCoord.first).get(sourceCoord.second).setBackground(Pallete.SOURCE);
-            tiles.get(destCoord.first).get(destCoord.second).setBackground(Pallete.DEST);
+            setTile(Coord.row(sourceCoord), Coord.col(sourceCoord), TileModel.SOURCE);
+            setTile(Coord.row(destCoord), Coord.col(destCoord), TileModel.DEST);
         } else {
-            tiles.get(destCoord.first).get(destCoord.second).setBackground(Pallete.CLEAR);
-            tiles.get(row).get(col).setBackground(Pallete.DEST);
+            setTile(Coord.row(destCoord), Coord.col(destCoord), TileModel.CLEAR);
+            setTile(row, col, TileModel.DEST);
             destCoord = coord;
         }
     }
 
     /**
      * Creates the String representation of this TileGrid by converting each tile into a character
-     * that represents its background color. For example, a 5x5 TileGrid with a source tile at (0, 0),
+     * that represents its state. For example, a 5x5 TileGrid with a source tile at (0, 0),
      * a destination tile at (4, 4), and a wall down the middle would look like
      * <p>
      * scwcc <br>
@@ -548,37 +1391,18 @@ public class TileGrid extends JPanel implements MouseInputListener {
      */
     @Override
     public String toString() {
-        final Map<Color, Character> colorToChar = new HashMap<>(); 
-        colorToChar.put(Pallete.CLEAR, 'c');
-        colorToChar.put(Pallete.WALL, 'w');
-        colorToChar.put(Pallete.SOURCE, 's');
-        colorToChar.put(Pallete.DEST, 'd');
-        colorToChar.put(Pallete.VISIT, 'v');
-        colorToChar.put(Pallete.PATH, 'p');
-
-        StringBuilder sb = new StringBuilder();
-        for (List<JPanel> row : tiles) {
-            for (JPanel tile : row) {
-                sb.append(colorToChar.get(tile.getBackground()));
-            }
-            sb.append(" \n");
-        }
-
-        return sb.toString();
+        return model.toString();
     }
 
     /**
-     * Halt the drawing thread if it is currently running. The intended effect of this
-     * function is to stop pathfinding visualization immediately.
+     * Stops the algorithm being visualized, if there is one, and cancels the search running in the
+     * background, if there is one. The intended effect of this function is to stop pathfinding
+     * visualization immediately.
      */
-    private void stopDrawingThread() {
-        if (algorithmDrawingThread != null && algorithmDrawingThread.isAlive()) {
-            algorithmDrawingThread.interrupt();
-            try {
-                Thread.sleep(1); // let algorithmDrawingThread clean up
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+    private void stopPlayback() {
+        cancelSearch();
+        if (playback != null) {
+            playback.stop();
         }
     }
 
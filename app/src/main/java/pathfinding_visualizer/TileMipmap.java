@@ -0,0 +1,263 @@
+package pathfinding_visualizer;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Tile states of a grid and the images they are drawn from, at every level of detail. Level 0 has a
+ * byte and a pixel per tile. Every level after it has one per 2x2 block of the level before, holding
+ * whichever of the four states has the highest rank, so a wall or a visited tile stays visible
+ * however far out the grid is drawn. Levels are halved until they are a single pixel.
+ * <p>
+ * Changing a tile updates its pixel and then walks up the levels, stopping at the first level whose
+ * block doesn't change, so most changes only touch one or two levels.
+ * <p>
+ * {@link #draw} picks the smallest level that still gives every block at least a screen pixel, and
+ * draws only the part of it inside the clip, so the cost of painting depends on the size of the
+ * screen, not of the grid, and no block is skipped when the image is scaled.
+ */
+public class TileMipmap {
+    private final int rows;
+    private final int cols;
+    /**
+     * RGB value of each state, indexed by the state
+     */
+    private final int[] rgb;
+    /**
+     * Rank of each state, indexed by the state. Blocks take on the state of highest rank.
+     */
+    private final byte[] rank;
+
+    /**
+     * States of every level, indexed by level, then by {@code row * levelCols + col}
+     */
+    private final byte[][] states;
+    private final BufferedImage[] images;
+    /**
+     * Pixels of {@link #images}, indexed like {@link #states}
+     */
+    private final int[][] pixels;
+    private final int[] levelCols;
+    private final int[] levelRows;
+
+    /**
+     * Creates a {@code rows} by {@code cols} grid of tiles that are all in state 0.
+     *
+     * @param rows number of rows of tiles
+     * @param cols number of columns of tiles
+     * @param rgb RGB value of each state, indexed by the state
+     * @param rank rank of each state, indexed by the state. A block of tiles is drawn in the state of
+     *        highest rank among them.
+     */
+    public TileMipmap(int rows, int cols, int[] rgb, byte[] rank) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("a grid needs at least one tile: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rgb = rgb.clone();
+        this.rank = rank.clone();
+
+        int levels = 1;
+        while ((rows - 1) >> (levels - 1) > 0 || (cols - 1) >> (levels - 1) > 0) {
+            ++levels;
+        }
+        states = new byte[levels][];
+        images = new BufferedImage[levels];
+        pixels = new int[levels][];
+        levelRows = new int[levels];
+        levelCols = new int[levels];
+        for (int level = 0; level < levels; ++level) {
+            levelRows[level] = ((rows - 1) >> level) + 1;
+            levelCols[level] = ((cols - 1) >> level) + 1;
+            states[level] = new byte[levelRows[level] * levelCols[level]];
+            images[level] = new BufferedImage(levelCols[level], levelRows[level], BufferedImage.TYPE_INT_RGB);
+            pixels[level] = ((DataBufferInt) images[level].getRaster().getDataBuffer()).getData();
+            Arrays.fill(pixels[level], this.rgb[0]);
+        }
+    }
+
+    /**
+     * @return number of rows of tiles
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return number of columns of tiles
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return number of levels of detail, including level 0
+     */
+    public int levels() {
+        return states.length;
+    }
+
+    /**
+     * @param row row of a tile
+     * @param col column of a tile
+     * @return state of the tile at {@code (row, col)}
+     */
+    public byte get(int row, int col) {
+        return states[0][row * cols + col];
+    }
+
+    /**
+     * @param level level of detail
+     * @param row row of a block of {@code 2^level} by {@code 2^level} tiles
+     * @param col column of the block
+     * @return state of highest rank in the block
+     */
+    public byte get(int level, int row, int col) {
+        return states[level][row * levelCols[level] + col];
+    }
+
+    /**
+     * Changes the state of the tile at {@code (row, col)} and of every block it is in that changes with it.
+     *
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param state new state
+     */
+    public void set(int row, int col, byte state) {
+        int id = row * cols + col;
+        if (states[0][id] == state) {
+            return;
+        }
+        states[0][id] = state;
+        pixels[0][id] = rgb[state];
+        for (int level = 1; level < states.length; ++level) {
+            row >>= 1;
+            col >>= 1;
+            byte block = aggregate(level, row, col);
+            int blockId = row * levelCols[level] + col;
+            if (states[level][blockId] == block) {
+                return;
+            }
+            states[level][blockId] = block;
+            pixels[level][blockId] = rgb[block];
+        }
+    }
+
+    /**
+     * Recomputes every level after level 0, for after many tiles were changed with {@link #setQuietly}.
+     */
+    public void rebuild() {
+        for (int level = 1; level < states.length; ++level) {
+            for (int row = 0; row < levelRows[level]; ++row) {
+                for (int col = 0; col < levelCols[level]; ++col) {
+                    byte block = aggregate(level, row, col);
+                    states[level][row * levelCols[level] + col] = block;
+                    pixels[level][row * levelCols[level] + col] = rgb[block];
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes the state of the tile at {@code (row, col)} without updating the levels after level 0.
+     * {@link #rebuild} has to be called before the grid is drawn again.
+     *
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param state new state
+     */
+    public void setQuietly(int row, int col, byte state) {
+        states[0][row * cols + col] = state;
+        pixels[0][row * cols + col] = rgb[state];
+    }
+
+    /**
+     * Draws the grid so that it covers the rectangle at {@code (x, y)} that is {@code width} by
+     * {@code height} pixels, which may reach far outside of {@code g}'s clip. Only the tiles inside
+     * the clip are drawn, from the level with the fewest pixels that still has no more than one per screen pixel.
+     *
+     * @param g Graphics to draw with
+     * @param x x coordinate of the left edge of the grid
+     * @param y y coordinate of the top edge of the grid
+     * @param width width of the grid in pixels
+     * @param height height of the grid in pixels
+     */
+    public void draw(Graphics g, double x, double y, double width, double height) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle((int) Math.floor(x), (int) Math.floor(y),
+                    (int) Math.ceil(width) + 1, (int) Math.ceil(height) + 1);
+        }
+        Rectangle grid = new Rectangle((int) Math.round(x), (int) Math.round(y), 0, 0);
+        grid.add((int) Math.round(x + width), (int) Math.round(y + height));
+        clip = clip.intersection(grid);
+        if (clip.isEmpty()) {
+            return;
+        }
+
+        double tilesPerPixel = Math.min(cols / width, rows / height);
+        int level = 0;
+        while (level + 1 < states.length && tilesPerPixel > 1.0) {
+            tilesPerPixel /= 2;
+            ++level;
+        }
+        double blockWidth = width / cols * (1 << level);
+        double blockHeight = height / rows * (1 << level);
+
+        int col0 = clamp((int) Math.floor((clip.x - x) / blockWidth), levelCols[level]);
+        int col1 = clamp((int) Math.ceil((clip.x + clip.width - x) / blockWidth), levelCols[level]);
+        int row0 = clamp((int) Math.floor((clip.y - y) / blockHeight), levelRows[level]);
+        int row1 = clamp((int) Math.ceil((clip.y + clip.height - y) / blockHeight), levelRows[level]);
+        if (col0 >= col1 || row0 >= row1) {
+            return;
+        }
+
+        Graphics clipped = g.create();
+        try {
+            clipped.clipRect(clip.x, clip.y, clip.width, clip.height);
+            clipped.drawImage(images[level],
+                    (int) Math.round(x + col0 * blockWidth), (int) Math.round(y + row0 * blockHeight),
+                    (int) Math.round(x + col1 * blockWidth), (int) Math.round(y + row1 * blockHeight),
+                    col0, row0, col1, row1, null);
+        } finally {
+            clipped.dispose();
+        }
+    }
+
+    private static int clamp(int value, int limit) {
+        return Math.max(0, Math.min(value, limit));
+    }
+
+    /**
+     * @return state of highest rank among the (up to) four blocks of level {@code level - 1} under
+     *         the block at {@code (row, col)} of {@code level}
+     */
+    private byte aggregate(int level, int row, int col) {
+        byte[] below = states[level - 1];
+        int belowCols = levelCols[level - 1];
+        int r0 = row << 1;
+        int c0 = col << 1;
+        boolean right = c0 + 1 < belowCols;
+        boolean down = r0 + 1 < levelRows[level - 1];
+
+        byte best = below[r0 * belowCols + c0];
+        if (right) {
+            best = higher(best, below[r0 * belowCols + c0 + 1]);
+        }
+        if (down) {
+            best = higher(best, below[(r0 + 1) * belowCols + c0]);
+            if (right) {
+                best = higher(best, below[(r0 + 1) * belowCols + c0 + 1]);
+            }
+        }
+        return best;
+    }
+
+    private byte higher(byte a, byte b) {
+        return rank[b] > rank[a] ? b : a;
+    }
+}
@@ -0,0 +1,283 @@
+package pathfinding_visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * State of every tile of a grid, one byte per tile, with no Swing in it. Renderers such as
+ * {@link TileGrid} observe a model through {@link TileModelListener}s, and tests and benchmarks can
+ * play searches onto a model without creating any components, since it is a
+ * {@link PlaybackEngine.Target}.
+ * <p>
+ * The model remembers which tiles were marked as visited or as part of a path, so
+ * {@link #clearSearch} only has to look at those, not at the whole grid.
+ */
+public class TileModel implements PlaybackEngine.Target {
+    /**
+     * Tile that can be visited
+     */
+    public static final byte CLEAR = 0;
+    /**
+     * Unvisitable wall tile
+     */
+    public static final byte WALL = 1;
+    /**
+     * Source tile
+     */
+    public static final byte SOURCE = 2;
+    /**
+     * Destination tile
+     */
+    public static final byte DEST = 3;
+    /**
+     * Tile that has been visited
+     */
+    public static final byte VISIT = 4;
+    /**
+     * Tile that's part of the shortest path
+     */
+    public static final byte PATH = 5;
+    /**
+     * Number of states a tile can be in
+     */
+    public static final int NUM_STATES = 6;
+
+    /**
+     * Character each state is written as by {@link #toString}, indexed by the state
+     */
+    private static final char[] CHARS = {'c', 'w', 's', 'd', 'v', 'p'};
+
+    private final int rows;
+    private final int cols;
+    /**
+     * State of every tile, indexed by {@code row * cols + col}
+     */
+    private final byte[] states;
+    /**
+     * Ids of tiles marked as visited or part of a path since the last {@link #clearSearch}, each once
+     */
+    private int[] touched = new int[64];
+    private int numTouched = 0;
+    /**
+     * Which ids are in {@link #touched}
+     */
+    private final BitSet isTouched;
+    private final List<TileModelListener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a {@code rows} by {@code cols} grid of clear tiles.
+     *
+     * @param rows number of rows of tiles
+     * @param cols number of columns of tiles
+     * @throws IllegalArgumentException {@code rows} or {@code cols} is less than 1
+     */
+    public TileModel(int rows, int cols) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("a grid needs at least one tile: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.states = new byte[rows * cols];
+        this.isTouched = new BitSet(rows * cols);
+    }
+
+    /**
+     * @return number of rows of tiles
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of columns of tiles
+     */
+    public int getNumCols() {
+        return cols;
+    }
+
+    /**
+     * Starts telling {@code listener} about every change to this model.
+     *
+     * @param listener TileModelListener to add
+     */
+    public void addListener(TileModelListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops telling {@code listener} about changes to this model.
+     *
+     * @param listener TileModelListener previously passed to {@link #addListener}
+     */
+    public void removeListener(TileModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param row row of a tile
+     * @param col column of a tile
+     * @return state of the tile at {@code (row, col)}
+     */
+    public byte get(int row, int col) {
+        return states[row * cols + col];
+    }
+
+    /**
+     * Changes the state of the tile at {@code (row, col)} as a batch of its own.
+     *
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param state one of the state constants of this class
+     */
+    public void set(int row, int col, byte state) {
+        if (change(row, col, state)) {
+            regionChanged(row, col, row, col);
+        }
+    }
+
+    /**
+     * Changes every tile that is in state {@code from} and whose id is set in {@code ids}, from id
+     * {@code fromId} up to but not including {@code toId}, to state {@code to}, as one batch. Tiles
+     * in any other state are left as they are, so that for example walls put up a few rows at a
+     * time don't cover the source.
+     *
+     * @param ids BitSet with the bit {@code row * cols + col} set for every tile to change
+     * @param fromId first id to look at
+     * @param toId id after the last one to look at
+     * @param from state a tile has to be in to change
+     * @param to state the tiles are changed to
+     * @return number of tiles that changed
+     */
+    public int replace(BitSet ids, int fromId, int toId, byte from, byte to) {
+        int changed = 0;
+        int minRow = Integer.MAX_VALUE;
+        int maxRow = -1;
+        for (int id = ids.nextSetBit(fromId); id >= 0 && id < toId; id = ids.nextSetBit(id + 1)) {
+            if (states[id] == from && change(id / cols, id % cols, to)) {
+                minRow = Math.min(minRow, id / cols);
+                maxRow = id / cols;
+                ++changed;
+            }
+        }
+        if (changed > 0) {
+            regionChanged(minRow, 0, maxRow, cols - 1);
+        }
+        return changed;
+    }
+
+    /**
+     * @return number of tiles that were marked as visited or part of a path since the last
+     *         {@link #clearSearch}, which is how many tiles the next clear will look at
+     */
+    public int numTouched() {
+        return numTouched;
+    }
+
+    /**
+     * Sets every tile that is visited or part of a path back to clear, looking only at tiles that
+     * were marked since the last clear.
+     */
+    public void clearSearch() {
+        int minRow = Integer.MAX_VALUE;
+        int minCol = Integer.MAX_VALUE;
+        int maxRow = -1;
+        int maxCol = -1;
+        for (int i = 0; i < numTouched; ++i) {
+            int id = touched[i];
+            isTouched.clear(id);
+            if (states[id] == VISIT || states[id] == PATH) {
+                int row = id / cols;
+                int col = id % cols;
+                change(row, col, CLEAR);
+                minRow = Math.min(minRow, row);
+                minCol = Math.min(minCol, col);
+                maxRow = Math.max(maxRow, row);
+                maxCol = Math.max(maxCol, col);
+            }
+        }
+        numTouched = 0;
+        if (maxRow >= 0) {
+            regionChanged(minRow, minCol, maxRow, maxCol);
+        }
+    }
+
+    /**
+     * Marks the tile at {@code (row, col)} as visited or part of the path, as one change of a batch
+     * that ends with {@link #repaintTiles}.
+     */
+    @Override
+    public byte mark(int row, int col, int opcode) {
+        byte before = states[row * cols + col];
+        change(row, col, opcode == SearchTrace.VISIT ? VISIT : PATH);
+        return before;
+    }
+
+    /**
+     * Puts the tile at {@code (row, col)} back in {@code state}, as one change of a batch that ends
+     * with {@link #repaintTiles}.
+     */
+    @Override
+    public void restore(int row, int col, byte state) {
+        change(row, col, state);
+    }
+
+    /**
+     * Ends a batch of changes made by a {@link PlaybackEngine}.
+     */
+    @Override
+    public void repaintTiles(int minRow, int minCol, int maxRow, int maxCol) {
+        regionChanged(minRow, minCol, maxRow, maxCol);
+    }
+
+    /**
+     * Creates the String representation of this model by converting each tile into a character
+     * that represents its state, one line per row. See {@link TileGrid#toString}.
+     *
+     * @return String representation of this model
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[rows * (cols + 2)];
+        int i = 0;
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                chars[i++] = CHARS[states[row * cols + col]];
+            }
+            chars[i++] = ' ';
+            chars[i++] = '\n';
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Changes the state of a tile, remembers it if it is now marked, and tells the listeners.
+     *
+     * @return {@code true} if the state changed
+     */
+    private boolean change(int row, int col, byte state) {
+        int id = row * cols + col;
+        if (states[id] == state) {
+            return false;
+        }
+        states[id] = state;
+        if ((state == VISIT || state == PATH) && !isTouched.get(id)) {
+            isTouched.set(id);
+            if (numTouched == touched.length) {
+                touched = Arrays.copyOf(touched, 2 * numTouched);
+            }
+            touched[numTouched++] = id;
+        }
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).tileChanged(this, row, col, state);
+        }
+        return true;
+    }
+
+    private void regionChanged(int minRow, int minCol, int maxRow, int maxCol) {
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).regionChanged(this, minRow, minCol, maxRow, maxCol);
+        }
+    }
+}
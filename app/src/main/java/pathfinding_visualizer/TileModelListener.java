@@ -0,0 +1,30 @@
+package pathfinding_visualizer;
+
+/**
+ * Listens for tiles of a {@link TileModel} changing state. Register one with
+ * {@link TileModel#addListener}.
+ */
+public interface TileModelListener {
+    /**
+     * Called after the state of a tile changes. Not called if a tile is set to the state it
+     * already had. A batch of changes is followed by one call to {@link #regionChanged}.
+     *
+     * @param model TileModel the tile is in
+     * @param row row of the tile
+     * @param col column of the tile
+     * @param state new state of the tile, one of the {@link TileModel} constants
+     */
+    void tileChanged(TileModel model, int row, int col, byte state);
+
+    /**
+     * Called after a batch of changes, with a box that holds every tile the batch changed, for
+     * example so that the box can be repainted once.
+     *
+     * @param model TileModel the tiles are in
+     * @param minRow first row that changed
+     * @param minCol first column that changed
+     * @param maxRow last row that changed
+     * @param maxCol last column that changed
+     */
+    void regionChanged(TileModel model, int minRow, int minCol, int maxRow, int maxCol);
+}
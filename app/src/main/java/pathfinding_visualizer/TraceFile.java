@@ -0,0 +1,393 @@
+package pathfinding_visualizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@link SearchTrace} recorded to a file and read back through a memory mapping, so that traces
+ * of tens of millions of steps can be replayed without holding them on the heap.
+ * <p>
+ * Every coordinate is stored as the difference from the coordinate before it, zigzag encoded
+ * as a variable length integer, so most visits take two bytes. Every
+ * {@link #DEFAULT_INDEX_INTERVAL} steps, the byte offset of the step and the coordinate before it
+ * are written to an index at the end of the file. Seeking to any step reads one index entry and
+ * decodes at most one interval of steps, so it takes constant time.
+ * <p>
+ * The file starts with a header of {@value #HEADER_BYTES} bytes: a magic number, the index
+ * interval, the number of steps, the offset of the index, and the number of index entries. Each
+ * step is then either
+ * <ul>
+ * <li>a visit: {@code varint(zigzag(dRow) << 1)}, {@code varint(zigzag(dCol))}
+ * <li>a path: {@code varint(length << 1 | 1)}, followed by {@code length} pairs of
+ * {@code varint(zigzag(dRow))}, {@code varint(zigzag(dCol))}
+ * </ul>
+ * Files are mapped in one piece, so they can't be larger than 2 GB.
+ */
+public class TraceFile {
+    /**
+     * Number of steps between index entries if no other number is given
+     */
+    public static final int DEFAULT_INDEX_INTERVAL = 1024;
+    /**
+     * Size of the header at the start of every trace file
+     */
+    public static final int HEADER_BYTES = 32;
+
+    private static final int MAGIC = 0x54524331; // "TRC1"
+    /**
+     * Size of an index entry: a byte offset and the coordinate that comes before the indexed step
+     */
+    private static final int INDEX_ENTRY_BYTES = 16;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final MappedByteBuffer data;
+    private final long numSteps;
+    private final int interval;
+    private final int indexOffset;
+
+    private TraceFile(MappedByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("not a trace file");
+        }
+        this.interval = data.getInt(4);
+        this.numSteps = data.getLong(8);
+        long offset = data.getLong(16);
+        int entries = data.getInt(24);
+        if (interval < 1 || numSteps < 0 || offset < HEADER_BYTES
+                || offset + (long) entries * INDEX_ENTRY_BYTES > data.capacity()
+                || entries != (numSteps + interval - 1) / interval) {
+            throw new IOException("corrupt trace file header");
+        }
+        this.indexOffset = (int) offset;
+    }
+
+    /**
+     * Runs {@code source} to the end, writing every step to {@code file} as it is produced, with an
+     * index entry every {@link #DEFAULT_INDEX_INTERVAL} steps. At most one step is held in memory at
+     * a time.
+     *
+     * @param source TraceSource whose steps are recorded, such as a {@link SearchStepper}
+     * @param file file to write, replaced if it exists
+     * @return number of steps written
+     * @throws IOException {@code file} can't be written
+     */
+    public static long record(TraceSource source, Path file) throws IOException {
+        return record(source, file, DEFAULT_INDEX_INTERVAL);
+    }
+
+    /**
+     * Runs {@code source} to the end, writing every step to {@code file} as it is produced.
+     *
+     * @param source TraceSource whose steps are recorded
+     * @param file file to write, replaced if it exists
+     * @param indexInterval number of steps between index entries
+     * @return number of steps written
+     * @throws IOException {@code file} can't be written
+     * @throws IllegalArgumentException {@code indexInterval} is less than 1
+     */
+    public static long record(TraceSource source, Path file, int indexInterval) throws IOException {
+        if (indexInterval < 1) {
+            throw new IllegalArgumentException("index interval must be positive: " + indexInterval);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel, indexInterval);
+            SearchTrace step = new SearchTrace();
+            while (source.step(step)) {
+                writer.write(step);
+                step.clear();
+            }
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Writes every step of {@code trace} to {@code file}.
+     *
+     * @param trace SearchTrace to write
+     * @param file file to write, replaced if it exists
+     * @return number of steps written
+     * @throws IOException {@code file} can't be written
+     */
+    public static long record(SearchTrace trace, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel, DEFAULT_INDEX_INTERVAL);
+            writer.write(trace);
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Maps a trace file written by {@link #record} into memory. The mapping stays valid after this
+     * method returns, and is released once the TraceFile is no longer used.
+     *
+     * @param file trace file to read
+     * @return the mapped TraceFile
+     * @throws IOException {@code file} can't be read, is too large to map, or isn't a trace file
+     */
+    public static TraceFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("trace file is too large to map: " + channel.size() + " bytes");
+            }
+            return new TraceFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return number of steps in this trace
+     */
+    public long numSteps() {
+        return numSteps;
+    }
+
+    /**
+     * @param step index of the first step the cursor will read, between 0 and {@link #numSteps}
+     * @return a new Cursor that reads this trace from {@code step} on
+     */
+    public Cursor cursor(long step) {
+        Cursor cursor = new Cursor();
+        cursor.seek(step);
+        return cursor;
+    }
+
+    /**
+     * Reads the steps of a {@link TraceFile} in order, starting anywhere. Cursors only read the
+     * mapping, so any number of them can read the same file on different threads.
+     */
+    public final class Cursor implements TraceSource {
+        /**
+         * Index of the next step this cursor will read
+         */
+        private long step;
+        /**
+         * Byte offset of the next step this cursor will read
+         */
+        private int position;
+        private int prevRow;
+        private int prevCol;
+
+        private Cursor() {
+        }
+
+        /**
+         * @return index of the next step this cursor will read
+         */
+        public long getStep() {
+            return step;
+        }
+
+        /**
+         * Moves this cursor to {@code target} by jumping to the index entry at or before it, then
+         * skipping fewer than one interval of steps.
+         *
+         * @param target index of the next step this cursor will read, between 0 and {@link #numSteps}
+         * @throws IndexOutOfBoundsException {@code target} is outside of the trace
+         */
+        public void seek(long target) {
+            if (target < 0 || target > numSteps) {
+                throw new IndexOutOfBoundsException("step " + target + " of " + numSteps);
+            }
+            if (target == numSteps) {
+                step = numSteps;
+                return;
+            }
+            int entry = indexOffset + (int) (target / interval) * INDEX_ENTRY_BYTES;
+            position = (int) data.getLong(entry);
+            prevRow = data.getInt(entry + 8);
+            prevCol = data.getInt(entry + 12);
+            step = target - target % interval;
+            while (step < target) {
+                skip();
+            }
+        }
+
+        /**
+         * Decodes the next step of the trace into {@code trace}.
+         */
+        @Override
+        public boolean step(SearchTrace trace) {
+            if (step >= numSteps) {
+                return false;
+            }
+            int tag = readVarint();
+            if ((tag & 1) == 0) {
+                move(tag >>> 1);
+                trace.addVisit(prevRow, prevCol);
+            } else {
+                trace.beginPath();
+                for (int i = tag >>> 1; i > 0; --i) {
+                    move(readVarint());
+                    trace.addPathTile(prevRow, prevCol);
+                }
+                trace.endPath();
+            }
+            ++step;
+            return true;
+        }
+
+        /**
+         * Moves past the next step without decoding it into a trace.
+         */
+        private void skip() {
+            int tag = readVarint();
+            if ((tag & 1) == 0) {
+                move(tag >>> 1);
+            } else {
+                for (int i = tag >>> 1; i > 0; --i) {
+                    move(readVarint());
+                }
+            }
+            ++step;
+        }
+
+        /**
+         * Reads the column difference of a coordinate and moves the previous coordinate by it and
+         * by {@code zigzagRow}, the row difference that was already read.
+         */
+        private void move(int zigzagRow) {
+            prevRow += unzigzag(zigzagRow);
+            prevCol += unzigzag(readVarint());
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams encoded steps to a FileChannel through a small buffer, and keeps the index in memory
+     * until the end, when it is appended and the header is filled in.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final int interval;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+        /**
+         * Byte offset in the file of the next byte written
+         */
+        private long offset = HEADER_BYTES;
+        private long numSteps = 0;
+        private int prevRow = 0;
+        private int prevCol = 0;
+        private long[] indexOffsets = new long[16];
+        private int[] indexCoords = new int[32];
+        private int indexEntries = 0;
+
+        Writer(FileChannel channel, int interval) throws IOException {
+            this.channel = channel;
+            this.interval = interval;
+            channel.position(HEADER_BYTES);
+        }
+
+        /**
+         * Encodes every step of {@code trace}.
+         */
+        void write(SearchTrace trace) throws IOException {
+            for (int i = 0; i < trace.size(); i = trace.nextStep(i)) {
+                if (numSteps % interval == 0) {
+                    addIndexEntry();
+                }
+                int word = trace.word(i);
+                if (SearchTrace.opcode(word) == SearchTrace.VISIT) {
+                    int row = SearchTrace.row(word);
+                    int col = SearchTrace.col(word);
+                    writeVarint(zigzag(row - prevRow) << 1);
+                    writeVarint(zigzag(col - prevCol));
+                    prevRow = row;
+                    prevCol = col;
+                } else {
+                    int length = SearchTrace.pathLength(word);
+                    writeVarint(length << 1 | 1);
+                    for (int j = i + 1; j <= i + length; ++j) {
+                        int row = SearchTrace.row(trace.word(j));
+                        int col = SearchTrace.col(trace.word(j));
+                        writeVarint(zigzag(row - prevRow));
+                        writeVarint(zigzag(col - prevCol));
+                        prevRow = row;
+                        prevCol = col;
+                    }
+                }
+                ++numSteps;
+            }
+        }
+
+        /**
+         * Appends the index, writes the header, and returns the number of steps written.
+         */
+        long finish() throws IOException {
+            long indexOffset = offset;
+            for (int i = 0; i < indexEntries; ++i) {
+                ensureRoom(INDEX_ENTRY_BYTES);
+                buffer.putLong(indexOffsets[i]);
+                buffer.putInt(indexCoords[2 * i]);
+                buffer.putInt(indexCoords[2 * i + 1]);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(interval).putLong(numSteps).putLong(indexOffset).putInt(indexEntries);
+            header.rewind();
+            channel.write(header, 0);
+            return numSteps;
+        }
+
+        private void addIndexEntry() {
+            if (indexEntries == indexOffsets.length) {
+                indexOffsets = Arrays.copyOf(indexOffsets, 2 * indexEntries);
+                indexCoords = Arrays.copyOf(indexCoords, 4 * indexEntries);
+            }
+            indexOffsets[indexEntries] = offset;
+            indexCoords[2 * indexEntries] = prevRow;
+            indexCoords[2 * indexEntries + 1] = prevCol;
+            ++indexEntries;
+        }
+
+        private void writeVarint(int value) throws IOException {
+            ensureRoom(5);
+            int start = buffer.position();
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+            offset += buffer.position() - start;
+        }
+
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static int unzigzag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
@@ -0,0 +1,16 @@
+package pathfinding_visualizer;
+
+/**
+ * Anything that hands out the steps of a {@link SearchTrace} one at a time, such as a search that
+ * is still running ({@link SearchStepper}) or a trace being read back from a file
+ * ({@link TraceFile.Cursor}).
+ */
+public interface TraceSource {
+    /**
+     * Adds the next step to {@code trace}.
+     *
+     * @param trace SearchTrace the next step is added to
+     * @return {@code true} if a step was added, {@code false} if there are no steps left
+     */
+    boolean step(SearchTrace trace);
+}
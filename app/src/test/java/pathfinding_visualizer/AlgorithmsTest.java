@@ -2,6 +2,11 @@ package pathfinding_visualizer;
 
 import static org.junit.Assert.*;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Test;
@@ -10,8 +15,8 @@ import org.junit.Test;
  * Tests features of {@link Algorithms}.
  */
 public class AlgorithmsTest {
-    private Pair<Integer, Integer> source = new Pair<>(0, 0);
-    private Pair<Integer, Integer> dest = new Pair<>(9, 9);
+    private long source = Coord.of(0, 0);
+    private long dest = Coord.of(9, 9);
     private TileGraph noWalls = new TileGraph(10, 10, false);
     private TileGraph noWallsDiag = new TileGraph(10, 10, true);
     private TileGraph impossible = makeImpossible();
@@ -133,15 +138,15 @@ public class AlgorithmsTest {
         TileGraph g = new TileGraph(10, 10, false);
         Random random = new Random(2021);
         FileWriter out = new FileWriter(outDir + "out.txt");
-        String s = Algorithms.makeMaze(source, dest, g, random).toString();
+        String s = wallCoords(Algorithms.makeMaze(source, dest, g, random), 10);
         out.write(s);
         out.close();
         fileEquality("out.txt", "10x10_maze.txt");
 
         g = new TileGraph(10, 10, false);
         random = new Random(2021);
-        out = new FileWriter("out.txt");
-        s = Algorithms.makeMaze(dest, source, g, random).toString();
+        out = new FileWriter(outDir + "out.txt");
+        s = wallCoords(Algorithms.makeMaze(dest, source, g, random), 10);
         out.write(s);
         out.close();
         fileEquality("out.txt", "10x10_maze2.txt");
@@ -149,14 +154,272 @@ public class AlgorithmsTest {
 
         g = new TileGraph(10, 10, false);
         random = new Random(2021);
-        out = new FileWriter("out.txt");
-        Pair<Integer, Integer> source2 = new Pair<>(2, 2);
-        s = Algorithms.makeMaze(source2, dest, g, random).toString();
+        out = new FileWriter(outDir + "out.txt");
+        long source2 = Coord.of(2, 2);
+        s = wallCoords(Algorithms.makeMaze(source2, dest, g, random), 10);
         out.write(s);
         out.close();
         fileEquality("out.txt", "10x10_maze3.txt");
     }
 
+    /**
+     * @return coordinates of the walls set in {@code walls}, in the order of their ids, like
+     *         {@code "[(0, 0), (0, 1)]"}
+     */
+    private static String wallCoords(BitSet walls, int cols) {
+        List<String> coords = new ArrayList<>();
+        for (int id = walls.nextSetBit(0); id >= 0; id = walls.nextSetBit(id + 1)) {
+            coords.add(Coord.toString(Coord.of(id / cols, id % cols)));
+        }
+        return coords.toString();
+    }
+
+    /**
+     * Checks that the walls made without a TileGraph are the mazes in "AlgorithmsTestResults" for
+     * the seeds {@link #mazeTest} uses, and that for grids of both parities and sources on and off
+     * the wall grid they never wall off the source or destination and always connect the two.
+     *
+     * @throws IOException one of the files does not exist
+     */
+    @Test
+    public void mazeWalls() throws IOException {
+        long source2 = Coord.of(2, 2);
+        assertEquals(readResult("10x10_maze.txt").toString(),
+                wallCoords(Algorithms.makeMazeWalls(10, 10, source, dest, new Random(2021)), 10));
+        assertEquals(readResult("10x10_maze2.txt").toString(),
+                wallCoords(Algorithms.makeMazeWalls(10, 10, dest, source, new Random(2021)), 10));
+        assertEquals(readResult("10x10_maze3.txt").toString(),
+                wallCoords(Algorithms.makeMazeWalls(10, 10, source2, dest, new Random(2021)), 10));
+
+        int[][] cases = {{10, 10, 0, 0}, {11, 17, 5, 4}, {30, 31, 29, 30}, {4, 4, 3, 0}};
+        Random random = new Random(7);
+        for (int[] c : cases) {
+            for (int trial = 0; trial < 10; ++trial) {
+                long from = Coord.of(c[2], c[3]);
+                long to = Coord.of(random.nextInt(c[0]), random.nextInt(c[1]));
+                BitSet walls = Algorithms.makeMazeWalls(c[0], c[1], from, to, random);
+                assertFalse(walls.get(c[2] * c[1] + c[3]));
+                assertFalse(walls.get(Coord.row(to) * c[1] + Coord.col(to)));
+
+                TileGraph g = new TileGraph(c[0], c[1], false);
+                g.setWalls(walls);
+                assertTrue(shortestDistance(g, from, to) >= 0);
+            }
+        }
+    }
+
+    /**
+     * Runs Djikstra's Algorithm and A* on randomly walled TileGraphs that allow diagonal
+     * traversal, and checks that the length of each path they find equals the true
+     * shortest distance computed by {@link #shortestDistance}.
+     */
+    @Test
+    public void optimalDiagonalPaths() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = randomGraph(12, 12, true, random);
+            double expected = shortestDistance(g, source, dest);
+
+            assertEquals(expected, pathLength(Algorithms.djikstra(source, dest, g)), 1e-9);
+            assertEquals(expected, pathLength(Algorithms.aStar(source, dest, g)), 1e-9);
+        }
+    }
+
+    /**
+     * Runs Djikstra's Algorithm with a bucket queue on the same TileGraphs as {@link #djikstraTest}
+     * and on randomly walled ones. Nodes at equal distances may come out of the buckets in another
+     * order than out of a heap, so instead of the exact output, the length of the path must match
+     * Djikstra's Algorithm, and so must the visited tiles wherever the whole graph gets searched.
+     * 
+     * @throws IOException one of the files does not exist
+     */
+    @Test
+    public void dialDjikstraTest() throws IOException {
+        List<String> grid = Algorithms.dialDjikstra(source, dest, noWalls);
+        assertEquals(pathLength(readResult("djikstra_grid.txt")), pathLength(grid), 1e-9);
+
+        List<String> diag = Algorithms.dialDjikstra(source, dest, noWallsDiag);
+        List<String> expectedDiag = readResult("djikstra_diag.txt");
+        assertEquals(pathLength(expectedDiag), pathLength(diag), 1e-9);
+        assertEquals(new HashSet<>(expectedDiag), new HashSet<>(diag));
+
+        List<String> imp = Algorithms.dialDjikstra(source, dest, impossible);
+        assertEquals(new HashSet<>(readResult("djikstra_imp.txt")), new HashSet<>(imp));
+        assertEquals(-1, pathLength(imp), 0);
+
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = randomGraph(12, 12, trial % 2 == 0, random);
+            assertEquals(pathLength(Algorithms.djikstra(source, dest, g)), pathLength(Algorithms.dialDjikstra(source, dest, g)), 1e-9);
+        }
+    }
+
+    /**
+     * Runs Jump Point Search, with and without a {@link JumpTable}, on randomly walled TileGraphs
+     * with and without diagonal traversal. Every path found must be as short as the one found by
+     * Djikstra's Algorithm, and both versions of JPS must do exactly the same thing. Walls are
+     * changed between searches so the JumpTable has to update itself.
+     */
+    @Test
+    public void jpsTest() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = randomGraph(12, 12, trial % 2 == 0, random);
+            JumpTable table = new JumpTable(g);
+
+            for (int edit = 0; edit < 5; ++edit) {
+                List<String> expected = Algorithms.djikstra(source, dest, g);
+                List<String> jps = Algorithms.jps(source, dest, g);
+
+                assertEquals(pathLength(expected), pathLength(jps), 1e-9);
+                assertEquals(jps, Algorithms.jps(source, dest, table));
+                assertTrue(jps.size() <= expected.size());
+
+                g.setNodeReachability(1 + random.nextInt(8), 1 + random.nextInt(8), random.nextBoolean());
+            }
+        }
+
+        String impossibleJps = Algorithms.jps(source, dest, impossible).toString();
+        assertFalse(impossibleJps.contains("path"));
+    }
+
+    /**
+     * Runs bidirectional BFS and bidirectional A*, on one thread and on two, on randomly walled
+     * TileGraphs. Bidirectional BFS must find paths with as few steps as BFS, and bidirectional
+     * A* must find paths as short as Djikstra's Algorithm.
+     */
+    @Test
+    public void bidirectionalTest() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = randomGraph(12, 12, trial % 2 == 0, random);
+            boolean parallel = trial % 4 < 2;
+
+            List<String> bfs = Algorithms.bfs(source, dest, g);
+            List<String> biBfs = Algorithms.bidirectionalBfs(source, dest, g, parallel);
+            assertEquals(pathSteps(bfs), pathSteps(biBfs));
+
+            double expected = pathLength(Algorithms.djikstra(source, dest, g));
+            assertEquals(expected, pathLength(Algorithms.bidirectionalAStar(source, dest, g, parallel)), 1e-9);
+        }
+
+        assertEquals(18, pathSteps(Algorithms.bidirectionalBfs(source, dest, noWalls, false)));
+        assertEquals(9, pathSteps(Algorithms.bidirectionalBfs(source, dest, noWallsDiag, true)));
+        assertEquals(-1, pathSteps(Algorithms.bidirectionalBfs(source, dest, impossible, false)));
+        assertEquals(-1, pathLength(Algorithms.bidirectionalAStar(source, dest, impossible, true)), 0);
+    }
+
+    /**
+     * Creates a TileGraph where roughly a third of the tiles are walls. {@code source} and
+     * {@code dest} are never walls.
+     *
+     * @param rows number of rows in the graph
+     * @param cols number of columns in the graph
+     * @param diagonal whether the graph allows diagonal traversal
+     * @param random Random that decides where the walls go
+     * @return TileGraph with random walls
+     */
+    static TileGraph randomGraph(int rows, int cols, boolean diagonal, Random random) {
+        TileGraph g = new TileGraph(rows, cols, diagonal);
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                if (random.nextInt(3) == 0) {
+                    g.setNodeReachability(row, col, false);
+                }
+            }
+        }
+        g.setNodeReachability(0, 0, true);
+        g.setNodeReachability(9, 9, true);
+        return g;
+    }
+
+    /**
+     * Finds the shortest distance between two tiles by relaxing every edge until no distance changes.
+     *
+     * @param g TileGraph being searched
+     * @param from location of the first tile
+     * @param to location of the second tile
+     * @return length of the shortest path, or -1 if there is none
+     */
+    static double shortestDistance(TileGraph g, long from, long to) {
+        double[] dist = new double[g.numNodes()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[g.getId(from)] = 0;
+        int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int id = 0; id < g.numNodes(); ++id) {
+                int count = g.getNeighbors(id, neighbors);
+                for (int i = 0; i < count; ++i) {
+                    double d = dist[id] + g.getWeight(id, neighbors[i]);
+                    if (d < dist[neighbors[i]] - 1e-12) {
+                        dist[neighbors[i]] = d;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        double d = dist[g.getId(to)];
+        return d == Double.POSITIVE_INFINITY ? -1 : d;
+    }
+
+    /**
+     * Sums the weights of the path in the last action of {@code actions}.
+     *
+     * @param actions output of a pathfinding algorithm
+     * @return length of the path, or -1 if the algorithm found no path
+     */
+    static double pathLength(List<String> actions) {
+        if (actions.isEmpty() || !actions.get(actions.size() - 1).startsWith("path")) {
+            return -1;
+        }
+        String[] args = actions.get(actions.size() - 1).split(" ");
+        double length = 0;
+        for (int i = 3; i < args.length; i += 2) {
+            int rowDiff = Math.abs(Integer.parseInt(args[i]) - Integer.parseInt(args[i - 2]));
+            int colDiff = Math.abs(Integer.parseInt(args[i + 1]) - Integer.parseInt(args[i - 1]));
+            length += (rowDiff + colDiff == 2) ? Math.sqrt(2) : 1;
+        }
+        return length;
+    }
+
+    /**
+     * Counts the steps of the path in the last action of {@code actions}.
+     *
+     * @param actions output of a pathfinding algorithm
+     * @return number of steps in the path, or -1 if the algorithm found no path
+     */
+    static int pathSteps(List<String> actions) {
+        if (actions.isEmpty() || !actions.get(actions.size() - 1).startsWith("path")) {
+            return -1;
+        }
+        return actions.get(actions.size() - 1).split(" ").length / 2 - 1;
+    }
+
+    /**
+     * Reads the output of a pathfinding algorithm from a file in the "AlgorithmsTestResults" directory.
+     *
+     * @param file name of the file
+     * @return List of Strings the file holds
+     * @throws IOException the file does not exist
+     */
+    private List<String> readResult(String file) throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(resDir + file));
+        StringBuilder sb = new StringBuilder();
+        String s;
+        while ((s = in.readLine()) != null) {
+            sb.append(s);
+        }
+        in.close();
+
+        String list = sb.toString().trim();
+        list = list.substring(1, list.length() - 1);
+        return list.isEmpty() ? new ArrayList<>() : Arrays.asList(list.split(", "));
+    }
+
     private void fileEquality(String file1, String file2) throws IOException {
         BufferedReader in1 = new BufferedReader(new FileReader(outDir + file1));
         BufferedReader in2 = new BufferedReader(new FileReader(resDir + file2));
@@ -0,0 +1,99 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link BucketQueue} class.
+ */
+public class BucketQueueTest {
+
+    /**
+     * Tests that buckets come out in key order, and ids in the same bucket in the order they went in.
+     */
+    @Test
+    public void popByBucketThenFifo() {
+        BucketQueue queue = new BucketQueue(6);
+        assertTrue(queue.isEmpty());
+
+        queue.push(5, 1.2);
+        queue.push(3, 2.5);
+        queue.push(0, 1.9);
+        queue.push(1, 3.0);
+        queue.push(4, 2.0);
+        assertEquals(5, queue.size());
+        assertEquals(5, queue.peek());
+
+        assertEquals(5, queue.pop());
+        assertEquals(0, queue.pop());
+        assertEquals(3, queue.pop());
+        assertEquals(4, queue.pop());
+        assertEquals(1, queue.pop());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Tests that lowering the key of an id moves it to the back of its new bucket, that a
+     * larger key is ignored, and that the ring of buckets is reused as keys grow.
+     */
+    @Test
+    public void decreaseKeyAndWrapAround() {
+        BucketQueue queue = new BucketQueue(4);
+        queue.push(0, 10.5);
+        queue.push(1, 12.2);
+        queue.push(2, 10.1);
+
+        queue.push(1, 10.7);
+        assertEquals(3, queue.size());
+        assertEquals(10.7, queue.getKey(1), 0);
+        queue.push(1, 13.0);
+        assertEquals(10.7, queue.getKey(1), 0);
+
+        assertEquals(0, queue.pop());
+        queue.push(3, 13.4); // bucket 13 shares a slot with the empty bucket 9
+        assertEquals(2, queue.pop());
+        assertEquals(1, queue.pop());
+        assertFalse(queue.contains(1));
+        assertEquals(3, queue.pop());
+
+        queue.push(0, 1000.0); // an empty queue starts over at any key
+        assertEquals(0, queue.pop());
+    }
+
+    /**
+     * Tests that invalid operations throw exceptions and that clearing empties the queue.
+     */
+    @Test
+    public void invalidOperationsAndClear() {
+        BucketQueue queue = new BucketQueue(3, 0.5);
+        queue.push(2, 1.0);
+        queue.push(0, 0.2); // below the lowest bucket, goes into it
+
+        try {
+            queue.push(1, 3.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, 4 buckets past the lowest one
+        }
+        try {
+            new BucketQueue(3, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, buckets need a width
+        }
+
+        assertEquals(2, queue.pop());
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.contains(0));
+        try {
+            queue.pop();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected, queue is empty
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link CommandBatch} class.
+ */
+public class CommandBatchTest {
+
+    /**
+     * Target that writes down every call it gets.
+     */
+    private static class Recorder implements CommandBatch.Target {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void configure(int rows, int cols, Boolean diagonal, List<Command> moves) {
+            calls.add("configure " + rows + " " + cols + " " + diagonal + " " + moves);
+        }
+
+        @Override
+        public void apply(Command command) {
+            calls.add(command.toString());
+        }
+    }
+
+    private static CommandBatch batch(String... messages) {
+        CommandBatch batch = new CommandBatch(4, 100);
+        for (String message : messages) {
+            batch.add(Command.parse(message));
+        }
+        return batch;
+    }
+
+    private static List<String> apply(CommandBatch batch) {
+        Recorder recorder = new Recorder();
+        batch.applyTo(recorder);
+        assertEquals(batch.numApplied(), recorder.calls.size());
+        return recorder.calls;
+    }
+
+    /**
+     * Tests that a run of settings is applied as one call, keeping only the last valid size of each
+     * axis and the last diagonal, and every move in order.
+     */
+    @Test
+    public void collapseSettings() {
+        CommandBatch batch = batch("resize row 10", "resize col 7", "source col 3", "resize row 30",
+                "diagonal true", "resize row 1000", "destination row 0", "source row 2", "diagonal false");
+        assertEquals(9, batch.size());
+        List<String> calls = apply(batch);
+        assertEquals(1, calls.size());
+        assertEquals("configure 30 7 false [source col 3, destination row 0, source row 2]", calls.get(0));
+    }
+
+    /**
+     * Tests that actions split settings into runs, and that an action repeated with nothing in
+     * between is only applied once, unless it is a playback control.
+     */
+    @Test
+    public void actionsEndRuns() {
+        List<String> calls = apply(batch("resize row 10", "search BFS 5", "search DFS 5", "clear", "clear",
+                "resize col 9", "maze 1", "playback step", "playback step", "search A* 5", "resize row 5",
+                "search A* 5"));
+
+        List<String> expected = new ArrayList<>();
+        expected.add("configure 10 -1 null []");
+        expected.add("search DFS 5");
+        expected.add("clear");
+        expected.add("configure -1 9 null []");
+        expected.add("maze 1");
+        expected.add("playback step");
+        expected.add("playback step");
+        expected.add("search A* 5");
+        expected.add("configure 5 -1 null []");
+        expected.add("search A* 5");
+        assertEquals(expected, calls);
+    }
+
+    /**
+     * Tests that a batch remembers when each command it was given was made, collapsed or not.
+     */
+    @Test
+    public void remembersWhenCommandsWereMade() {
+        CommandBatch batch = new CommandBatch(4, 100);
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            commands.add(new Command.Resize(Command.Axis.ROW, 10 + i));
+            batch.add(commands.get(i));
+        }
+        assertEquals(40, batch.size());
+        assertEquals(1, batch.numApplied());
+        for (int i = 0; i < 40; ++i) {
+            assertEquals(commands.get(i).madeNanos, batch.madeNanos(i));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link CommandLatency} class.
+ */
+public class CommandLatencyTest {
+
+    /**
+     * Tests the counts, the mean and max, and that percentiles are bounded by the next power of two.
+     */
+    @Test
+    public void countsAndPercentiles() {
+        CommandLatency latency = new CommandLatency();
+        assertEquals(0, latency.percentileNanos(0.5));
+        assertEquals(0, latency.getMeanNanos());
+
+        for (int i = 0; i < 98; ++i) {
+            latency.record(1000);
+        }
+        latency.record(70_000);
+        latency.record(3_000_000);
+        latency.recordBatch(2);
+        latency.recordBatch(1);
+
+        assertEquals(100, latency.getCount());
+        assertEquals(2, latency.getNumBatches());
+        assertEquals(3, latency.getNumApplied());
+        assertEquals((98 * 1000 + 70_000 + 3_000_000) / 100, latency.getMeanNanos());
+        assertEquals(3_000_000, latency.getMaxNanos());
+        assertEquals(1024, latency.percentileNanos(0.5));
+        assertEquals(1024, latency.percentileNanos(0.98));
+        assertEquals(131072, latency.percentileNanos(0.99));
+        assertEquals(4194304, latency.percentileNanos(1));
+
+        latency.reset();
+        assertEquals(0, latency.getCount());
+        assertEquals(0, latency.getMaxNanos());
+        assertEquals(0, latency.percentileNanos(1));
+    }
+}
@@ -0,0 +1,69 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link Command} class.
+ */
+public class CommandTest {
+
+    /**
+     * Tests that every kind of command is read back as what it was written as.
+     */
+    @Test
+    public void parseWhatIsWritten() {
+        String[] messages = {
+            "resize row 30", "resize col 7", "source row 2", "source col 0", "destination row 19",
+            "destination col 4", "diagonal true", "diagonal false", "search D*Lite 5", "clear",
+            "erase", "maze 1234567890123", "playback pause", "playback reverse", "flowfield true"
+        };
+        for (String message : messages) {
+            assertEquals(message, Command.parse(message).toString());
+        }
+    }
+
+    /**
+     * Tests that parsing makes the right kind of command with the right fields.
+     */
+    @Test
+    public void parseFields() {
+        Command.Resize resize = (Command.Resize) Command.parse("resize row 30");
+        assertEquals(Command.Axis.ROW, resize.axis);
+        assertEquals(30, resize.size);
+
+        Command.MoveDest dest = (Command.MoveDest) Command.parse("destination col 4");
+        assertEquals(Command.Axis.COL, dest.axis);
+        assertEquals(4, dest.position);
+
+        Command.Search search = (Command.Search) Command.parse("search A* 12");
+        assertEquals("A*", search.algorithm);
+        assertEquals(12, search.stepLengthMillis);
+
+        assertEquals(Command.Control.FASTER, ((Command.Playback) Command.parse("playback faster")).control);
+        assertTrue(Command.parse("clear") instanceof Command.Clear);
+    }
+
+    /**
+     * Tests that Strings that aren't commands are rejected.
+     */
+    @Test
+    public void invalidCommands() {
+        String[] messages = {"paint red", "resize row x", "playback rewind", ""};
+        for (String message : messages) {
+            try {
+                Command.parse(message);
+                fail(message);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        try {
+            Command.parse("resize row");
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected, missing the size
+        }
+    }
+}
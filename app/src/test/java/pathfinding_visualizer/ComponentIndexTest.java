@@ -0,0 +1,233 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ComponentIndex} class.
+ */
+public class ComponentIndexTest {
+    /**
+     * Tests that the components match the ones found by flooding the graph, as walls are put up and
+     * taken down one at a time and in batches, with and without diagonal traversal.
+     */
+    @Test
+    public void matchesFlood() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 20; ++trial) {
+            TileGraph g = new TileGraph(15, 17, trial % 2 == 0);
+            for (int id = 0; id < g.numNodes(); ++id) {
+                g.setNodeReachability(g.getRow(id), g.getCol(id), random.nextDouble() > 0.35);
+            }
+            ComponentIndex index = new ComponentIndex(g);
+            assertSameComponents(g, index);
+
+            for (int edit = 0; edit < 60; ++edit) {
+                if (edit % 5 == 0) {
+                    BitSet ids = new BitSet();
+                    for (int i = 0; i < 4; ++i) {
+                        ids.set(random.nextInt(g.numNodes()));
+                    }
+                    g.setReachability(ids, random.nextBoolean());
+                } else {
+                    g.setNodeReachability(random.nextInt(15), random.nextInt(17), random.nextDouble() > 0.5);
+                }
+                if (edit % 3 == 0) {
+                    assertSameComponents(g, index);
+                }
+            }
+            g.makeEdges(!g.diagonalsConnected());
+            assertSameComponents(g, index);
+        }
+    }
+
+    /**
+     * Tests that a grid split into many stripes, with components that cross every stripe, is
+     * built the same as a flood finds it, and that a batch too big to repair is built again.
+     */
+    @Test
+    public void stripesAreJoined() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TileGraph g = new TileGraph(400, 60, false);
+            Algorithms.makeMaze(Coord.of(0, 0), Coord.of(399, 59), g, new Random(7));
+            ComponentIndex index = new ComponentIndex(g, pool);
+            assertTrue(index.connected(0, g.numNodes() - 1));
+            assertSameComponents(g, index);
+
+            // cut the maze in two across the middle
+            BitSet cut = new BitSet();
+            cut.set(g.getId(200, 0), g.getId(201, 0));
+            g.setReachability(cut, false);
+            assertFalse(index.isStale());
+            assertFalse(index.connected(0, g.numNodes() - 1));
+            assertSameComponents(g, index);
+
+            g.setWalls(new BitSet());
+            assertTrue(index.isStale());
+            assertTrue(index.connected(0, g.numNodes() - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that two tiles stay connected when a wall is put up next to them and the component
+     * doesn't split, and that a wall taken down again before the next query joins up the pieces.
+     */
+    @Test
+    public void wallsThatDontSplit() {
+        TileGraph g = new TileGraph(10, 10, false);
+        ComponentIndex index = new ComponentIndex(g);
+        assertTrue(index.connected(0, 99));
+
+        g.setNodeReachability(5, 5, false);
+        assertTrue(index.connected(0, 99));
+        assertEquals(-1, index.getComponent(55));
+
+        for (int row = 0; row < 10; ++row) {
+            g.setNodeReachability(row, 3, false);
+        }
+        g.setNodeReachability(4, 3, true);
+        assertTrue(index.connected(0, 99));
+        g.setNodeReachability(4, 3, false);
+        assertFalse(index.connected(0, 99));
+        assertEquals(index.getComponent(0), index.getComponent(92));
+        g.setNodeReachability(9, 3, true);
+        assertTrue(index.connected(0, 99));
+        assertSameComponents(g, index);
+    }
+
+    /**
+     * Tests that small pieces cut off from a large component, one wall at a time, get components of
+     * their own, both when the rest keeps the root and when the piece holding the root is cut off.
+     */
+    @Test
+    public void cutsOffSmallPieces() {
+        TileGraph g = new TileGraph(40, 40, true);
+        ComponentIndex index = new ComponentIndex(g);
+        assertTrue(index.connected(0, g.numNodes() - 1));
+
+        // fence in a 4x4 corner at the far end, away from the root, and then the one holding it
+        for (int first : new int[] { 35, 0 }) {
+            int edge = first == 0 ? 4 : first;
+            for (int along = first; along < first + 5; ++along) {
+                g.setNodeReachability(edge, along, false);
+                g.setNodeReachability(along, edge, false);
+                assertSameComponents(g, index);
+            }
+            int inside = first == 0 ? 0 : g.numNodes() - 1;
+            assertFalse(index.connected(inside, g.getId(20, 20)));
+        }
+        assertTrue(index.connected(g.getId(5, 5), g.getId(30, 30)));
+        g.setNodeReachability(4, 0, true);
+        assertTrue(index.connected(0, g.getId(20, 20)));
+        assertSameComponents(g, index);
+    }
+
+    /**
+     * Tests that walls changed while the diagonal setting is toggled are not lost when it is
+     * toggled back before the next query, one at a time and in batches.
+     */
+    @Test
+    public void editsBetweenDiagonalToggles() {
+        TileGraph g = new TileGraph(8, 1, false);
+        BitSet walls = new BitSet();
+        walls.set(3);
+        walls.set(5);
+        walls.set(6);
+        g.setWalls(walls);
+        ComponentIndex index = new ComponentIndex(g);
+        assertFalse(index.connected(7, 6));
+
+        g.makeEdges(true);
+        g.setNodeReachability(1, 0, false);
+        g.makeEdges(false);
+        g.setNodeReachability(3, 0, false);
+        BitSet bulk = new BitSet();
+        bulk.set(6);
+        g.setReachability(bulk, false);
+        assertFalse(index.connected(3, 0));
+        assertFalse(index.connected(0, 2));
+        assertSameComponents(g, index);
+
+        Random random = new Random(5);
+        for (int trial = 0; trial < 200; ++trial) {
+            g.makeEdges(!g.diagonalsConnected());
+            if (random.nextBoolean()) {
+                g.setNodeReachability(random.nextInt(8), 0, random.nextBoolean());
+            } else {
+                bulk.clear();
+                bulk.set(random.nextInt(8));
+                g.setReachability(bulk, random.nextBoolean());
+            }
+            if (random.nextBoolean()) {
+                g.makeEdges(!g.diagonalsConnected());
+            }
+            assertSameComponents(g, index);
+        }
+    }
+
+    /**
+     * Checks that two tiles of {@code g} have the same component in {@code index} exactly when a
+     * flood from one reaches the other, and that walls have none.
+     */
+    private static void assertSameComponents(TileGraph g, ComponentIndex index) {
+        int[] expected = flood(g);
+        int[] representative = new int[g.numNodes()];
+        Arrays.fill(representative, -1);
+        for (int id = 0; id < g.numNodes(); ++id) {
+            int component = index.getComponent(id);
+            if (expected[id] < 0) {
+                assertEquals(-1, component);
+                continue;
+            }
+            // the first tile of a flooded component names it, so every tile of it has to share its root
+            if (representative[expected[id]] < 0) {
+                representative[expected[id]] = component;
+            }
+            assertEquals(representative[expected[id]], component);
+            assertTrue(index.connected(expected[id], id));
+        }
+        for (int a = 0; a < g.numNodes(); a += 7) {
+            for (int b = 0; b < g.numNodes(); b += 11) {
+                assertEquals(expected[a] >= 0 && expected[a] == expected[b], index.connected(a, b));
+            }
+        }
+    }
+
+    /**
+     * @return smallest id of the component of every tile, found by flooding, or -1 for walls
+     */
+    private static int[] flood(TileGraph g) {
+        int[] label = new int[g.numNodes()];
+        Arrays.fill(label, -1);
+        int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int id = 0; id < g.numNodes(); ++id) {
+            if (label[id] >= 0 || !g.isReachable(id)) {
+                continue;
+            }
+            label[id] = id;
+            queue.add(id);
+            while (!queue.isEmpty()) {
+                int curr = queue.poll();
+                int count = g.getNeighbors(curr, neighbors);
+                for (int i = 0; i < count; ++i) {
+                    if (label[neighbors[i]] < 0) {
+                        label[neighbors[i]] = id;
+                        queue.add(neighbors[i]);
+                    }
+                }
+            }
+        }
+        return label;
+    }
+}
@@ -0,0 +1,54 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link Coord} class.
+ */
+public class CoordTest {
+    /**
+     * Tests that a coordinate gives back the row and column it was made from, including negative
+     * ones, and that TileGraphs turn coordinates into ids and back.
+     */
+    @Test
+    public void packAndUnpack() {
+        int[] values = {0, 1, 19, 3999, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        for (int row : values) {
+            for (int col : values) {
+                long coord = Coord.of(row, col);
+                assertEquals(row, Coord.row(coord));
+                assertEquals(col, Coord.col(coord));
+            }
+        }
+        assertNotEquals(Coord.of(0, 1), Coord.of(1, 0));
+        assertEquals("(3, 7)", Coord.toString(Coord.of(3, 7)));
+
+        TileGraph g = new TileGraph(5, 8, false);
+        for (int id = 0; id < g.numNodes(); ++id) {
+            long coord = g.getCoord(id);
+            assertEquals(g.getRow(id), Coord.row(coord));
+            assertEquals(g.getCol(id), Coord.col(coord));
+            assertEquals(id, g.getId(coord));
+        }
+    }
+
+    /**
+     * Tests that the tiles of a grid, including ones on the same row, column or diagonal, don't share
+     * hash codes.
+     */
+    @Test
+    public void hashesSpreadOut() {
+        Set<Integer> hashes = new HashSet<>();
+        for (int row = 0; row < 100; ++row) {
+            for (int col = 0; col < 100; ++col) {
+                hashes.add(Coord.hashCode(Coord.of(row, col)));
+            }
+        }
+        assertEquals(100 * 100, hashes.size());
+    }
+}
@@ -0,0 +1,89 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link CopyOnWriteBits} class.
+ */
+public class CopyOnWriteBitsTest {
+    private static final int BLOCK = 1 << CopyOnWriteBits.BLOCK_SHIFT;
+
+    /**
+     * Tests that random writes to a set and to copies of it behave like writes to separate BitSets.
+     */
+    @Test
+    public void behavesLikeSeparateBitSets() {
+        Random random = new Random(2021);
+        int size = 3 * BLOCK + 37;
+        CopyOnWriteBits bits = new CopyOnWriteBits(size);
+        BitSet expected = new BitSet();
+        CopyOnWriteBits copy = null;
+        BitSet expectedCopy = null;
+
+        for (int round = 0; round < 20; ++round) {
+            for (int i = 0; i < 200; ++i) {
+                int index = random.nextInt(size);
+                boolean value = random.nextBoolean();
+                bits.set(index, value);
+                expected.set(index, value);
+            }
+            if (round % 4 == 3) {
+                BitSet ids = new BitSet();
+                for (int i = 0; i < 500; ++i) {
+                    ids.set(random.nextInt(size + 64)); // some past the end
+                }
+                BitSet before = bits.toBitSet();
+                BitSet changed = bits.setAll(ids, round % 8 == 3);
+                ids.clear(size, size + 64);
+                if (round % 8 == 3) {
+                    expected.or(ids);
+                } else {
+                    expected.andNot(ids);
+                }
+                before.xor(expected);
+                assertEquals(before, changed);
+            }
+            assertEquals(expected, bits.toBitSet());
+            if (copy != null) {
+                assertEquals(expectedCopy, copy.toBitSet()); // untouched by the writes to bits
+            }
+            copy = bits.share();
+            expectedCopy = (BitSet) expected.clone();
+        }
+    }
+
+    /**
+     * Tests that only the blocks that were written are copied, and that assigning the same bits
+     * again writes nothing.
+     */
+    @Test
+    public void onlyWrittenBlocksAreCopied() {
+        CopyOnWriteBits bits = new CopyOnWriteBits(4 * BLOCK);
+        BitSet walls = new BitSet();
+        walls.set(0, 4 * BLOCK, true);
+        walls.clear(BLOCK + 5);
+        assertEquals(4 * BLOCK - 1, bits.assign(walls).cardinality());
+
+        CopyOnWriteBits copy = bits.share();
+        assertEquals(4, bits.numSharedBlocks());
+        assertTrue(bits.assign(walls).isEmpty());
+        assertEquals(4, bits.numSharedBlocks());
+
+        bits.set(2 * BLOCK + 1, false);
+        assertEquals(3, bits.numSharedBlocks());
+        assertTrue(copy.get(2 * BLOCK + 1));
+        assertFalse(bits.get(BLOCK + 5));
+
+        try {
+            new CopyOnWriteBits(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link DStarLite} class and {@link Algorithms#dStarLite}.
+ */
+public class DStarLiteTest {
+    private long source = Coord.of(0, 0);
+    private long dest = Coord.of(9, 9);
+
+    /**
+     * Plans paths on randomly walled TileGraphs while walls change and the source moves between
+     * searches. Every path must be as short as the one found by Djikstra's Algorithm.
+     */
+    @Test
+    public void replannedPathsAreShortest() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(12, 12, trial % 2 == 0, random);
+            DStarLite planner = new DStarLite(g);
+            long start = source;
+
+            for (int edit = 0; edit < 6; ++edit) {
+                double expected = AlgorithmsTest.pathLength(Algorithms.djikstra(start, dest, g));
+                assertEquals(expected, AlgorithmsTest.pathLength(Algorithms.dStarLite(start, dest, planner)), 1e-9);
+
+                g.setNodeReachability(1 + random.nextInt(8), 1 + random.nextInt(8), random.nextBoolean());
+                if (edit == 2) {
+                    start = Coord.of(random.nextInt(3), random.nextInt(3));
+                    g.setNodeReachability(Coord.row(start), Coord.col(start), true);
+                } else if (edit == 4) {
+                    g.makeEdges(!g.diagonalsConnected());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a replan after a small change expands far fewer Nodes than the first search,
+     * and none at all if nothing changed.
+     */
+    @Test
+    public void replanningIsIncremental() {
+        TileGraph g = new TileGraph(40, 40, false);
+        DStarLite planner = new DStarLite(g);
+        long far = Coord.of(39, 39);
+
+        List<String> first = Algorithms.dStarLite(source, far, planner);
+        int firstExpansions = planner.getLastExpansions();
+        assertEquals(78, AlgorithmsTest.pathSteps(first));
+
+        assertEquals(first.get(first.size() - 1), Algorithms.dStarLite(source, far, planner).get(0));
+        assertEquals(0, planner.getLastExpansions());
+
+        g.setNodeReachability(20, 20, false);
+        List<String> replanned = Algorithms.dStarLite(source, far, planner);
+        assertEquals(78, AlgorithmsTest.pathSteps(replanned));
+        assertTrue(planner.getLastExpansions() < firstExpansions / 10);
+    }
+
+    /**
+     * Tests that a plan repaired after many walls are put up and taken down at once still finds
+     * the shortest paths.
+     */
+    @Test
+    public void batchEditsAreRepaired() {
+        Random random = new Random(2021);
+        TileGraph g = new TileGraph(30, 30, false);
+        DStarLite planner = new DStarLite(g);
+        long far = Coord.of(29, 29);
+        for (int edit = 0; edit < 8; ++edit) {
+            double expected = AlgorithmsTest.pathLength(Algorithms.djikstra(source, far, g));
+            assertEquals(expected, AlgorithmsTest.pathLength(Algorithms.dStarLite(source, far, planner)), 1e-9);
+
+            BitSet ids = new BitSet();
+            for (int i = 0; i < 60; ++i) {
+                ids.set(g.getId(1 + random.nextInt(27), 1 + random.nextInt(27)));
+            }
+            g.setReachability(ids, edit % 2 == 1);
+        }
+    }
+
+    /**
+     * Replans after every one of many random walls put up and taken down, on small grids with and
+     * without diagonal traversal. Every path must cost as much as the one found by Djikstra's
+     * Algorithm, and no path must be found exactly when Djikstra's finds none.
+     */
+    @Test
+    public void randomEditsAreReplanned() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; ++trial) {
+            int size = 4 + random.nextInt(5);
+            TileGraph g = new TileGraph(size, size, trial % 2 == 0);
+            DStarLite planner = new DStarLite(g);
+            long start = Coord.of(size - 1, random.nextInt(size));
+            long end = Coord.of(0, random.nextInt(size));
+            for (int edit = 0; edit < 30; ++edit) {
+                double expected = AlgorithmsTest.pathLength(Algorithms.djikstra(start, end, g));
+                assertEquals(expected, AlgorithmsTest.pathLength(Algorithms.dStarLite(start, end, planner)), 1e-9);
+                g.setNodeReachability(random.nextInt(size), random.nextInt(size), random.nextInt(3) == 0);
+            }
+        }
+    }
+
+    /**
+     * Tests a replan that used to stop while the source was still underconsistent, and then follow
+     * its neighbors' stale distances around in a circle.
+     */
+    @Test
+    public void replanAfterDistancesGoUp() {
+        TileGraph g = new TileGraph(5, 5, true);
+        DStarLite planner = new DStarLite(g);
+        long start = Coord.of(4, 1);
+        long end = Coord.of(0, 4);
+        Algorithms.dStarLite(start, end, planner);
+        int[][] walls = { { 1, 4 }, { 2, 1 }, { 3, 3 }, { 1, 3 }, { 2, 4 }, { 3, 0 } };
+        for (int[] wall : walls) {
+            g.setNodeReachability(wall[0], wall[1], false);
+        }
+        List<String> replanned = Algorithms.dStarLite(start, end, planner);
+        assertEquals("path 0 4 0 3 1 2 2 2 3 1 4 1", replanned.get(replanned.size() - 1));
+    }
+
+    /**
+     * Tests that no path is found through a wall, or from or to a wall, and that the
+     * path is found again once the wall is gone.
+     */
+    @Test
+    public void blockedPaths() {
+        TileGraph g = new TileGraph(10, 10, false);
+        DStarLite planner = new DStarLite(g);
+        for (int i = 0; i < 10; ++i) {
+            g.setNodeReachability(i, 3, false);
+        }
+        assertEquals(-1, AlgorithmsTest.pathSteps(Algorithms.dStarLite(source, dest, planner)));
+
+        g.setNodeReachability(5, 3, true);
+        assertEquals(18, AlgorithmsTest.pathSteps(Algorithms.dStarLite(source, dest, planner)));
+
+        g.setNodeReachability(0, 0, false);
+        assertTrue(Algorithms.dStarLite(source, dest, planner).isEmpty());
+        g.setNodeReachability(0, 0, true);
+        g.setNodeReachability(9, 9, false);
+        assertEquals(-1, AlgorithmsTest.pathSteps(Algorithms.dStarLite(source, dest, planner)));
+        assertEquals("path 0 0", Algorithms.dStarLite(source, source, planner).get(0));
+    }
+}
@@ -0,0 +1,191 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link FlowField} class.
+ */
+public class FlowFieldTest {
+    /**
+     * Tests that the distances match the ones found by Djikstra's Algorithm, with and without
+     * diagonal traversal, and that every path read off the field is as long as its distance.
+     */
+    @Test
+    public void matchesDjikstra() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 30; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(15, 17, trial % 2 == 0, random);
+            long dest = Coord.of(random.nextInt(15), random.nextInt(17));
+            FlowField field = new FlowField(g, dest);
+            assertMatches(g, field);
+        }
+    }
+
+    /**
+     * Tests that the field is repaired to match Djikstra's Algorithm as walls are put up and taken
+     * down one at a time and in batches, including on the destination, and that it is computed
+     * again after a bulk change or a change to the diagonal setting.
+     */
+    @Test
+    public void repairsFollowWalls() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 10; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(20, 20, trial % 2 == 0, random);
+            long dest = Coord.of(10, 10);
+            FlowField field = new FlowField(g, dest);
+            assertMatches(g, field);
+
+            for (int edit = 0; edit < 40; ++edit) {
+                if (edit % 4 == 0) {
+                    BitSet ids = new BitSet();
+                    for (int i = 0; i < 5; ++i) {
+                        ids.set(random.nextInt(g.numNodes()));
+                    }
+                    g.setReachability(ids, random.nextBoolean());
+                } else {
+                    g.setNodeReachability(random.nextInt(20), random.nextInt(20), random.nextDouble() > 0.4);
+                }
+                if (edit == 20) {
+                    g.setNodeReachability(10, 10, false);
+                    assertEquals(-1, field.getNext(g.getId(9, 10)));
+                    g.setNodeReachability(10, 10, true);
+                }
+                assertFalse(field.isStale());
+                assertMatches(g, field);
+            }
+
+            g.makeEdges(!g.diagonalsConnected());
+            assertTrue(field.isStale());
+            assertMatches(g, field);
+            g.setWalls(new BitSet());
+            assertTrue(field.isStale());
+            assertMatches(g, field);
+        }
+    }
+
+    /**
+     * Tests that walls changed while the diagonal setting is toggled are not lost when it is
+     * toggled back before the field is used again.
+     */
+    @Test
+    public void editsBetweenDiagonalToggles() {
+        TileGraph g = new TileGraph(8, 8, false);
+        FlowField field = new FlowField(g, Coord.of(7, 7));
+        assertMatches(g, field);
+
+        g.makeEdges(true);
+        g.setNodeReachability(6, 7, false);
+        BitSet ids = new BitSet();
+        ids.set(g.getId(7, 6));
+        g.setReachability(ids, false);
+        g.makeEdges(false);
+        assertTrue(field.isStale());
+        assertEquals(Double.POSITIVE_INFINITY, field.getDistance(0), 0);
+        assertMatches(g, field);
+    }
+
+    /**
+     * Tests that wavefronts too large for one task are found the same way by several, on an open
+     * grid and on a maze, and that a path read off the maze field is as long as Djikstra's.
+     */
+    @Test
+    public void wavefrontsInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(11);
+            TileGraph g = AlgorithmsTest.randomGraph(300, 300, true, new Random(3));
+            FlowField field = new FlowField(g, Coord.of(150, 150), pool);
+            g.setNodeReachability(150, 150, true);
+            assertMatches(g, field);
+
+            TileGraph maze = new TileGraph(120, 90, false);
+            Algorithms.makeMaze(Coord.of(0, 0), Coord.of(119, 89), maze, random);
+            FlowField mazeField = new FlowField(maze, Coord.of(119, 89), pool);
+            long[] path = mazeField.pathFrom(Coord.of(0, 0));
+            assertEquals(Coord.of(0, 0), path[0]);
+            assertEquals(Coord.of(119, 89), path[path.length - 1]);
+            double expected = AlgorithmsTest.pathLength(Algorithms.djikstra(Coord.of(0, 0), Coord.of(119, 89), maze));
+            assertEquals(expected, path.length - 1, 0);
+            assertEquals(expected, mazeField.getDistance(0), tolerance(expected));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks that the distances of {@code field} match Djikstra's Algorithm out from its destination,
+     * that every tile steps onto a tile one edge closer, and that paths lead to the destination.
+     */
+    private static void assertMatches(TileGraph g, FlowField field) {
+        int dest = g.getId(field.getDestCoord());
+        double[] expected = distances(g, dest);
+        for (int id = 0; id < g.numNodes(); ++id) {
+            assertEquals(expected[id], field.getDistance(id), tolerance(expected[id]));
+            int next = field.getNext(id);
+            if (id == dest || expected[id] == Double.POSITIVE_INFINITY) {
+                assertEquals(-1, next);
+                continue;
+            }
+            assertTrue(Math.abs(g.getRow(next) - g.getRow(id)) <= 1 && Math.abs(g.getCol(next) - g.getCol(id)) <= 1);
+            assertTrue(g.isReachable(next));
+            assertEquals(expected[id], expected[next] + g.getWeight(id, next), 1e-4);
+        }
+
+        for (int id = 0; id < g.numNodes(); id += 13) {
+            long[] path = field.pathFrom(g.getCoord(id));
+            if (expected[id] == Double.POSITIVE_INFINITY) {
+                assertEquals(0, path.length);
+                continue;
+            }
+            assertEquals(g.getCoord(id), path[0]);
+            assertEquals(field.getDestCoord(), path[path.length - 1]);
+            double length = 0;
+            for (int i = 1; i < path.length; ++i) {
+                length += g.getWeight(g.getId(path[i - 1]), g.getId(path[i]));
+            }
+            assertEquals(expected[id], length, tolerance(expected[id]));
+        }
+    }
+
+    /**
+     * @return how far a distance stored as a {@code float} may be from {@code distance}, which
+     *         grows with the number of edges whose lengths were rounded along the way
+     */
+    private static double tolerance(double distance) {
+        return distance == Double.POSITIVE_INFINITY ? 0 : 1e-4 + 1e-5 * distance;
+    }
+
+    /**
+     * @return distance from {@code dest} to every tile found by Djikstra's Algorithm, or infinity
+     */
+    private static double[] distances(TileGraph g, int dest) {
+        double[] dist = new double[g.numNodes()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (!g.isReachable(dest)) {
+            return dist;
+        }
+        IndexedMinHeap pq = new IndexedMinHeap(g.numNodes());
+        int[] neighbors = new int[TileGraph.MAX_NEIGHBORS];
+        dist[dest] = 0;
+        pq.push(dest, 0);
+        while (!pq.isEmpty()) {
+            int curr = pq.pop();
+            int count = g.getNeighbors(curr, neighbors);
+            for (int i = 0; i < count; ++i) {
+                double d = dist[curr] + g.getWeight(curr, neighbors[i]);
+                if (d < dist[neighbors[i]]) {
+                    dist[neighbors[i]] = d;
+                    pq.push(neighbors[i], d);
+                }
+            }
+        }
+        return dist;
+    }
+}
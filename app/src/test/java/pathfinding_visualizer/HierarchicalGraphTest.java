@@ -0,0 +1,100 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link HierarchicalGraph} class and {@link Algorithms#hpaStar}.
+ */
+public class HierarchicalGraphTest {
+    private long source = Coord.of(0, 0);
+    private long dest = Coord.of(9, 9);
+
+    /**
+     * Runs HPA* on randomly walled TileGraphs while walls change between searches. A path must be
+     * found exactly when Djikstra's Algorithm finds one, it can't be shorter than the shortest path,
+     * and an abstraction that was updated incrementally must give the same result as a new one.
+     */
+    @Test
+    public void pathsMatchFreshAbstraction() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(12, 12, trial % 2 == 0, random);
+            HierarchicalGraph hierarchy = new HierarchicalGraph(g, 2 + trial % 4);
+
+            for (int edit = 0; edit < 5; ++edit) {
+                double expected = AlgorithmsTest.pathLength(Algorithms.djikstra(source, dest, g));
+                List<String> hpa = Algorithms.hpaStar(source, dest, hierarchy);
+                double length = AlgorithmsTest.pathLength(hpa);
+
+                assertEquals(expected < 0, length < 0);
+                assertTrue(length >= expected - 1e-9);
+                assertEquals(Algorithms.hpaStar(source, dest, new HierarchicalGraph(g, hierarchy.getClusterSize())), hpa);
+
+                g.setNodeReachability(1 + random.nextInt(8), 1 + random.nextInt(8), random.nextBoolean());
+                if (edit == 3) {
+                    g.makeEdges(!g.diagonalsConnected());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that painting a tile only marks the clusters it can affect as dirty.
+     */
+    @Test
+    public void onlyAffectedClustersAreDirty() {
+        TileGraph g = new TileGraph(12, 12, false);
+        HierarchicalGraph hierarchy = new HierarchicalGraph(g, 4);
+        assertEquals(9, hierarchy.numDirtyClusters());
+
+        Algorithms.hpaStar(source, dest, hierarchy);
+        assertEquals(0, hierarchy.numDirtyClusters());
+
+        g.setNodeReachability(1, 1, false); // inside one cluster
+        assertEquals(1, hierarchy.numDirtyClusters());
+        g.setNodeReachability(1, 2, false); // same cluster again
+        assertEquals(1, hierarchy.numDirtyClusters());
+        g.setNodeReachability(1, 2, false); // no change
+        assertEquals(1, hierarchy.numDirtyClusters());
+
+        hierarchy.ensureCurrent();
+        g.setNodeReachability(3, 5, false); // on the border of two clusters
+        assertEquals(2, hierarchy.numDirtyClusters());
+
+        hierarchy.ensureCurrent();
+        g.setNodeReachability(3, 3, false); // on the corner of four clusters
+        assertEquals(4, hierarchy.numDirtyClusters());
+
+        hierarchy.detach();
+        hierarchy.ensureCurrent();
+        g.setNodeReachability(6, 6, false);
+        assertEquals(0, hierarchy.numDirtyClusters());
+    }
+
+    /**
+     * Tests searches with walls at either end, and clusters that don't fit the graph evenly.
+     */
+    @Test
+    public void edgeCases() {
+        TileGraph g = new TileGraph(10, 10, true);
+        HierarchicalGraph hierarchy = new HierarchicalGraph(g, 3);
+        double length = AlgorithmsTest.pathLength(Algorithms.hpaStar(source, dest, hierarchy));
+        assertTrue(length >= 9 * Math.sqrt(2) - 1e-9);
+        assertEquals("path 0 0", Algorithms.hpaStar(source, source, hierarchy).get(0));
+
+        g.setNodeReachability(9, 9, false);
+        assertTrue(Algorithms.hpaStar(source, dest, hierarchy).isEmpty());
+
+        try {
+            new HierarchicalGraph(g, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
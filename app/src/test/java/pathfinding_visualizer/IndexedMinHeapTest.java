@@ -0,0 +1,120 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link IndexedMinHeap} class.
+ */
+public class IndexedMinHeapTest {
+
+    /**
+     * Tests that ids come out of the heap in order of their keys.
+     */
+    @Test
+    public void popInKeyOrder() {
+        IndexedMinHeap heap = new IndexedMinHeap(6);
+        assertTrue(heap.isEmpty());
+
+        heap.push(3, 4.0);
+        heap.push(0, 2.5);
+        heap.push(5, 7.0);
+        heap.push(1, 1.0);
+        assertEquals(4, heap.size());
+        assertEquals(1, heap.peek());
+
+        assertEquals(1, heap.pop());
+        assertEquals(0, heap.pop());
+        assertEquals(3, heap.pop());
+        assertEquals(5, heap.pop());
+        assertTrue(heap.isEmpty());
+    }
+
+    /**
+     * Tests that an id already in the heap is moved instead of added twice, and that
+     * pushing a larger key does not raise the key of an id.
+     */
+    @Test
+    public void decreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.push(0, 5.0);
+        heap.push(1, 3.0);
+        heap.push(2, 4.0);
+
+        heap.push(0, 1.0);
+        assertEquals(3, heap.size());
+        assertEquals(1.0, heap.getKey(0), 0);
+
+        heap.push(0, 9.0);
+        assertEquals(1.0, heap.getKey(0), 0);
+
+        heap.decreaseKey(2, 2.0);
+        assertEquals(0, heap.pop());
+        assertEquals(2, heap.pop());
+        assertFalse(heap.contains(2));
+        assertTrue(heap.contains(1));
+    }
+
+    /**
+     * Tests that invalid operations throw exceptions and that clearing empties the heap.
+     */
+    @Test
+    public void invalidOperationsAndClear() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.push(2, 1.0);
+
+        try {
+            heap.decreaseKey(1, 0.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, 1 is not in the heap
+        }
+        try {
+            heap.decreaseKey(2, 3.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, key would increase
+        }
+
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(2));
+        try {
+            heap.pop();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected, heap is empty
+        }
+    }
+
+    /**
+     * Tests that ids can be moved in either direction, removed, and ordered by a second key
+     * when their keys are equal.
+     */
+    @Test
+    public void updateRemoveAndTies() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        heap.update(0, 3.0, 2.0);
+        heap.update(1, 3.0, 1.0);
+        heap.update(2, 1.0, 9.0);
+        heap.update(3, 5.0, 0.0);
+        assertEquals(2, heap.peek());
+
+        heap.update(2, 4.0, 0.0); // key goes up
+        assertEquals(1, heap.peek());
+        assertEquals(1.0, heap.getTie(1), 0);
+
+        heap.remove(1);
+        heap.remove(1); // not in the heap anymore, does nothing
+        assertFalse(heap.contains(1));
+        assertEquals(3, heap.size());
+
+        assertEquals(0, heap.pop());
+        assertEquals(2, heap.pop());
+        assertEquals(3, heap.pop());
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link JumpTable} class.
+ */
+public class JumpTableTest {
+
+    /**
+     * Tests the jumps of an empty graph, which has no jump points, and of a graph with a
+     * single wall, which forces the tiles diagonally past it.
+     */
+    @Test
+    public void jumpDistances() {
+        TileGraph g = new TileGraph(5, 5, true);
+        JumpTable table = new JumpTable(g);
+
+        assertEquals(-4, table.getJump(JumpTable.RIGHT, g.getId(2, 0)));
+        assertEquals(-2, table.getJump(JumpTable.LEFT, g.getId(2, 2)));
+        assertEquals(0, table.getJump(JumpTable.UP, g.getId(0, 3)));
+
+        g.setNodeReachability(1, 2, false);
+        // moving right along row 2, the tile below the wall has a forced neighbor at (1, 3)
+        assertEquals(2, table.getJump(JumpTable.RIGHT, g.getId(2, 0)));
+        // moving down column 2, the wall is one tile away
+        assertEquals(0, table.getJump(JumpTable.DOWN, g.getId(0, 2)));
+        assertEquals(-2, table.getJump(JumpTable.UP, g.getId(4, 2)));
+    }
+
+    /**
+     * Tests that a table kept up to date by reachability changes equals one built from scratch,
+     * including after diagonal traversal is toggled.
+     */
+    @Test
+    public void incrementalUpdatesMatchRebuild() {
+        Random random = new Random(2021);
+        TileGraph g = new TileGraph(9, 7, true);
+        JumpTable table = new JumpTable(g);
+
+        for (int i = 0; i < 40; ++i) {
+            g.setNodeReachability(random.nextInt(9), random.nextInt(7), random.nextBoolean());
+            assertTablesEqual(new JumpTable(g), table, g);
+        }
+
+        g.makeEdges(false);
+        table.ensureCurrent();
+        assertTablesEqual(new JumpTable(g), table, g);
+    }
+
+    /**
+     * Tests that a table told about many changes at once equals one built from scratch.
+     */
+    @Test
+    public void batchUpdatesMatchRebuild() {
+        Random random = new Random(2021);
+        TileGraph g = new TileGraph(30, 20, true);
+        JumpTable table = new JumpTable(g);
+
+        for (int i = 0; i < 10; ++i) {
+            BitSet ids = new BitSet();
+            for (int j = 0; j < 25; ++j) {
+                ids.set(random.nextInt(g.numNodes()));
+            }
+            g.setReachability(ids, i % 3 == 2);
+            assertTablesEqual(new JumpTable(g), table, g);
+        }
+    }
+
+    private void assertTablesEqual(JumpTable expected, JumpTable actual, TileGraph g) {
+        for (int dir = 0; dir < 4; ++dir) {
+            for (int id = 0; id < g.numNodes(); ++id) {
+                assertEquals(expected.getJump(dir, id), actual.getJump(dir, id));
+            }
+        }
+        expected.detach();
+    }
+}
@@ -0,0 +1,114 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link LandmarkTable} class and {@link Algorithms#altAStar}.
+ */
+public class LandmarkTableTest {
+    private long source = Coord.of(0, 0);
+    private long dest = Coord.of(9, 9);
+
+    /**
+     * Runs ALT on randomly walled TileGraphs while walls change between searches. Every path must
+     * be as short as the one found by Djikstra's Algorithm.
+     */
+    @Test
+    public void pathsAreShortest() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 50; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(12, 12, trial % 2 == 0, random);
+            LandmarkTable landmarks = new LandmarkTable(g, 1 + trial % 8, ForkJoinPool.commonPool());
+
+            for (int edit = 0; edit < 5; ++edit) {
+                double expected = AlgorithmsTest.pathLength(Algorithms.djikstra(source, dest, g));
+                assertEquals(expected, AlgorithmsTest.pathLength(Algorithms.altAStar(source, dest, landmarks)), 1e-9);
+
+                g.setNodeReachability(1 + random.nextInt(8), 1 + random.nextInt(8), random.nextBoolean());
+                if (edit == 3) {
+                    g.makeEdges(!g.diagonalsConnected());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the bounds never exceed the true distance, and that they are exact from a landmark.
+     */
+    @Test
+    public void boundsAreAdmissible() {
+        Random random = new Random(2021);
+        TileGraph g = AlgorithmsTest.randomGraph(10, 10, true, random);
+        LandmarkTable landmarks = new LandmarkTable(g);
+        int[] ids = landmarks.getLandmarks();
+        assertTrue(ids.length > 0 && ids.length <= LandmarkTable.DEFAULT_LANDMARKS);
+
+        for (int a = 0; a < g.numNodes(); a += 7) {
+            long from = Coord.of(g.getRow(a), g.getCol(a));
+            for (int b = 0; b < g.numNodes(); b += 3) {
+                double distance = AlgorithmsTest.shortestDistance(g, from, Coord.of(g.getRow(b), g.getCol(b)));
+                double bound = landmarks.lowerBound(a, b);
+                if (distance >= 0) {
+                    assertTrue(bound <= distance);
+                } else if (g.isReachable(a) && g.isReachable(b)) {
+                    assertTrue(bound >= 0);
+                }
+            }
+        }
+
+        int landmark = ids[0];
+        long from = Coord.of(g.getRow(landmark), g.getCol(landmark));
+        double distance = AlgorithmsTest.shortestDistance(g, from, dest);
+        if (distance >= 0) {
+            assertEquals(distance, landmarks.lowerBound(landmark, g.getId(9, 9)), 1e-4);
+        }
+    }
+
+    /**
+     * Tests that the tables go stale when reachability changes or they are detached, and are
+     * refreshed when used.
+     */
+    @Test
+    public void staleAfterChange() {
+        TileGraph g = new TileGraph(10, 10, false);
+        LandmarkTable landmarks = new LandmarkTable(g);
+        assertTrue(landmarks.isStale());
+        assertArrayEquals(new int[] {0, 4, 9, 49, 99, 95, 90, 50}, landmarks.getLandmarks());
+        assertFalse(landmarks.isStale());
+
+        g.setNodeReachability(0, 0, false);
+        assertTrue(landmarks.isStale());
+        assertEquals(1, landmarks.getLandmarks()[0]);
+
+        g.makeEdges(true);
+        assertTrue(landmarks.isStale());
+        landmarks.refresh();
+        assertFalse(landmarks.isStale());
+
+        landmarks.detach();
+        assertTrue(landmarks.isStale());
+        g.setNodeReachability(5, 5, false);
+        landmarks.refresh();
+        assertFalse(landmarks.isStale());
+    }
+
+    /**
+     * Tests that ALT settles fewer Nodes than A* in a maze.
+     */
+    @Test
+    public void fewerVisitsInMaze() {
+        TileGraph g = new TileGraph(30, 30, false);
+        long corner = Coord.of(29, 29);
+        Algorithms.makeMaze(source, corner, g, new Random(2021));
+        LandmarkTable landmarks = new LandmarkTable(g);
+
+        int aStarVisits = Algorithms.aStar(source, corner, g).size();
+        int altVisits = Algorithms.altAStar(source, corner, landmarks).size();
+        assertTrue(altVisits < aStarVisits);
+    }
+}
@@ -11,10 +11,10 @@ import javax.swing.*;
  * Tests the {@link Menu} class.
  */
 public class MenuTest {
-    private SynchronizedQueue<String> sq = new SynchronizedQueue<>();
+    private SynchronizedQueue<Command> sq = new SynchronizedQueue<>();
     private Menu m = new Menu(sq);
 
-    private JPanel resize, source, dest, diag, alg, clear, erase, maze;
+    private JPanel resize, source, dest, diag, flowField, alg, clear, erase, maze, playback;
 
     /**
      * Tests that the constructor creates a non-null Menu object
@@ -34,10 +34,12 @@ public class MenuTest {
         source = (JPanel) comps[1];
         dest = (JPanel) comps[2];
         diag = (JPanel) comps[3];
-        alg = (JPanel) comps[4];
-        clear = (JPanel) comps[5];
-        erase = (JPanel) comps[6];
-        maze = (JPanel) comps[7];
+        flowField = (JPanel) comps[4];
+        alg = (JPanel) comps[5];
+        clear = (JPanel) comps[6];
+        erase = (JPanel) comps[7];
+        maze = (JPanel) comps[8];
+        playback = (JPanel) comps[9];
     }
 
     @Test
@@ -65,11 +67,21 @@ public class MenuTest {
 
         checkbox.setSelected(true);
         listener.actionPerformed(event);
-        assertEquals("diagonal true", sq.get());
+        assertEquals("diagonal true", sq.get().toString());
         
         checkbox.setSelected(false);
         listener.actionPerformed(event);
-        assertEquals("diagonal false", sq.get());
+        assertEquals("diagonal false", sq.get().toString());
+    }
+
+    @Test
+    public void testFlowFieldCheckbox() throws InterruptedException {
+        JCheckBox checkbox = (JCheckBox) flowField.getComponent(1);
+        ActionEvent event = new ActionEvent(checkbox, ActionEvent.ACTION_PERFORMED, null);
+
+        checkbox.setSelected(true);
+        checkbox.getActionListeners()[0].actionPerformed(event);
+        assertEquals("flowfield true", sq.get().toString());
     }
 
     @Test
@@ -87,7 +99,7 @@ public class MenuTest {
         ActionEvent event = new ActionEvent(button, ActionEvent.ACTION_PERFORMED, null);
         listener.actionPerformed(event);
 
-        assertEquals(expected, sq.get());
+        assertEquals(expected, sq.get().toString());
     }
 
     @Test
@@ -107,18 +119,31 @@ public class MenuTest {
         ActionEvent event = new ActionEvent(button, ActionEvent.ACTION_PERFORMED, null);
         listener.actionPerformed(event);
         long time = System.currentTimeMillis();
-        String[] args = sq.get().split(" ");
+        String[] args = sq.get().toString().split(" ");
         assertEquals("maze", args[0]);
         assertTrue(Math.abs(time - Long.parseLong(args[1])) < 5);
     }
 
+    @Test
+    public void testPlaybackControls() throws InterruptedException {
+        String[] controls = {"back", "pause", "step", "reverse", "slower", "faster"};
+        Component[] buttons = playback.getComponents();
+        assertEquals(controls.length, buttons.length);
+        for (int i = 0; i < controls.length; ++i) {
+            JButton button = (JButton) buttons[i];
+            ActionEvent event = new ActionEvent(button, ActionEvent.ACTION_PERFORMED, null);
+            button.getActionListeners()[0].actionPerformed(event);
+            assertEquals("playback " + controls[i], sq.get().toString());
+        }
+    }
+
     private void testButtonPanel(JPanel panel, String expected) throws InterruptedException {
         JButton button = (JButton) panel.getComponent(0);
         ActionListener listener = button.getActionListeners()[0];
         ActionEvent event = new ActionEvent(button, ActionEvent.ACTION_PERFORMED, null);
         listener.actionPerformed(event);
 
-        assertEquals(expected, sq.get());
+        assertEquals(expected, sq.get().toString());
     }
 
     private void testTextPanel(JPanel panel) throws InterruptedException {
@@ -144,7 +169,7 @@ public class MenuTest {
         ActionEvent event = new ActionEvent(tf, ActionEvent.ACTION_PERFORMED, null);
         listener.actionPerformed(event);
         if (shouldWork) {
-            assertEquals(expected, sq.get());
+            assertEquals(expected, sq.get().toString());
         } else {
             assertEquals(0, sq.size());
         }
@@ -0,0 +1,107 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link MpscQueue} class.
+ */
+public class MpscQueueTest {
+
+    /**
+     * Tests that objects come out in the order they were sent.
+     */
+    @Test
+    public void firstInFirstOut() throws InterruptedException {
+        MpscQueue<Integer> queue = new MpscQueue<>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        for (int i = 0; i < 100; ++i) {
+            queue.send(i);
+        }
+        assertFalse(queue.isEmpty());
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(Integer.valueOf(i), queue.get());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Tests that nothing is lost or reordered when several threads send at once: every object
+     * arrives, and the objects of each sender arrive in the order that sender sent them.
+     */
+    @Test
+    public void manySenders() throws InterruptedException {
+        final int senders = 4;
+        final int perSender = 100_000;
+        MpscQueue<long[]> queue = new MpscQueue<>();
+        Thread[] threads = new Thread[senders];
+        for (int s = 0; s < senders; ++s) {
+            final int sender = s;
+            threads[s] = new Thread(() -> {
+                for (int i = 0; i < perSender; ++i) {
+                    queue.send(new long[] {sender, i});
+                }
+            });
+            threads[s].start();
+        }
+
+        int[] next = new int[senders];
+        for (int i = 0; i < senders * perSender; ++i) {
+            long[] message = queue.get();
+            int sender = (int) message[0];
+            assertEquals(next[sender], message[1]);
+            ++next[sender];
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Tests that a receiver waiting on an empty queue wakes up when something is sent, and that
+     * it can be interrupted while it waits.
+     */
+    @Test
+    public void getWaits() throws InterruptedException {
+        MpscQueue<String> queue = new MpscQueue<>();
+        String[] received = new String[1];
+        Thread receiver = new Thread(() -> {
+            try {
+                received[0] = queue.get();
+                queue.get();
+                received[0] = "not interrupted";
+            } catch (InterruptedException e) {
+                received[0] += " then interrupted";
+            }
+        });
+        receiver.start();
+
+        Thread.sleep(50);
+        assertTrue(receiver.isAlive());
+        queue.send("woke");
+        Thread.sleep(50);
+        assertTrue(receiver.isAlive());
+        receiver.interrupt();
+        receiver.join(1000);
+        assertFalse(receiver.isAlive());
+        assertEquals("woke then interrupted", received[0]);
+    }
+
+    /**
+     * Tests that null can't be sent, since poll uses it to mean the queue is empty.
+     */
+    @Test
+    public void rejectsNull() {
+        MpscQueue<String> queue = new MpscQueue<>();
+        try {
+            queue.send(null);
+            fail();
+        } catch (NullPointerException e) {
+            // expected
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -1,6 +1,10 @@
 package pathfinding_visualizer;
 
 import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
 /**
@@ -70,7 +74,8 @@ public class NodeTest {
      * Tests the {@code toString} and {@code hashCode} functions of {@code Node}.
      * <ul>
      * <li> {@code toString} should have the format {@code "(row, col, reachable)"}
-     * <li> {@code hashCode} should equal the hash of {@code toString}
+     * <li> {@code hashCode} should equal the hash of the Node's {@link Coord}, and not change
+     * when {@code reachable} does
      * </ul>
      */
     @Test
@@ -78,6 +83,14 @@ public class NodeTest {
         String aStr = String.format("(%d, %d, %b)", a.row, a.col, a.reachable);
         assertEquals(aStr, a.toString());
 
-        assertEquals(aStr.hashCode(), a.hashCode());
+        assertEquals(Coord.hashCode(Coord.of(0, 0)), a.hashCode());
+        assertEquals(a.hashCode(), new Node(0, 0).hashCode());
+        assertNotEquals(a.hashCode(), b.hashCode());
+
+        Set<Node> set = new HashSet<>();
+        Node e = new Node(3, 4);
+        set.add(e);
+        e.reachable = false;
+        assertTrue(set.contains(e));
     }
 }
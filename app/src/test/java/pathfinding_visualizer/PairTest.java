@@ -48,14 +48,16 @@ public class PairTest {
      * Tests the {@code toString} and {@code hashCode} functions of {@code Pair}.
      * <ul>
      * <li> {@code toString} should return a String with the format {@code "(first, second)"}
-     * <li> {@code hashCode} should be equal to the has to {@code toString}.
+     * <li> {@code hashCode} should combine the hashes of {@code first} and {@code second}, and
+     * be the same for equal Pairs.
      */
     @Test
     public void pairStringAndHash() {
         String aStr = String.format("(%s, %s)", a.first.toString(), a.second.toString());
         assertEquals(aStr, a.toString());
 
-        assertEquals(aStr.hashCode(), a.hashCode());
+        assertEquals(31 * a.first.hashCode() + a.second.hashCode(), a.hashCode());
+        assertEquals(new Pair<>(0, 0).hashCode(), a.hashCode());
     }
 
 }
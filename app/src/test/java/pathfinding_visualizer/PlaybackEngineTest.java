@@ -0,0 +1,191 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link PlaybackEngine} class.
+ */
+public class PlaybackEngineTest {
+
+    /**
+     * Target that keeps tile states in an array and remembers the last box it was asked to repaint.
+     */
+    private static class Grid implements PlaybackEngine.Target {
+        static final byte CLEAR = 0;
+        static final byte VISIT = 1;
+        static final byte PATH = 2;
+
+        final int cols;
+        final byte[] states;
+        int[] repainted = null;
+        int repaints = 0;
+
+        Grid(int rows, int cols) {
+            this.cols = cols;
+            this.states = new byte[rows * cols];
+        }
+
+        @Override
+        public byte mark(int row, int col, int opcode) {
+            byte before = states[row * cols + col];
+            states[row * cols + col] = opcode == SearchTrace.VISIT ? VISIT : PATH;
+            return before;
+        }
+
+        @Override
+        public void restore(int row, int col, byte state) {
+            states[row * cols + col] = state;
+        }
+
+        @Override
+        public void repaintTiles(int minRow, int minCol, int maxRow, int maxCol) {
+            repainted = new int[] {minRow, minCol, maxRow, maxCol};
+            ++repaints;
+        }
+    }
+
+    /**
+     * Tests that steps are applied in batches with one repaint of the box that changed, and that
+     * rewinding puts back exactly the states the tiles had before.
+     */
+    @Test
+    public void advanceAndRewind() {
+        SearchTrace trace = new SearchTrace();
+        trace.addVisit(1, 2);
+        trace.addVisit(3, 1);
+        trace.addVisit(2, 2);
+        trace.beginPath();
+        trace.addPathTile(3, 3);
+        trace.addPathTile(2, 2);
+        trace.addPathTile(1, 2);
+        trace.addPathTile(0, 0);
+        trace.endPath();
+
+        Grid grid = new Grid(4, 4);
+        PlaybackEngine engine = new PlaybackEngine(grid);
+        engine.play(trace.reader(), 0);
+        engine.pause();
+
+        assertEquals(2, engine.advance(2));
+        assertEquals(1, grid.repaints);
+        assertArrayEquals(new int[] {1, 1, 3, 2}, grid.repainted);
+        assertEquals(Grid.VISIT, grid.states[1 * 4 + 2]);
+        assertEquals(Grid.VISIT, grid.states[3 * 4 + 1]);
+
+        assertEquals(2, engine.advance(5));
+        assertEquals(4, engine.getPosition());
+        assertEquals(Grid.PATH, grid.states[2 * 4 + 2]);
+        assertEquals(Grid.PATH, grid.states[1 * 4 + 2]);
+        assertEquals(Grid.CLEAR, grid.states[3 * 4 + 3]); // ends of the path are left alone
+        assertEquals(Grid.CLEAR, grid.states[0]);
+        assertEquals(0, engine.advance(1));
+
+        assertTrue(engine.stepBackward());
+        assertEquals(Grid.VISIT, grid.states[2 * 4 + 2]);
+        assertEquals(Grid.VISIT, grid.states[1 * 4 + 2]);
+        assertEquals(3, engine.rewind(10));
+        assertTrue(Arrays.equals(new byte[16], grid.states));
+        assertFalse(engine.stepBackward());
+
+        // steps that were taken back are replayed from history after the source ran out
+        assertTrue(engine.stepForward());
+        assertEquals(Grid.VISIT, grid.states[1 * 4 + 2]);
+        assertEquals(3, engine.advance(10));
+        assertEquals(Grid.PATH, grid.states[2 * 4 + 2]);
+
+        engine.stop();
+        assertEquals(0, engine.getPosition());
+        assertEquals(0, engine.rewind(1));
+    }
+
+    /**
+     * Tests that the frame timer plays a whole search forwards and then backwards to the first step.
+     */
+    @Test
+    public void timerPlaysBothWays() throws Exception {
+        Random random = new Random(14);
+        TileGraph g = AlgorithmsTest.randomGraph(30, 30, true, random);
+        long source = Coord.of(0, 0);
+        long dest = Coord.of(29, 29);
+
+        Grid expected = new Grid(30, 30);
+        SearchTrace whole = new SearchTrace();
+        Algorithms.bfsStepper(source, dest, g).drainTo(whole);
+        PlaybackEngine direct = new PlaybackEngine(expected);
+        direct.play(whole.reader(), 0);
+        direct.pause();
+        direct.advance(Integer.MAX_VALUE);
+
+        Grid grid = new Grid(30, 30);
+        PlaybackEngine[] engine = new PlaybackEngine[1];
+        SwingUtilities.invokeAndWait(() -> {
+            engine[0] = new PlaybackEngine(grid);
+            engine[0].setMaxStepsPerFrame(50);
+            engine[0].play(Algorithms.bfsStepper(source, dest, g), 0);
+        });
+        waitUntilStopped(engine[0]);
+        SwingUtilities.invokeAndWait(() -> assertTrue(Arrays.equals(expected.states, grid.states)));
+
+        SwingUtilities.invokeAndWait(() -> engine[0].setReverse(true));
+        waitUntilStopped(engine[0]);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(0, engine[0].getPosition());
+            assertTrue(Arrays.equals(new byte[30 * 30], grid.states));
+        });
+    }
+
+    /**
+     * Tests that invalid settings are rejected and that pausing stops the timer.
+     */
+    @Test
+    public void settings() throws Exception {
+        Grid grid = new Grid(4, 4);
+        PlaybackEngine engine = new PlaybackEngine(grid);
+        try {
+            engine.setSpeed(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, speed must be positive
+        }
+        try {
+            engine.setMaxStepsPerFrame(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, a frame has to apply something
+        }
+
+        SearchTrace trace = new SearchTrace();
+        for (int i = 0; i < 16; ++i) {
+            trace.addVisit(i / 4, i % 4);
+        }
+        SwingUtilities.invokeAndWait(() -> {
+            engine.play(trace.reader(), 1000);
+            engine.setSpeed(2);
+            assertTrue(engine.isRunning());
+            engine.pause();
+            assertTrue(engine.isPaused());
+            assertFalse(engine.isRunning());
+        });
+        Thread.sleep(5 * PlaybackEngine.FRAME_MILLIS);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(0, engine.getPosition());
+            assertTrue(Arrays.equals(new byte[16], grid.states));
+        });
+    }
+
+    private static void waitUntilStopped(PlaybackEngine engine) throws Exception {
+        boolean[] running = {true};
+        for (int i = 0; i < 500 && running[0]; ++i) {
+            Thread.sleep(PlaybackEngine.FRAME_MILLIS);
+            SwingUtilities.invokeAndWait(() -> running[0] = engine.isRunning());
+        }
+        assertFalse(running[0]);
+    }
+}
@@ -0,0 +1,162 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchContext} class.
+ */
+public class SearchContextTest {
+    private final long source = Coord.of(0, 0);
+    private final long dest = Coord.of(29, 29);
+
+    /**
+     * Tests that searches see the edits made to the recorded graph, whether they are replayed one
+     * by one or sent as a copy, and find the same as a search on that graph itself.
+     */
+    @Test
+    public void replaysEdits() {
+        TileGraph graph = new TileGraph(30, 30, false);
+        SearchContext.Recorder recorder = new SearchContext.Recorder(graph);
+        SearchContext context = new SearchContext();
+        context.post(recorder.take());
+
+        String[] algorithms = {"Dial", "JPS", "HPA*", "ALT", "D*Lite", "Bi-BFS", "Bi-A*"};
+        for (String algorithm : algorithms) {
+            context.search(algorithm, source, dest);
+        }
+
+        for (int row = 0; row < 25; ++row) {
+            graph.setNodeReachability(row, 10, false);
+        }
+        graph.makeEdges(true);
+        context.post(recorder.take());
+        assertEquals(Algorithms.dialDjikstraTrace(source, dest, graph).toActions(),
+                context.search("Dial", source, dest).toActions());
+        assertEquals(Algorithms.jpsTrace(source, dest, graph).toActions(),
+                context.search("JPS", source, dest).toActions());
+
+        // too many edits to replay are sent as a copy
+        for (int row = 5; row < 30; ++row) {
+            for (int col = 15; col < 20; ++col) {
+                graph.setNodeReachability(row, col, false);
+            }
+        }
+        graph.setNodeReachability(0, 10, true);
+        context.post(recorder.take());
+        assertEquals(Algorithms.dialDjikstraTrace(source, dest, graph).toActions(),
+                context.search("Dial", source, dest).toActions());
+    }
+
+    /**
+     * Tests that every trace is tagged with the version of the recorded graph it ran on.
+     */
+    @Test
+    public void tracesAreTaggedWithVersion() {
+        TileGraph graph = new TileGraph(30, 30, false);
+        graph.setNodeReachability(3, 3, false);
+        SearchContext.Recorder recorder = new SearchContext.Recorder(graph);
+        SearchContext context = new SearchContext();
+        context.post(recorder.take());
+        assertEquals(1, context.search("Dial", source, dest).getGraphVersion());
+
+        graph.setNodeReachability(4, 4, false);
+        graph.setNodeReachability(5, 5, false);
+        SearchContext.Update update = recorder.take();
+        assertEquals(3, update.getVersion());
+        graph.setNodeReachability(6, 6, false); // not posted yet
+        context.post(update);
+        assertEquals(3, context.search("JPS", source, dest).getGraphVersion());
+    }
+
+    /**
+     * Tests that D* Lite keeps its plan between searches and only repairs it after an edit.
+     */
+    @Test
+    public void dStarLiteReplansIncrementally() {
+        TileGraph graph = new TileGraph(30, 30, false);
+        SearchContext.Recorder recorder = new SearchContext.Recorder(graph);
+        SearchContext context = new SearchContext();
+        context.post(recorder.take());
+        SearchTrace first = context.search("D*Lite", source, dest);
+
+        graph.setNodeReachability(29, 28, false);
+        context.post(recorder.take());
+        SearchTrace replan = context.search("D*Lite", source, dest);
+        assertTrue(visits(replan) < visits(first));
+        assertEquals(pathTiles(Algorithms.dialDjikstraTrace(source, dest, graph)), pathTiles(replan));
+    }
+
+    /**
+     * Tests that a search run on an interrupted thread gives up, and that a D* Lite plan cut short
+     * is picked up by the next search.
+     */
+    @Test
+    public void cancelledSearchCanBeResumed() {
+        TileGraph graph = new TileGraph(100, 100, false);
+        SearchContext.Recorder recorder = new SearchContext.Recorder(graph);
+        SearchContext context = new SearchContext();
+        context.post(recorder.take());
+
+        long far = Coord.of(99, 99);
+        Thread.currentThread().interrupt();
+        try {
+            context.search("D*Lite", source, far);
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(pathTiles(Algorithms.dialDjikstraTrace(source, far, graph)),
+                pathTiles(context.search("D*Lite", source, far)));
+    }
+
+    /**
+     * Tests that only the algorithms that compute their whole trace at once are run, and that
+     * something has to be posted first.
+     */
+    @Test
+    public void invalidSearches() {
+        SearchContext context = new SearchContext();
+        try {
+            context.search("Dial", source, dest);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected, there is no graph yet
+        }
+        context.post(new SearchContext.Recorder(new TileGraph(30, 30, false)).take());
+        try {
+            context.search("BFS", source, dest);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, BFS is stepped on the event dispatch thread
+        }
+    }
+
+    /**
+     * @return number of tiles {@code trace} visited
+     */
+    private static int visits(SearchTrace trace) {
+        int visits = 0;
+        for (String action : trace.toActions()) {
+            visits += action.startsWith("visit") ? 1 : 0;
+        }
+        return visits;
+    }
+
+    /**
+     * @return number of tiles on the path of {@code trace}, or 0 if it has none
+     */
+    private static int pathTiles(SearchTrace trace) {
+        for (String action : trace.toActions()) {
+            if (action.startsWith("path")) {
+                return action.split(" ").length / 2;
+            }
+        }
+        return 0;
+    }
+}
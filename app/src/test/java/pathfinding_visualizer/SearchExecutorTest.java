@@ -0,0 +1,119 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchExecutor} class.
+ */
+public class SearchExecutorTest {
+
+    /**
+     * Tests that searches run one at a time in the order they were submitted, and that their
+     * results complete their futures.
+     */
+    @Test
+    public void runsInOrder() throws Exception {
+        SearchExecutor executor = new SearchExecutor();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<SearchExecutor.Task<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            final int n = i;
+            tasks.add(executor.submit(() -> {
+                Thread.sleep(n % 3);
+                order.add(n);
+                return n * n;
+            }));
+        }
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(Integer.valueOf(i * i), tasks.get(i).completion().get(5, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Tests that cancelling a large search stops it within a batch of expansions, that its future
+     * completes as cancelled, and that the next search runs after it has stopped.
+     */
+    @Test
+    public void cancelStopsSearch() throws Exception {
+        SearchExecutor executor = new SearchExecutor();
+        TileGraph graph = new TileGraph(2000, 2000, false);
+        CountDownLatch started = new CountDownLatch(1);
+        SearchExecutor.Task<SearchTrace> big = executor.submit(() -> {
+            started.countDown();
+            return Algorithms.dialDjikstraTrace(Coord.of(0, 0), Coord.of(1999, 1999), graph);
+        });
+        SearchExecutor.Task<String> next = executor.submit(() -> "next");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        big.cancel();
+        big.awaitStopped();
+        long stopMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("took " + stopMillis + "ms to stop", stopMillis < 1000);
+        assertTrue(big.completion().isCancelled());
+        assertEquals("next", next.completion().get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    /**
+     * Tests that a search cancelled before it starts never runs, and doesn't hold up the ones after it.
+     */
+    @Test
+    public void cancelBeforeStart() throws Exception {
+        SearchExecutor executor = new SearchExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        SearchExecutor.Task<String> first = executor.submit(() -> {
+            release.await();
+            return "first";
+        });
+        boolean[] ran = new boolean[1];
+        SearchExecutor.Task<String> skipped = executor.submit(() -> {
+            ran[0] = true;
+            return "skipped";
+        });
+        SearchExecutor.Task<String> last = executor.submit(() -> "last");
+
+        skipped.cancel();
+        release.countDown();
+        assertEquals("first", first.completion().get(5, TimeUnit.SECONDS));
+        assertEquals("last", last.completion().get(5, TimeUnit.SECONDS));
+        assertFalse(ran[0]);
+        try {
+            skipped.completion().get();
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Tests that an exception thrown by a search completes its future exceptionally.
+     */
+    @Test
+    public void failureCompletesExceptionally() throws Exception {
+        SearchExecutor executor = new SearchExecutor();
+        SearchExecutor.Task<String> task = executor.submit(() -> {
+            throw new IllegalStateException("broken");
+        });
+        try {
+            task.completion().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,110 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchStepper} class.
+ */
+public class SearchStepperTest {
+    private long source = Coord.of(0, 0);
+    private long dest = Coord.of(9, 9);
+
+    /**
+     * Runs BFS, Djikstra's Algorithm, and A* as steppers on randomly walled TileGraphs, taking
+     * turns between them one action at a time. Each stepper has its own workspace, so every one
+     * must produce exactly what the eager version of its algorithm produces, once the graph has
+     * built the component index the eager versions check.
+     */
+    @Test
+    public void interleavedSteppersMatchEagerSearches() {
+        Random random = new Random(2021);
+        for (int trial = 0; trial < 30; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(12, 12, trial % 2 == 0, random);
+            g.connected(0, 0); // steppers only skip searches the built component index rules out
+            SearchStepper[] steppers = {
+                Algorithms.bfsStepper(source, dest, g),
+                Algorithms.djikstraStepper(source, dest, g),
+                Algorithms.aStarStepper(source, dest, g)
+            };
+            List<List<String>> actions = new ArrayList<>();
+            for (int i = 0; i < steppers.length; ++i) {
+                actions.add(new ArrayList<>());
+            }
+
+            boolean any = true;
+            while (any) {
+                any = false;
+                for (int i = 0; i < steppers.length; ++i) {
+                    if (steppers[i].hasNext()) {
+                        actions.get(i).add(steppers[i].next());
+                        any = true;
+                    }
+                }
+            }
+
+            assertEquals(Algorithms.bfs(source, dest, g), actions.get(0));
+            assertEquals(Algorithms.djikstra(source, dest, g), actions.get(1));
+            assertEquals(Algorithms.aStar(source, dest, g), actions.get(2));
+        }
+    }
+
+    /**
+     * Tests that a stepper only searches as far as it is asked to, and that it ends properly.
+     */
+    @Test
+    public void stepsOnDemand() {
+        TileGraph g = new TileGraph(10, 10, false);
+        SearchStepper stepper = Algorithms.djikstraStepper(source, dest, g);
+        String first = stepper.next();
+        assertTrue(first.startsWith("visit"));
+
+        List<String> rest = stepper.drain();
+        assertTrue(rest.get(rest.size() - 1).startsWith("path"));
+        assertFalse(stepper.hasNext());
+        try {
+            stepper.next();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected, the search is over
+        }
+
+        SearchStepper same = Algorithms.bfsStepper(source, source, g);
+        assertEquals("path 0 0", same.next());
+        assertFalse(same.hasNext());
+
+        for (int i = 0; i < 10; ++i) {
+            g.setNodeReachability(i, 3, false);
+        }
+        SearchStepper impossible = Algorithms.aStarStepper(source, dest, new TileGraph(g));
+        g.setNodeReachability(5, 3, true); // the copy being searched doesn't change
+        assertEquals(-1, AlgorithmsTest.pathLength(impossible.drain()), 0);
+    }
+
+    /**
+     * Tests that a stepper between tiles in different components has no steps once the graph has
+     * built its component index, and that without one it searches rather than building it.
+     */
+    @Test
+    public void skipsOnlyKnownDisconnected() {
+        TileGraph g = new TileGraph(10, 10, false);
+        for (int i = 0; i < 10; ++i) {
+            g.setNodeReachability(i, 3, false);
+        }
+        SearchStepper unknown = Algorithms.bfsStepper(source, dest, g.snapshot());
+        assertTrue(unknown.hasNext());
+        assertEquals(-1, AlgorithmsTest.pathLength(unknown.drain()), 0);
+        assertFalse(g.componentsReady());
+
+        assertFalse(g.connected(g.getId(source), g.getId(dest)));
+        SearchStepper known = Algorithms.bfsStepper(source, dest, g.snapshot());
+        assertFalse(known.hasNext());
+        assertTrue(Algorithms.bfs(source, dest, new TileGraph(g)).isEmpty());
+    }
+}
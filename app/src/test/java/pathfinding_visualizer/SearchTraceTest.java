@@ -0,0 +1,101 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchTrace} class.
+ */
+public class SearchTraceTest {
+
+    /**
+     * Tests that steps are packed into words that can be read back without Strings, and that
+     * they turn into the same Strings the algorithms used to return.
+     */
+    @Test
+    public void packAndUnpack() {
+        SearchTrace trace = new SearchTrace(1);
+        trace.addVisit(3, 4);
+        trace.addVisit(SearchTrace.MAX_COORD, 0);
+        trace.beginPath();
+        trace.addPathTile(2, 2);
+        trace.addPathTile(1, 1);
+        trace.addPathTile(0, 0);
+        trace.endPath();
+
+        assertEquals(6, trace.size());
+        assertEquals(SearchTrace.VISIT, SearchTrace.opcode(trace.word(0)));
+        assertEquals(3, SearchTrace.row(trace.word(0)));
+        assertEquals(4, SearchTrace.col(trace.word(0)));
+        assertEquals(SearchTrace.MAX_COORD, SearchTrace.row(trace.word(1)));
+        assertEquals(SearchTrace.PATH, SearchTrace.opcode(trace.word(2)));
+        assertEquals(3, SearchTrace.pathLength(trace.word(2)));
+        assertEquals(6, trace.nextStep(2));
+        assertTrue(trace.hasPath());
+
+        assertEquals(Arrays.asList("visit 3 4", "visit 32767 0", "path 2 2 1 1 0 0"), trace.toActions());
+
+        trace.clear();
+        assertEquals(0, trace.size());
+        assertFalse(trace.hasPath());
+    }
+
+    /**
+     * Tests that coordinates that don't fit and path tiles outside of a path are rejected.
+     */
+    @Test
+    public void invalidSteps() {
+        SearchTrace trace = new SearchTrace();
+        try {
+            trace.addVisit(SearchTrace.MAX_COORD + 1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, row doesn't fit
+        }
+        try {
+            trace.addPathTile(0, 0);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected, no path was begun
+        }
+        try {
+            trace.endPath();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected, no path was begun
+        }
+    }
+
+    /**
+     * Tests that a trace drawn step by step from a stepper holds the same words as the trace of
+     * the whole search.
+     */
+    @Test
+    public void stepsMatchWholeTrace() {
+        Random random = new Random(2021);
+        long source = Coord.of(0, 0);
+        long dest = Coord.of(9, 9);
+        for (int trial = 0; trial < 10; ++trial) {
+            TileGraph g = AlgorithmsTest.randomGraph(10, 10, trial % 2 == 0, random);
+            g.connected(0, 0); // steppers only skip searches the built component index rules out
+            SearchTrace whole = new SearchTrace();
+            Algorithms.djikstraStepper(source, dest, g).drainTo(whole);
+
+            SearchStepper stepper = Algorithms.djikstraStepper(source, dest, g);
+            SearchTrace step = new SearchTrace();
+            int index = 0;
+            while (stepper.step(step)) {
+                for (int i = 0; i < step.size(); ++i) {
+                    assertEquals(whole.word(index++), step.word(i));
+                }
+                step.clear();
+            }
+            assertEquals(whole.size(), index);
+            assertEquals(Algorithms.djikstra(source, dest, g), whole.toActions());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchWorkspace} class.
+ */
+public class SearchWorkspaceTest {
+
+    /**
+     * Tests that reached and settled state is forgotten after a reset.
+     */
+    @Test
+    public void resetForgetsState() {
+        SearchWorkspace ws = new SearchWorkspace();
+        ws.reset(10);
+
+        ws.reach(3, 2.5, 1);
+        ws.reach(4, 1.0, -1);
+        ws.settle(4);
+        ws.heap().push(3, 2.5);
+
+        assertTrue(ws.isReached(3));
+        assertFalse(ws.isSettled(3));
+        assertTrue(ws.isSettled(4));
+        assertEquals(2.5, ws.getDist(3), 0);
+        assertEquals(1, ws.getPrev(3));
+        assertEquals(Double.POSITIVE_INFINITY, ws.getDist(5), 0);
+
+        ws.reset(10);
+        assertFalse(ws.isReached(3));
+        assertFalse(ws.isReached(4));
+        assertFalse(ws.isSettled(4));
+        assertTrue(ws.heap().isEmpty());
+        assertEquals(Double.POSITIVE_INFINITY, ws.getDist(3), 0);
+    }
+
+    /**
+     * Tests that a workspace grows when used on a bigger graph, and that one workspace
+     * reused across searches gives the same results as a fresh one.
+     */
+    @Test
+    public void reuseAcrossSearches() {
+        SearchWorkspace ws = new SearchWorkspace();
+        ws.reset(4);
+        ws.reach(3, 1, -1);
+
+        ws.reset(100);
+        assertFalse(ws.isReached(3));
+        ws.reach(99, 1, -1);
+        assertTrue(ws.isReached(99));
+        assertEquals(100, ws.queue().length);
+
+        long source = Coord.of(0, 0);
+        long dest = Coord.of(7, 7);
+        TileGraph big = new TileGraph(8, 8, true);
+        TileGraph small = new TileGraph(4, 4, false);
+        long smallDest = Coord.of(3, 3);
+
+        assertEquals(Algorithms.aStar(source, dest, big, new SearchWorkspace()),
+                Algorithms.aStar(source, dest, big, ws));
+        assertEquals(Algorithms.bfs(source, smallDest, small, new SearchWorkspace()),
+                Algorithms.bfs(source, smallDest, small, ws));
+        assertEquals(Algorithms.djikstra(source, dest, big, new SearchWorkspace()),
+                Algorithms.djikstra(source, dest, big, ws));
+    }
+}
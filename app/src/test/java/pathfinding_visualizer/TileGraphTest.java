@@ -95,6 +95,227 @@ public class TileGraphTest {
         fileEquality("out.txt", "5x5rem_output.txt");
     }
 
+    @Test
+    public void neighborIds() {
+        TileGraph g = new TileGraph(3, 4, false);
+        int[] out = new int[TileGraph.MAX_NEIGHBORS];
+
+        int center = g.getId(1, 1);
+        assertEquals(5, center);
+        assertEquals(1, g.getRow(center));
+        assertEquals(1, g.getCol(center));
+        assertEquals(4, g.getNeighbors(center, out));
+
+        g.makeEdges(true);
+        assertEquals(8, g.getNeighbors(center, out));
+        assertEquals(TileGraph.SQRT2, g.getWeight(center, out[0]), 0);
+        assertEquals(1, g.getWeight(center, out[1]), 0);
+
+        g.setNodeReachability(0, 1, false);
+        assertFalse(g.isReachable(g.getId(0, 1)));
+        assertEquals(7, g.getNeighbors(center, out));
+        assertEquals(0, g.getNeighbors(g.getId(0, 1), out));
+
+        g.makeEdges(false);
+        assertEquals(3, g.getNeighbors(center, out));
+        assertEquals(g.getId(1, 0), out[0]);
+    }
+
+    @Test
+    public void reachabilityListeners() {
+        TileGraph g = new TileGraph(3, 3, false);
+        int[] changes = new int[2];
+        ReachabilityListener listener = (graph, id, reachable) -> {
+            assertSame(g, graph);
+            changes[0]++;
+            changes[1] = reachable ? id : -id;
+        };
+        g.addReachabilityListener(listener);
+
+        g.setNodeReachability(1, 2, false);
+        assertEquals(1, changes[0]);
+        assertEquals(-5, changes[1]);
+
+        g.setNodeReachability(1, 2, false); // no change, no notification
+        assertEquals(1, changes[0]);
+
+        g.setNodeReachability(1, 2, true);
+        assertEquals(2, changes[0]);
+        assertEquals(5, changes[1]);
+
+        g.removeReachabilityListener(listener);
+        g.setNodeReachability(0, 0, false);
+        assertEquals(2, changes[0]);
+    }
+
+    @Test
+    public void setWallsAtOnce() {
+        TileGraph g = new TileGraph(3, 3, false);
+        g.setNodeReachability(0, 0, false);
+        int[] changes = new int[2];
+        g.addReachabilityListener((graph, id, reachable) -> {
+            changes[0]++;
+            changes[1] += reachable ? 1 : 0;
+        });
+
+        java.util.BitSet walls = new java.util.BitSet();
+        walls.set(4);
+        walls.set(5);
+        walls.set(100); // past the last tile
+        g.setWalls(walls);
+        assertTrue(g.isReachable(0, 0));
+        assertFalse(g.isReachable(1, 1));
+        assertFalse(g.isReachable(1, 2));
+        assertEquals(3, changes[0]); // by default, told about each change
+        assertEquals(1, changes[1]);
+
+        g.setWalls(walls); // no change, no notification
+        assertEquals(3, changes[0]);
+        g.setNodeReachability(2, 2, false);
+        assertEquals(g.toString(), new TileGraph(g).toString());
+    }
+
+    @Test
+    public void setReachabilityAtOnce() {
+        TileGraph g = new TileGraph(3, 3, false);
+        g.setNodeReachability(1, 1, false);
+        java.util.BitSet[] heard = new java.util.BitSet[1];
+        g.addReachabilityListener(new ReachabilityListener() {
+            @Override
+            public void reachabilityChanged(TileGraph graph, int id, boolean reachable) {
+                fail(); // told about a batch in one call
+            }
+
+            @Override
+            public void wallsChanged(TileGraph graph, java.util.BitSet changed) {
+                heard[0] = (java.util.BitSet) changed.clone();
+            }
+        });
+
+        java.util.BitSet ids = new java.util.BitSet();
+        ids.set(3, 6);
+        ids.set(50); // past the last tile
+        g.setReachability(ids, false);
+        assertFalse(g.isReachable(1, 0));
+        assertFalse(g.isReachable(1, 1));
+        assertFalse(g.isReachable(1, 2));
+        assertEquals("{3, 5}", heard[0].toString()); // (1, 1) was already a wall
+
+        heard[0] = null;
+        g.setReachability(ids, false); // no change, no notification
+        assertNull(heard[0]);
+        ids.clear(5);
+        g.setReachability(ids, true);
+        assertEquals("{3, 4}", heard[0].toString());
+        assertTrue(g.isReachable(1, 1));
+        assertFalse(g.isReachable(1, 2));
+    }
+
+    @Test
+    public void snapshotsKeepTheirVersion() {
+        TileGraph g = new TileGraph(200, 200, false);
+        assertEquals(0, g.getVersion());
+        g.setNodeReachability(1, 1, false);
+        g.setNodeReachability(1, 1, false); // no change, same version
+        g.makeEdges(false);
+        assertEquals(1, g.getVersion());
+
+        TileGraph snapshot = g.snapshot();
+        assertTrue(snapshot.isReadOnly());
+        assertEquals(1, snapshot.getVersion());
+        g.setNodeReachability(150, 150, false);
+        g.makeEdges(true);
+        assertEquals(3, g.getVersion());
+        assertTrue(snapshot.isReachable(150, 150));
+        assertFalse(snapshot.isReachable(1, 1));
+        assertFalse(snapshot.diagonalsConnected());
+
+        try {
+            snapshot.setNodeReachability(0, 0, false);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        snapshot.setNodeReachability(0, 0, true); // not a change, so allowed
+        assertEquals(3, new TileGraph(g).getVersion());
+        assertFalse(new TileGraph(snapshot).isReadOnly());
+    }
+
+    /**
+     * Tests that {@code connected} follows the walls of a graph, and that a snapshot keeps giving
+     * the answers of the version it was taken at.
+     */
+    @Test
+    public void connectedFollowsWalls() {
+        TileGraph g = new TileGraph(20, 20, false);
+        int corner = g.getId(19, 19);
+        assertTrue(g.connected(0, corner));
+        TileGraph before = g.snapshot();
+
+        java.util.BitSet wall = new java.util.BitSet();
+        for (int row = 0; row < 20; ++row) {
+            wall.set(g.getId(row, 10));
+        }
+        g.setReachability(wall, false);
+        TileGraph after = g.snapshot();
+        assertFalse(g.connected(0, corner));
+        assertFalse(after.connected(0, corner));
+        assertTrue(before.connected(0, corner));
+        assertFalse(g.connected(0, g.getId(5, 10)));
+
+        g.setNodeReachability(7, 10, true);
+        assertTrue(g.connected(0, corner));
+        assertFalse(after.connected(0, corner));
+    }
+
+    /**
+     * Tests that a component index built on a copy is taken over by the graph only while the graph
+     * is the same version, and that until then nothing is known without building one.
+     */
+    @Test
+    public void adoptsComponentsOfCopy() {
+        TileGraph g = new TileGraph(20, 20, false);
+        for (int row = 0; row < 20; ++row) {
+            g.setNodeReachability(row, 10, false);
+        }
+        int corner = g.getId(19, 19);
+        assertFalse(g.knownDisconnected(0, corner));
+        assertTrue(g.knownDisconnected(0, g.getId(3, 10)));
+
+        TileGraph stale = new TileGraph(g);
+        stale.prepareComponents();
+        g.setNodeReachability(5, 5, false);
+        assertFalse(g.adoptComponents(stale));
+        assertFalse(g.componentsReady());
+
+        TileGraph copy = new TileGraph(g);
+        copy.prepareComponents();
+        assertTrue(g.adoptComponents(copy));
+        assertTrue(g.componentsReady());
+        assertTrue(g.knownDisconnected(0, corner));
+        assertTrue(g.snapshot().knownDisconnected(0, corner));
+
+        g.setNodeReachability(7, 10, true);
+        assertFalse(g.knownDisconnected(0, corner));
+        assertTrue(g.connected(0, corner));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        TileGraph g = new TileGraph(3, 4, true);
+        g.setNodeReachability(1, 1, false);
+        g.addReachabilityListener((graph, id, reachable) -> fail());
+
+        TileGraph copy = new TileGraph(g);
+        assertEquals(g.toString(), copy.toString());
+        assertTrue(copy.diagonalsConnected());
+
+        copy.setNodeReachability(1, 1, true); // listeners of g aren't copied
+        copy.makeEdges(false);
+        assertFalse(g.isReachable(1, 1));
+        assertTrue(g.diagonalsConnected());
+    }
+
     private void fileEquality(String file1, String file2) throws IOException {
         BufferedReader in1 = new BufferedReader(new FileReader(outDir + file1));
         BufferedReader in2 = new BufferedReader(new FileReader(resDir + file2));
@@ -3,7 +3,16 @@ package pathfinding_visualizer;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
 import java.io.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
 
 /**
  * Tests the {@link TileGrid}.
@@ -12,7 +21,7 @@ public class TileGridTest {
 
     private final String outDir = "src/test/java/pathfinding_visualizer/";
     private final String resDir = outDir + "TileGridTestResults/";
-    private SynchronizedQueue<String> sq = new SynchronizedQueue<>();
+    private SynchronizedQueue<Command> sq = new SynchronizedQueue<>();
 
     @Test
     public void makeTileGrid() throws IOException {
@@ -26,10 +35,10 @@ public class TileGridTest {
         writeToOut(new TileGrid(4, 3, sq).toString());
         outTxtEquals("4x4.txt");
 
-        writeToOut(new TileGrid(1000, 5, sq).toString());
+        writeToOut(new TileGrid(5000, 5, sq).toString());
         outTxtEquals("4x4.txt");
 
-        writeToOut(new TileGrid(10, 200, sq).toString());
+        writeToOut(new TileGrid(10, 5000, sq).toString());
         outTxtEquals("4x4.txt");
     }
 
@@ -41,9 +50,9 @@ public class TileGridTest {
         outTxtEquals("7x5.txt");
 
         testMessage(tg, "resize row 3", 50, "7x5.txt");
-        testMessage(tg, "resize row 1000", 50, "7x5.txt");
+        testMessage(tg, "resize row 5000", 50, "7x5.txt");
         testMessage(tg, "resize col 3", 50, "7x5.txt");
-        testMessage(tg, "resize col 1000", 50, "7x5.txt");
+        testMessage(tg, "resize col 5000", 50, "7x5.txt");
 
         testMessage(tg, "resize row 4", 50, "4x5.txt");
         testMessage(tg, "resize col 4", 50, "4x4.txt");
@@ -58,10 +67,10 @@ public class TileGridTest {
 
         testMessage(tg, "search Djikstra 0", 100, "djikstra.txt");
 
-        sq.send("diagonal true");
+        sq.send(Command.parse("diagonal true"));
         testMessage(tg, "search BFS 0", 100, "bfs.txt");
 
-        sq.send("diagonal false");
+        sq.send(Command.parse("diagonal false"));
         testMessage(tg, "search A* 0", 100, "astar.txt");
 
         testMessage(tg, "clear", 50, "10x10.txt");
@@ -87,7 +96,7 @@ public class TileGridTest {
         testMessage(tg, "source col 3", 10, "moved_source.txt");
         testMessage(tg, "source row 4", 10, "moved_source2.txt");
 
-        sq.send("source col 0");
+        sq.send(Command.parse("source col 0"));
         testMessage(tg, "source row 0", 10, "swapped_source.txt");
 
         testMessage(tg, "source col 100", 10, "swapped_source.txt");
@@ -101,8 +110,265 @@ public class TileGridTest {
         testMessage(tg, "destination row -1", 10, "swapped_source.txt");
     }
 
+    @Test
+    public void paintAndHitTest() {
+        TileGrid tg = new TileGrid(10, 10, sq);
+        tg.setSize(105, 105); // 10 pixel tiles, centered with 2 pixels to spare on the left and top
+        drag(tg, 2 + 35, 2 + 99, InputEvent.BUTTON1_DOWN_MASK);
+        drag(tg, 1, 50, InputEvent.BUTTON1_DOWN_MASK); // left of the grid
+        drag(tg, 2 + 5, 2 + 5, InputEvent.BUTTON1_DOWN_MASK); // source isn't painted over
+        assertEquals('w', tg.toString().split("\n")[9].charAt(3));
+        assertEquals(1, tg.toString().chars().filter(c -> c == 'w').count());
+
+        BufferedImage screen = new BufferedImage(105, 105, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.getGraphics();
+        tg.paint(g);
+        g.dispose();
+        assertEquals(Color.BLACK.getRGB(), screen.getRGB(2 + 35, 2 + 95));
+        assertEquals(Color.BLUE.getRGB(), screen.getRGB(2 + 5, 2 + 5));
+        assertEquals(Color.RED.getRGB(), screen.getRGB(2 + 95, 2 + 95));
+        assertEquals(Color.WHITE.getRGB(), screen.getRGB(2 + 45, 2 + 45));
+
+        drag(tg, 2 + 35, 2 + 99, InputEvent.BUTTON3_DOWN_MASK);
+        assertEquals(0, tg.toString().chars().filter(c -> c == 'w').count());
+
+        TileGrid big = new TileGrid(2000, 2000, sq);
+        big.setSize(1000, 1000); // two tiles per pixel
+        drag(big, 250, 500, InputEvent.BUTTON1_DOWN_MASK);
+        String[] lines = big.toString().split("\n");
+        assertEquals(2000, lines.length);
+        assertEquals('w', lines[1000].charAt(500));
+    }
+
+    /**
+     * Tests that the flow field follows painted walls and the destination once it is worked out in
+     * the background, and is drawn over the tiles only while it is shown.
+     */
+    @Test
+    public void flowFieldOverlay() throws Exception {
+        TileGrid tg = new TileGrid(10, 10, sq);
+        tg.setSize(100, 100); // 10 pixel tiles
+        SwingUtilities.invokeAndWait(() -> tg.parseMessages("flowfield true"));
+        awaitFlowField(tg);
+        FlowField field = tg.getFlowField();
+        assertEquals(Coord.of(9, 9), field.getDestCoord());
+        assertEquals(5, field.getDistance(49), 0);
+
+        // a wall across row 5 with a gap at the left makes paths from above go around it
+        SwingUtilities.invokeAndWait(() -> {
+            for (int col = 1; col < 10; ++col) {
+                drag(tg, col * 10 + 5, 55, InputEvent.BUTTON1_DOWN_MASK);
+            }
+            tg.mouseReleased(new MouseEvent(tg, MouseEvent.MOUSE_RELEASED, 0, 0, 95, 55, 1, false));
+        });
+        awaitFlowField(tg);
+        assertSame(field, tg.getFlowField()); // repaired, not made again
+        assertEquals(23, field.getDistance(49), 0);
+
+        BufferedImage screen = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.getGraphics();
+        tg.paint(g);
+        g.dispose();
+        assertNotEquals(Color.WHITE.getRGB(), screen.getRGB(15, 5));
+        assertEquals(Color.BLACK.getRGB(), screen.getRGB(15, 55)); // walls have no distance
+
+        SwingUtilities.invokeAndWait(() -> tg.parseMessages("destination row 0"));
+        awaitFlowField(tg);
+        assertEquals(Coord.of(0, 9), tg.getFlowField().getDestCoord());
+        assertEquals(0, tg.getFlowField().getDistance(9), 0);
+
+        SwingUtilities.invokeAndWait(() -> tg.parseMessages("flowfield false"));
+        assertNull(tg.getFlowField());
+        assertNull(tg.getBackgroundFlowField());
+        screen = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        g = screen.getGraphics();
+        tg.paint(g);
+        g.dispose();
+        assertEquals(Color.WHITE.getRGB(), screen.getRGB(15, 5));
+    }
+
+    /**
+     * Waits for the heat map updates worked out in the background, and the ones they start, to be
+     * drawn on the event dispatch thread.
+     */
+    private static void awaitFlowField(TileGrid tg) throws Exception {
+        AtomicReference<SearchExecutor.Task<?>> running = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> running.set(tg.getBackgroundFlowField()));
+        while (running.get() != null) {
+            running.get().awaitStopped();
+            SwingUtilities.invokeAndWait(() -> running.set(tg.getBackgroundFlowField()));
+        }
+    }
+
+    @Test
+    public void panAndZoom() {
+        TileGrid tg = new TileGrid(10, 10, sq);
+        tg.setSize(100, 100); // 10 pixel tiles
+
+        // zoom in one notch around (0, 0) and the tiles are 12.5 pixels wide
+        tg.mouseWheelMoved(new MouseWheelEvent(tg, MouseEvent.MOUSE_WHEEL, 0, 0, 0, 0, 0, false,
+                MouseWheelEvent.WHEEL_UNIT_SCROLL, 1, -1));
+        drag(tg, 12, 30, InputEvent.BUTTON1_DOWN_MASK);
+        drag(tg, 13, 40, InputEvent.BUTTON1_DOWN_MASK);
+        String[] lines = tg.toString().split("\n");
+        assertEquals('w', lines[2].charAt(0));
+        assertEquals('w', lines[3].charAt(1));
+
+        // pan 25 pixels to the left, two tiles
+        tg.mousePressed(new MouseEvent(tg, MouseEvent.MOUSE_PRESSED, 0, InputEvent.BUTTON2_DOWN_MASK, 50, 50, 1, false));
+        drag(tg, 25, 50, InputEvent.BUTTON2_DOWN_MASK);
+        drag(tg, 13, 40, InputEvent.BUTTON1_DOWN_MASK);
+        assertEquals('w', tg.toString().split("\n")[3].charAt(3));
+
+        // zooming out as far as it goes still draws the whole grid
+        for (int i = 0; i < 50; ++i) {
+            tg.mouseWheelMoved(new MouseWheelEvent(tg, MouseEvent.MOUSE_WHEEL, 0, 0, 50, 50, 0, false,
+                    MouseWheelEvent.WHEEL_UNIT_SCROLL, 1, 1));
+        }
+        BufferedImage screen = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.getGraphics();
+        tg.paint(g);
+        g.dispose();
+        long blue = 0;
+        for (int x = 0; x < 100; ++x) {
+            for (int y = 0; y < 100; ++y) {
+                blue += screen.getRGB(x, y) == Color.BLUE.getRGB() ? 1 : 0;
+            }
+        }
+        assertTrue(blue > 0);
+
+        // a double click with the middle button fits the grid again
+        tg.mouseClicked(new MouseEvent(tg, MouseEvent.MOUSE_CLICKED, 0, 0, 50, 50, 2, false, MouseEvent.BUTTON2));
+        drag(tg, 95, 5, InputEvent.BUTTON1_DOWN_MASK);
+        assertEquals('w', tg.toString().split("\n")[0].charAt(9));
+    }
+
+    @Test
+    public void burstOfCommands() throws InterruptedException {
+        String[] burst = {
+            "resize row 12", "resize col 8", "source col 3", "source row 5", "destination col 0",
+            "destination row 5", "source col 0", "diagonal true", "resize row 9"
+        };
+        TileGrid oneByOne = new TileGrid(10, 10, new SynchronizedQueue<>());
+        TileGrid batched = new TileGrid(10, 10, new SynchronizedQueue<>());
+        CommandBatch batch = new CommandBatch(TileGrid.MIN_SIZE, TileGrid.MAX_SIZE);
+        for (String message : burst) {
+            oneByOne.parseMessages(message);
+            batch.add(Command.parse(message));
+        }
+        batched.apply(batch);
+        assertEquals(oneByOne.toString(), batched.toString());
+        assertEquals('d', batched.toString().split("\n")[5].charAt(3));
+
+        CommandLatency latency = batched.getCommandLatency();
+        assertEquals(burst.length, latency.getCount());
+        assertEquals(1, latency.getNumBatches());
+        assertEquals(1, latency.getNumApplied());
+
+        // commands sent together through a queue take fewer hops than there are commands
+        SynchronizedQueue<Command> queue = new SynchronizedQueue<>();
+        TileGrid listening = new TileGrid(10, 10, queue);
+        for (int i = 0; i < 100; ++i) {
+            queue.send(new Command.Resize(i % 2 == 0 ? Command.Axis.ROW : Command.Axis.COL, 10 + i % 7));
+        }
+        for (int i = 0; i < 100 && listening.getCommandLatency().getCount() < 100; ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(100, listening.getCommandLatency().getCount());
+        assertTrue(listening.getCommandLatency().getNumBatches() < 100);
+    }
+
+    @Test
+    public void searchInBackground() throws Exception {
+        TileGrid tg = new TileGrid(10, 10, new SynchronizedQueue<>());
+        // taken on the event dispatch thread, before the search can finish and let go of it
+        AtomicReference<SearchExecutor.Task<SearchTrace>> started = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            tg.parseMessages("search JPS 0");
+            started.set(tg.getBackgroundSearch());
+        });
+        SearchExecutor.Task<SearchTrace> task = started.get();
+        assertNotNull(task);
+        task.completion().get(5, TimeUnit.SECONDS);
+
+        TileModel expected = new TileModel(10, 10);
+        expected.set(0, 0, TileModel.SOURCE);
+        expected.set(9, 9, TileModel.DEST);
+        PlaybackEngine engine = new PlaybackEngine(expected);
+        engine.play(Algorithms.jpsTrace(Coord.of(0, 0), Coord.of(9, 9), new TileGraph(10, 10, false)).reader(), 0);
+        engine.pause();
+        engine.advance(Integer.MAX_VALUE);
+        for (int i = 0; i < 100 && !expected.toString().equals(tg.toString()); ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected.toString(), tg.toString());
+
+        // clearing cancels a search that is still running, without waiting for it
+        TileGrid big = new TileGrid(2000, 2000, new SynchronizedQueue<>());
+        SwingUtilities.invokeAndWait(() -> big.parseMessages("search Dial 0"));
+        SearchExecutor.Task<SearchTrace> bigTask = big.getBackgroundSearch();
+        SwingUtilities.invokeAndWait(() -> big.parseMessages("clear"));
+        assertNull(big.getBackgroundSearch());
+        bigTask.awaitStopped();
+        assertTrue(bigTask.completion().isCancelled());
+        Thread.sleep(50);
+        assertEquals('c', big.toString().split("\n")[1000].charAt(1000));
+    }
+
+    @Test
+    public void mazeInBackground() throws Exception {
+        TileGrid tg = new TileGrid(300, 400, new SynchronizedQueue<>());
+        AtomicReference<SearchExecutor.Task<java.util.BitSet>> started = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            tg.parseMessages("maze 2021");
+            started.set(tg.getBackgroundMaze());
+        });
+        SearchExecutor.Task<java.util.BitSet> task = started.get();
+        assertNotNull(task);
+        // searches asked for while the maze is being made wait for it
+        SwingUtilities.invokeAndWait(() -> tg.parseMessages("search JPS 0"));
+        task.completion().get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 200 && tg.isRevealingMaze(); ++i) {
+            Thread.sleep(10);
+        }
+        assertFalse(tg.isRevealingMaze());
+
+        TileGraph maze = new TileGraph(300, 400, false);
+        Algorithms.makeMaze(Coord.of(0, 0), Coord.of(299, 399), maze, new java.util.Random(2021));
+        TileModel expected = new TileModel(300, 400);
+        for (int id = 0; id < maze.numNodes(); ++id) {
+            if (!maze.isReachable(id)) {
+                expected.set(id / 400, id % 400, TileModel.WALL);
+            }
+        }
+        expected.set(0, 0, TileModel.SOURCE);
+        expected.set(299, 399, TileModel.DEST);
+        PlaybackEngine engine = new PlaybackEngine(expected);
+        engine.play(Algorithms.jpsTrace(Coord.of(0, 0), Coord.of(299, 399), maze).reader(), 0);
+        engine.pause();
+        engine.advance(Integer.MAX_VALUE);
+        for (int i = 0; i < 200 && !expected.toString().equals(tg.toString()); ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected.toString(), tg.toString());
+
+        // erasing cancels a maze that is still being made
+        TileGrid big = new TileGrid(TileGrid.MAX_SIZE, TileGrid.MAX_SIZE, new SynchronizedQueue<>());
+        SwingUtilities.invokeAndWait(() -> big.parseMessages("maze 1"));
+        SearchExecutor.Task<java.util.BitSet> bigTask = big.getBackgroundMaze();
+        SwingUtilities.invokeAndWait(() -> big.parseMessages("erase"));
+        assertNull(big.getBackgroundMaze());
+        bigTask.awaitStopped();
+        Thread.sleep(50);
+        assertFalse(big.toString().contains("w"));
+    }
+
+    private void drag(TileGrid tg, int x, int y, int buttons) {
+        tg.mouseDragged(new MouseEvent(tg, MouseEvent.MOUSE_DRAGGED, 0, buttons, x, y, 1, false));
+    }
+
     private void testMessage(TileGrid tg, String message, long wait, String file) throws IOException, InterruptedException {
-        sq.send(message);
+        sq.send(Command.parse(message));
         Thread.sleep(wait);
         writeToOut(tg.toString());
         outTxtEquals(file);
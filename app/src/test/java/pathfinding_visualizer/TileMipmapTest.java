@@ -0,0 +1,104 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TileMipmap} class.
+ */
+public class TileMipmapTest {
+    private static final int[] RGB = {0xFFFFFF, 0x000000, 0xFFFF00};
+    /**
+     * Clear, wall, and visited, where visited outranks walls
+     */
+    private static final byte[] RANK = {0, 1, 2};
+
+    /**
+     * Tests that every block holds the state of highest rank among its tiles, after single changes
+     * and after a rebuild, on a grid whose sides aren't powers of two.
+     */
+    @Test
+    public void blocksHoldHighestRank() {
+        Random random = new Random(15);
+        TileMipmap mipmap = new TileMipmap(37, 21, RGB, RANK);
+        assertEquals(7, mipmap.levels());
+        byte[][] expected = new byte[37][21];
+
+        for (int i = 0; i < 2000; ++i) {
+            int row = random.nextInt(37);
+            int col = random.nextInt(21);
+            byte state = (byte) random.nextInt(3);
+            if (i % 3 == 0) {
+                mipmap.setQuietly(row, col, state);
+                mipmap.rebuild();
+            } else {
+                mipmap.set(row, col, state);
+            }
+            expected[row][col] = state;
+            if (i % 100 == 0) {
+                checkLevels(mipmap, expected);
+            }
+        }
+        checkLevels(mipmap, expected);
+    }
+
+    /**
+     * Tests that a grid drawn smaller than its size still shows a lone visited tile, and that a grid
+     * drawn larger shows each tile as a block of pixels.
+     */
+    @Test
+    public void drawLevels() {
+        TileMipmap mipmap = new TileMipmap(1000, 1000, RGB, RANK);
+        mipmap.set(501, 777, (byte) 2);
+        BufferedImage screen = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.getGraphics();
+        mipmap.draw(g, 0, 0, 100, 100);
+        assertEquals(0xFFFF00, screen.getRGB(77, 50) & 0xFFFFFF);
+        assertEquals(0xFFFFFF, screen.getRGB(10, 10) & 0xFFFFFF);
+
+        // zoomed in so that tile (501, 777) covers pixels 10 to 19 of both axes
+        g.setColor(java.awt.Color.RED);
+        g.fillRect(0, 0, 100, 100);
+        mipmap.draw(g, -7760, -5000, 10000, 10000);
+        g.dispose();
+        assertEquals(0xFFFF00, screen.getRGB(10, 10) & 0xFFFFFF);
+        assertEquals(0xFFFF00, screen.getRGB(19, 19) & 0xFFFFFF);
+        assertEquals(0xFFFFFF, screen.getRGB(20, 10) & 0xFFFFFF);
+        assertEquals(0xFFFFFF, screen.getRGB(9, 19) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that a grid without tiles is rejected.
+     */
+    @Test
+    public void invalidSize() {
+        try {
+            new TileMipmap(0, 5, RGB, RANK);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, a grid needs tiles
+        }
+    }
+
+    private static void checkLevels(TileMipmap mipmap, byte[][] expected) {
+        for (int level = 0; level < mipmap.levels(); ++level) {
+            int size = 1 << level;
+            for (int row = 0; row * size < expected.length; ++row) {
+                for (int col = 0; col * size < expected[0].length; ++col) {
+                    byte best = 0;
+                    for (int r = row * size; r < Math.min(expected.length, (row + 1) * size); ++r) {
+                        for (int c = col * size; c < Math.min(expected[0].length, (col + 1) * size); ++c) {
+                            best = RANK[expected[r][c]] > RANK[best] ? expected[r][c] : best;
+                        }
+                    }
+                    assertEquals(best, mipmap.get(level, row, col));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TileModel} class.
+ */
+public class TileModelTest {
+
+    /**
+     * Listener that writes down every call it gets.
+     */
+    private static class Recorder implements TileModelListener {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void tileChanged(TileModel model, int row, int col, byte state) {
+            calls.add("tile " + row + " " + col + " " + state);
+        }
+
+        @Override
+        public void regionChanged(TileModel model, int minRow, int minCol, int maxRow, int maxCol) {
+            calls.add("region " + minRow + " " + minCol + " " + maxRow + " " + maxCol);
+        }
+    }
+
+    /**
+     * Tests that listeners hear about every change, and only about changes.
+     */
+    @Test
+    public void listenersHearChanges() {
+        TileModel model = new TileModel(3, 4);
+        Recorder recorder = new Recorder();
+        model.addListener(recorder);
+
+        model.set(1, 2, TileModel.WALL);
+        model.set(1, 2, TileModel.WALL);
+        model.mark(0, 3, SearchTrace.VISIT);
+        model.mark(2, 0, SearchTrace.PATH);
+        model.repaintTiles(0, 0, 2, 3);
+        model.removeListener(recorder);
+        model.set(0, 0, TileModel.SOURCE);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("tile 1 2 " + TileModel.WALL);
+        expected.add("region 1 2 1 2");
+        expected.add("tile 0 3 " + TileModel.VISIT);
+        expected.add("tile 2 0 " + TileModel.PATH);
+        expected.add("region 0 0 2 3");
+        assertEquals(expected, recorder.calls);
+        assertEquals("sccv \nccwc \npccc \n", model.toString());
+    }
+
+    /**
+     * Tests that clearing a search only looks at tiles that were marked, each once, and leaves every
+     * other tile as it was.
+     */
+    @Test
+    public void clearOnlyTouchesMarkedTiles() {
+        TileModel model = new TileModel(50, 50);
+        model.set(0, 0, TileModel.SOURCE);
+        model.set(49, 49, TileModel.DEST);
+        model.set(10, 10, TileModel.WALL);
+        for (int i = 0; i < 3; ++i) {
+            model.mark(5, 5, SearchTrace.VISIT);
+            model.mark(5, 5, SearchTrace.PATH);
+            model.restore(5, 5, TileModel.CLEAR);
+        }
+        model.mark(20, 30, SearchTrace.VISIT);
+        model.mark(40, 1, SearchTrace.PATH);
+        assertEquals(3, model.numTouched());
+
+        Recorder recorder = new Recorder();
+        model.addListener(recorder);
+        model.clearSearch();
+        assertEquals(0, model.numTouched());
+        assertEquals("region 20 1 40 30", recorder.calls.get(recorder.calls.size() - 1));
+        assertEquals(3, recorder.calls.size());
+
+        assertEquals(TileModel.SOURCE, model.get(0, 0));
+        assertEquals(TileModel.DEST, model.get(49, 49));
+        assertEquals(TileModel.WALL, model.get(10, 10));
+        assertEquals(TileModel.CLEAR, model.get(20, 30));
+        assertEquals(TileModel.CLEAR, model.get(40, 1));
+
+        recorder.calls.clear();
+        model.clearSearch();
+        assertTrue(recorder.calls.isEmpty());
+    }
+
+    /**
+     * Tests that a search can be played onto a model without creating any Swing components, and
+     * that it matches what a TileGrid shows for the same search.
+     */
+    @Test
+    public void playSearchHeadless() throws Exception {
+        TileModel model = new TileModel(10, 10);
+        model.set(0, 0, TileModel.SOURCE);
+        model.set(9, 9, TileModel.DEST);
+        TileGraph graph = new TileGraph(10, 10, false);
+
+        PlaybackEngine engine = new PlaybackEngine(model);
+        engine.play(Algorithms.djikstraStepper(Coord.of(0, 0), Coord.of(9, 9), graph), 0);
+        engine.pause();
+        engine.advance(Integer.MAX_VALUE);
+
+        StringBuilder expected = new StringBuilder();
+        BufferedReader in = new BufferedReader(new FileReader("src/test/java/pathfinding_visualizer/TileGridTestResults/djikstra.txt"));
+        String line;
+        while ((line = in.readLine()) != null) {
+            expected.append(line).append('\n');
+        }
+        in.close();
+        assertEquals(expected.toString(), model.toString());
+    }
+
+    /**
+     * Tests that a grid without tiles is rejected.
+     */
+    @Test
+    public void invalidSize() {
+        try {
+            new TileModel(4, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, a grid needs tiles
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package pathfinding_visualizer;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TraceFile} class.
+ */
+public class TraceFileTest {
+    private long source = Coord.of(0, 0);
+
+    /**
+     * Records searches straight from a stepper and from a whole trace, and checks that reading the
+     * files back gives the same steps.
+     *
+     * @throws IOException a temporary file can't be written or read
+     */
+    @Test
+    public void recordAndReplay() throws IOException {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            Random random = new Random(2021);
+            for (int trial = 0; trial < 10; ++trial) {
+                TileGraph g = AlgorithmsTest.randomGraph(40, 30, trial % 2 == 0, random);
+                long dest = Coord.of(39, 29);
+                SearchTrace expected = new SearchTrace();
+                Algorithms.bfsStepper(source, dest, g).drainTo(expected);
+
+                long steps = TraceFile.record(Algorithms.bfsStepper(source, dest, g), file, 7);
+                TraceFile trace = TraceFile.open(file);
+                assertEquals(steps, trace.numSteps());
+                SearchTrace read = new SearchTrace();
+                trace.cursor(0).step(read);
+                TraceFile.Cursor cursor = trace.cursor(Math.min(1, steps)); // the source may be walled in
+                while (cursor.step(read)) {
+                    // read the rest
+                }
+                assertEquals(expected.toActions(), read.toActions());
+
+                TraceFile.record(expected, file);
+                SearchTrace again = new SearchTrace();
+                TraceFile.open(file).cursor(0).step(again);
+                assertEquals(expected.size() == 0 ? "" : expected.toAction(0), again.size() == 0 ? "" : again.toAction(0));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that seeking to any step, in any order, reads the same step as reading from the start,
+     * and that the file is much smaller than four bytes per step.
+     *
+     * @throws IOException a temporary file can't be written or read
+     */
+    @Test
+    public void seekAnywhere() throws IOException {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            TileGraph g = new TileGraph(60, 60, true);
+            SearchTrace expected = new SearchTrace();
+            Algorithms.djikstraStepper(source, Coord.of(59, 59), g).drainTo(expected);
+            TraceFile.record(expected, file);
+            List<String> actions = expected.toActions();
+            assertTrue(Files.size(file) < 3L * actions.size() + TraceFile.HEADER_BYTES);
+
+            TraceFile trace = TraceFile.open(file);
+            TraceFile.Cursor cursor = trace.cursor(0);
+            Random random = new Random(2021);
+            for (int i = 0; i < 200; ++i) {
+                int step = random.nextInt(actions.size());
+                cursor.seek(step);
+                SearchTrace one = new SearchTrace();
+                assertTrue(cursor.step(one));
+                assertEquals(actions.get(step), one.toAction(0));
+                assertEquals(step + 1, cursor.getStep());
+            }
+
+            cursor.seek(trace.numSteps());
+            assertFalse(cursor.step(new SearchTrace()));
+            try {
+                cursor.seek(trace.numSteps() + 1);
+                fail();
+            } catch (IndexOutOfBoundsException e) {
+                // expected, past the end of the trace
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that empty traces can be recorded and that files that aren't traces are rejected.
+     *
+     * @throws IOException a temporary file can't be written or read
+     */
+    @Test
+    public void emptyAndInvalidFiles() throws IOException {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            assertEquals(0, TraceFile.record(new SearchTrace(), file));
+            assertFalse(TraceFile.open(file).cursor(0).step(new SearchTrace()));
+
+            Files.write(file, new byte[] {1, 2, 3});
+            try {
+                TraceFile.open(file);
+                fail();
+            } catch (IOException e) {
+                // expected, not a trace file
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}